@@ -0,0 +1,27 @@
+-- Publish outbox for publish event actions (delivery mode: outbox)
+-- Entries are written in the same transaction as the node checkpoint and drained by PublishOutboxRelay.
+-- Published entries are deleted; entries that exhaust their attempts stay with status FAILED.
+
+CREATE TABLE IF NOT EXISTS publish_outbox (
+    id VARCHAR(255) PRIMARY KEY,
+    execution_id VARCHAR(255) NOT NULL,
+    node_id VARCHAR(255) NOT NULL,
+    brokers JSONB,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(1024),
+    payload TEXT,
+    headers JSONB,
+    producer_settings JSONB,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    claimed_by VARCHAR(255),
+    claimed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Relay claim query: WHERE status = 'PENDING' AND next_attempt_at <= now ORDER BY next_attempt_at
+CREATE INDEX IF NOT EXISTS idx_publish_outbox_status_next_attempt ON publish_outbox(status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_publish_outbox_execution_id ON publish_outbox(execution_id);
@@ -0,0 +1,20 @@
+-- Trigger ingestion queue for the API trigger batch ingestion endpoint
+-- Entries are inserted by TriggerIngestionService and drained by TriggerIngestionWorker.
+-- Entries are deleted once their executions have started; entries that exhaust their attempts stay with status FAILED.
+
+CREATE TABLE IF NOT EXISTS trigger_ingestion_queue (
+    id VARCHAR(255) PRIMARY KEY,
+    trigger_id VARCHAR(255) NOT NULL,
+    trigger_data JSONB,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    claimed_by VARCHAR(255),
+    claimed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Worker claim query: WHERE status = 'PENDING' AND next_attempt_at <= now ORDER BY next_attempt_at
+CREATE INDEX IF NOT EXISTS idx_trigger_ingestion_status_next_attempt ON trigger_ingestion_queue(status, next_attempt_at);
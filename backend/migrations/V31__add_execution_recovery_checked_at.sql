@@ -0,0 +1,5 @@
+-- Last time stuck execution recovery looked at an execution
+-- ExecutionRecoveryService claims unfinished executions not checked since the lock expiration threshold,
+-- so each one is looked at once per threshold instead of on every run. Does not change updated_at.
+
+ALTER TABLE executions ADD COLUMN IF NOT EXISTS recovery_checked_at TIMESTAMP;
@@ -0,0 +1,6 @@
+-- Resume snapshot of executions checkpointed at a wait
+-- Written by WorkflowExecutor with the WAITING status: execution context and scheduler frontier, so a resume
+-- on any instance continues from the waiting node without replaying the nodes executed before it.
+-- Cleared when the execution resumes; NULL for executions that never waited or were checkpointed before this column.
+
+ALTER TABLE executions ADD COLUMN IF NOT EXISTS resume_snapshot JSONB;
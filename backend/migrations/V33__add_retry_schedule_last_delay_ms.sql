@@ -0,0 +1,5 @@
+-- Delay before the scheduled retry of a retry schedule
+-- Decorrelated jitter derives each retry delay from the previous one; NULL before the first retry,
+-- in which case the strategy starts from the initial delay.
+
+ALTER TABLE retry_schedules ADD COLUMN IF NOT EXISTS last_delay_ms BIGINT;
@@ -1,6 +1,13 @@
 package com.notificationplatform.config;
 
+import com.notificationplatform.engine.TimingWheel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Engine configuration.
@@ -9,7 +16,86 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 public class EngineConfig {
-    // Node executors are now automatically registered via NodeExecutorRegistry
-    // No manual registration needed
-}
 
+    @Value("${app.trigger-dispatch.pool-size:16}")
+    private int dispatchPoolSize;
+
+    @Value("${app.trigger-dispatch.queue-capacity:100}")
+    private int dispatchQueueCapacity;
+
+    @Value("${app.engine.resume.pool-size:8}")
+    private int resumePoolSize;
+
+    @Value("${app.engine.resume.queue-capacity:10000}")
+    private int resumeQueueCapacity;
+
+    @Value("${app.claim.worker-pool-size:8}")
+    private int claimWorkerPoolSize;
+
+    @Value("${app.engine.delay.timing-wheel.tick-ms:10}")
+    private long timingWheelTickMs;
+
+    @Value("${app.engine.delay.timing-wheel.wheel-size:512}")
+    private int timingWheelSize;
+
+    /**
+     * Executor for running the workflows subscribed to a trigger in parallel.
+     * When the queue is full the calling consumer thread runs the execution itself (backpressure).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor triggerDispatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(dispatchPoolSize);
+        executor.setMaxPoolSize(dispatchPoolSize);
+        executor.setQueueCapacity(dispatchQueueCapacity);
+        executor.setThreadNamePrefix("trigger-dispatch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for resuming executions when an in-memory timer fires.
+     * Kept separate from trigger dispatch so a burst of resumes cannot run on the timer thread.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor workflowResumeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(resumePoolSize);
+        executor.setMaxPoolSize(resumePoolSize);
+        executor.setQueueCapacity(resumeQueueCapacity);
+        executor.setThreadNamePrefix("workflow-resume-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Timing wheel for short delays that wait in memory instead of sleeping on an execution thread.
+     */
+    @Bean(destroyMethod = "close")
+    public TimingWheel delayTimingWheel(@Qualifier("workflowResumeExecutor") ThreadPoolTaskExecutor workflowResumeExecutor) {
+        return new TimingWheel("delay-timing-wheel", timingWheelTickMs, timingWheelSize, workflowResumeExecutor);
+    }
+
+    /**
+     * Executor for processing rows claimed by the batch claim runner.
+     * When the queue is full the polling thread processes the item itself (backpressure).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor claimWorkerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(claimWorkerPoolSize);
+        executor.setMaxPoolSize(claimWorkerPoolSize);
+        executor.setQueueCapacity(claimWorkerPoolSize * 4);
+        executor.setThreadNamePrefix("claim-worker-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,8 +1,9 @@
 package com.notificationplatform.controller;
 
-import com.notificationplatform.service.eventaggregation.EventAggregationService;
+import com.notificationplatform.service.eventaggregation.CallbackRoutingService;
 
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,10 +25,10 @@ import lombok.extern.slf4j.Slf4j;
 @RequestMapping("/api")
 public class ApiCallbackController {
 
-    private final EventAggregationService eventAggregationService;
+    private final CallbackRoutingService callbackRoutingService;
 
-    public ApiCallbackController(EventAggregationService eventAggregationService) {
-        this.eventAggregationService = eventAggregationService;
+    public ApiCallbackController(CallbackRoutingService callbackRoutingService) {
+        this.callbackRoutingService = callbackRoutingService;
     }
 
     /**
@@ -103,18 +104,27 @@ public class ApiCallbackController {
             // Prepare response data (excluding IDs from body for cleaner data)
             Map<String, Object> responseData = prepareResponseData(body);
 
-            // Handle API response
-            eventAggregationService.handleApiResponse(executionId, correlationId, responseData);
+            // Handle API response on the instance owning the execution
+            boolean handled = callbackRoutingService.routeApiResponse(executionId, correlationId, responseData);
 
             long processingTime = System.currentTimeMillis() - startTime;
-            log.info("Callback processed successfully: executionId={}, correlationId={}, processingTime={}ms", 
-                       executionId, correlationId, processingTime);
-
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "Callback received and processed");
             response.put("executionId", executionId);
             response.put("correlationId", correlationId);
+            if (!handled) {
+                log.info("Callback forwarded to owning instance: executionId={}, correlationId={}, processingTime={}ms", 
+                           executionId, correlationId, processingTime);
+                response.put("status", "queued");
+                response.put("message", "Callback accepted and queued for the instance owning the execution");
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
+
+            log.info("Callback processed successfully: executionId={}, correlationId={}, processingTime={}ms", 
+                       executionId, correlationId, processingTime);
+
+            response.put("status", "processed");
+            response.put("message", "Callback received and processed");
             return ResponseEntity.ok(response);
 
         } catch (IllegalArgumentException e) {
@@ -163,11 +173,18 @@ public class ApiCallbackController {
             // Prepare response data
             Map<String, Object> responseData = prepareResponseData(body);
 
-            // Handle API response
-            eventAggregationService.handleApiResponse(executionId, correlationId, responseData);
-
+            // Handle API response on the instance owning the execution
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
+            if (!callbackRoutingService.routeApiResponse(executionId, correlationId, responseData)) {
+                log.info("API callback forwarded to owning instance: executionId={}, correlationId={}", 
+                           executionId, correlationId);
+                response.put("status", "queued");
+                response.put("message", "Callback accepted and queued for the instance owning the execution");
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
+
+            response.put("status", "processed");
             response.put("message", "Callback received and processed");
             return ResponseEntity.ok(response);
 
@@ -0,0 +1,93 @@
+package com.notificationplatform.controller;
+
+import com.notificationplatform.dto.response.BatchIngestionResponse;
+import com.notificationplatform.service.trigger.api.ApiTriggerHandler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import lombok.extern.slf4j.Slf4j;
+/**
+ * Batch ingestion endpoint for API triggers.
+ * POST /trigger-batch/{path} accepts many events for the trigger registered at /trigger/{path}
+ * and enqueues them for asynchronous execution.
+ *
+ * Body: a JSON array of events, or newline-delimited JSON (Content-Type: application/x-ndjson).
+ * Content-Encoding: gzip is supported.
+ *
+ * See: @import(features/triggers.md#batch-ingestion)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/trigger-batch")
+public class ApiTriggerBatchController {
+
+    private static final String TRIGGER_PATH_PREFIX = "/trigger";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    private final ApiTriggerHandler apiTriggerHandler;
+
+    public ApiTriggerBatchController(@Qualifier("apiTriggerRequestHandler") ApiTriggerHandler apiTriggerHandler) {
+        this.apiTriggerHandler = apiTriggerHandler;
+    }
+
+    @PostMapping("/**")
+    public ResponseEntity<BatchIngestionResponse> handleBatch(
+            HttpServletRequest request,
+            @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+            @RequestHeader(value = "Content-Encoding", required = false) String contentEncoding,
+            @RequestParam Map<String, String> queryParams) {
+
+        String path = getTriggerPath(request);
+        boolean ndjson = request.getContentType() != null
+                && request.getContentType().toLowerCase().startsWith(NDJSON_CONTENT_TYPE);
+
+        try {
+            InputStream body = request.getInputStream();
+            if (contentEncoding != null && contentEncoding.trim().equalsIgnoreCase("gzip")) {
+                body = new GZIPInputStream(body);
+            }
+
+            BatchIngestionResponse response = apiTriggerHandler.handleBatchRequest(
+                path, "POST", body, ndjson, apiKey, queryParams);
+            HttpStatus status = response.getAccepted() > 0 || response.getRejected() == 0
+                    ? HttpStatus.ACCEPTED : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(response);
+        } catch (RuntimeException e) {
+            log.error("Error handling API trigger batch: path={}", path, e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse(e.getMessage()));
+        } catch (java.util.zip.ZipException e) {
+            log.error("Invalid gzip body for API trigger batch: path={}", path, e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse("Invalid gzip body"));
+        } catch (Exception e) {
+            log.error("Unexpected error handling API trigger batch: path={}", path, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse("Internal server error"));
+        }
+    }
+
+    private BatchIngestionResponse errorResponse(String message) {
+        BatchIngestionResponse errorResponse = new BatchIngestionResponse();
+        errorResponse.setStatus("error");
+        errorResponse.setMessage(message);
+        return errorResponse;
+    }
+
+    /**
+     * Map /trigger-batch/{path} to the trigger endpoint path /trigger/{path}.
+     */
+    private String getTriggerPath(HttpServletRequest request) {
+        String requestURI = request.getRequestURI();
+        // Remove context path if present
+        String contextPath = request.getContextPath();
+        if (contextPath != null && !contextPath.isEmpty() && requestURI.startsWith(contextPath)) {
+            requestURI = requestURI.substring(contextPath.length());
+        }
+        return TRIGGER_PATH_PREFIX + requestURI.substring("/trigger-batch".length());
+    }
+}
@@ -87,6 +87,9 @@ public class ApiTriggerController {
         try {
             TriggerActivationResponse response = apiTriggerHandler.handleRequest(
                 path, method, requestBody, apiKey, queryParams);
+            if ("accepted".equals(response.getStatus())) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             log.error("Error handling API trigger: path={}, method={}", path, method, e);
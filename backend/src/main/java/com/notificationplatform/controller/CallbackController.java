@@ -1,12 +1,13 @@
 package com.notificationplatform.controller;
 
-import com.notificationplatform.service.eventaggregation.EventAggregationService;
+import com.notificationplatform.service.eventaggregation.CallbackRoutingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,10 +19,10 @@ import java.util.Map;
 @Slf4j
 public class CallbackController {
 
-    private final EventAggregationService eventAggregationService;
+    private final CallbackRoutingService callbackRoutingService;
 
-    public CallbackController(EventAggregationService eventAggregationService) {
-        this.eventAggregationService = eventAggregationService;
+    public CallbackController(CallbackRoutingService callbackRoutingService) {
+        this.callbackRoutingService = callbackRoutingService;
     }
 
     @PostMapping("/api/{correlationId}")
@@ -30,6 +31,7 @@ public class CallbackController {
                             "Request body should contain execution_id and correlation_id for validation.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Callback received and processed successfully"),
+            @ApiResponse(responseCode = "202", description = "Callback queued for the instance owning the execution"),
             @ApiResponse(responseCode = "400", description = "Invalid request or missing required fields"),
             @ApiResponse(responseCode = "404", description = "Wait state not found")
     })
@@ -64,8 +66,15 @@ public class CallbackController {
         responseData.remove("correlation_id");
 
         try {
-            // Handle API response via EventAggregationService
-            eventAggregationService.handleApiResponse(executionId, correlationId, responseData);
+            // Handle API response on the instance owning the execution
+            if (!callbackRoutingService.routeApiResponse(executionId, correlationId, responseData)) {
+                log.info("API callback forwarded to owning instance: executionId={}, correlationId={}", 
+                         executionId, correlationId);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                        "status", "queued",
+                        "message", "Callback accepted and queued for the instance owning the execution"
+                ));
+            }
 
             log.info("Successfully processed API callback: executionId={}, correlationId={}", 
                      executionId, correlationId);
@@ -88,6 +97,7 @@ public class CallbackController {
                             "Request body should contain execution_id and correlation_id for validation.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Callback received and processed successfully"),
+            @ApiResponse(responseCode = "202", description = "Callback queued for the instance owning the execution"),
             @ApiResponse(responseCode = "400", description = "Invalid request or missing required fields"),
             @ApiResponse(responseCode = "404", description = "Wait state not found")
     })
@@ -122,16 +132,21 @@ public class CallbackController {
             topic = "default";
         }
 
-        // Extract event data (everything except execution_id, correlation_id, _topic)
+        // Extract event data (execution_id and correlation_id are kept, EventAggregationService matches on them)
         Map<String, Object> eventData = new java.util.HashMap<>(requestBody);
-        eventData.remove("execution_id");
-        eventData.remove("correlation_id");
-        eventData.remove("_topic");
+        eventData.put("correlation_id", correlationId);
         eventData.put("_topic", topic); // Add topic back for EventAggregationService
 
         try {
-            // Handle Kafka event via EventAggregationService
-            eventAggregationService.handleKafkaEvent(topic, eventData);
+            // Handle Kafka event on the instance owning the execution
+            if (!callbackRoutingService.routeKafkaEvent(executionId, topic, eventData)) {
+                log.info("Kafka callback forwarded to owning instance: executionId={}, correlationId={}, topic={}", 
+                         executionId, correlationId, topic);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                        "status", "queued",
+                        "message", "Callback accepted and queued for the instance owning the execution"
+                ));
+            }
 
             log.info("Successfully processed Kafka callback: executionId={}, correlationId={}, topic={}", 
                      executionId, correlationId, topic);
@@ -0,0 +1,111 @@
+package com.notificationplatform.dto.response;
+
+import java.util.List;
+
+public class BatchIngestionResponse {
+
+    private String triggerId;
+    private String status; // accepted, partial, rejected, error
+    private String message;
+    private int accepted;
+    private int rejected;
+    private List<ItemResult> items;
+
+    // Getters and Setters
+    public String getTriggerId() {
+        return triggerId;
+    }
+
+    public void setTriggerId(String triggerId) {
+        this.triggerId = triggerId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<ItemResult> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ItemResult> items) {
+        this.items = items;
+    }
+
+    public static class ItemResult {
+        private int index;
+        private String acceptanceId;
+        private String status; // accepted, rejected
+        private String error;
+
+        public ItemResult() {
+        }
+
+        public ItemResult(int index, String acceptanceId, String status, String error) {
+            this.index = index;
+            this.acceptanceId = acceptanceId;
+            this.status = status;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getAcceptanceId() {
+            return acceptanceId;
+        }
+
+        public void setAcceptanceId(String acceptanceId) {
+            this.acceptanceId = acceptanceId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
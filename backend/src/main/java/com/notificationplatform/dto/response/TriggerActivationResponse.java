@@ -4,6 +4,7 @@ public class TriggerActivationResponse {
 
     private String workflowId;
     private String executionId;
+    private String acceptanceId; // Set instead of executionId when the request is executed asynchronously
     private String status;
     private String message;
 
@@ -24,6 +25,14 @@ public class TriggerActivationResponse {
         this.executionId = executionId;
     }
 
+    public String getAcceptanceId() {
+        return acceptanceId;
+    }
+
+    public void setAcceptanceId(String acceptanceId) {
+        this.acceptanceId = acceptanceId;
+    }
+
     public String getStatus() {
         return status;
     }
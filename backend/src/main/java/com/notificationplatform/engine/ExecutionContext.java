@@ -1,7 +1,12 @@
 package com.notificationplatform.engine;
 
+import com.notificationplatform.entity.PublishOutboxEntry;
+
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Execution context holds data during workflow execution
@@ -18,6 +23,11 @@ public class ExecutionContext {
     // Map to store trigger data temporarily before trigger node execution
     // Key: trigger nodeId, Value: trigger data
     private final Map<String, Map<String, Object>> triggerDataMap;
+    // Asynchronous sends (e.g. Kafka publishes) that must be acknowledged before the next checkpoint.
+    // Not serialized - only meaningful while the context is live in this instance.
+    private final List<CompletableFuture<?>> pendingAcks;
+    // Outbox entries to be written in the same transaction as the current node checkpoint. Not serialized.
+    private final List<PublishOutboxEntry> pendingOutboxEntries;
 
     public ExecutionContext(String executionId, String workflowId) {
         this.executionId = executionId;
@@ -26,6 +36,8 @@ public class ExecutionContext {
         this.nodeOutputs = new HashMap<>();
         this.metadata = new HashMap<>();
         this.triggerDataMap = new HashMap<>();
+        this.pendingAcks = new ArrayList<>();
+        this.pendingOutboxEntries = new ArrayList<>();
     }
 
     // Getters and Setters
@@ -121,6 +133,14 @@ public class ExecutionContext {
         this.waitingNodeId = nodeId;
     }
 
+    /**
+     * Clear the wait state reference once the waiting node has been resumed
+     */
+    public void clearWaitState() {
+        this.waitStateId = null;
+        this.waitingNodeId = null;
+    }
+
     /**
      * Get wait state ID
      */
@@ -149,5 +169,36 @@ public class ExecutionContext {
     public Map<String, Map<String, Object>> getTriggerDataMap() {
         return triggerDataMap;
     }
-}
 
+    /**
+     * Register an asynchronous send the engine must await before persisting the next checkpoint.
+     */
+    public synchronized void addPendingAck(CompletableFuture<?> ack) {
+        this.pendingAcks.add(ack);
+    }
+
+    /**
+     * Remove and return all pending acks registered since the last checkpoint.
+     */
+    public synchronized List<CompletableFuture<?>> drainPendingAcks() {
+        List<CompletableFuture<?>> drained = new ArrayList<>(pendingAcks);
+        pendingAcks.clear();
+        return drained;
+    }
+
+    /**
+     * Register an outbox entry to be persisted with the current node checkpoint.
+     */
+    public synchronized void addOutboxEntry(PublishOutboxEntry entry) {
+        this.pendingOutboxEntries.add(entry);
+    }
+
+    /**
+     * Remove and return all outbox entries registered since the last node checkpoint.
+     */
+    public synchronized List<PublishOutboxEntry> drainOutboxEntries() {
+        List<PublishOutboxEntry> drained = new ArrayList<>(pendingOutboxEntries);
+        pendingOutboxEntries.clear();
+        return drained;
+    }
+}
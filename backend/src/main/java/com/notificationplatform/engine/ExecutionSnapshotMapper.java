@@ -0,0 +1,107 @@
+package com.notificationplatform.engine;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts between the state of a paused execution and the resume snapshot stored on its execution row.
+ *
+ * The snapshot holds the context (variables, node outputs, metadata, trigger data) and the scheduler
+ * frontier (nodes already executed, the waiting node and its node execution), so a resume restores the
+ * execution from one row instead of replaying its node execution history.
+ *
+ * See: @import(features/workflow-execution-state.md#resume-snapshot)
+ */
+@Component
+public class ExecutionSnapshotMapper {
+
+    static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * Snapshot of an execution paused at a node
+     */
+    public Map<String, Object> toSnapshot(ExecutionContext context, Set<String> executedNodes,
+                                          String waitingNodeId, String waitingNodeExecutionId) {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("version", SNAPSHOT_VERSION);
+        snapshot.put("waitingNodeId", waitingNodeId);
+        snapshot.put("waitingNodeExecutionId", waitingNodeExecutionId);
+        snapshot.put("waitStateId", context.getWaitStateId());
+        putState(snapshot, context, executedNodes);
+        return snapshot;
+    }
+
+    /**
+     * Same snapshot with the context and executed nodes as they are now, e.g. after parallel branches
+     * kept running past the wait checkpoint.
+     *
+     * @return null if nothing was executed since the snapshot was taken
+     */
+    public Map<String, Object> refresh(Map<String, Object> snapshot, ExecutionContext context, Set<String> executedNodes) {
+        Object saved = snapshot.get("executedNodes");
+        if (saved instanceof Collection<?> savedNodes && savedNodes.size() == executedNodes.size()) {
+            return null;
+        }
+        Map<String, Object> refreshed = new HashMap<>(snapshot);
+        putState(refreshed, context, executedNodes);
+        return refreshed;
+    }
+
+    /**
+     * Restore a paused execution from its snapshot.
+     *
+     * @return null if the snapshot is missing, of an unknown version or taken at another node
+     */
+    @SuppressWarnings("unchecked")
+    public ParkedExecutionStore.ParkedExecution fromSnapshot(Map<String, Object> snapshot, String nodeId,
+                                                             String executionId, String workflowId,
+                                                             Map<String, Map<String, Object>> nodeMap,
+                                                             Map<String, List<String>> adjacencyList) {
+        if (snapshot == null || !Integer.valueOf(SNAPSHOT_VERSION).equals(snapshot.get("version"))
+                || !nodeId.equals(snapshot.get("waitingNodeId"))) {
+            return null;
+        }
+
+        ExecutionContext context = new ExecutionContext(executionId, workflowId);
+        forEachEntry(snapshot.get("variables"), context::setVariable);
+        forEachEntry(snapshot.get("nodeOutputs"), context::setNodeOutput);
+        forEachEntry(snapshot.get("metadata"), context::setMetadata);
+        forEachEntry(snapshot.get("triggerDataMap"),
+                (triggerNodeId, data) -> context.setTriggerDataForNode(triggerNodeId, (Map<String, Object>) data));
+        String waitStateId = (String) snapshot.get("waitStateId");
+        if (waitStateId != null) {
+            context.setWaitState(waitStateId, nodeId);
+        }
+
+        Set<String> executedNodes = new HashSet<>();
+        if (snapshot.get("executedNodes") instanceof Collection<?> nodes) {
+            nodes.forEach(node -> executedNodes.add(String.valueOf(node)));
+        }
+
+        return new ParkedExecutionStore.ParkedExecution(context, executedNodes, nodeMap, adjacencyList,
+                nodeId, (String) snapshot.get("waitingNodeExecutionId"));
+    }
+
+    private void putState(Map<String, Object> snapshot, ExecutionContext context, Set<String> executedNodes) {
+        // Copies, the context keeps changing while the snapshot waits to be flushed
+        snapshot.put("variables", new HashMap<>(context.getVariables()));
+        snapshot.put("nodeOutputs", new HashMap<>(context.getNodeOutputs()));
+        snapshot.put("metadata", new HashMap<>(context.getMetadata()));
+        snapshot.put("triggerDataMap", new HashMap<>(context.getTriggerDataMap()));
+        snapshot.put("executedNodes", new ArrayList<>(executedNodes));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void forEachEntry(Object value, java.util.function.BiConsumer<String, Object> action) {
+        if (value instanceof Map<?, ?> map) {
+            ((Map<String, Object>) map).forEach(action);
+        }
+    }
+}
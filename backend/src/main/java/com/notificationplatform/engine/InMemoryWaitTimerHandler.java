@@ -0,0 +1,188 @@
+package com.notificationplatform.engine;
+
+import com.notificationplatform.engine.nodes.DelayNodeExecutor;
+import com.notificationplatform.entity.Execution;
+import com.notificationplatform.entity.enums.ExecutionStatus;
+import com.notificationplatform.repository.ExecutionRepository;
+import com.notificationplatform.service.timer.TimerHandler;
+import com.notificationplatform.service.timer.TimerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timers of executions waiting in memory, i.e. short delays and in-process action retries.
+ *
+ * The execution is checkpointed as WAITING with an in-memory wait id and resumed from a {@link TimingWheel}
+ * timer, registered once the checkpoint has committed. Each such wait also gets a durable {@link TimerService}
+ * timer a grace period after it is due, which the wheel cancels when it fires. The durable timer thus only
+ * fires if the instance holding the wait stopped, and resumes the execution from its resume snapshot on
+ * whichever instance claims it.
+ *
+ * See: @import(features/workflow-execution-state.md#short-delays-in-memory)
+ */
+@Slf4j
+@Component
+public class InMemoryWaitTimerHandler implements TimerHandler {
+
+    public static final String TIMER_TYPE = "in-memory-wait";
+
+    /** Resume snapshot entry describing the in-memory wait */
+    static final String SNAPSHOT_KEY = "inMemoryWait";
+
+    private static final String TARGET_SEPARATOR = "|";
+
+    private final TimerService timerService;
+    private final TimingWheel delayTimingWheel;
+    private final ExecutionRepository executionRepository;
+    private final WorkflowExecutor workflowExecutor;
+
+    @Value("${app.engine.in-memory-wait.fallback-grace-ms:30000}")
+    private long fallbackGraceMs;
+
+    public InMemoryWaitTimerHandler(TimerService timerService,
+                                    TimingWheel delayTimingWheel,
+                                    ExecutionRepository executionRepository,
+                                    @Lazy WorkflowExecutor workflowExecutor) {
+        this.timerService = timerService;
+        this.delayTimingWheel = delayTimingWheel;
+        this.executionRepository = executionRepository;
+        this.workflowExecutor = workflowExecutor;
+    }
+
+    /**
+     * Schedule the durable fallback of an in-memory wait. Call while building its wait checkpoint.
+     *
+     * @return Entry to store in the resume snapshot under {@link #SNAPSHOT_KEY}
+     */
+    public Map<String, Object> register(String executionId, String waitStateId, long delayMs) {
+        long fallbackAtMs = System.currentTimeMillis() + delayMs + fallbackGraceMs;
+        timerService.schedule(TIMER_TYPE, executionId + TARGET_SEPARATOR + waitStateId, toDateTime(fallbackAtMs));
+
+        Map<String, Object> wait = new HashMap<>();
+        wait.put("delayMs", delayMs);
+        wait.put("fallbackAtMs", fallbackAtMs);
+        return wait;
+    }
+
+    /**
+     * Start the in-memory timer of a wait whose checkpoint was saved. Inside a transaction it starts after commit,
+     * so the timer never sees the execution before it is WAITING.
+     */
+    public void start(String executionId, String waitStateId, long delayMs) {
+        Runnable schedule = () -> delayTimingWheel.schedule(delayMs, () -> {
+            try {
+                resume(executionId, waitStateId);
+            } catch (Exception e) {
+                // The durable fallback timer is cancelled only once resumed, so it retries
+                log.error("Failed to resume execution from in-memory wait: executionId={}, waitStateId={}",
+                          executionId, waitStateId, e);
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule.run();
+                }
+            });
+        } else {
+            schedule.run();
+        }
+    }
+
+    @Override
+    public String getTimerType() {
+        return TIMER_TYPE;
+    }
+
+    @Override
+    public void onTimer(String targetId) {
+        int separator = targetId.indexOf(TARGET_SEPARATOR);
+        if (separator <= 0) {
+            log.warn("Malformed in-memory wait timer, ignoring: targetId={}", targetId);
+            return;
+        }
+        log.info("In-memory wait not resumed by its instance, resuming from snapshot: targetId={}", targetId);
+        resume(targetId.substring(0, separator), targetId.substring(separator + 1));
+    }
+
+    @Override
+    public Map<String, LocalDateTime> findPendingTimers(LocalDateTime dueBefore) {
+        Map<String, LocalDateTime> timers = new LinkedHashMap<>();
+        for (Execution execution : executionRepository.findWaitingInMemory()) {
+            Long fallbackAtMs = fallbackAtMs(execution);
+            if (fallbackAtMs != null && !toDateTime(fallbackAtMs).isAfter(dueBefore)) {
+                Map<String, Object> snapshot = execution.getResumeSnapshot();
+                timers.put(execution.getId() + TARGET_SEPARATOR + snapshot.get("waitStateId"), toDateTime(fallbackAtMs));
+            }
+        }
+        return timers;
+    }
+
+    /**
+     * Whether an execution waits in memory and its fallback time has passed, e.g. for stuck execution recovery
+     */
+    public boolean isOverdue(Execution execution) {
+        Long fallbackAtMs = fallbackAtMs(execution);
+        return execution.getStatus() == ExecutionStatus.WAITING && fallbackAtMs != null
+                && fallbackAtMs <= System.currentTimeMillis();
+    }
+
+    /**
+     * Resume an execution from its in-memory wait, unless it was resumed already or waits on something else.
+     */
+    public void resume(String executionId, String waitStateId) {
+        Execution execution = executionRepository.findById(executionId).orElse(null);
+        Map<String, Object> snapshot = execution != null ? execution.getResumeSnapshot() : null;
+        if (execution == null || execution.getStatus() != ExecutionStatus.WAITING || snapshot == null
+                || !waitStateId.equals(snapshot.get("waitStateId"))) {
+            log.debug("In-memory wait no longer pending, ignoring: executionId={}, waitStateId={}", executionId, waitStateId);
+            return;
+        }
+
+        String nodeId = (String) snapshot.get("waitingNodeId");
+        long delayMs = ((Number) wait(snapshot).getOrDefault("delayMs", 0L)).longValue();
+        if (waitStateId.startsWith(DelayNodeExecutor.IN_MEMORY_WAIT_PREFIX)) {
+            workflowExecutor.resumeExecution(executionId, nodeId, DelayNodeExecutor.completedOutput(delayMs / 1000));
+            log.info("Delay completed: delayMs={}, executionId={}, nodeId={}", delayMs, executionId, nodeId);
+        } else if (waitStateId.startsWith(WorkflowExecutor.IN_MEMORY_RETRY_PREFIX)) {
+            workflowExecutor.resumeRetry(executionId, nodeId, delayMs);
+        } else {
+            log.warn("Unknown in-memory wait, not resuming: executionId={}, waitStateId={}", executionId, waitStateId);
+            return;
+        }
+
+        // Resumed, the fallback is no longer needed
+        Long fallbackAtMs = fallbackAtMs(execution);
+        if (fallbackAtMs != null) {
+            timerService.cancel(TIMER_TYPE, executionId + TARGET_SEPARATOR + waitStateId, toDateTime(fallbackAtMs));
+        }
+    }
+
+    private static Long fallbackAtMs(Execution execution) {
+        Map<String, Object> snapshot = execution.getResumeSnapshot();
+        Object fallbackAtMs = snapshot != null ? wait(snapshot).get("fallbackAtMs") : null;
+        return fallbackAtMs instanceof Number number ? number.longValue() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> wait(Map<String, Object> snapshot) {
+        Object wait = snapshot.get(SNAPSHOT_KEY);
+        return wait instanceof Map<?, ?> ? (Map<String, Object>) wait : Map.of();
+    }
+
+    private static LocalDateTime toDateTime(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+}
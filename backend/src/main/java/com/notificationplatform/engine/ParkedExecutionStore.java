@@ -0,0 +1,85 @@
+package com.notificationplatform.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Executions this instance paused at a wait checkpoint, kept in memory.
+ *
+ * The instance that ran an execution up to a wait state keeps its context, the nodes it already executed
+ * and the parsed workflow graph, so a callback routed back to it resumes without reloading node executions
+ * and the definition from the database. The store is a bounded LRU; a missing or evicted entry only means
+ * the resume rebuilds that state from the database.
+ *
+ * See: @import(features/distributed-execution-management.md#callback-routing)
+ */
+@Component
+public class ParkedExecutionStore {
+
+    @Value("${app.callback-routing.hot-context-max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, ParkedExecution> parked = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParkedExecution> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Keep the state of an execution that just paused.
+     */
+    public synchronized void park(String executionId, ParkedExecution execution) {
+        if (maxEntries > 0) {
+            parked.put(executionId, execution);
+        }
+    }
+
+    /**
+     * Remove and return the state of an execution paused at the given node.
+     *
+     * @return null if not held here or paused at another node
+     */
+    public synchronized ParkedExecution take(String executionId, String nodeId) {
+        ParkedExecution execution = parked.remove(executionId);
+        if (execution == null || !nodeId.equals(execution.waitingNodeId())) {
+            return null;
+        }
+        return execution;
+    }
+
+    /**
+     * Drop the state of an execution that finished
+     */
+    public synchronized void remove(String executionId) {
+        parked.remove(executionId);
+    }
+
+    public synchronized int size() {
+        return parked.size();
+    }
+
+    /**
+     * State of a paused execution
+     *
+     * @param context Live execution context
+     * @param executedNodes Nodes executed before the wait
+     * @param nodeMap Workflow nodes by ID
+     * @param adjacencyList Workflow edges
+     * @param waitingNodeId Node that is waiting
+     * @param waitingNodeExecutionId Node execution of the waiting node, used to detect that the execution
+     *                               was resumed elsewhere in the meantime
+     */
+    public record ParkedExecution(ExecutionContext context,
+                                  Set<String> executedNodes,
+                                  Map<String, Map<String, Object>> nodeMap,
+                                  Map<String, List<String>> adjacencyList,
+                                  String waitingNodeId,
+                                  String waitingNodeExecutionId) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.notificationplatform.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchical timing wheel for many short in-process timers.
+ *
+ * Level 0 has wheelSize buckets of one tick each; every higher level has wheelSize buckets spanning a
+ * full turn of the level below. A timer is placed on the lowest level that covers its deadline and moves
+ * down a level each time the level below completes a turn, until it expires from a level 0 bucket.
+ * Scheduling and cancelling are O(1) and a pending timer costs one small object; a single ticker thread
+ * does the bookkeeping and hands expired tasks to the given executor.
+ *
+ * Timers fire up to one tick late, never early.
+ */
+@Slf4j
+public class TimingWheel implements AutoCloseable {
+
+    private static final int LEVELS = 3;
+
+    private final long tickNanos;
+    private final int wheelSize;
+    private final Executor executor;
+    private final long maxDelayTicks;
+
+    private final Queue<Timeout> additions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // Ticker thread only
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Timeout>[][] buckets = new ArrayDeque[LEVELS][];
+    private final long[] levelTicks = new long[LEVELS];
+    private volatile long currentTick;
+
+    private final long startNanos;
+    private final Thread ticker;
+    private volatile boolean running = true;
+
+    /**
+     * @param name Ticker thread name
+     * @param tickMs Resolution of the wheel
+     * @param wheelSize Buckets per level
+     * @param executor Runs expired tasks
+     */
+    public TimingWheel(String name, long tickMs, int wheelSize, Executor executor) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.wheelSize = wheelSize;
+        this.executor = executor;
+
+        long span = 1;
+        for (int level = 0; level < LEVELS; level++) {
+            levelTicks[level] = span;
+            buckets[level] = new ArrayDeque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[level][i] = new ArrayDeque<>();
+            }
+            span *= wheelSize;
+        }
+        this.maxDelayTicks = span - 1;
+
+        this.startNanos = System.nanoTime();
+        this.ticker = new Thread(this::run, name);
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Run a task after a delay.
+     *
+     * @throws IllegalArgumentException if the delay exceeds what the wheel can hold
+     */
+    public Timeout schedule(long delayMs, Runnable task) {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(delayMs, 0));
+        long deadlineTick = (deadlineNanos - startNanos + tickNanos - 1) / tickNanos;
+        if (deadlineTick - currentTick > maxDelayTicks) {
+            throw new IllegalArgumentException("Delay too long for timing wheel: " + delayMs + "ms");
+        }
+        Timeout timeout = new Timeout(deadlineTick, task);
+        pending.incrementAndGet();
+        additions.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Timers scheduled and not yet fired or cancelled
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        ticker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            long sleepNanos = nextTickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                }
+                continue;
+            }
+
+            try {
+                currentTick++;
+                addPending();
+                cascade();
+                expire(buckets[0][(int) (currentTick % wheelSize)]);
+            } catch (Exception e) {
+                log.error("Timing wheel tick failed", e);
+            }
+        }
+    }
+
+    private void addPending() {
+        Timeout timeout;
+        while ((timeout = additions.poll()) != null) {
+            place(timeout);
+        }
+    }
+
+    /**
+     * When a level completes a turn, move the next bucket of the level above down.
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if (currentTick % levelTicks[level] == 0) {
+                ArrayDeque<Timeout> bucket = buckets[level][(int) ((currentTick / levelTicks[level]) % wheelSize)];
+                Timeout timeout;
+                while ((timeout = bucket.poll()) != null) {
+                    place(timeout);
+                }
+            }
+        }
+    }
+
+    private void place(Timeout timeout) {
+        if (timeout.cancelled) {
+            return;
+        }
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            fire(timeout);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < levelTicks[level] * wheelSize) {
+                buckets[level][(int) ((timeout.deadlineTick / levelTicks[level]) % wheelSize)].add(timeout);
+                return;
+            }
+        }
+        // Unreachable, schedule() rejects longer delays
+        fire(timeout);
+    }
+
+    private void expire(ArrayDeque<Timeout> bucket) {
+        Timeout timeout;
+        while ((timeout = bucket.poll()) != null) {
+            if (!timeout.cancelled) {
+                fire(timeout);
+            }
+        }
+    }
+
+    private void fire(Timeout timeout) {
+        if (!timeout.claim()) {
+            return;
+        }
+        pending.decrementAndGet();
+        try {
+            executor.execute(timeout.task);
+        } catch (RejectedExecutionException e) {
+            log.error("Timer task rejected by executor, running on ticker thread", e);
+            timeout.task.run();
+        }
+    }
+
+    /**
+     * A scheduled timer
+     */
+    public final class Timeout {
+
+        private final long deadlineTick;
+        private final Runnable task;
+        private volatile boolean cancelled;
+        private boolean done;
+
+        private Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        /**
+         * Cancel the timer.
+         *
+         * @return false if it already fired
+         */
+        public boolean cancel() {
+            synchronized (this) {
+                if (done) {
+                    return false;
+                }
+                done = true;
+                cancelled = true;
+            }
+            pending.decrementAndGet();
+            return true;
+        }
+
+        private synchronized boolean claim() {
+            if (done) {
+                return false;
+            }
+            done = true;
+            return true;
+        }
+    }
+}
@@ -1,19 +1,35 @@
 package com.notificationplatform.engine;
 
+import com.notificationplatform.engine.nodes.DelayNodeExecutor;
 import com.notificationplatform.entity.Execution;
 import com.notificationplatform.entity.NodeExecution;
+import com.notificationplatform.entity.PublishOutboxEntry;
 import com.notificationplatform.entity.Workflow;
 import com.notificationplatform.entity.enums.ExecutionStatus;
 import com.notificationplatform.entity.enums.NodeExecutionStatus;
 import com.notificationplatform.entity.enums.NodeType;
+import com.notificationplatform.exception.ExecutionException;
 import com.notificationplatform.repository.ExecutionRepository;
 import com.notificationplatform.repository.NodeExecutionRepository;
+import com.notificationplatform.repository.PublishOutboxRepository;
+import com.notificationplatform.service.cluster.ExecutionOwnershipService;
+import com.notificationplatform.service.retry.RetryBudget;
+import com.notificationplatform.service.retry.RetryCircuitBreaker;
+import com.notificationplatform.service.retry.RetryDestination;
+import com.notificationplatform.service.retry.RetryScheduleService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Core workflow execution engine
@@ -22,16 +38,57 @@ import java.util.Optional;
 @Component
 public class WorkflowExecutor {
 
+    // Upper bound for awaiting deferred publish acks before a checkpoint is persisted
+    private static final long CHECKPOINT_ACK_TIMEOUT_SECONDS = 30;
+
+    static final String IN_MEMORY_RETRY_PREFIX = "retry:";
+
     private final ExecutionRepository executionRepository;
     private final NodeExecutionRepository nodeExecutionRepository;
     private final NodeExecutorRegistry nodeExecutorRegistry;
+    private final PublishOutboxRepository publishOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ParkedExecutionStore parkedExecutionStore;
+    private final ExecutionOwnershipService executionOwnershipService;
+    private final ExecutionSnapshotMapper executionSnapshotMapper;
+    private final RetryBudget retryBudget;
+    private final RetryCircuitBreaker retryCircuitBreaker;
+    private final RetryScheduleService retryScheduleService;
+    private final InMemoryWaitTimerHandler inMemoryWaitTimerHandler;
+
+    @Value("${app.retry.in-memory.enabled:true}")
+    private boolean inMemoryRetryEnabled;
+
+    @Value("${app.retry.in-memory.max-delay-ms:5000}")
+    private long inMemoryRetryMaxDelayMs;
+
+    // Parsed workflow graphs by workflow ID, replaced when the workflow changes
+    private final Map<String, WorkflowGraph> workflowGraphs = new ConcurrentHashMap<>();
 
     public WorkflowExecutor(ExecutionRepository executionRepository,
                            NodeExecutionRepository nodeExecutionRepository,
-                           NodeExecutorRegistry nodeExecutorRegistry) {
+                           NodeExecutorRegistry nodeExecutorRegistry,
+                           PublishOutboxRepository publishOutboxRepository,
+                           TransactionTemplate transactionTemplate,
+                           ParkedExecutionStore parkedExecutionStore,
+                           ExecutionOwnershipService executionOwnershipService,
+                           ExecutionSnapshotMapper executionSnapshotMapper,
+                           RetryBudget retryBudget,
+                           RetryCircuitBreaker retryCircuitBreaker,
+                           @Lazy RetryScheduleService retryScheduleService,
+                           InMemoryWaitTimerHandler inMemoryWaitTimerHandler) {
         this.executionRepository = executionRepository;
         this.nodeExecutionRepository = nodeExecutionRepository;
         this.nodeExecutorRegistry = nodeExecutorRegistry;
+        this.publishOutboxRepository = publishOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.parkedExecutionStore = parkedExecutionStore;
+        this.executionOwnershipService = executionOwnershipService;
+        this.executionSnapshotMapper = executionSnapshotMapper;
+        this.retryBudget = retryBudget;
+        this.retryCircuitBreaker = retryCircuitBreaker;
+        this.retryScheduleService = retryScheduleService;
+        this.inMemoryWaitTimerHandler = inMemoryWaitTimerHandler;
     }
 
     /**
@@ -43,6 +100,20 @@ public class WorkflowExecutor {
      * @return Execution entity
      */
     public Execution execute(Workflow workflow, Map<String, Object> triggerData, String triggerId) {
+        return execute(workflow, triggerData, triggerId, null);
+    }
+
+    /**
+     * Execute a workflow started by a specific trigger node
+     *
+     * @param workflow Workflow to execute
+     * @param triggerData Data from trigger
+     * @param triggerId Trigger ID that started execution
+     * @param startTriggerNodeId Trigger node that received the data (null to use the first trigger node)
+     * @return Execution entity
+     */
+    public Execution execute(Workflow workflow, Map<String, Object> triggerData, String triggerId,
+                             String startTriggerNodeId) {
         log.info("Starting workflow execution: workflowId={}, triggerId={}", workflow.getId(), triggerId);
 
         // Create execution record
@@ -67,7 +138,7 @@ public class WorkflowExecutor {
             // For now, we'll find the first trigger node and map data to it
             // In the future, trigger services should specify which trigger nodeId to use
             List<Map<String, Object>> nodes = (List<Map<String, Object>>) definition.get("nodes");
-            String triggerNodeId = findTriggerNodeId(nodes);
+            String triggerNodeId = startTriggerNodeId != null ? startTriggerNodeId : findTriggerNodeId(nodes);
             if (triggerNodeId != null) {
                 context.setTriggerDataForNode(triggerNodeId, triggerData != null ? triggerData : new HashMap<>());
             } else {
@@ -95,12 +166,18 @@ public class WorkflowExecutor {
                                                            context, execution, executedNodes);
             }
 
+            // Deferred publishes must be acknowledged before the final checkpoint is persisted
+            awaitPendingAcks(context);
+
             // Update execution status
             // Don't mark as completed if any node is waiting
             if (context.isWaiting()) {
                 log.info("Workflow execution paused (waiting for events): executionId={}, waitingNodeId={}, nodesExecuted={}", 
                            execution.getId(), context.getWaitingNodeId(), nodesExecuted);
                 // Status already set to "waiting" in executeNodeAndDependencies
+                if (refreshResumeSnapshot(execution, context, executedNodes)) {
+                    execution = executionRepository.save(execution);
+                }
             } else {
                 execution.setStatus(ExecutionStatus.COMPLETED);
                 execution.setCompletedAt(LocalDateTime.now());
@@ -110,6 +187,7 @@ public class WorkflowExecutor {
                 execution.setDuration((int) duration);
                 
                 execution = executionRepository.save(execution);
+                releaseOwnership(execution.getId());
 
                 log.info("Workflow execution completed: executionId={}, nodesExecuted={}", 
                            execution.getId(), nodesExecuted);
@@ -125,6 +203,7 @@ public class WorkflowExecutor {
             execution.setDuration((int) duration);
             
             execution = executionRepository.save(execution);
+            releaseOwnership(execution.getId());
         }
 
         return execution;
@@ -194,10 +273,23 @@ public class WorkflowExecutor {
             // Extract node data - support both old and new structures
             Map<String, Object> nodeData = extractNodeData(node);
             
-            NodeExecutionResult result = executor.execute(nodeId, nodeData, context);
+            NodeExecutionResult result;
+            try {
+                result = executor.execute(nodeId, nodeData, context);
+            } catch (Exception e) {
+                // A call that threw still counts once for the destination
+                if (nodeType == NodeType.ACTION) {
+                    recordActionOutcome(nodeData, false, false);
+                }
+                throw e;
+            }
 
             long duration = System.currentTimeMillis() - startTime;
 
+            if (nodeType == NodeType.ACTION) {
+                recordActionOutcome(nodeData, result.isSuccess(), false);
+            }
+
             // Update node execution
             if (result.isSuccess()) {
                 // Check if node is waiting for events
@@ -216,13 +308,19 @@ public class WorkflowExecutor {
                     }
                     
                     nodeExecution.setDuration((int) duration);
-                    nodeExecutionRepository.save(nodeExecution);
+                    
+                    // Short delays wait in memory and are resumed by a timer started after the checkpoint
+                    Long inMemoryDelayMs = null;
+                    if (waitStateId != null && waitStateId.startsWith(DelayNodeExecutor.IN_MEMORY_WAIT_PREFIX)
+                            && output.get("delaySeconds") instanceof Number delaySeconds) {
+                        inMemoryDelayMs = delaySeconds.longValue() * 1000;
+                    }
                     
                     // Don't continue execution - will be resumed when events are received
                     log.info("Node is waiting for events: nodeId={}, executionId={}, waitStateId={}", 
                                nodeId, execution.getId(), waitStateId);
-                    execution.setStatus(ExecutionStatus.WAITING);
-                    executionRepository.save(execution);
+                    checkpointWait(nodeExecution, execution, context, executedNodes, nodeMap, adjacencyList, 
+                                   nodeId, inMemoryDelayMs);
                     return 1;
                 } else {
                     // Node completed normally
@@ -231,12 +329,23 @@ public class WorkflowExecutor {
                     context.setNodeOutput(nodeId, result.getOutput());
                 }
             } else {
+                discardOutboxEntries(context, nodeId);
+                RetryPlan retryPlan = nodeType == NodeType.ACTION ? planRetry(nodeData, 0, null) : null;
+                if (retryPlan != null && retryPlan.inMemory()) {
+                    nodeExecution.setDuration((int) duration);
+                    parkForRetry(nodeExecution, execution, context, executedNodes, nodeMap, adjacencyList,
+                                 nodeId, result.getError(), retryPlan);
+                    return 1;
+                }
                 nodeExecution.setStatus(NodeExecutionStatus.FAILED);
                 nodeExecution.setError(result.getError());
+                if (retryPlan != null) {
+                    spillRetry(nodeExecution, nodeData, retryPlan);
+                }
             }
             nodeExecution.setCompletedAt(LocalDateTime.now());
             nodeExecution.setDuration((int) duration);
-            nodeExecutionRepository.save(nodeExecution);
+            saveNodeCheckpoint(nodeExecution, context);
 
             executedNodes.add(nodeId);
             count = 1;
@@ -255,8 +364,12 @@ public class WorkflowExecutor {
                 }
             }
 
+        } catch (ExecutionException e) {
+            // Checkpoint failures abort the whole execution rather than a single node
+            throw e;
         } catch (Exception e) {
             log.error("Error executing node: nodeId={}", nodeId, e);
+            discardOutboxEntries(context, nodeId);
             createNodeExecution(execution, nodeId, "failed", null, null, e.getMessage());
         }
 
@@ -295,6 +408,12 @@ public class WorkflowExecutor {
             return;
         }
 
+        // Hot path: this instance paused the execution and still holds its state
+        ParkedExecutionStore.ParkedExecution parked = parkedExecutionStore.take(executionId, nodeId);
+        if (parked != null && resumeParkedExecution(execution, nodeId, aggregatedData, parked)) {
+            return;
+        }
+
         // Validate workflow exists
         Workflow workflow = execution.getWorkflow();
         if (workflow == null) {
@@ -334,9 +453,10 @@ public class WorkflowExecutor {
         List<Map<String, Object>> edges = definition.containsKey("edges") ? 
             (List<Map<String, Object>>) definition.get("edges") : new ArrayList<>();
 
-        // Build node graph
-        Map<String, Map<String, Object>> nodeMap = buildNodeMap(nodes);
-        Map<String, List<String>> adjacencyList = buildAdjacencyList(edges);
+        // Node graph, parsed once per workflow revision
+        WorkflowGraph graph = workflowGraph(workflow, nodes, edges);
+        Map<String, Map<String, Object>> nodeMap = graph.nodeMap();
+        Map<String, List<String>> adjacencyList = graph.adjacencyList();
         
         // Validate waiting node exists in workflow definition
         if (!nodeMap.containsKey(nodeId)) {
@@ -349,7 +469,14 @@ public class WorkflowExecutor {
             return;
         }
 
-        // Create execution context with aggregated data
+        // Restore the context and frontier saved at the wait checkpoint
+        ParkedExecutionStore.ParkedExecution snapshot = executionSnapshotMapper.fromSnapshot(
+                execution.getResumeSnapshot(), nodeId, executionId, workflow.getId(), nodeMap, adjacencyList);
+        if (snapshot != null && resumeParkedExecution(execution, nodeId, aggregatedData, snapshot)) {
+            return;
+        }
+
+        // No usable snapshot (paused before snapshots were saved): rebuild from the node execution history
         ExecutionContext context = new ExecutionContext(executionId, workflow.getId());
         
         // Map trigger data to trigger nodeId (if available)
@@ -382,18 +509,7 @@ public class WorkflowExecutor {
             for (com.notificationplatform.entity.NodeExecution nodeExecution : nodeExecutions) {
                 if (nodeId.equals(nodeExecution.getNodeId()) && 
                     (NodeExecutionStatus.WAITING.equals(nodeExecution.getStatus()))) {
-                    nodeExecution.setStatus(NodeExecutionStatus.COMPLETED);
-                    nodeExecution.setOutputData(aggregatedData);
-                    nodeExecution.setCompletedAt(LocalDateTime.now());
-                    
-                    // Calculate duration from start to completion
-                    long nodeDuration = java.time.Duration.between(
-                        nodeExecution.getStartedAt(), 
-                        LocalDateTime.now()
-                    ).toMillis();
-                    nodeExecution.setDuration((int) nodeDuration);
-                    
-                    nodeExecutionRepository.save(nodeExecution);
+                    completeWaitingNodeExecution(nodeExecution, aggregatedData);
                     context.setNodeOutput(nodeId, aggregatedData);
                     nodeExecutionUpdated = true;
                     log.info("Node execution updated from waiting to completed: executionId={}, nodeId={}", 
@@ -412,7 +528,8 @@ public class WorkflowExecutor {
             // Get executed nodes from existing node executions and restore context
             Set<String> executedNodes = new HashSet<>();
             for (com.notificationplatform.entity.NodeExecution nodeExecution : nodeExecutions) {
-                if ("completed".equals(nodeExecution.getStatus()) || "failed".equals(nodeExecution.getStatus())) {
+                if (nodeExecution.getStatus() == NodeExecutionStatus.COMPLETED
+                        || nodeExecution.getStatus() == NodeExecutionStatus.FAILED) {
                     executedNodes.add(nodeExecution.getNodeId());
                     // Restore node outputs to context
                     if (nodeExecution.getOutputData() != null) {
@@ -421,60 +538,536 @@ public class WorkflowExecutor {
                 }
             }
 
-            // Continue execution from next nodes (not from the waiting node itself)
-            int nodesExecuted = execution.getNodesExecuted() != null ? execution.getNodesExecuted() : 0;
-            
-            // Get next nodes from adjacency list
-            List<String> nextNodes = adjacencyList.getOrDefault(nodeId, new ArrayList<>());
-            for (String nextNodeId : nextNodes) {
-                nodesExecuted += executeNodeAndDependencies(nextNodeId, nodeMap, adjacencyList, 
-                                                           context, execution, executedNodes);
-                
-                // Check if execution is waiting again (nested wait states)
-                if (execution.getStatus() == ExecutionStatus.WAITING) {
-                    log.info("Workflow execution paused again (nested wait): executionId={}, nodesExecuted={}", 
-                               executionId, nodesExecuted);
-                    execution.setNodesExecuted(nodesExecuted);
-                    execution = executionRepository.save(execution);
-                    return;
-                }
-            }
+            continueFromWaitingNode(execution, nodeId, nodeMap, adjacencyList, context, executedNodes);
+        } catch (Exception e) {
+            handleResumeFailure(execution, nodeId, e);
+        }
+    }
 
-            // Update execution status - check if still waiting
-            if (!context.isWaiting()) {
-                execution.setStatus(ExecutionStatus.COMPLETED);
-                execution.setCompletedAt(LocalDateTime.now());
-                execution.setNodesExecuted(nodesExecuted);
-                
-                long duration = java.time.Duration.between(execution.getStartedAt(), execution.getCompletedAt()).toMillis();
-                execution.setDuration((int) duration);
-                
-                execution = executionRepository.save(execution);
+    /**
+     * Resume an execution from its saved state: kept in memory by the instance that paused it, or restored
+     * from the resume snapshot. Only the waiting node execution is read back, to check that nobody resumed
+     * the execution meanwhile.
+     *
+     * @return false if the saved state is stale and the execution must be rebuilt from its history
+     */
+    private boolean resumeParkedExecution(Execution execution, String nodeId, Map<String, Object> aggregatedData,
+                                          ParkedExecutionStore.ParkedExecution parked) {
+        NodeExecution waitingNodeExecution = nodeExecutionRepository.findById(parked.waitingNodeExecutionId())
+                .filter(nodeExecution -> nodeExecution.getStatus() == NodeExecutionStatus.WAITING)
+                .orElse(null);
+        if (waitingNodeExecution == null) {
+            log.debug("Saved execution state is stale: executionId={}, nodeId={}", 
+                     execution.getId(), nodeId);
+            return false;
+        }
+
+        log.info("Resuming workflow execution from saved state: executionId={}, nodeId={}", 
+                   execution.getId(), nodeId);
 
-                log.info("Workflow execution resumed and completed: executionId={}, nodesExecuted={}", 
+        ExecutionContext context = parked.context();
+        context.clearWaitState();
+        if (aggregatedData != null) {
+            aggregatedData.forEach(context::setVariable);
+        }
+
+        execution.setStatus(ExecutionStatus.RUNNING);
+        execution = executionRepository.save(execution);
+
+        try {
+            completeWaitingNodeExecution(waitingNodeExecution, aggregatedData);
+            context.setNodeOutput(nodeId, aggregatedData);
+            continueFromWaitingNode(execution, nodeId, parked.nodeMap(), parked.adjacencyList(), 
+                                   context, parked.executedNodes());
+        } catch (Exception e) {
+            handleResumeFailure(execution, nodeId, e);
+        }
+        return true;
+    }
+
+    /**
+     * Run the nodes after a resumed waiting node until the execution completes or waits again.
+     */
+    private void continueFromWaitingNode(Execution execution, String nodeId,
+                                         Map<String, Map<String, Object>> nodeMap,
+                                         Map<String, List<String>> adjacencyList,
+                                         ExecutionContext context, Set<String> executedNodes) {
+        // Continue execution from next nodes (not from the waiting node itself)
+        continueWithNodes(execution, adjacencyList.getOrDefault(nodeId, new ArrayList<>()), nodeMap, 
+                          adjacencyList, context, executedNodes);
+    }
+
+    /**
+     * Run the given nodes of a resumed execution, then complete it or checkpoint it if it waits again.
+     */
+    private void continueWithNodes(Execution execution, List<String> nextNodes,
+                                   Map<String, Map<String, Object>> nodeMap,
+                                   Map<String, List<String>> adjacencyList,
+                                   ExecutionContext context, Set<String> executedNodes) {
+        String executionId = execution.getId();
+        int nodesExecuted = execution.getNodesExecuted() != null ? execution.getNodesExecuted() : 0;
+        
+        for (String nextNodeId : nextNodes) {
+            nodesExecuted += executeNodeAndDependencies(nextNodeId, nodeMap, adjacencyList, 
+                                                       context, execution, executedNodes);
+            
+            // Check if execution is waiting again (nested wait states)
+            if (execution.getStatus() == ExecutionStatus.WAITING) {
+                log.info("Workflow execution paused again (nested wait): executionId={}, nodesExecuted={}", 
                            executionId, nodesExecuted);
-            } else {
-                // Still waiting (nested wait states)
-                log.info("Workflow execution still waiting after resume: executionId={}, waitingNodeId={}, nodesExecuted={}", 
-                           executionId, context.getWaitingNodeId(), nodesExecuted);
                 execution.setNodesExecuted(nodesExecuted);
+                refreshResumeSnapshot(execution, context, executedNodes);
                 execution = executionRepository.save(execution);
+                return;
             }
+        }
+
+        // Deferred publishes must be acknowledged before the final checkpoint is persisted
+        awaitPendingAcks(context);
+
+        // Update execution status - check if still waiting
+        if (!context.isWaiting()) {
+            execution.setStatus(ExecutionStatus.COMPLETED);
+            execution.setCompletedAt(LocalDateTime.now());
+            execution.setNodesExecuted(nodesExecuted);
+            
+            long duration = java.time.Duration.between(execution.getStartedAt(), execution.getCompletedAt()).toMillis();
+            execution.setDuration((int) duration);
+            
+            execution.setResumeSnapshot(null);
+            execution = executionRepository.save(execution);
+            releaseOwnership(executionId);
+
+            log.info("Workflow execution resumed and completed: executionId={}, nodesExecuted={}", 
+                       executionId, nodesExecuted);
+        } else {
+            // Still waiting (nested wait states)
+            log.info("Workflow execution still waiting after resume: executionId={}, waitingNodeId={}, nodesExecuted={}", 
+                       executionId, context.getWaitingNodeId(), nodesExecuted);
+            execution.setNodesExecuted(nodesExecuted);
+            refreshResumeSnapshot(execution, context, executedNodes);
+            execution = executionRepository.save(execution);
+        }
+    }
+
+    private void completeWaitingNodeExecution(NodeExecution nodeExecution, Map<String, Object> aggregatedData) {
+        nodeExecution.setStatus(NodeExecutionStatus.COMPLETED);
+        nodeExecution.setOutputData(aggregatedData);
+        nodeExecution.setCompletedAt(LocalDateTime.now());
+        
+        // Calculate duration from start to completion
+        long nodeDuration = java.time.Duration.between(
+            nodeExecution.getStartedAt(), 
+            LocalDateTime.now()
+        ).toMillis();
+        nodeExecution.setDuration((int) nodeDuration);
+        
+        nodeExecutionRepository.save(nodeExecution);
+    }
 
-        } catch (org.springframework.dao.OptimisticLockingFailureException e) {
+    private void handleResumeFailure(Execution execution, String nodeId, Exception e) {
+        if (e instanceof org.springframework.dao.OptimisticLockingFailureException) {
             // Another instance may have already resumed this execution
             log.warn("Optimistic locking failure during resume (another instance may have resumed): " +
-                       "executionId={}, nodeId={}", executionId, nodeId, e);
+                       "executionId={}, nodeId={}", execution.getId(), nodeId, e);
             // Don't update execution status - another instance handled it
             // This is expected in multi-instance deployments
+            return;
+        }
+        String errorMsg = String.format("Error resuming workflow execution: executionId=%s, nodeId=%s, error=%s", 
+                                      execution.getId(), nodeId, e.getMessage());
+        log.error(errorMsg, e);
+        execution.setStatus(ExecutionStatus.FAILED);
+        execution.setCompletedAt(LocalDateTime.now());
+        execution.setError(errorMsg);
+        executionRepository.save(execution);
+        releaseOwnership(execution.getId());
+    }
+
+    /**
+     * Action calls fill the retry budget of their destination and feed its circuit breaker
+     *
+     * @param retry Whether the call was a retry, which spends the budget instead of filling it
+     */
+    private void recordActionOutcome(Map<String, Object> nodeData, boolean success, boolean retry) {
+        String destination = RetryDestination.of(nodeData);
+        if (retry) {
+            retryScheduleService.recordRetryMetric(destination, success ? "success" : "failure");
+        } else {
+            retryBudget.recordRequest(destination);
+        }
+        if (success) {
+            retryCircuitBreaker.recordSuccess(destination);
+        } else {
+            retryCircuitBreaker.recordFailure(destination);
+        }
+    }
+
+    /**
+     * Next retry of a failed action node per its retry config. Retries whose backoff is below the
+     * in-memory threshold, and that the destination's budget and circuit breaker admit, run in process.
+     *
+     * @param attemptsMade Retries already made
+     * @param lastDelayMs Backoff before the last retry made, null if none
+     * @return null if the node has no retry config or no attempt left
+     */
+    private RetryPlan planRetry(Map<String, Object> nodeData, int attemptsMade, Long lastDelayMs) {
+        Map<String, Object> retryConfig = retryConfigOf(nodeData);
+        if (retryConfig == null) {
+            return null;
+        }
+        long delayMs = retryScheduleService.nextRetryDelayMs(retryConfig, attemptsMade, lastDelayMs);
+        if (delayMs < 0) {
+            return null;
+        }
+        String destination = RetryDestination.of(nodeData);
+        boolean inMemory = inMemoryRetryEnabled && delayMs < inMemoryRetryMaxDelayMs && admitRetry(destination);
+        return new RetryPlan(retryConfig, destination, attemptsMade, delayMs, inMemory);
+    }
+
+    private boolean admitRetry(String destination) {
+        if (!retryBudget.tryAcquire(destination)) {
+            return false;
+        }
+        if (!retryCircuitBreaker.allowRetry(destination)) {
+            retryBudget.refund(destination);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Retry config of a node: {@code retry} in the node data or its {@code config}, if enabled
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> retryConfigOf(Map<String, Object> nodeData) {
+        Object retry = nodeData.get("retry");
+        if (retry == null && nodeData.get("config") instanceof Map<?, ?> config) {
+            retry = config.get("retry");
+        }
+        if (!(retry instanceof Map<?, ?>)) {
+            return null;
+        }
+        Map<String, Object> retryConfig = (Map<String, Object>) retry;
+        Object enabled = retryConfig.get("enabled");
+        boolean retryEnabled = enabled instanceof Boolean ? (Boolean) enabled : retryConfig.containsKey("maxAttempts");
+        return retryEnabled ? retryConfig : null;
+    }
+
+    /**
+     * Pause the execution at a failed action node and retry it from an in-memory timer with the live context,
+     * without a retry schedule row. Like in-memory delays, the wait has a durable fallback timer, so a restart
+     * delays the retry instead of losing it.
+     */
+    private void parkForRetry(NodeExecution nodeExecution, Execution execution, ExecutionContext context,
+                              Set<String> executedNodes, Map<String, Map<String, Object>> nodeMap,
+                              Map<String, List<String>> adjacencyList, String nodeId, String error,
+                              RetryPlan retryPlan) {
+        nodeExecution.setStatus(NodeExecutionStatus.WAITING);
+        nodeExecution.setError(error);
+        nodeExecution.setRetryCount(retryPlan.attemptsMade());
+        context.setWaitState(IN_MEMORY_RETRY_PREFIX + UUID.randomUUID(), nodeId);
+        checkpointWait(nodeExecution, execution, context, executedNodes, nodeMap, adjacencyList, nodeId,
+                       retryPlan.delayMs());
+        retryScheduleService.recordRetryMetric(retryPlan.destination(), "in_memory");
+
+        log.info("Action retry scheduled in memory: executionId={}, nodeId={}, attempt={}, delayMs={}", 
+                   execution.getId(), nodeId, retryPlan.attemptsMade() + 1, retryPlan.delayMs());
+    }
+
+    /**
+     * Hand a failed action node over to a durable retry schedule
+     */
+    private void spillRetry(NodeExecution nodeExecution, Map<String, Object> nodeData, RetryPlan retryPlan) {
+        // The durable retry re-runs the node from its stored type and config
+        nodeExecution.setNodeType(NodeType.ACTION.name().toLowerCase());
+        nodeExecution.setNodeConfig(nodeData);
+        nodeExecution.setRetryCount(retryPlan.attemptsMade());
+        retryScheduleService.createRetryScheduleForNode(nodeExecution, retryPlan.retryConfig(), 
+                                                        retryPlan.attemptsMade(), retryPlan.delayMs());
+        retryScheduleService.recordRetryMetric(retryPlan.destination(), "spilled");
+    }
+
+    /**
+     * Run the due in-memory retry of an action node, called by {@link InMemoryWaitTimerHandler}. Only taking
+     * over the waiting state is transactional; the action call and the nodes after it checkpoint in their own
+     * short transactions, as in a first run.
+     *
+     * @param lastDelayMs Backoff before this retry, basis of the next one
+     */
+    public void resumeRetry(String executionId, String nodeId, long lastDelayMs) {
+        PendingRetry retry = transactionTemplate.execute(status -> {
+            Execution execution = executionRepository.findById(executionId).orElse(null);
+            if (execution == null || execution.getStatus() != ExecutionStatus.WAITING) {
+                log.warn("Execution not waiting when retry was due, not retrying: executionId={}, nodeId={}, status={}",
+                         executionId, nodeId, execution != null ? execution.getStatus() : null);
+                return null;
+            }
+
+            ParkedExecutionStore.ParkedExecution parked = loadParkedExecution(execution, nodeId);
+            NodeExecution nodeExecution = parked == null ? null : nodeExecutionRepository
+                    .findById(parked.waitingNodeExecutionId())
+                    .filter(waiting -> waiting.getStatus() == NodeExecutionStatus.WAITING)
+                    .orElse(null);
+            if (nodeExecution == null) {
+                log.warn("No waiting state for retry, not retrying: executionId={}, nodeId={}", executionId, nodeId);
+                return null;
+            }
+
+            execution.setStatus(ExecutionStatus.RUNNING);
+            return new PendingRetry(executionRepository.save(execution), nodeExecution, parked);
+        });
+        if (retry != null) {
+            runRetry(retry.execution(), retry.nodeExecution(), retry.parked(),
+                     retry.nodeExecution().getRetryCount() + 1, lastDelayMs);
+        }
+    }
+
+    private void runRetry(Execution execution, NodeExecution nodeExecution,
+                          ParkedExecutionStore.ParkedExecution parked, int attempt, long lastDelayMs) {
+        String nodeId = parked.waitingNodeId();
+        ExecutionContext context = parked.context();
+        context.clearWaitState();
+
+        try {
+            Map<String, Object> nodeData = extractNodeData(parked.nodeMap().get(nodeId));
+            nodeExecution.setStatus(NodeExecutionStatus.RUNNING);
+            nodeExecution.setRetryCount(attempt);
+
+            NodeExecutionResult result;
+            try {
+                result = nodeExecutorRegistry.getExecutor(NodeType.ACTION).execute(nodeId, nodeData, context);
+            } catch (Exception e) {
+                result = new NodeExecutionResult(false, null);
+                result.setError(e.getMessage());
+            }
+            recordActionOutcome(nodeData, result.isSuccess(), true);
+
+            List<String> nextNodes;
+            if (result.isSuccess()) {
+                nodeExecution.setStatus(NodeExecutionStatus.COMPLETED);
+                nodeExecution.setOutputData(result.getOutput());
+                nodeExecution.setError(null);
+                context.setNodeOutput(nodeId, result.getOutput());
+                nextNodes = parked.adjacencyList().getOrDefault(nodeId, new ArrayList<>());
+                log.info("Action retry succeeded: executionId={}, nodeId={}, attempt={}", 
+                           execution.getId(), nodeId, attempt);
+            } else {
+                discardOutboxEntries(context, nodeId);
+                RetryPlan retryPlan = planRetry(nodeData, attempt, lastDelayMs);
+                if (retryPlan != null && retryPlan.inMemory()) {
+                    parkForRetry(nodeExecution, execution, context, parked.executedNodes(), parked.nodeMap(),
+                                 parked.adjacencyList(), nodeId, result.getError(), retryPlan);
+                    return;
+                }
+                nodeExecution.setStatus(NodeExecutionStatus.FAILED);
+                nodeExecution.setError(result.getError());
+                if (retryPlan != null) {
+                    spillRetry(nodeExecution, nodeData, retryPlan);
+                }
+                // Failed nodes end their branch, as in the first run
+                nextNodes = new ArrayList<>();
+            }
+            nodeExecution.setCompletedAt(LocalDateTime.now());
+            nodeExecution.setDuration((int) java.time.Duration.between(
+                    nodeExecution.getStartedAt(), nodeExecution.getCompletedAt()).toMillis());
+            saveNodeCheckpoint(nodeExecution, context);
+            parked.executedNodes().add(nodeId);
+
+            continueWithNodes(execution, nextNodes, parked.nodeMap(), parked.adjacencyList(), 
+                              context, parked.executedNodes());
         } catch (Exception e) {
-            String errorMsg = String.format("Error resuming workflow execution: executionId=%s, nodeId=%s, error=%s", 
-                                          executionId, nodeId, e.getMessage());
-            log.error(errorMsg, e);
-            execution.setStatus(ExecutionStatus.FAILED);
-            execution.setCompletedAt(LocalDateTime.now());
-            execution.setError(errorMsg);
-            execution = executionRepository.save(execution);
+            handleResumeFailure(execution, nodeId, e);
+        }
+    }
+
+    /**
+     * State of an execution paused at a node: kept in memory here, or restored from its resume snapshot
+     */
+    @SuppressWarnings("unchecked")
+    private ParkedExecutionStore.ParkedExecution loadParkedExecution(Execution execution, String nodeId) {
+        ParkedExecutionStore.ParkedExecution parked = parkedExecutionStore.take(execution.getId(), nodeId);
+        if (parked != null) {
+            return parked;
+        }
+        Workflow workflow = execution.getWorkflow();
+        Map<String, Object> definition = workflow != null ? (Map<String, Object>) workflow.getDefinition() : null;
+        if (definition == null || !(definition.get("nodes") instanceof List<?>)) {
+            return null;
+        }
+        List<Map<String, Object>> edges = definition.containsKey("edges") ? 
+            (List<Map<String, Object>>) definition.get("edges") : new ArrayList<>();
+        WorkflowGraph graph = workflowGraph(workflow, (List<Map<String, Object>>) definition.get("nodes"), edges);
+        return executionSnapshotMapper.fromSnapshot(execution.getResumeSnapshot(), nodeId, execution.getId(),
+                workflow.getId(), graph.nodeMap(), graph.adjacencyList());
+    }
+
+    /**
+     * Next retry of a failed action node
+     *
+     * @param inMemory Whether it runs from the timing wheel rather than a retry schedule
+     */
+    private record RetryPlan(Map<String, Object> retryConfig,
+                             String destination,
+                             int attemptsMade,
+                             long delayMs,
+                             boolean inMemory) {
+    }
+
+    /**
+     * Waiting action node taken over for an in-memory retry
+     */
+    private record PendingRetry(Execution execution,
+                                NodeExecution nodeExecution,
+                                ParkedExecutionStore.ParkedExecution parked) {
+    }
+
+    private void releaseOwnership(String executionId) {
+        parkedExecutionStore.remove(executionId);
+        executionOwnershipService.release(executionId);
+    }
+
+    /**
+     * Persist node checkpoint together with any outbox entries the node produced.
+     * Both are written in one transaction so a publish intent exists if and only if the checkpoint does.
+     */
+    private void saveNodeCheckpoint(NodeExecution nodeExecution, ExecutionContext context) {
+        List<PublishOutboxEntry> outboxEntries = context.drainOutboxEntries();
+        if (outboxEntries.isEmpty()) {
+            nodeExecutionRepository.save(nodeExecution);
+            return;
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            nodeExecutionRepository.save(nodeExecution);
+            publishOutboxRepository.saveAll(outboxEntries);
+        });
+        log.debug("Node checkpoint persisted with {} outbox entries: executionId={}, nodeId={}", 
+                 outboxEntries.size(), context.getExecutionId(), nodeExecution.getNodeId());
+    }
+
+    /**
+     * Drop the outbox entries of a node that failed, so its publishes are not committed with the next checkpoint.
+     */
+    private void discardOutboxEntries(ExecutionContext context, String nodeId) {
+        List<PublishOutboxEntry> discarded = context.drainOutboxEntries();
+        if (!discarded.isEmpty()) {
+            log.debug("Discarded {} outbox entries of failed node: executionId={}, nodeId={}", 
+                     discarded.size(), context.getExecutionId(), nodeId);
+        }
+    }
+
+    /**
+     * Pause the execution at a node: persist the wait checkpoint and keep the live state for the resume.
+     *
+     * @param inMemoryDelayMs Delay after which the execution resumes from an in-memory timer, null if it waits
+     *                        for something durable
+     */
+    private void checkpointWait(NodeExecution nodeExecution, Execution execution, ExecutionContext context,
+                                Set<String> executedNodes, Map<String, Map<String, Object>> nodeMap,
+                                Map<String, List<String>> adjacencyList, String nodeId, Long inMemoryDelayMs) {
+        // Deferred publishes must be acknowledged before the wait checkpoint is persisted
+        awaitPendingAcks(context);
+
+        String executionId = execution.getId();
+        String waitStateId = context.getWaitStateId();
+        execution.setStatus(ExecutionStatus.WAITING);
+        Map<String, Object> snapshot = executionSnapshotMapper.toSnapshot(
+                context, executedNodes, nodeId, nodeExecution.getId());
+        if (inMemoryDelayMs != null) {
+            // Durable fallback in case this instance stops before the in-memory timer fires
+            snapshot.put(InMemoryWaitTimerHandler.SNAPSHOT_KEY,
+                    inMemoryWaitTimerHandler.register(executionId, waitStateId, inMemoryDelayMs));
+        }
+        execution.setResumeSnapshot(snapshot);
+        saveWaitCheckpoint(nodeExecution, execution, context);
+
+        // Keep the live state so callbacks routed to this instance resume without a reload
+        parkedExecutionStore.park(executionId, new ParkedExecutionStore.ParkedExecution(
+                context, executedNodes, nodeMap, adjacencyList, nodeId, nodeExecution.getId()));
+        executionOwnershipService.claim(executionId);
+
+        if (inMemoryDelayMs != null) {
+            inMemoryWaitTimerHandler.start(executionId, waitStateId, inMemoryDelayMs);
+        }
+    }
+
+    /**
+     * Persist a wait checkpoint: the waiting node, its outbox entries, and the execution with its status
+     * and resume snapshot, in one transaction so a resume never sees one without the others.
+     */
+    private void saveWaitCheckpoint(NodeExecution nodeExecution, Execution execution, ExecutionContext context) {
+        List<PublishOutboxEntry> outboxEntries = context.drainOutboxEntries();
+        transactionTemplate.executeWithoutResult(status -> {
+            nodeExecutionRepository.save(nodeExecution);
+            if (!outboxEntries.isEmpty()) {
+                publishOutboxRepository.saveAll(outboxEntries);
+            }
+            executionRepository.save(execution);
+        });
+    }
+
+    /**
+     * Bring the resume snapshot up to date with nodes executed after the wait checkpoint, e.g. by other
+     * branches. Only sets the field, the caller saves the execution.
+     *
+     * @return true if the snapshot changed
+     */
+    private boolean refreshResumeSnapshot(Execution execution, ExecutionContext context, Set<String> executedNodes) {
+        if (execution.getResumeSnapshot() == null) {
+            return false;
+        }
+        Map<String, Object> refreshed = executionSnapshotMapper.refresh(execution.getResumeSnapshot(), context, executedNodes);
+        if (refreshed == null) {
+            return false;
+        }
+        execution.setResumeSnapshot(refreshed);
+        return true;
+    }
+
+    /**
+     * Parsed graph of a workflow, reused across resumes until the workflow changes
+     */
+    private WorkflowGraph workflowGraph(Workflow workflow, List<Map<String, Object>> nodes,
+                                        List<Map<String, Object>> edges) {
+        String revision = workflow.getVersion() + ":" + workflow.getUpdatedAt();
+        WorkflowGraph graph = workflowGraphs.get(workflow.getId());
+        if (graph == null || !graph.revision().equals(revision)) {
+            graph = new WorkflowGraph(revision, buildNodeMap(nodes), buildAdjacencyList(edges));
+            workflowGraphs.put(workflow.getId(), graph);
+        }
+        return graph;
+    }
+
+    private record WorkflowGraph(String revision,
+                                 Map<String, Map<String, Object>> nodeMap,
+                                 Map<String, List<String>> adjacencyList) {
+    }
+
+    /**
+     * Await all asynchronous sends registered on the context since the last checkpoint.
+     * Throws ExecutionException if any of them failed or did not complete in time.
+     */
+    private void awaitPendingAcks(ExecutionContext context) {
+        List<CompletableFuture<?>> pendingAcks = context.drainPendingAcks();
+        if (pendingAcks.isEmpty()) {
+            return;
+        }
+        
+        log.debug("Awaiting {} pending acks before checkpoint: executionId={}", 
+                 pendingAcks.size(), context.getExecutionId());
+        try {
+            CompletableFuture.allOf(pendingAcks.toArray(new CompletableFuture[0]))
+                    .get(CHECKPOINT_ACK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutionException("Interrupted while awaiting pending acks", e);
+        } catch (TimeoutException e) {
+            throw new ExecutionException("Timed out awaiting " + pendingAcks.size() + 
+                                         " pending acks before checkpoint", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new ExecutionException("Pending ack failed before checkpoint: " + cause.getMessage(), cause);
         }
     }
 
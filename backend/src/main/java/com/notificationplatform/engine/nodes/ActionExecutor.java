@@ -2,6 +2,7 @@ package com.notificationplatform.engine.nodes;
 
 import com.notificationplatform.engine.ExecutionContext;
 import com.notificationplatform.engine.NodeExecutionResult;
+import com.notificationplatform.entity.Action;
 
 import java.util.Map;
 
@@ -9,6 +10,7 @@ import java.util.Map;
  * Interface for specific action executors.
  * These executors are not registered directly in NodeExecutorRegistry.
  * Instead, they are called by ActionNodeExecutor based on ActionType.
+ * ActionNodeExecutor resolves the registry definition once and passes it down.
  */
 public interface ActionExecutor {
     
@@ -18,8 +20,9 @@ public interface ActionExecutor {
      * @param nodeId Node identifier
      * @param nodeData Node configuration/data
      * @param context Execution context
+     * @param action Resolved action definition from the registry
      * @return Node execution result
      */
-    NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context);
+    NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context, Action action);
 }
 
@@ -60,10 +60,10 @@ public class ActionNodeExecutor implements NodeExecutor {
                      nodeId, actionType, registryId);
             
             return switch (actionType) {
-                case API_CALL -> apiCallNodeExecutor.execute(nodeId, nodeData, context);
-                case PUBLISH_EVENT -> publishEventNodeExecutor.execute(nodeId, nodeData, context);
-                case FUNCTION -> functionNodeExecutor.execute(nodeId, nodeData, context);
-                case CUSTOM_ACTION -> customActionNodeExecutor.execute(nodeId, nodeData, context);
+                case API_CALL -> apiCallNodeExecutor.execute(nodeId, nodeData, context, action);
+                case PUBLISH_EVENT -> publishEventNodeExecutor.execute(nodeId, nodeData, context, action);
+                case FUNCTION -> functionNodeExecutor.execute(nodeId, nodeData, context, action);
+                case CUSTOM_ACTION -> customActionNodeExecutor.execute(nodeId, nodeData, context, action);
             };
             
         } catch (Exception e) {
@@ -3,24 +3,35 @@ package com.notificationplatform.engine.nodes;
 import com.notificationplatform.engine.ExecutionContext;
 import com.notificationplatform.engine.NodeExecutionResult;
 import com.notificationplatform.entity.Action;
-import com.notificationplatform.exception.ResourceNotFoundException;
-import com.notificationplatform.service.registry.ActionRegistryService;
 import com.notificationplatform.service.workflow.ExecutionContextBuilder;
+import com.notificationplatform.util.JsonPathExtractor;
 import com.notificationplatform.util.MvelEvaluator;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Executor for API Call Action node.
  * Makes HTTP requests to external APIs with retry support.
  * 
+ * Responses are streamed: only the body paths and headers referenced by the output mapping are
+ * materialized, the body is bounded by a maximum size (truncate or fail), and the raw body is only
+ * kept in the node output when explicitly requested (response.includeRawBody).
+ * 
  * This executor is called by ActionNodeExecutor for API_CALL action type.
  * 
  * See: @import(features/node-types.md#api-call-action)
@@ -30,27 +41,25 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ApiCallNodeExecutor implements ActionExecutor {
 
+    private static final String RESPONSE_VARIABLE = "_response";
+
     private final RestTemplate restTemplate;
-    private final ActionRegistryService actionRegistryService;
+
+    @Value("${app.api-call.max-response-bytes:10485760}")
+    private long defaultMaxResponseBytes;
+
+    @Value("${app.api-call.oversize-behavior:fail}")
+    private String defaultOversizeBehavior;
+
+    @Value("${app.api-call.include-raw-body:false}")
+    private boolean defaultIncludeRawBody;
 
     @Override
-    public NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context) {
+    public NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context,
+                                       Action action) {
         log.info("Executing API call action node: nodeId={}", nodeId);
         
         try {
-            // Get registry ID and load action from registry
-            String registryId = (String) nodeData.get("registryId");
-            if (registryId == null) {
-                throw new IllegalArgumentException("Registry ID is required for API call action");
-            }
-            
-            Action action;
-            try {
-                action = actionRegistryService.getActionById(registryId);
-            } catch (ResourceNotFoundException e) {
-                throw new IllegalArgumentException("Action not found in registry: " + registryId);
-            }
-            
             // Get config values (new structure) or parse from nodeData (backward compatibility)
             Map<String, Object> configValues = getConfigValues(nodeData);
             
@@ -64,20 +73,21 @@ public class ApiCallNodeExecutor implements ActionExecutor {
             // Parse resolved config to ApiCallConfig
             ApiCallConfig config = parseResolvedConfig(resolvedConfig);
             
-            // Make HTTP request with retry
-            ResponseEntity<Map<String, Object>> response = executeApiCall(config);
+            // Select the parts of the response that are actually used
+            Map<String, String> outputMapping = resolveOutputMapping(action, nodeData);
+            JsonPathExtractor.PathTree responsePaths = selectResponsePaths(outputMapping, config);
             
-            // Build raw response
-            Map<String, Object> rawResponse = new HashMap<>();
-            rawResponse.put("statusCode", response.getStatusCode().value());
-            rawResponse.put("headers", response.getHeaders().toSingleValueMap());
-            rawResponse.put("body", response.getBody());
+            // Make HTTP request with retry, building the raw response while streaming
+            Map<String, Object> rawResponse = executeApiCall(config, responsePaths);
             
             // Build output context for output mapping
             Map<String, Object> outputContext = ExecutionContextBuilder.buildOutputContext(context, rawResponse);
             
             // Apply output mapping (if available from action registry or node config)
-            Map<String, Object> output = applyOutputMapping(action, nodeData, outputContext, rawResponse);
+            Map<String, Object> output = applyOutputMapping(outputMapping, outputContext, rawResponse);
+            if (config.isIncludeRawBody() && rawResponse.containsKey("body")) {
+                output.put("body", rawResponse.get("body"));
+            }
             
             return new NodeExecutionResult(true, output);
             
@@ -96,7 +106,7 @@ public class ApiCallNodeExecutor implements ActionExecutor {
      * Execute API call with retry support.
      */
     @Retry(name = "apiCall")
-    private ResponseEntity<Map<String, Object>> executeApiCall(ApiCallConfig config) {
+    private Map<String, Object> executeApiCall(ApiCallConfig config, JsonPathExtractor.PathTree responsePaths) {
         HttpMethod method = HttpMethod.valueOf(config.getMethod().toUpperCase());
         HttpHeaders headers = new HttpHeaders();
         
@@ -121,17 +131,99 @@ public class ApiCallNodeExecutor implements ActionExecutor {
         // Create request entity
         HttpEntity<Object> requestEntity = new HttpEntity<>(config.getBody(), headers);
         
-        // Make request
-        org.springframework.core.ParameterizedTypeReference<Map<String, Object>> responseType = 
-            new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {};
-        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+        // Make request, streaming the response instead of deserializing it into a Map
+        return restTemplate.execute(
             config.getUrl(),
             method,
-            requestEntity,
-            responseType
+            restTemplate.httpEntityCallback(requestEntity, Map.class),
+            response -> readResponse(response, responsePaths, config)
         );
-        
-        return response;
+    }
+
+    /**
+     * Build the raw response from the parts selected by the response paths.
+     * The body is read through a size-bounded stream and parsed incrementally.
+     */
+    private Map<String, Object> readResponse(ClientHttpResponse response,
+                                             JsonPathExtractor.PathTree responsePaths,
+                                             ApiCallConfig config) throws IOException {
+        Map<String, Object> rawResponse = new HashMap<>();
+        rawResponse.put("statusCode", response.getStatusCode().value());
+
+        JsonPathExtractor.PathTree headerPaths = responsePaths.getChild("headers");
+        if (headerPaths != null) {
+            rawResponse.put("headers", selectHeaders(response.getHeaders(), headerPaths));
+        }
+
+        JsonPathExtractor.PathTree bodyPaths = responsePaths.getChild("body");
+        if (bodyPaths == null) {
+            return rawResponse;
+        }
+
+        BoundedInputStream body = new BoundedInputStream(response.getBody(), config.getMaxResponseBytes(),
+                !config.isTruncateOversizedResponse());
+        MediaType contentType = response.getHeaders().getContentType();
+        try {
+            if (isJson(contentType)) {
+                JsonPathExtractor.extract(body, bodyPaths, value -> rawResponse.put("body", value));
+            } else {
+                Charset charset = contentType != null && contentType.getCharset() != null
+                        ? contentType.getCharset() : StandardCharsets.UTF_8;
+                rawResponse.put("body", new String(body.readAllBytes(), charset));
+            }
+        } catch (ResponseTooLargeException e) {
+            throw e;
+        } catch (IOException e) {
+            // A truncated body ends mid-document; keep what was extracted before the limit
+            if (!body.isTruncated()) {
+                throw e;
+            }
+        }
+
+        if (body.isTruncated()) {
+            rawResponse.put("truncated", true);
+            log.warn("API call response truncated: url={}, maxBytes={}", config.getUrl(), config.getMaxResponseBytes());
+        }
+        return rawResponse;
+    }
+
+    /**
+     * Select the paths of the raw response that need to be read.
+     * With an output mapping, only the referenced paths are read; without one, the status code
+     * and headers are returned. The body is added when includeRawBody is set.
+     */
+    private JsonPathExtractor.PathTree selectResponsePaths(Map<String, String> outputMapping, ApiCallConfig config) {
+        JsonPathExtractor.PathTree paths;
+        if (outputMapping != null && !outputMapping.isEmpty()) {
+            paths = JsonPathExtractor.collectPaths(outputMapping.values(), RESPONSE_VARIABLE);
+        } else {
+            paths = new JsonPathExtractor.PathTree();
+            paths.addPath(List.of("headers"));
+        }
+        if (config.isIncludeRawBody()) {
+            paths.addPath(List.of("body"));
+        }
+        return paths;
+    }
+
+    private Map<String, String> selectHeaders(HttpHeaders headers, JsonPathExtractor.PathTree headerPaths) {
+        if (headerPaths.isCaptureAll()) {
+            return headers.toSingleValueMap();
+        }
+        Map<String, String> selected = new HashMap<>();
+        for (String name : headerPaths.getChildNames()) {
+            String value = headers.getFirst(name);
+            if (value != null) {
+                selected.put(name, value);
+            }
+        }
+        return selected;
+    }
+
+    private boolean isJson(MediaType contentType) {
+        return contentType == null
+                || MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || (contentType.getSubtype() != null && contentType.getSubtype().endsWith("+json"));
     }
 
     /**
@@ -175,6 +267,9 @@ public class ApiCallNodeExecutor implements ActionExecutor {
         if (nodeData.containsKey("retry")) {
             configValues.put("retry", nodeData.get("retry"));
         }
+        if (nodeData.containsKey("response")) {
+            configValues.put("response", nodeData.get("response"));
+        }
         
         return configValues;
     }
@@ -221,20 +316,35 @@ public class ApiCallNodeExecutor implements ActionExecutor {
             config.setAuthentication((Map<String, Object>) authObj);
         }
         
+        // Parse response handling: { maxBodyBytes, onOversize: truncate|fail, includeRawBody }
+        config.setMaxResponseBytes(defaultMaxResponseBytes);
+        config.setTruncateOversizedResponse("truncate".equalsIgnoreCase(defaultOversizeBehavior));
+        config.setIncludeRawBody(defaultIncludeRawBody);
+        Object responseObj = resolvedConfig.get("response");
+        if (responseObj instanceof Map) {
+            Map<String, Object> responseSettings = (Map<String, Object>) responseObj;
+            Object maxBodyBytes = responseSettings.get("maxBodyBytes");
+            if (maxBodyBytes != null && !maxBodyBytes.toString().isBlank()) {
+                config.setMaxResponseBytes(Long.parseLong(maxBodyBytes.toString().trim()));
+            }
+            Object onOversize = responseSettings.get("onOversize");
+            if (onOversize != null) {
+                config.setTruncateOversizedResponse("truncate".equalsIgnoreCase(onOversize.toString().trim()));
+            }
+            Object includeRawBody = responseSettings.get("includeRawBody");
+            if (includeRawBody != null) {
+                config.setIncludeRawBody(Boolean.parseBoolean(includeRawBody.toString().trim()));
+            }
+        }
+        
         return config;
     }
     
     /**
-     * Apply output mapping to raw response.
-     * Uses output mapping from action registry or node config (if provided).
+     * Resolve output mapping from node config (if provided) or action registry.
      */
     @SuppressWarnings("unchecked")
-    private Map<String, Object> applyOutputMapping(
-            Action action, 
-            Map<String, Object> nodeData, 
-            Map<String, Object> outputContext,
-            Map<String, Object> rawResponse) {
-        
+    private Map<String, String> resolveOutputMapping(Action action, Map<String, Object> nodeData) {
         // Get output mapping from node config (if provided) or action registry
         Map<String, String> outputMapping = null;
         
@@ -256,6 +366,17 @@ public class ApiCallNodeExecutor implements ActionExecutor {
             }
         }
         
+        return outputMapping;
+    }
+    
+    /**
+     * Apply output mapping to raw response.
+     */
+    private Map<String, Object> applyOutputMapping(
+            Map<String, String> outputMapping,
+            Map<String, Object> outputContext,
+            Map<String, Object> rawResponse) {
+        
         // If no output mapping, return raw response with status
         if (outputMapping == null || outputMapping.isEmpty()) {
             Map<String, Object> output = new HashMap<>(rawResponse);
@@ -293,6 +414,9 @@ public class ApiCallNodeExecutor implements ActionExecutor {
         private Map<String, String> headers;
         private Object body;
         private Map<String, Object> authentication;
+        private long maxResponseBytes;
+        private boolean truncateOversizedResponse;
+        private boolean includeRawBody;
 
         public String getUrl() {
             return url;
@@ -333,6 +457,130 @@ public class ApiCallNodeExecutor implements ActionExecutor {
         public void setAuthentication(Map<String, Object> authentication) {
             this.authentication = authentication;
         }
+
+        public long getMaxResponseBytes() {
+            return maxResponseBytes;
+        }
+
+        public void setMaxResponseBytes(long maxResponseBytes) {
+            this.maxResponseBytes = maxResponseBytes;
+        }
+
+        public boolean isTruncateOversizedResponse() {
+            return truncateOversizedResponse;
+        }
+
+        public void setTruncateOversizedResponse(boolean truncateOversizedResponse) {
+            this.truncateOversizedResponse = truncateOversizedResponse;
+        }
+
+        public boolean isIncludeRawBody() {
+            return includeRawBody;
+        }
+
+        public void setIncludeRawBody(boolean includeRawBody) {
+            this.includeRawBody = includeRawBody;
+        }
+    }
+
+    /**
+     * Input stream that stops at a byte limit, either failing or reporting end of stream (truncation).
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+        private final long limit;
+        private final boolean failOnOversize;
+        private long count;
+        private boolean truncated;
+
+        BoundedInputStream(InputStream in, long limit, boolean failOnOversize) {
+            super(in);
+            this.limit = limit;
+            this.failOnOversize = failOnOversize;
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!checkRemaining()) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (!checkRemaining()) {
+                return -1;
+            }
+            // Read one byte past the limit so an exactly-sized body is not reported as oversized
+            int allowed = (int) Math.min(len, limit + 1 - count);
+            int n = super.read(b, off, allowed);
+            if (n > 0) {
+                count += n;
+                if (count > limit) {
+                    n -= (int) (count - limit);
+                    count = limit;
+                    onLimitExceeded();
+                    return n > 0 ? n : -1;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read <= 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        private boolean checkRemaining() throws IOException {
+            if (truncated) {
+                return false;
+            }
+            if (count >= limit) {
+                // Probe for one more byte to distinguish an exact-size body from an oversized one
+                int next = super.read();
+                if (next == -1) {
+                    return false;
+                }
+                onLimitExceeded();
+                return false;
+            }
+            return true;
+        }
+
+        private void onLimitExceeded() throws ResponseTooLargeException {
+            if (failOnOversize) {
+                throw new ResponseTooLargeException("Response body exceeds maximum size of " + limit + " bytes");
+            }
+            truncated = true;
+        }
+    }
+
+    private static class ResponseTooLargeException extends IOException {
+        ResponseTooLargeException(String message) {
+            super(message);
+        }
     }
 
 }
@@ -4,8 +4,6 @@ import com.notificationplatform.engine.ExecutionContext;
 import com.notificationplatform.engine.NodeExecutionResult;
 import com.notificationplatform.entity.Action;
 import com.notificationplatform.entity.enums.ActionType;
-import com.notificationplatform.exception.ResourceNotFoundException;
-import com.notificationplatform.service.registry.ActionRegistryService;
 import com.notificationplatform.service.workflow.ExecutionContextBuilder;
 import com.notificationplatform.util.MvelEvaluator;
 import lombok.RequiredArgsConstructor;
@@ -30,29 +28,15 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class CustomActionNodeExecutor implements ActionExecutor {
 
-    private final ActionRegistryService actionRegistryService;
-
     @Override
-    public NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context) {
+    public NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context,
+                                       Action action) {
         log.info("Executing custom action node: nodeId={}", nodeId);
         
         try {
-            // Get registry ID and load action from registry
-            String registryId = (String) nodeData.get("registryId");
-            if (registryId == null) {
-                throw new IllegalArgumentException("Registry ID is required for custom action");
-            }
-            
-            Action action;
-            try {
-                action = actionRegistryService.getActionById(registryId);
-            } catch (ResourceNotFoundException e) {
-                throw new IllegalArgumentException("Action not found in registry: " + registryId);
-            }
-            
             // Verify this is a custom action
             if (action.getType() != ActionType.CUSTOM_ACTION) {
-                throw new IllegalArgumentException("Action is not a custom action: " + registryId);
+                throw new IllegalArgumentException("Action is not a custom action: " + action.getId());
             }
             
             // Get config values (new structure) or parse from nodeData (backward compatibility)
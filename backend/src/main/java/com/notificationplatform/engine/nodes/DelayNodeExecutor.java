@@ -9,9 +9,10 @@ import com.notificationplatform.entity.ExecutionWaitState;
 import com.notificationplatform.entity.enums.ExecutionStatus;
 import com.notificationplatform.entity.enums.NodeType;
 import com.notificationplatform.repository.ExecutionWaitStateRepository;
-import lombok.RequiredArgsConstructor;
+import com.notificationplatform.service.timer.TimerService;
+import com.notificationplatform.service.waitstate.WaitStateTimerHandler;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -22,18 +23,36 @@ import java.util.UUID;
 /**
  * Executor for Delay node.
  * Waits for specified time duration and supports pause/resume with persistent state.
+ *
+ * Short delays do not hold a thread: the node returns an in-memory wait and the workflow executor resumes
+ * the execution from the next node through {@link com.notificationplatform.engine.InMemoryWaitTimerHandler},
+ * with a durable fallback timer in case the instance stops during the delay.
  * 
  * See: @import(features/workflow-execution-state.md#delay-node-with-persistent-state)
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DelayNodeExecutor implements NodeExecutor {
 
+    public static final String IN_MEMORY_WAIT_PREFIX = "delay:";
+
     private final ExecutionWaitStateRepository waitStateRepository;
     private final ExecutionContextCache contextCache;
     private final ExecutionStateService executionStateService;
-    private final TaskScheduler taskScheduler;
+    private final TimerService timerService;
+
+    @Value("${app.engine.delay.in-memory-max-seconds:60}")
+    private long inMemoryMaxSeconds;
+
+    public DelayNodeExecutor(ExecutionWaitStateRepository waitStateRepository,
+                             ExecutionContextCache contextCache,
+                             ExecutionStateService executionStateService,
+                             TimerService timerService) {
+        this.waitStateRepository = waitStateRepository;
+        this.contextCache = contextCache;
+        this.executionStateService = executionStateService;
+        this.timerService = timerService;
+    }
 
     @Override
     public NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context) {
@@ -50,41 +69,54 @@ public class DelayNodeExecutor implements NodeExecutor {
             return new NodeExecutionResult(true, output);
         }
         
-        // For short delays (< 1 minute), use Thread.sleep
-        // For longer delays, create wait state and schedule resume
-        boolean persistState = config.isPersistState() || delaySeconds > 60;
+        // Short delays wait in memory on the timing wheel
+        // Longer delays create a wait state and schedule resume
+        boolean persistState = config.isPersistState() || delaySeconds > inMemoryMaxSeconds;
         
         if (persistState) {
             return createWaitState(nodeId, context, delaySeconds);
         } else {
-            // Short delay - use Thread.sleep
-            try {
-                Thread.sleep(delaySeconds * 1000);
-                log.info("Delay completed: delaySeconds={}, nodeId={}", delaySeconds, nodeId);
-                Map<String, Object> output = new HashMap<>();
-                output.put("delayCompleted", true);
-                output.put("delaySeconds", delaySeconds);
-                return new NodeExecutionResult(true, output);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.warn("Delay interrupted: nodeId={}", nodeId, e);
-                Map<String, Object> output = new HashMap<>();
-                output.put("delayCompleted", false);
-                output.put("error", "Delay interrupted");
-                NodeExecutionResult result = new NodeExecutionResult(false, output);
-                result.setError("Delay interrupted");
-                return result;
-            }
+            return scheduleInMemoryDelay(nodeId, context, delaySeconds);
         }
     }
 
+    /**
+     * Wait in memory, without holding the executing thread. The workflow executor checkpoints the execution
+     * and starts the timer once the checkpoint has committed.
+     */
+    private NodeExecutionResult scheduleInMemoryDelay(String nodeId, ExecutionContext context, long delaySeconds) {
+        LocalDateTime resumeAt = LocalDateTime.now().plusSeconds(delaySeconds);
+
+        log.info("Delay scheduled in memory: executionId={}, nodeId={}, delaySeconds={}",
+                 context.getExecutionId(), nodeId, delaySeconds);
+
+        Map<String, Object> output = new HashMap<>();
+        output.put("waitStateId", IN_MEMORY_WAIT_PREFIX + UUID.randomUUID());
+        output.put("resumeAt", resumeAt.toString());
+        output.put("status", "waiting");
+        output.put("delaySeconds", delaySeconds);
+
+        NodeExecutionResult result = new NodeExecutionResult(true, output);
+        result.setWaiting(true);
+        return result;
+    }
+
+    /**
+     * Output of a delay node whose delay elapsed, passed to the resume
+     */
+    public static Map<String, Object> completedOutput(long delaySeconds) {
+        Map<String, Object> output = new HashMap<>();
+        output.put("delayCompleted", true);
+        output.put("delaySeconds", delaySeconds);
+        return output;
+    }
+
     /**
      * Create wait state for delay and schedule resume.
      */
     private NodeExecutionResult createWaitState(String nodeId, ExecutionContext context, long delaySeconds) {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime resumeAt = now.plusSeconds(delaySeconds);
-        LocalDateTime expiresAt = now.plusDays(1); // Max 1 day delay
         
         // Get execution entity
         var executionOpt = executionStateService.getExecution(context.getExecutionId());
@@ -105,7 +137,8 @@ public class DelayNodeExecutor implements NodeExecutor {
         waitState.setCorrelationId(UUID.randomUUID().toString());
         waitState.setWaitType("DELAY");
         waitState.setStatus("waiting");
-        waitState.setExpiresAt(expiresAt);
+        // For DELAY wait states expiresAt is the resume time
+        waitState.setExpiresAt(resumeAt);
         
         waitState = waitStateRepository.save(waitState);
         
@@ -115,16 +148,10 @@ public class DelayNodeExecutor implements NodeExecutor {
         // Update execution status to PAUSED
         executionStateService.updateExecutionStatus(context.getExecutionId(), ExecutionStatus.PAUSED);
         
-        // Schedule resume task
+        // Schedule resume on the durable timer service
         String waitStateId = waitState.getId();
         String executionId = context.getExecutionId();
-        if (executionId != null && waitStateId != null) {
-            java.time.Instant resumeInstant = java.time.Instant.from(resumeAt.atZone(java.time.ZoneId.systemDefault()));
-            taskScheduler.schedule(
-                () -> resumeDelayExecution(waitStateId, executionId, nodeId),
-                resumeInstant
-            );
-        }
+        timerService.schedule(WaitStateTimerHandler.TIMER_TYPE, waitStateId, resumeAt);
         
         log.info("Delay wait state created: waitStateId={}, executionId={}, nodeId={}, resumeAt={}", 
                  waitStateId, executionId, nodeId, resumeAt);
@@ -140,27 +167,6 @@ public class DelayNodeExecutor implements NodeExecutor {
         return result;
     }
 
-    /**
-     * Resume delay execution.
-     */
-    private void resumeDelayExecution(String waitStateId, String executionId, String nodeId) {
-        log.info("Resuming delay execution: waitStateId={}, executionId={}, nodeId={}", 
-                 waitStateId, executionId, nodeId);
-        
-        // Update wait state status
-        waitStateRepository.findById(waitStateId).ifPresent(waitState -> {
-            waitState.setStatus("completed");
-            waitState.setResumedAt(LocalDateTime.now());
-            waitStateRepository.save(waitState);
-        });
-        
-        // Update execution status to RUNNING
-        executionStateService.updateExecutionStatus(executionId, ExecutionStatus.RUNNING);
-        
-        // Note: Actual workflow resume is handled by WorkflowExecutor.resumeExecution()
-        // This method just marks the delay as completed
-    }
-
     /**
      * Parse delay node configuration.
      */
@@ -3,8 +3,6 @@ package com.notificationplatform.engine.nodes;
 import com.notificationplatform.engine.ExecutionContext;
 import com.notificationplatform.engine.NodeExecutionResult;
 import com.notificationplatform.entity.Action;
-import com.notificationplatform.exception.ResourceNotFoundException;
-import com.notificationplatform.service.registry.ActionRegistryService;
 import com.notificationplatform.service.workflow.ExecutionContextBuilder;
 import com.notificationplatform.util.MvelEvaluator;
 import lombok.RequiredArgsConstructor;
@@ -28,26 +26,12 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class FunctionNodeExecutor implements ActionExecutor {
 
-    private final ActionRegistryService actionRegistryService;
-
     @Override
-    public NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context) {
+    public NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context,
+                                       Action action) {
         log.info("Executing function action node: nodeId={}", nodeId);
         
         try {
-            // Get registry ID and load action from registry
-            String registryId = (String) nodeData.get("registryId");
-            if (registryId == null) {
-                throw new IllegalArgumentException("Registry ID is required for function action");
-            }
-            
-            Action action;
-            try {
-                action = actionRegistryService.getActionById(registryId);
-            } catch (ResourceNotFoundException e) {
-                throw new IllegalArgumentException("Action not found in registry: " + registryId);
-            }
-            
             // Get config values (new structure) or parse from nodeData (backward compatibility)
             Map<String, Object> configValues = getConfigValues(nodeData);
             
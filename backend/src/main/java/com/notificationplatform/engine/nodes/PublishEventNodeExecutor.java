@@ -4,25 +4,34 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.notificationplatform.engine.ExecutionContext;
 import com.notificationplatform.engine.NodeExecutionResult;
 import com.notificationplatform.entity.Action;
-import com.notificationplatform.exception.ResourceNotFoundException;
-import com.notificationplatform.service.registry.ActionRegistryService;
+import com.notificationplatform.entity.PublishOutboxEntry;
+import com.notificationplatform.entity.enums.PublishDeliveryMode;
+import com.notificationplatform.service.publish.KafkaPublishService;
 import com.notificationplatform.service.workflow.ExecutionContextBuilder;
 import com.notificationplatform.util.MvelEvaluator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Executor for Publish Event Action node (Kafka).
  * Publishes messages to Kafka topics.
  * 
+ * Delivery mode is configurable per action via kafka.deliveryMode:
+ * - sync: wait for broker acknowledgement before the node completes
+ * - await-at-checkpoint: continue immediately, engine awaits the ack before the next checkpoint
+ * - fire-and-forget: continue immediately, failures are only logged and counted
+ * - outbox: write the message to the publish outbox with the node checkpoint, relayed asynchronously
+ * Producer batching/linger/compression/acks are configurable via kafka.producer.
+ * 
  * This executor is called by ActionNodeExecutor for PUBLISH_EVENT action type.
  * 
  * See: @import(features/node-types.md#publish-event-action-kafka)
@@ -32,28 +41,18 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class PublishEventNodeExecutor implements ActionExecutor {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ActionRegistryService actionRegistryService;
+    private final KafkaPublishService kafkaPublishService;
     private final ObjectMapper objectMapper;
 
+    @Value("${app.publish.default-delivery-mode:sync}")
+    private String defaultDeliveryMode;
+
     @Override
-    public NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context) {
+    public NodeExecutionResult execute(String nodeId, Map<String, Object> nodeData, ExecutionContext context,
+                                       Action action) {
         log.info("Executing publish event action node: nodeId={}", nodeId);
         
         try {
-            // Get registry ID and load action from registry
-            String registryId = (String) nodeData.get("registryId");
-            if (registryId == null) {
-                throw new IllegalArgumentException("Registry ID is required for publish event action");
-            }
-            
-            Action action;
-            try {
-                action = actionRegistryService.getActionById(registryId);
-            } catch (ResourceNotFoundException e) {
-                throw new IllegalArgumentException("Action not found in registry: " + registryId);
-            }
-            
             // Get config values (new structure) or parse from nodeData (backward compatibility)
             Map<String, Object> configValues = getConfigValues(nodeData);
             
@@ -70,23 +69,54 @@ public class PublishEventNodeExecutor implements ActionExecutor {
             // Serialize message to JSON
             String messageJson = objectMapper.writeValueAsString(config.getMessage());
             
-            // Publish to Kafka
-            CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(
-                config.getTopic(),
-                config.getKey(),
-                messageJson
-            );
-            
-            // Wait for result (synchronous for now)
-            SendResult<String, String> result = future.get();
+            PublishDeliveryMode deliveryMode = resolveDeliveryMode(config);
             
             // Build raw response
             Map<String, Object> rawResponse = new HashMap<>();
             rawResponse.put("success", true);
             rawResponse.put("topic", config.getTopic());
-            rawResponse.put("partition", result.getRecordMetadata().partition());
-            rawResponse.put("offset", result.getRecordMetadata().offset());
-            rawResponse.put("timestamp", result.getRecordMetadata().timestamp());
+            rawResponse.put("deliveryMode", deliveryMode.getValue());
+            
+            if (deliveryMode == PublishDeliveryMode.OUTBOX) {
+                // Written with the node checkpoint, published later by the outbox relay
+                PublishOutboxEntry entry = buildOutboxEntry(nodeId, context, config, messageJson);
+                context.addOutboxEntry(entry);
+                rawResponse.put("pending", true);
+                rawResponse.put("outboxId", entry.getId());
+                log.debug("Message queued in publish outbox: topic={}, outboxId={}", config.getTopic(), entry.getId());
+            } else {
+                // Publish to Kafka
+                CompletableFuture<SendResult<String, String>> future = kafkaPublishService.send(
+                    config.getBrokers(),
+                    config.getTopic(),
+                    config.getKey(),
+                    messageJson,
+                    config.getHeaders(),
+                    config.getProducer()
+                );
+                
+                switch (deliveryMode) {
+                    case SYNC -> {
+                        SendResult<String, String> result = future.get();
+                        rawResponse.put("partition", result.getRecordMetadata().partition());
+                        rawResponse.put("offset", result.getRecordMetadata().offset());
+                        rawResponse.put("timestamp", result.getRecordMetadata().timestamp());
+                        log.info("Message published to Kafka: topic={}, partition={}, offset={}", 
+                                 config.getTopic(), result.getRecordMetadata().partition(), 
+                                 result.getRecordMetadata().offset());
+                    }
+                    case AWAIT_AT_CHECKPOINT -> {
+                        // Engine awaits the ack before persisting the next checkpoint
+                        context.addPendingAck(future);
+                        rawResponse.put("pending", true);
+                        log.debug("Message sent to Kafka, ack deferred to checkpoint: topic={}", config.getTopic());
+                    }
+                    default -> {
+                        rawResponse.put("pending", true);
+                        log.debug("Message sent to Kafka (fire-and-forget): topic={}", config.getTopic());
+                    }
+                }
+            }
             
             // Build output context for output mapping
             Map<String, Object> outputContext = ExecutionContextBuilder.buildOutputContext(context, rawResponse);
@@ -94,10 +124,6 @@ public class PublishEventNodeExecutor implements ActionExecutor {
             // Apply output mapping (if available from action registry or node config)
             Map<String, Object> output = applyOutputMapping(action, nodeData, outputContext, rawResponse);
             
-            log.info("Message published to Kafka: topic={}, partition={}, offset={}", 
-                     config.getTopic(), result.getRecordMetadata().partition(), 
-                     result.getRecordMetadata().offset());
-            
             return new NodeExecutionResult(true, output);
             
         } catch (Exception e) {
@@ -149,6 +175,12 @@ public class PublishEventNodeExecutor implements ActionExecutor {
             if (nodeData.containsKey("headers")) {
                 kafkaConfig.put("headers", nodeData.get("headers"));
             }
+            if (nodeData.containsKey("deliveryMode")) {
+                kafkaConfig.put("deliveryMode", nodeData.get("deliveryMode"));
+            }
+            if (nodeData.containsKey("producer")) {
+                kafkaConfig.put("producer", nodeData.get("producer"));
+            }
             if (!kafkaConfig.isEmpty()) {
                 configValues.put("kafka", kafkaConfig);
             }
@@ -177,6 +209,8 @@ public class PublishEventNodeExecutor implements ActionExecutor {
             Object brokersObj = kafkaConfig.get("brokers");
             if (brokersObj instanceof List) {
                 config.setBrokers((List<String>) brokersObj);
+            } else if (brokersObj instanceof String) {
+                config.setBrokers(List.of((String) brokersObj));
             }
             
             // Parse topic
@@ -196,6 +230,18 @@ public class PublishEventNodeExecutor implements ActionExecutor {
             if (headersObj instanceof Map) {
                 config.setHeaders((Map<String, Object>) headersObj);
             }
+            
+            // Parse delivery mode
+            Object deliveryModeObj = kafkaConfig.get("deliveryMode");
+            if (deliveryModeObj != null) {
+                config.setDeliveryMode(deliveryModeObj.toString());
+            }
+            
+            // Parse producer settings (batchSize, lingerMs, compressionType, acks)
+            Object producerObj = kafkaConfig.get("producer");
+            if (producerObj instanceof Map) {
+                config.setProducer((Map<String, Object>) producerObj);
+            }
         }
         
         // Parse message
@@ -205,6 +251,39 @@ public class PublishEventNodeExecutor implements ActionExecutor {
         return config;
     }
     
+    /**
+     * Build outbox entry for a publish intent.
+     */
+    private PublishOutboxEntry buildOutboxEntry(String nodeId, ExecutionContext context,
+                                                KafkaPublishConfig config, String messageJson) {
+        PublishOutboxEntry entry = new PublishOutboxEntry();
+        entry.setId(UUID.randomUUID().toString());
+        entry.setExecutionId(context.getExecutionId());
+        entry.setNodeId(nodeId);
+        entry.setBrokers(config.getBrokers());
+        entry.setTopic(config.getTopic());
+        entry.setMessageKey(config.getKey());
+        entry.setPayload(messageJson);
+        entry.setHeaders(config.getHeaders());
+        entry.setProducerSettings(config.getProducer());
+        return entry;
+    }
+    
+    /**
+     * Resolve delivery mode from action config, falling back to the application default.
+     */
+    private PublishDeliveryMode resolveDeliveryMode(KafkaPublishConfig config) {
+        PublishDeliveryMode mode = PublishDeliveryMode.fromValue(config.getDeliveryMode());
+        if (mode == null && config.getDeliveryMode() != null) {
+            log.warn("Unknown publish delivery mode '{}', using default '{}'", 
+                     config.getDeliveryMode(), defaultDeliveryMode);
+        }
+        if (mode == null) {
+            mode = PublishDeliveryMode.fromValue(defaultDeliveryMode);
+        }
+        return mode != null ? mode : PublishDeliveryMode.SYNC;
+    }
+    
     /**
      * Apply output mapping to raw response.
      * Uses output mapping from action registry or node config (if provided).
@@ -273,6 +352,8 @@ public class PublishEventNodeExecutor implements ActionExecutor {
         private String key;
         private Map<String, Object> headers;
         private Object message;
+        private String deliveryMode;
+        private Map<String, Object> producer;
 
         public List<String> getBrokers() {
             return brokers;
@@ -313,6 +394,22 @@ public class PublishEventNodeExecutor implements ActionExecutor {
         public void setMessage(Object message) {
             this.message = message;
         }
+
+        public String getDeliveryMode() {
+            return deliveryMode;
+        }
+
+        public void setDeliveryMode(String deliveryMode) {
+            this.deliveryMode = deliveryMode;
+        }
+
+        public Map<String, Object> getProducer() {
+            return producer;
+        }
+
+        public void setProducer(Map<String, Object> producer) {
+            this.producer = producer;
+        }
     }
 
 }
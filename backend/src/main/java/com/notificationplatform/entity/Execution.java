@@ -97,6 +97,13 @@ public class Execution {
     @NotNull
     private LocalDateTime updatedAt;
 
+    @Column(name = "recovery_checked_at")
+    private LocalDateTime recoveryCheckedAt; // Last time the stuck execution recovery looked at it
+
+    @Column(name = "resume_snapshot", columnDefinition = "JSONB")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Object> resumeSnapshot; // Context and scheduler frontier saved at the last wait checkpoint
+
     // Relationships
     @OneToMany(mappedBy = "execution", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<NodeExecution> nodeExecutions = new ArrayList<>();
@@ -0,0 +1,117 @@
+package com.notificationplatform.entity;
+
+import com.notificationplatform.entity.enums.OutboxStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PublishOutboxEntry entity - Stores publish intents written in the same transaction as the node checkpoint.
+ * Entries are drained by PublishOutboxRelay and deleted once the broker acknowledges them.
+ */
+@Entity
+@Table(name = "publish_outbox", indexes = {
+    @Index(name = "idx_publish_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_publish_outbox_execution_id", columnList = "execution_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = {"payload"})
+@EqualsAndHashCode
+public class PublishOutboxEntry {
+
+    @Id
+    @Column(name = "id", length = 255)
+    @NotBlank
+    @Size(max = 255)
+    private String id;
+
+    @Column(name = "execution_id", nullable = false, length = 255)
+    @NotBlank
+    @Size(max = 255)
+    private String executionId;
+
+    @Column(name = "node_id", nullable = false, length = 255)
+    @NotBlank
+    @Size(max = 255)
+    private String nodeId;
+
+    @Column(name = "brokers", columnDefinition = "JSONB")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<String> brokers; // Null means application cluster
+
+    @Column(name = "topic", nullable = false, length = 255)
+    @NotBlank
+    @Size(max = 255)
+    private String topic;
+
+    @Column(name = "message_key", length = 1024)
+    @Size(max = 1024)
+    private String messageKey;
+
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload; // Serialized message
+
+    @Column(name = "headers", columnDefinition = "JSONB")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Object> headers;
+
+    @Column(name = "producer_settings", columnDefinition = "JSONB")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Object> producerSettings; // batchSize, lingerMs, compressionType, acks
+
+    @Column(name = "status", nullable = false, length = 50)
+    @Enumerated(EnumType.STRING)
+    @NotNull
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @NotNull
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    @NotNull
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "claimed_by", length = 255)
+    @Size(max = 255)
+    private String claimedBy; // Instance ID that claimed this entry
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @NotNull
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    @NotNull
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -89,6 +89,9 @@ public class RetrySchedule {
     @Column(name = "last_retried_at")
     private LocalDateTime lastRetriedAt;
 
+    @Column(name = "last_delay_ms")
+    private Long lastDelayMs; // Delay before the scheduled retry, basis of the next jittered delay
+
     @Column(name = "expires_at")
     private LocalDateTime expiresAt; // When to stop retrying (optional)
 
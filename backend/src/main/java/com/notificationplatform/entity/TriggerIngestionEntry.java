@@ -0,0 +1,91 @@
+package com.notificationplatform.entity;
+
+import com.notificationplatform.entity.enums.OutboxStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * TriggerIngestionEntry entity - Stores API trigger events accepted by the batch ingestion endpoint.
+ * Entries are drained by TriggerIngestionWorker and deleted once dispatched to the trigger's workflows.
+ * The entry id is the acceptance id returned to the caller.
+ */
+@Entity
+@Table(name = "trigger_ingestion_queue", indexes = {
+    @Index(name = "idx_trigger_ingestion_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = {"triggerData"})
+@EqualsAndHashCode
+public class TriggerIngestionEntry {
+
+    @Id
+    @Column(name = "id", length = 255)
+    @NotBlank
+    @Size(max = 255)
+    private String id;
+
+    @Column(name = "trigger_id", nullable = false, length = 255)
+    @NotBlank
+    @Size(max = 255)
+    private String triggerId;
+
+    @Column(name = "trigger_data", columnDefinition = "JSONB")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Object> triggerData;
+
+    @Column(name = "status", nullable = false, length = 50)
+    @Enumerated(EnumType.STRING)
+    @NotNull
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @NotNull
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    @NotNull
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "claimed_by", length = 255)
+    @Size(max = 255)
+    private String claimedBy; // Instance ID that claimed this entry
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @NotNull
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    @NotNull
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
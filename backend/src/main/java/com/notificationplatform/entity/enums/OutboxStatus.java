@@ -0,0 +1,38 @@
+package com.notificationplatform.entity.enums;
+
+/**
+ * Enum representing outbox entry status values (publish outbox, trigger ingestion queue).
+ * Entries are deleted once delivered, so there is no terminal success status.
+ */
+public enum OutboxStatus {
+    PENDING("pending"),
+    IN_FLIGHT("in_flight"),
+    FAILED("failed");
+
+    private final String value;
+
+    OutboxStatus(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get OutboxStatus from string value.
+     * @param value The string value
+     * @return OutboxStatus enum or null if not found
+     */
+    public static OutboxStatus fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (OutboxStatus status : OutboxStatus.values()) {
+            if (status.value.equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
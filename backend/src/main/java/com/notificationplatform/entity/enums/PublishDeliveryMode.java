@@ -0,0 +1,43 @@
+package com.notificationplatform.entity.enums;
+
+/**
+ * Enum representing delivery modes for publish event actions.
+ * - FIRE_AND_FORGET: send and continue, failures are only logged and counted
+ * - AWAIT_AT_CHECKPOINT: send and continue, engine awaits acks before persisting the next checkpoint
+ * - SYNC: block the node until the broker acknowledges the send
+ * - OUTBOX: write the message to the outbox in the node checkpoint transaction, relay publishes it later
+ */
+public enum PublishDeliveryMode {
+    FIRE_AND_FORGET("fire-and-forget"),
+    AWAIT_AT_CHECKPOINT("await-at-checkpoint"),
+    SYNC("sync"),
+    OUTBOX("outbox");
+
+    private final String value;
+
+    PublishDeliveryMode(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get PublishDeliveryMode from string value.
+     * Accepts both the value ("fire-and-forget") and the enum name ("FIRE_AND_FORGET").
+     * @param value The string value
+     * @return PublishDeliveryMode enum or null if not found
+     */
+    public static PublishDeliveryMode fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (PublishDeliveryMode mode : PublishDeliveryMode.values()) {
+            if (mode.value.equalsIgnoreCase(value) || mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
@@ -3,11 +3,13 @@ package com.notificationplatform.repository;
 import com.notificationplatform.entity.Execution;
 import com.notificationplatform.entity.enums.ExecutionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,6 +24,33 @@ public interface ExecutionRepository extends JpaRepository<Execution, String> {
     // Find by status
     List<Execution> findByStatus(ExecutionStatus status);
 
+    // Claim unfinished executions without progress since staleBefore and not checked since recheckBefore;
+    // rows locked by other instances are skipped instead of waited on
+    @Query(value = "SELECT * FROM executions WHERE status IN ('RUNNING', 'WAITING', 'PAUSED') " +
+                   "AND updated_at < :staleBefore " +
+                   "AND (recovery_checked_at IS NULL OR recovery_checked_at < :recheckBefore) " +
+                   "ORDER BY updated_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Execution> findStuckForUpdateSkipLocked(@Param("staleBefore") LocalDateTime staleBefore,
+                                                 @Param("recheckBefore") LocalDateTime recheckBefore,
+                                                 @Param("limit") int limit);
+
+    // Does not touch updatedAt, which stays the last progress of the execution
+    @Modifying
+    @Query("UPDATE Execution e SET e.recoveryCheckedAt = :checkedAt WHERE e.id IN :ids")
+    int markRecoveryChecked(@Param("ids") Collection<String> ids,
+                            @Param("checkedAt") LocalDateTime checkedAt);
+
+    @Query("SELECT COUNT(e) FROM Execution e WHERE e.status IN :statuses AND e.updatedAt < :staleBefore " +
+           "AND (e.recoveryCheckedAt IS NULL OR e.recoveryCheckedAt < :recheckBefore)")
+    long countStuck(@Param("statuses") Collection<ExecutionStatus> statuses,
+                    @Param("staleBefore") LocalDateTime staleBefore,
+                    @Param("recheckBefore") LocalDateTime recheckBefore);
+
+    // Executions waiting in memory (short delays), whose resume snapshot describes the wait
+    @Query(value = "SELECT * FROM executions WHERE status = 'WAITING' " +
+                   "AND resume_snapshot -> 'inMemoryWait' IS NOT NULL", nativeQuery = true)
+    List<Execution> findWaitingInMemory();
+
     // Find by workflow ID and status
     @Query("SELECT e FROM Execution e WHERE e.workflow.id = :workflowId AND e.status = :status")
     List<Execution> findByWorkflowIdAndStatus(@Param("workflowId") String workflowId, 
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +31,15 @@ public interface ExecutionWaitStateRepository extends JpaRepository<ExecutionWai
     List<ExecutionWaitState> findByCorrelationIdAndStatus(@Param("correlationId") String correlationId,
                                                           @Param("status") String status);
 
+    // Batch lookup for all correlation ids of a consumer poll
+    @Query("SELECT ews FROM ExecutionWaitState ews WHERE ews.correlationId IN :correlationIds AND ews.status = :status")
+    List<ExecutionWaitState> findByCorrelationIdInAndStatus(@Param("correlationIds") Collection<String> correlationIds,
+                                                            @Param("status") String status);
+
+    // Correlation ids only, for the in-memory active correlation set
+    @Query("SELECT ews.correlationId FROM ExecutionWaitState ews WHERE ews.status = :status")
+    List<String> findCorrelationIdsByStatus(@Param("status") String status);
+
     @Query("SELECT ews FROM ExecutionWaitState ews WHERE ews.status = :status AND ews.expiresAt < :expiresAt")
     List<ExecutionWaitState> findByStatusAndExpiresAtBefore(@Param("status") String status,
                                                             @Param("expiresAt") LocalDateTime expiresAt);
@@ -0,0 +1,52 @@
+package com.notificationplatform.repository;
+
+import com.notificationplatform.entity.PublishOutboxEntry;
+import com.notificationplatform.entity.enums.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for PublishOutboxEntry entity - Stores pending publish intents for the outbox relay.
+ */
+@Repository
+public interface PublishOutboxRepository extends JpaRepository<PublishOutboxEntry, String> {
+
+    // Claim due entries; rows locked by other instances are skipped instead of waited on
+    @Query(value = "SELECT * FROM publish_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PublishOutboxEntry> findDueForUpdateSkipLocked(@Param("now") LocalDateTime now,
+                                                        @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE PublishOutboxEntry e SET e.status = :status, e.claimedBy = :claimedBy, " +
+           "e.claimedAt = :claimedAt WHERE e.id IN :ids")
+    int markClaimed(@Param("ids") Collection<String> ids,
+                    @Param("status") OutboxStatus status,
+                    @Param("claimedBy") String claimedBy,
+                    @Param("claimedAt") LocalDateTime claimedAt);
+
+    // Release entries claimed by instances that died before finishing the batch
+    @Modifying
+    @Query("UPDATE PublishOutboxEntry e SET e.status = :pending, e.claimedBy = NULL, e.claimedAt = NULL " +
+           "WHERE e.status = :inFlight AND e.claimedAt < :cutoff")
+    int releaseStaleClaims(@Param("pending") OutboxStatus pending,
+                           @Param("inFlight") OutboxStatus inFlight,
+                           @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM PublishOutboxEntry e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT COUNT(e) FROM PublishOutboxEntry e WHERE e.status = :status")
+    long countByStatus(@Param("status") OutboxStatus status);
+
+    @Query("SELECT MIN(e.createdAt) FROM PublishOutboxEntry e WHERE e.status = :status")
+    LocalDateTime findOldestCreatedAtByStatus(@Param("status") OutboxStatus status);
+}
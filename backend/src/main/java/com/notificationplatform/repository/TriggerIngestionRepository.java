@@ -0,0 +1,49 @@
+package com.notificationplatform.repository;
+
+import com.notificationplatform.entity.TriggerIngestionEntry;
+import com.notificationplatform.entity.enums.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for TriggerIngestionEntry entity - Stores accepted API trigger events awaiting dispatch.
+ */
+@Repository
+public interface TriggerIngestionRepository extends JpaRepository<TriggerIngestionEntry, String> {
+
+    // Claim due entries; rows locked by other instances are skipped instead of waited on
+    @Query(value = "SELECT * FROM trigger_ingestion_queue WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<TriggerIngestionEntry> findDueForUpdateSkipLocked(@Param("now") LocalDateTime now,
+                                                           @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE TriggerIngestionEntry e SET e.status = :status, e.claimedBy = :claimedBy, " +
+           "e.claimedAt = :claimedAt WHERE e.id IN :ids")
+    int markClaimed(@Param("ids") Collection<String> ids,
+                    @Param("status") OutboxStatus status,
+                    @Param("claimedBy") String claimedBy,
+                    @Param("claimedAt") LocalDateTime claimedAt);
+
+    // Release entries claimed by instances that died before finishing the batch
+    @Modifying
+    @Query("UPDATE TriggerIngestionEntry e SET e.status = :pending, e.claimedBy = NULL, e.claimedAt = NULL " +
+           "WHERE e.status = :inFlight AND e.claimedAt < :cutoff")
+    int releaseStaleClaims(@Param("pending") OutboxStatus pending,
+                           @Param("inFlight") OutboxStatus inFlight,
+                           @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM TriggerIngestionEntry e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT COUNT(e) FROM TriggerIngestionEntry e WHERE e.status = :status")
+    long countByStatus(@Param("status") OutboxStatus status);
+}
@@ -2,11 +2,13 @@ package com.notificationplatform.repository;
 
 import com.notificationplatform.entity.WorkflowReport;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +31,23 @@ public interface WorkflowReportRepository extends JpaRepository<WorkflowReport,
            "(wr.nextGenerationAt IS NULL OR wr.nextGenerationAt <= :now) AND wr.deletedAt IS NULL")
     List<WorkflowReport> findDueReports(@Param("now") LocalDateTime now);
 
+    // Claim due reports; rows locked by other instances are skipped instead of waited on
+    @Query(value = "SELECT * FROM workflow_reports WHERE status = 'active' AND deleted_at IS NULL AND " +
+                   "(next_generation_at IS NULL OR next_generation_at <= :now) " +
+                   "ORDER BY next_generation_at NULLS FIRST LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<WorkflowReport> findDueForUpdateSkipLocked(@Param("now") LocalDateTime now,
+                                                    @Param("limit") int limit);
+
+    // Move claimed reports out of the due set until generation sets the real next time
+    @Modifying
+    @Query("UPDATE WorkflowReport wr SET wr.nextGenerationAt = :claimedUntil WHERE wr.id IN :ids")
+    int deferGeneration(@Param("ids") Collection<String> ids,
+                        @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Query("SELECT COUNT(wr) FROM WorkflowReport wr WHERE wr.status = 'active' AND " +
+           "(wr.nextGenerationAt IS NULL OR wr.nextGenerationAt <= :now) AND wr.deletedAt IS NULL")
+    long countDueReports(@Param("now") LocalDateTime now);
+
     @Query("SELECT wr FROM WorkflowReport wr WHERE wr.status = :status AND wr.deletedAt IS NULL")
     List<WorkflowReport> findByStatus(@Param("status") String status);
 
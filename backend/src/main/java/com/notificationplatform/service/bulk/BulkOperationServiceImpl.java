@@ -4,6 +4,7 @@ import com.notificationplatform.dto.response.BulkOperationResult;
 import com.notificationplatform.entity.Workflow;
 import com.notificationplatform.entity.enums.WorkflowStatus;
 import com.notificationplatform.repository.WorkflowRepository;
+import com.notificationplatform.service.trigger.WorkflowTriggerIndex;
 import com.notificationplatform.service.workflow.WorkflowService;
 
 
@@ -20,11 +21,14 @@ public class BulkOperationServiceImpl implements BulkOperationService {
 
     private final WorkflowRepository workflowRepository;
     private final WorkflowService workflowService;
+    private final WorkflowTriggerIndex workflowTriggerIndex;
 
     public BulkOperationServiceImpl(WorkflowRepository workflowRepository,
-                                    WorkflowService workflowService) {
+                                    WorkflowService workflowService,
+                                    WorkflowTriggerIndex workflowTriggerIndex) {
         this.workflowRepository = workflowRepository;
         this.workflowService = workflowService;
+        this.workflowTriggerIndex = workflowTriggerIndex;
     }
 
     @Override
@@ -105,6 +109,7 @@ public class BulkOperationServiceImpl implements BulkOperationService {
                     } else {
                         workflow.setStatus(workflowStatus);
                         workflowRepository.save(workflow);
+                        workflowTriggerIndex.onWorkflowChanged(workflow);
                         operationResult.setSuccess(true);
                         operationResult.setMessage("Workflow status updated to " + status);
                         result.setSuccess(result.getSuccess() + 1);
@@ -0,0 +1,40 @@
+package com.notificationplatform.service.claim;
+
+import java.util.List;
+
+/**
+ * Due work stored in database rows, drained by {@link BatchClaimRunner}.
+ *
+ * @param <T> Claimed item
+ */
+public interface ClaimableWork<T> {
+
+    /**
+     * Name used in logs and metric tags
+     */
+    String getWorkName();
+
+    /**
+     * Claim up to limit due items.
+     * Runs in the claim transaction: select with FOR UPDATE SKIP LOCKED, then mark the rows (a claim
+     * timestamp or a moved due time) so they are not claimed again once the transaction commits.
+     *
+     * @param limit Maximum number of items
+     * @return Claimed items
+     */
+    List<T> claim(int limit);
+
+    /**
+     * Process one claimed item.
+     * Runs on a worker thread outside the claim transaction; writes use their own transactions.
+     *
+     * @param item Claimed item
+     * @throws RuntimeException on failure; the item stays claimed until its claim lapses
+     */
+    void process(T item);
+
+    /**
+     * Number of due items not yet claimed, for the backlog metric
+     */
+    long countBacklog();
+}
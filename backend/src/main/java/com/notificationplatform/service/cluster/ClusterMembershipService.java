@@ -0,0 +1,113 @@
+package com.notificationplatform.service.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Live instance list kept in a Redis sorted set (member = instance id, score = last heartbeat).
+ *
+ * Every instance heartbeats periodically and drops members whose heartbeat is older than the member TTL.
+ * Listeners are told when the member list changes, e.g. to rebalance work partitioned across instances.
+ * While Redis is unreachable the last known list is kept.
+ */
+@Slf4j
+@Component
+public class ClusterMembershipService {
+
+    static final String MEMBERS_KEY = "cluster:members";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final List<Consumer<List<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    // Sorted instance ids
+    private volatile List<String> members = List.of();
+
+    @Value("${spring.application.instance-id:${HOSTNAME:unknown}}")
+    private String instanceId;
+
+    @Value("${app.cluster.member-ttl-ms:15000}")
+    private long memberTtlMs;
+
+    public ClusterMembershipService(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void join() {
+        heartbeat();
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Live instances, sorted. Contains at least this instance.
+     */
+    public List<String> getMembers() {
+        List<String> current = members;
+        return current.isEmpty() ? List.of(instanceId) : current;
+    }
+
+    /**
+     * Register a listener called with the new member list whenever it changes.
+     */
+    public void addMembershipListener(Consumer<List<String>> listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        List<String> live;
+        try {
+            long now = System.currentTimeMillis();
+            long cutoff = now - memberTtlMs;
+            redisTemplate.opsForZSet().add(MEMBERS_KEY, instanceId, now);
+            redisTemplate.opsForZSet().removeRangeByScore(MEMBERS_KEY, 0, cutoff);
+            Set<String> found = redisTemplate.opsForZSet().rangeByScore(MEMBERS_KEY, cutoff, Double.MAX_VALUE);
+            live = new ArrayList<>(found != null ? found : Set.of());
+        } catch (Exception e) {
+            log.warn("Failed to update cluster membership: {}", e.getMessage());
+            return;
+        }
+
+        if (!live.contains(instanceId)) {
+            live.add(instanceId);
+        }
+        live.sort(null);
+        if (live.equals(members)) {
+            return;
+        }
+
+        log.info("Cluster membership changed: members={}", live);
+        members = List.copyOf(live);
+        for (Consumer<List<String>> listener : listeners) {
+            try {
+                listener.accept(members);
+            } catch (Exception e) {
+                log.error("Cluster membership listener failed", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        try {
+            redisTemplate.opsForZSet().remove(MEMBERS_KEY, instanceId);
+        } catch (Exception e) {
+            log.warn("Failed to leave cluster membership: {}", e.getMessage());
+        }
+    }
+}
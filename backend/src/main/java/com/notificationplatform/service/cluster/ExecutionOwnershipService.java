@@ -0,0 +1,88 @@
+package com.notificationplatform.service.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records which instance owns a paused execution (key {@code execution:owner:<executionId>}, value =
+ * instance id), so callbacks for it can be routed to the instance still holding its context in memory.
+ *
+ * Ownership is advisory: an owner that is missing, expired or no longer a live cluster member means the
+ * receiving instance handles the callback itself.
+ */
+@Slf4j
+@Component
+public class ExecutionOwnershipService {
+
+    static final String OWNER_KEY_PREFIX = "execution:owner:";
+
+    // KEYS: owner key. ARGV: instance id. Deletes the key only while this instance owns it
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ClusterMembershipService clusterMembershipService;
+
+    @Value("${app.callback-routing.owner-ttl-ms:86400000}")
+    private long ownerTtlMs;
+
+    public ExecutionOwnershipService(RedisTemplate<String, String> redisTemplate,
+                                     ClusterMembershipService clusterMembershipService) {
+        this.redisTemplate = redisTemplate;
+        this.clusterMembershipService = clusterMembershipService;
+    }
+
+    public String getInstanceId() {
+        return clusterMembershipService.getInstanceId();
+    }
+
+    /**
+     * Record this instance as the owner of a paused execution
+     */
+    public void claim(String executionId) {
+        try {
+            redisTemplate.opsForValue().set(OWNER_KEY_PREFIX + executionId, getInstanceId(),
+                    ownerTtlMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Failed to record execution owner: executionId={}", executionId, e);
+        }
+    }
+
+    /**
+     * Drop the ownership of a finished execution, if this instance holds it
+     */
+    public void release(String executionId) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(OWNER_KEY_PREFIX + executionId), getInstanceId());
+        } catch (Exception e) {
+            log.debug("Failed to release execution owner: executionId={}", executionId, e);
+        }
+    }
+
+    /**
+     * Live instance other than this one that owns the execution.
+     *
+     * @return null if this instance should handle the execution itself
+     */
+    public String findRemoteOwner(String executionId) {
+        String owner;
+        try {
+            owner = redisTemplate.opsForValue().get(OWNER_KEY_PREFIX + executionId);
+        } catch (Exception e) {
+            log.warn("Failed to look up execution owner: executionId={}", executionId, e);
+            return null;
+        }
+        if (owner == null || owner.equals(getInstanceId()) || !clusterMembershipService.getMembers().contains(owner)) {
+            return null;
+        }
+        return owner;
+    }
+}
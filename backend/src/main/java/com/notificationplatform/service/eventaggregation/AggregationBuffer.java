@@ -0,0 +1,209 @@
+package com.notificationplatform.service.eventaggregation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffers the events received by WaitForEvents wait states so a wait state row is written when its
+ * aggregation completes, times out or is flushed, instead of once per event.
+ *
+ * Every event is appended to a durable per-wait-state list in Redis ({@code wait-state:events:<waitStateId>});
+ * the append returns the whole list, so completion is evaluated on all events received so far by whichever
+ * instance received the last one. Each instance tracks, in memory, how many events of its wait states were
+ * appended but not yet written to the database, and flushes those after a number of events or an age. A
+ * timeout merges the list before deciding, so buffered events are never lost to an instance restart.
+ *
+ * See: @import(features/distributed-execution-management.md#aggregation-buffer)
+ */
+@Slf4j
+@Component
+public class AggregationBuffer {
+
+    static final String EVENTS_KEY_PREFIX = "wait-state:events:";
+
+    // KEYS: events list. ARGV: event, ttl ms. Returns the list including the new event
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> APPEND_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('RPUSH', KEYS[1], ARGV[1]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return redis.call('LRANGE', KEYS[1], 0, -1)",
+            List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final EventAggregationService eventAggregationService;
+
+    /** waitStateId -> events appended here and not yet flushed */
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    @Value("${app.wait-state.aggregation-buffer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.wait-state.aggregation-buffer.flush-max-events:16}")
+    private int flushMaxEvents;
+
+    @Value("${app.wait-state.aggregation-buffer.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    @Value("${app.wait-state.aggregation-buffer.expiry-grace-ms:300000}")
+    private long expiryGraceMs;
+
+    public AggregationBuffer(RedisTemplate<String, String> redisTemplate,
+                             ObjectMapper objectMapper,
+                             @Lazy EventAggregationService eventAggregationService) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.eventAggregationService = eventAggregationService;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append an event to the wait state's list.
+     *
+     * @param expiresAtMs Epoch ms at which the wait state times out; the list outlives it by a grace period
+     * @return Data of every event received so far, first per event type, or null if Redis is unavailable
+     *         and the event must be written to the database directly
+     */
+    public Map<String, Map<String, Object>> append(String waitStateId, String eventType,
+                                                   Map<String, Object> data, long expiresAtMs) {
+        long ttlMs = expiresAtMs != Long.MAX_VALUE
+                ? Math.max(expiresAtMs - System.currentTimeMillis(), 0) + expiryGraceMs
+                : TimeUnit.DAYS.toMillis(1);
+        List<?> events;
+        try {
+            String event = objectMapper.writeValueAsString(Map.of("type", eventType, "data", data != null ? data : Map.of()));
+            events = redisTemplate.execute(APPEND_SCRIPT, List.of(EVENTS_KEY_PREFIX + waitStateId),
+                    event, String.valueOf(ttlMs));
+        } catch (Exception e) {
+            log.warn("Failed to buffer wait state event, writing it directly: waitStateId={}, error={}",
+                     waitStateId, e.getMessage());
+            return null;
+        }
+        pending.computeIfAbsent(waitStateId, id -> new Pending(System.currentTimeMillis())).count.incrementAndGet();
+        return byType(waitStateId, events);
+    }
+
+    /**
+     * Events received so far for a wait state, first per event type. Empty if none or Redis is unavailable.
+     */
+    public Map<String, Map<String, Object>> events(String waitStateId) {
+        if (!enabled) {
+            return Map.of();
+        }
+        try {
+            return byType(waitStateId, redisTemplate.opsForList().range(EVENTS_KEY_PREFIX + waitStateId, 0, -1));
+        } catch (Exception e) {
+            log.warn("Failed to read buffered wait state events: waitStateId={}, error={}", waitStateId, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Whether the events appended here for a wait state should be written to the database now
+     */
+    public boolean shouldFlush(String waitStateId) {
+        Pending entry = pending.get(waitStateId);
+        return entry != null && (entry.count.get() >= flushMaxEvents
+                || System.currentTimeMillis() - entry.since >= flushIntervalMs);
+    }
+
+    /**
+     * The buffered events were written to the wait state row
+     */
+    public void flushed(String waitStateId) {
+        pending.remove(waitStateId);
+    }
+
+    /**
+     * Drop the list of a wait state that is no longer waiting. Inside a transaction this happens after commit.
+     */
+    public void clear(String waitStateId) {
+        pending.remove(waitStateId);
+        if (!enabled) {
+            return;
+        }
+        Runnable delete = () -> {
+            try {
+                redisTemplate.delete(EVENTS_KEY_PREFIX + waitStateId);
+            } catch (Exception e) {
+                // The list expires on its own
+                log.debug("Failed to delete buffered wait state events: waitStateId={}", waitStateId, e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delete.run();
+                }
+            });
+        } else {
+            delete.run();
+        }
+    }
+
+    /**
+     * Write events that stayed buffered longer than the flush interval
+     */
+    @Scheduled(fixedDelayString = "${app.wait-state.aggregation-buffer.flush-interval-ms:5000}")
+    public void flushAged() {
+        for (String waitStateId : List.copyOf(pending.keySet())) {
+            if (!shouldFlush(waitStateId)) {
+                continue;
+            }
+            try {
+                eventAggregationService.flushBufferedEvents(waitStateId);
+            } catch (Exception e) {
+                log.error("Failed to flush buffered wait state events: waitStateId={}", waitStateId, e);
+            }
+        }
+    }
+
+    private Map<String, Map<String, Object>> byType(String waitStateId, List<?> events) {
+        Map<String, Map<String, Object>> byType = new LinkedHashMap<>();
+        if (events == null) {
+            return byType;
+        }
+        for (Object event : events) {
+            try {
+                Map<String, Object> parsed = objectMapper.readValue(event.toString(), new TypeReference<>() {});
+                @SuppressWarnings("unchecked")
+                Map<String, Object> data = (Map<String, Object>) parsed.get("data");
+                // The first event of a type wins, as when events are written directly
+                byType.putIfAbsent((String) parsed.get("type"), data);
+            } catch (Exception e) {
+                log.warn("Skipping unreadable buffered event: waitStateId={}, error={}", waitStateId, e.getMessage());
+            }
+        }
+        return byType;
+    }
+
+    private static final class Pending {
+
+        private final long since;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private Pending(long since) {
+            this.since = since;
+        }
+    }
+}
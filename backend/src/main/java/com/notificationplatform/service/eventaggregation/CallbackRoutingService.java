@@ -0,0 +1,367 @@
+package com.notificationplatform.service.eventaggregation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationplatform.service.cluster.ClusterMembershipService;
+import com.notificationplatform.service.cluster.ExecutionOwnershipService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Routes callbacks for paused executions to the instance that owns them.
+ *
+ * The instance that paused an execution records itself as owner ({@link ExecutionOwnershipService}) and
+ * keeps the execution state in memory. A callback received by any other instance is appended to the
+ * owner's Redis stream ({@code callbacks:stream:<instanceId>}); the owner consumes its stream through a
+ * consumer group and resumes from memory. A callback is handled where it was received when the owner is
+ * unknown or no longer a live member, or when forwarding fails; that resume is rebuilt from the database.
+ *
+ * Forwarded callbacks are acknowledged and deleted once handled. Entries left in the stream of an instance
+ * that died, and entries pending longer than the claim idle time, are taken over by a live instance and
+ * handled from the database.
+ *
+ * See: @import(features/distributed-execution-management.md#callback-routing)
+ */
+@Slf4j
+@Service
+public class CallbackRoutingService {
+
+    static final String STREAM_KEY_PREFIX = "callbacks:stream:";
+    static final String STREAMS_KEY = "callbacks:streams";
+    static final String CONSUMER_GROUP = "callback-routing";
+
+    private static final String TYPE_API_RESPONSE = "api_response";
+    private static final String TYPE_KAFKA_EVENT = "kafka_event";
+
+    private final EventAggregationService eventAggregationService;
+    private final ExecutionOwnershipService executionOwnershipService;
+    private final ClusterMembershipService clusterMembershipService;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Counter forwardedCounter;
+    private final Counter localCounter;
+    private final Counter forwardFailedCounter;
+    private final Counter receivedCounter;
+    private final Counter recoveredCounter;
+
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+
+    @Value("${app.callback-routing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.callback-routing.poll-timeout-ms:2000}")
+    private long pollTimeoutMs;
+
+    @Value("${app.callback-routing.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.callback-routing.claim-idle-ms:60000}")
+    private long claimIdleMs;
+
+    public CallbackRoutingService(EventAggregationService eventAggregationService,
+                                  ExecutionOwnershipService executionOwnershipService,
+                                  ClusterMembershipService clusterMembershipService,
+                                  RedisTemplate<String, String> redisTemplate,
+                                  RedisConnectionFactory connectionFactory,
+                                  ObjectMapper objectMapper,
+                                  @Qualifier("workflowResumeExecutor") ThreadPoolTaskExecutor executor,
+                                  MeterRegistry meterRegistry) {
+        this.eventAggregationService = eventAggregationService;
+        this.executionOwnershipService = executionOwnershipService;
+        this.clusterMembershipService = clusterMembershipService;
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+
+        this.forwardedCounter = Counter.builder("workflow.callbacks.routed")
+                .description("Callbacks by routing outcome")
+                .tag("outcome", "forwarded")
+                .register(meterRegistry);
+        this.localCounter = Counter.builder("workflow.callbacks.routed")
+                .description("Callbacks by routing outcome")
+                .tag("outcome", "local")
+                .register(meterRegistry);
+        this.forwardFailedCounter = Counter.builder("workflow.callbacks.routed")
+                .description("Callbacks by routing outcome")
+                .tag("outcome", "forward_failed")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("workflow.callbacks.received")
+                .description("Forwarded callbacks consumed from this instance's stream")
+                .register(meterRegistry);
+        this.recoveredCounter = Counter.builder("workflow.callbacks.recovered")
+                .description("Forwarded callbacks taken over from a dead or stalled consumer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        String streamKey = streamKey(clusterMembershipService.getInstanceId());
+        try {
+            createGroup(streamKey);
+            redisTemplate.opsForSet().add(STREAMS_KEY, streamKey);
+
+            // Entries delivered to a previous run of this instance but never acknowledged
+            handleRecords(streamKey, streams().read(
+                    Consumer.from(CONSUMER_GROUP, clusterMembershipService.getInstanceId()),
+                    StreamReadOptions.empty().count(batchSize),
+                    StreamOffset.create(streamKey, ReadOffset.from("0"))));
+        } catch (Exception e) {
+            log.warn("Failed to prepare callback stream, forwarded callbacks are recovered by other instances: " +
+                     "stream={}", streamKey, e);
+        }
+
+        StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(Duration.ofMillis(pollTimeoutMs))
+                        .batchSize(batchSize)
+                        .errorHandler(e -> log.warn("Callback stream read failed", e))
+                        .build();
+        container = StreamMessageListenerContainer.create(connectionFactory, options);
+        // Keep reading through Redis outages instead of cancelling the subscription on the first error
+        container.register(StreamMessageListenerContainer.StreamReadRequest
+                        .builder(StreamOffset.create(streamKey, ReadOffset.lastConsumed()))
+                        .consumer(Consumer.from(CONSUMER_GROUP, clusterMembershipService.getInstanceId()))
+                        .autoAcknowledge(false)
+                        .cancelOnError(e -> false)
+                        .build(),
+                record -> handleRecord(streamKey, record));
+        container.start();
+        log.info("Callback routing started: stream={}", streamKey);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    /**
+     * Handle an API response callback, on the owning instance if it is another live instance
+     *
+     * @return true if handled here, false if queued on the owner's stream and not applied yet
+     */
+    public boolean routeApiResponse(String executionId, String correlationId, Map<String, Object> responseData) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("type", TYPE_API_RESPONSE);
+        fields.put("executionId", executionId);
+        fields.put("correlationId", correlationId);
+        if (forward(executionId, fields, responseData)) {
+            return false;
+        }
+        eventAggregationService.handleApiResponse(executionId, correlationId, responseData);
+        return true;
+    }
+
+    /**
+     * Handle a Kafka event callback, on the owning instance if it is another live instance.
+     * The event data must carry execution_id and correlation_id.
+     *
+     * @return true if handled here, false if queued on the owner's stream and not applied yet
+     */
+    public boolean routeKafkaEvent(String executionId, String topic, Map<String, Object> eventData) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("type", TYPE_KAFKA_EVENT);
+        fields.put("executionId", executionId);
+        fields.put("topic", topic);
+        if (forward(executionId, fields, eventData)) {
+            return false;
+        }
+        eventAggregationService.handleKafkaEvent(topic, eventData);
+        return true;
+    }
+
+    /**
+     * Take over forwarded callbacks nobody is handling: the streams of instances that left the cluster,
+     * and entries pending longer than the claim idle time (consumer crashed or handling failed).
+     */
+    @Scheduled(fixedDelayString = "${app.callback-routing.recovery-interval-ms:10000}")
+    public void recoverCallbacks() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Set<String> streamKeys = redisTemplate.opsForSet().members(STREAMS_KEY);
+            if (streamKeys == null) {
+                return;
+            }
+            List<String> members = clusterMembershipService.getMembers();
+            for (String streamKey : streamKeys) {
+                boolean ownerAlive = members.contains(streamKey.substring(STREAM_KEY_PREFIX.length()));
+                recoverStream(streamKey, ownerAlive);
+            }
+        } catch (Exception e) {
+            log.warn("Callback recovery failed", e);
+        }
+    }
+
+    private void recoverStream(String streamKey, boolean ownerAlive) {
+        Consumer self = Consumer.from(CONSUMER_GROUP, clusterMembershipService.getInstanceId());
+        createGroup(streamKey);
+
+        if (!ownerAlive) {
+            // Entries never delivered to the dead owner
+            List<MapRecord<String, String, String>> undelivered = streams().read(self,
+                    StreamReadOptions.empty().count(batchSize),
+                    StreamOffset.create(streamKey, ReadOffset.lastConsumed()));
+            recoveredCounter.increment(undelivered != null ? undelivered.size() : 0);
+            handleRecords(streamKey, undelivered);
+        }
+
+        PendingMessages pending = streams().pending(streamKey, CONSUMER_GROUP, Range.unbounded(), batchSize);
+        List<RecordId> stalled = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (!ownerAlive || message.getElapsedTimeSinceLastDelivery().toMillis() >= claimIdleMs) {
+                stalled.add(message.getId());
+            }
+        }
+        if (!stalled.isEmpty()) {
+            // Claiming resets the idle time, so concurrent recoveries do not claim the same entries
+            List<MapRecord<String, String, String>> claimed = streams().claim(streamKey, CONSUMER_GROUP,
+                    self.getName(), Duration.ofMillis(ownerAlive ? claimIdleMs : 0), stalled.toArray(new RecordId[0]));
+            log.info("Recovering stalled callbacks: stream={}, count={}", streamKey, claimed.size());
+            recoveredCounter.increment(claimed.size());
+            handleRecords(streamKey, claimed);
+        }
+
+        if (!ownerAlive && pending.isEmpty()) {
+            Long size = streams().size(streamKey);
+            if (size == null || size == 0) {
+                redisTemplate.delete(streamKey);
+                redisTemplate.opsForSet().remove(STREAMS_KEY, streamKey);
+                log.info("Removed callback stream of departed instance: stream={}", streamKey);
+            }
+        }
+    }
+
+    private boolean forward(String executionId, Map<String, String> fields, Map<String, Object> payload) {
+        if (!enabled) {
+            return false;
+        }
+        String owner = executionOwnershipService.findRemoteOwner(executionId);
+        if (owner == null) {
+            localCounter.increment();
+            return false;
+        }
+        try {
+            fields.put("payload", objectMapper.writeValueAsString(payload != null ? payload : Map.of()));
+            streams().add(StreamRecords.newRecord().in(streamKey(owner)).ofMap(fields));
+            redisTemplate.opsForSet().add(STREAMS_KEY, streamKey(owner));
+            forwardedCounter.increment();
+            log.debug("Callback forwarded to owning instance: executionId={}, owner={}", executionId, owner);
+            return true;
+        } catch (JsonProcessingException e) {
+            log.warn("Callback payload not serializable, handling locally: executionId={}", executionId, e);
+        } catch (Exception e) {
+            log.warn("Failed to forward callback, handling locally: executionId={}, owner={}", executionId, owner, e);
+        }
+        forwardFailedCounter.increment();
+        return false;
+    }
+
+    private void handleRecords(String streamKey, List<MapRecord<String, String, String>> records) {
+        if (records == null) {
+            return;
+        }
+        for (MapRecord<String, String, String> record : records) {
+            handleRecord(streamKey, record);
+        }
+    }
+
+    /**
+     * Handle a forwarded callback on the resume executor; it is acknowledged once handled and stays
+     * pending (to be claimed again) if handling fails.
+     */
+    private void handleRecord(String streamKey, MapRecord<String, String, String> record) {
+        receivedCounter.increment();
+        Runnable task = () -> {
+            try {
+                dispatch(record.getValue());
+                complete(streamKey, record.getId());
+            } catch (JsonProcessingException e) {
+                log.error("Dropping unreadable forwarded callback: stream={}, id={}", streamKey, record.getId(), e);
+                complete(streamKey, record.getId());
+            } catch (Exception e) {
+                log.error("Failed to handle forwarded callback: stream={}, id={}", streamKey, record.getId(), e);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private void complete(String streamKey, RecordId recordId) {
+        streams().acknowledge(streamKey, CONSUMER_GROUP, recordId);
+        streams().delete(streamKey, recordId);
+    }
+
+    private void dispatch(Map<String, String> fields) throws JsonProcessingException {
+        Map<String, Object> payload = objectMapper.readValue(fields.get("payload"), new TypeReference<>() {});
+        String executionId = fields.get("executionId");
+        if (TYPE_API_RESPONSE.equals(fields.get("type"))) {
+            eventAggregationService.handleApiResponse(executionId, fields.get("correlationId"), payload);
+        } else if (TYPE_KAFKA_EVENT.equals(fields.get("type"))) {
+            eventAggregationService.handleKafkaEvent(fields.get("topic"), payload);
+        } else {
+            log.warn("Unknown forwarded callback type: type={}, executionId={}", fields.get("type"), executionId);
+        }
+    }
+
+    private void createGroup(String streamKey) {
+        try {
+            streams().createGroup(streamKey, ReadOffset.from("0"), CONSUMER_GROUP);
+        } catch (Exception e) {
+            // BUSYGROUP: the group already exists
+            log.debug("Callback consumer group not created: stream={}, reason={}", streamKey, e.getMessage());
+        }
+    }
+
+    private StreamOperations<String, String, String> streams() {
+        return redisTemplate.opsForStream();
+    }
+
+    private static String streamKey(String instanceId) {
+        return STREAM_KEY_PREFIX + instanceId;
+    }
+}
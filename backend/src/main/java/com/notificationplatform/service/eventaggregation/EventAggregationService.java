@@ -43,6 +43,17 @@ public interface EventAggregationService {
      */
     void handleKafkaEvent(String topic, Map<String, Object> eventData);
 
+    /**
+     * Handle Kafka event for a wait state that was already looked up (batch consumers).
+     * Applies the same validation as {@link #handleKafkaEvent(String, Map)} without querying the wait state again.
+     */
+    void handleKafkaEvent(String topic, ExecutionWaitState waitState, Map<String, Object> eventData);
+
+    /**
+     * Write the events buffered for a wait state to its row, resuming the execution if they complete it
+     */
+    void flushBufferedEvents(String waitStateId);
+
     /**
      * Check if completion condition met and resume execution if ready
      * Uses optimistic locking to ensure only one instance resumes
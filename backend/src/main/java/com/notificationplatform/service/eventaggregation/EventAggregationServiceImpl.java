@@ -12,11 +12,14 @@ import com.notificationplatform.exception.ResourceNotFoundException;
 import com.notificationplatform.repository.ExecutionRepository;
 import com.notificationplatform.repository.ExecutionWaitStateRepository;
 import com.notificationplatform.repository.NodeExecutionRepository;
+import com.notificationplatform.service.timer.TimerService;
+import com.notificationplatform.service.waitstate.ActiveCorrelationRegistry;
+import com.notificationplatform.service.waitstate.CorrelationRoutingTable;
+import com.notificationplatform.service.waitstate.WaitStateTimerHandler;
 
 
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.OptimisticLockingFailureException;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,15 +37,27 @@ public class EventAggregationServiceImpl implements EventAggregationService {
     private final ExecutionRepository executionRepository;
     private final NodeExecutionRepository nodeExecutionRepository;
     private final WorkflowExecutor workflowExecutor;
+    private final ActiveCorrelationRegistry activeCorrelationRegistry;
+    private final TimerService timerService;
+    private final CorrelationRoutingTable correlationRoutingTable;
+    private final AggregationBuffer aggregationBuffer;
 
     public EventAggregationServiceImpl(ExecutionWaitStateRepository waitStateRepository,
                                       ExecutionRepository executionRepository,
                                       NodeExecutionRepository nodeExecutionRepository,
-                                      @Lazy WorkflowExecutor workflowExecutor) {
+                                      @Lazy WorkflowExecutor workflowExecutor,
+                                      ActiveCorrelationRegistry activeCorrelationRegistry,
+                                      TimerService timerService,
+                                      CorrelationRoutingTable correlationRoutingTable,
+                                      AggregationBuffer aggregationBuffer) {
         this.waitStateRepository = waitStateRepository;
         this.executionRepository = executionRepository;
         this.nodeExecutionRepository = nodeExecutionRepository;
         this.workflowExecutor = workflowExecutor;
+        this.activeCorrelationRegistry = activeCorrelationRegistry;
+        this.timerService = timerService;
+        this.correlationRoutingTable = correlationRoutingTable;
+        this.aggregationBuffer = aggregationBuffer;
     }
 
     @Override
@@ -91,6 +106,7 @@ public class EventAggregationServiceImpl implements EventAggregationService {
 
         // Generate unique correlation ID
         String correlationId = UUID.randomUUID().toString();
+        activeCorrelationRegistry.register(correlationId);
 
         // Determine enabled events
         List<String> enabledEvents = new ArrayList<>();
@@ -127,6 +143,8 @@ public class EventAggregationServiceImpl implements EventAggregationService {
         waitState.setExpiresAt(expiresAt);
 
         waitState = waitStateRepository.save(waitState);
+        correlationRoutingTable.register(waitState);
+        timerService.schedule(WaitStateTimerHandler.TIMER_TYPE, waitState.getId(), expiresAt);
 
         log.info("Wait state registered: waitStateId={}, correlationId={}, executionId={}, nodeId={}", 
                    waitState.getId(), correlationId, executionId, nodeId);
@@ -145,9 +163,24 @@ public class EventAggregationServiceImpl implements EventAggregationService {
             return;
         }
 
-        // Find wait state with lock
-        Optional<ExecutionWaitState> waitStateOpt = waitStateRepository
-                .findByExecutionIdAndCorrelationIdAndStatus(executionId, correlationId, "waiting");
+        // Skip the lookup for correlation ids that are certainly not waiting
+        if (!activeCorrelationRegistry.mightBeWaiting(correlationId)) {
+            log.debug("No active correlation for API response: executionId={}, correlationId={}",
+                        executionId, correlationId);
+            return;
+        }
+
+        // Validate against the routing table so only events that change the wait state reach the database
+        CorrelationRoutingTable.Route route = correlationRoutingTable.lookup(correlationId);
+        if (route != null && !acceptsEvent(route, executionId, correlationId, "api_response")) {
+            return;
+        }
+        if (route != null && bufferEvent(route, correlationId, "api_response", responseData)) {
+            return;
+        }
+
+        // Find wait state
+        Optional<ExecutionWaitState> waitStateOpt = findWaitingState(route, executionId, correlationId);
 
         if (waitStateOpt.isEmpty()) {
             log.debug("No waiting execution found for API response: executionId={}, correlationId={}", 
@@ -173,6 +206,11 @@ public class EventAggregationServiceImpl implements EventAggregationService {
             return;
         }
 
+        if (route == null && bufferEvent(CorrelationRoutingTable.Route.of(waitState), correlationId,
+                                         "api_response", responseData)) {
+            return;
+        }
+
         // Store API response data
         waitState.setApiResponseData(responseData);
 
@@ -182,6 +220,7 @@ public class EventAggregationServiceImpl implements EventAggregationService {
 
         // Update wait state
         waitState = waitStateRepository.save(waitState);
+        correlationRoutingTable.markReceived(correlationId, "api_response");
 
         log.info("API response received: executionId={}, correlationId={}", executionId, correlationId);
 
@@ -206,9 +245,24 @@ public class EventAggregationServiceImpl implements EventAggregationService {
             return;
         }
 
-        // Find wait state with lock
-        Optional<ExecutionWaitState> waitStateOpt = waitStateRepository
-                .findByExecutionIdAndCorrelationIdAndStatus(executionId, correlationId, "waiting");
+        // Skip the lookup for correlation ids that are certainly not waiting
+        if (!activeCorrelationRegistry.mightBeWaiting(correlationId)) {
+            log.debug("No active correlation for Kafka event: executionId={}, correlationId={}",
+                        executionId, correlationId);
+            return;
+        }
+
+        // Validate against the routing table so only events that change the wait state reach the database
+        CorrelationRoutingTable.Route route = correlationRoutingTable.lookup(correlationId);
+        if (route != null && !acceptsEvent(route, executionId, correlationId, "kafka_event")) {
+            return;
+        }
+        if (route != null && bufferEvent(route, correlationId, "kafka_event", eventData)) {
+            return;
+        }
+
+        // Find wait state
+        Optional<ExecutionWaitState> waitStateOpt = findWaitingState(route, executionId, correlationId);
 
         if (waitStateOpt.isEmpty()) {
             log.debug("No waiting execution found for Kafka event: executionId={}, correlationId={}", 
@@ -216,10 +270,25 @@ public class EventAggregationServiceImpl implements EventAggregationService {
             return;
         }
 
-        ExecutionWaitState waitState = waitStateOpt.get();
+        // With a route the event was offered to the buffer already; a failed append is written directly
+        applyKafkaEvent(topic, waitStateOpt.get(), eventData, route == null);
+    }
+
+    @Override
+    public void handleKafkaEvent(String topic, ExecutionWaitState waitState, Map<String, Object> eventData) {
+        applyKafkaEvent(topic, waitState, eventData, true);
+    }
+
+    /**
+     * @param buffer Whether the event may be buffered; false once an append failed, so it is not appended twice
+     */
+    private void applyKafkaEvent(String topic, ExecutionWaitState waitState, Map<String, Object> eventData,
+                                 boolean buffer) {
+        String executionId = extractField(eventData, "execution_id");
+        String correlationId = extractField(eventData, "correlation_id");
 
         // Validate execution_id matches (prevent cross-execution contamination)
-        if (!executionId.equals(waitState.getExecution().getId())) {
+        if (executionId == null || !executionId.equals(waitState.getExecution().getId())) {
             log.error("Execution ID mismatch in Kafka event: expected={}, actual={}, correlationId={}", 
                         waitState.getExecution().getId(), executionId, correlationId);
             return;
@@ -242,6 +311,11 @@ public class EventAggregationServiceImpl implements EventAggregationService {
             return;
         }
 
+        if (buffer && bufferEvent(CorrelationRoutingTable.Route.of(waitState), waitState.getCorrelationId(),
+                                  "kafka_event", eventData)) {
+            return;
+        }
+
         // Store Kafka event data
         waitState.setKafkaEventData(eventData);
 
@@ -251,6 +325,7 @@ public class EventAggregationServiceImpl implements EventAggregationService {
 
         // Update wait state
         waitState = waitStateRepository.save(waitState);
+        correlationRoutingTable.markReceived(waitState.getCorrelationId(), "kafka_event");
 
         log.info("Kafka event received: executionId={}, correlationId={}, topic={}", 
                    executionId, correlationId, topic);
@@ -261,6 +336,131 @@ public class EventAggregationServiceImpl implements EventAggregationService {
         }
     }
 
+    /**
+     * Check a callback against the routing entry of its correlation id.
+     *
+     * @return false if the event would not change the wait state
+     */
+    private boolean acceptsEvent(CorrelationRoutingTable.Route route, String executionId,
+                                 String correlationId, String eventType) {
+        // Validate execution_id matches (prevent cross-execution contamination)
+        if (!executionId.equals(route.executionId())) {
+            log.error("Execution ID mismatch in {}: expected={}, actual={}, correlationId={}", 
+                        eventType, route.executionId(), executionId, correlationId);
+            return false;
+        }
+        if (!route.enabledEvents().contains(eventType)) {
+            log.warn("{} received but not enabled for wait state: executionId={}, nodeId={}", 
+                       eventType, executionId, route.nodeId());
+            return false;
+        }
+        if (route.receivedEvents().contains(eventType)) {
+            log.debug("{} already received: executionId={}, correlationId={}", eventType, executionId, correlationId);
+            return false;
+        }
+        if (route.isExpired()) {
+            log.debug("{} received after wait state expired: executionId={}, correlationId={}", 
+                        eventType, executionId, correlationId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Append an event to the aggregation buffer and evaluate completion on the buffered events, so the
+     * wait state row is only written on completion or when the buffer is flushed.
+     *
+     * @return false if the event was not buffered and must be written to the wait state directly
+     */
+    private boolean bufferEvent(CorrelationRoutingTable.Route route, String correlationId,
+                                String eventType, Map<String, Object> eventData) {
+        if (!aggregationBuffer.isEnabled()) {
+            return false;
+        }
+        Map<String, Map<String, Object>> events = aggregationBuffer.append(route.waitStateId(), eventType,
+                eventData, route.expiresAtMs());
+        if (events == null) {
+            return false;
+        }
+        correlationRoutingTable.markReceived(correlationId, eventType);
+
+        log.info("{} buffered: executionId={}, correlationId={}", eventType, route.executionId(), correlationId);
+
+        Set<String> receivedEvents = new HashSet<>(route.receivedEvents());
+        receivedEvents.addAll(events.keySet());
+        if (isCompletionConditionMet(route.aggregationStrategy(), route.enabledEvents(),
+                                     route.requiredEvents(), receivedEvents)
+                || aggregationBuffer.shouldFlush(route.waitStateId())) {
+            flushEvents(route.waitStateId(), events);
+        }
+        return true;
+    }
+
+    @Override
+    public void flushBufferedEvents(String waitStateId) {
+        flushEvents(waitStateId, aggregationBuffer.events(waitStateId));
+    }
+
+    /**
+     * Write buffered events to the wait state row and resume the execution if they complete it
+     */
+    private void flushEvents(String waitStateId, Map<String, Map<String, Object>> events) {
+        Optional<ExecutionWaitState> waitStateOpt = waitStateRepository.findById(waitStateId)
+                .filter(waitState -> "waiting".equals(waitState.getStatus()) && waitState.getResumedAt() == null);
+        if (waitStateOpt.isEmpty()) {
+            aggregationBuffer.flushed(waitStateId);
+            return;
+        }
+
+        ExecutionWaitState waitState = waitStateOpt.get();
+        applyEvents(waitState, events);
+        if (isCompletionConditionMet(waitState)) {
+            // The resume saves the row with the events applied
+            resumeWaitState(waitState);
+        } else {
+            waitStateRepository.save(waitState);
+        }
+        aggregationBuffer.flushed(waitStateId);
+    }
+
+    /**
+     * Copy buffered events not yet stored on the wait state into it. The first event of a type wins.
+     *
+     * @return true if the wait state changed
+     */
+    private boolean applyEvents(ExecutionWaitState waitState, Map<String, Map<String, Object>> events) {
+        List<String> receivedEvents = waitState.getReceivedEvents() != null ? 
+                                      new ArrayList<>(waitState.getReceivedEvents()) : new ArrayList<>();
+        boolean changed = false;
+        for (Map.Entry<String, Map<String, Object>> event : events.entrySet()) {
+            if (receivedEvents.contains(event.getKey())) {
+                continue;
+            }
+            if ("api_response".equals(event.getKey())) {
+                waitState.setApiResponseData(event.getValue());
+            } else if ("kafka_event".equals(event.getKey())) {
+                waitState.setKafkaEventData(event.getValue());
+            } else {
+                continue;
+            }
+            receivedEvents.add(event.getKey());
+            changed = true;
+        }
+        if (changed) {
+            waitState.setReceivedEvents(receivedEvents);
+        }
+        return changed;
+    }
+
+    private Optional<ExecutionWaitState> findWaitingState(CorrelationRoutingTable.Route route,
+                                                          String executionId, String correlationId) {
+        if (route != null) {
+            return waitStateRepository.findById(route.waitStateId())
+                    .filter(waitState -> "waiting".equals(waitState.getStatus()));
+        }
+        return waitStateRepository.findByExecutionIdAndCorrelationIdAndStatus(executionId, correlationId, "waiting");
+    }
+
     @Override
     public boolean isCompletionConditionMet(ExecutionWaitState waitState) {
         List<String> receivedEvents = waitState.getReceivedEvents() != null ? 
@@ -270,8 +470,11 @@ public class EventAggregationServiceImpl implements EventAggregationService {
         List<String> requiredEvents = waitState.getRequiredEvents() != null ? 
                                      waitState.getRequiredEvents() : new ArrayList<>();
 
-        String strategy = waitState.getAggregationStrategy();
+        return isCompletionConditionMet(waitState.getAggregationStrategy(), enabledEvents, requiredEvents, receivedEvents);
+    }
 
+    private boolean isCompletionConditionMet(String strategy, Collection<String> enabledEvents,
+                                             Collection<String> requiredEvents, Collection<String> receivedEvents) {
         switch (strategy) {
             case "all":
                 // All enabled events received
@@ -318,12 +521,26 @@ public class EventAggregationServiceImpl implements EventAggregationService {
             return false;
         }
 
+        // Include events still in the aggregation buffer
+        applyEvents(waitState, aggregationBuffer.events(waitState.getId()));
+
         // Check completion condition
         if (!isCompletionConditionMet(waitState)) {
             log.debug("Completion condition not met: executionId={}, nodeId={}", executionId, nodeId);
             return false;
         }
 
+        return resumeWaitState(waitState);
+    }
+
+    /**
+     * Resume the execution of a wait state whose completion condition is met.
+     * Uses optimistic locking to ensure only one instance resumes.
+     */
+    private boolean resumeWaitState(ExecutionWaitState waitState) {
+        String executionId = waitState.getExecution().getId();
+        String nodeId = waitState.getNodeId();
+
         // Use optimistic locking: increment version
         int currentVersion = waitState.getVersion();
         waitState.setStatus("resuming");
@@ -334,6 +551,9 @@ public class EventAggregationServiceImpl implements EventAggregationService {
         try {
             // This will fail if version changed (another instance updated it)
             waitState = waitStateRepository.save(waitState);
+            activeCorrelationRegistry.unregister(waitState.getCorrelationId());
+            correlationRoutingTable.remove(waitState.getCorrelationId());
+            aggregationBuffer.clear(waitState.getId());
 
             // Successfully acquired lock, proceed with resume
             // Aggregate data from received events
@@ -393,6 +613,9 @@ public class EventAggregationServiceImpl implements EventAggregationService {
 
         ExecutionWaitState lockedState = lockedStateOpt.get();
 
+        // Decide on every event received, including those still in the aggregation buffer
+        applyEvents(lockedState, aggregationBuffer.events(lockedState.getId()));
+
         // Get timeout behavior from workflow definition
         String onTimeout = getOnTimeoutFromWorkflow(executionId, nodeId);
         if (onTimeout == null || onTimeout.isEmpty()) {
@@ -431,6 +654,9 @@ public class EventAggregationServiceImpl implements EventAggregationService {
             waitState.setResumedAt(LocalDateTime.now());
             waitState.setResumedBy(getInstanceId());
             waitStateRepository.save(waitState);
+            activeCorrelationRegistry.unregister(waitState.getCorrelationId());
+            correlationRoutingTable.remove(waitState.getCorrelationId());
+            aggregationBuffer.clear(waitState.getId());
 
             // Mark node execution as failed
             markNodeExecutionFailed(executionId, nodeId, "Timeout waiting for events");
@@ -486,6 +712,9 @@ public class EventAggregationServiceImpl implements EventAggregationService {
             waitState.setResumedAt(LocalDateTime.now());
             waitState.setResumedBy(getInstanceId());
             waitStateRepository.save(waitState);
+            activeCorrelationRegistry.unregister(waitState.getCorrelationId());
+            correlationRoutingTable.remove(waitState.getCorrelationId());
+            aggregationBuffer.clear(waitState.getId());
 
             // Resume workflow execution with available data
             workflowExecutor.resumeExecution(executionId, nodeId, aggregatedData);
@@ -788,80 +1017,6 @@ public class EventAggregationServiceImpl implements EventAggregationService {
         return null;
     }
 
-    /**
-     * Process expired wait states
-     * Runs every minute to check for expired wait states
-     * Only one instance processes each expired state (via locking)
-     */
-    @Scheduled(fixedRate = 60000) // Check every minute
-    @org.springframework.transaction.annotation.Transactional
-    public void processExpiredWaitStates() {
-        long startTime = System.currentTimeMillis();
-        LocalDateTime now = LocalDateTime.now();
-        
-        List<ExecutionWaitState> expiredStates = waitStateRepository
-                .findByStatusAndExpiresAtBefore("waiting", now);
-
-        if (expiredStates.isEmpty()) {
-            log.debug("No expired wait states found at {}", now);
-            return;
-        }
-
-        log.info("Found {} expired wait states to process at {}", expiredStates.size(), now);
-
-        int processed = 0;
-        int failed = 0;
-        int skipped = 0;
-        String instanceId = getInstanceId();
-
-        for (ExecutionWaitState state : expiredStates) {
-            String executionId = state.getExecution() != null ? state.getExecution().getId() : "unknown";
-            String nodeId = state.getNodeId();
-            
-            try {
-                // Try to acquire lock (only one instance will succeed)
-                Optional<ExecutionWaitState> lockedStateOpt = waitStateRepository
-                        .findByIdWithLock(state.getId());
-
-                if (lockedStateOpt.isPresent()) {
-                    ExecutionWaitState lockedState = lockedStateOpt.get();
-                    if ("waiting".equals(lockedState.getStatus())) {
-                        // This instance acquired the lock
-                        log.debug("Processing expired wait state: executionId={}, nodeId={}, instance={}, expiresAt={}", 
-                                   executionId, nodeId, instanceId, lockedState.getExpiresAt());
-                        handleTimeout(executionId, nodeId);
-                        processed++;
-                    } else {
-                        // Already processed by another instance
-                        skipped++;
-                        log.debug("Wait state already processed by another instance: executionId={}, nodeId={}, status={}", 
-                                   executionId, nodeId, lockedState.getStatus());
-                    }
-                } else {
-                    // Lock acquisition failed (another instance processing)
-                    skipped++;
-                    log.debug("Could not acquire lock for wait state (another instance processing): " +
-                               "executionId={}, nodeId={}", executionId, nodeId);
-                }
-            } catch (org.springframework.dao.OptimisticLockingFailureException e) {
-                // Another instance processed this
-                skipped++;
-                log.debug("Optimistic locking failure (another instance processed): executionId={}, nodeId={}", 
-                           executionId, nodeId);
-            } catch (Exception e) {
-                failed++;
-                log.error("Error processing expired wait state: executionId={}, nodeId={}, instance={}", 
-                           executionId, nodeId, instanceId, e);
-                // Continue processing other expired states
-            }
-        }
-
-        long processingTime = System.currentTimeMillis() - startTime;
-        log.info("Processed expired wait states: total={}, processed={}, failed={}, skipped={}, " +
-                   "time={}ms, instance={}", 
-                   expiredStates.size(), processed, failed, skipped, processingTime, instanceId);
-    }
-
     /**
      * Get unique instance identifier
      */
@@ -1,14 +1,16 @@
 package com.notificationplatform.service.execution;
 
 import com.notificationplatform.engine.DistributedLockService;
+import com.notificationplatform.engine.InMemoryWaitTimerHandler;
 import com.notificationplatform.entity.Execution;
 import com.notificationplatform.entity.enums.ExecutionStatus;
 import com.notificationplatform.repository.ExecutionRepository;
-import lombok.RequiredArgsConstructor;
+import com.notificationplatform.service.claim.BatchClaimRunner;
+import com.notificationplatform.service.claim.ClaimableWork;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -17,86 +19,132 @@ import java.util.List;
 /**
  * Service for recovering stuck executions.
  * Handles pod failures and expired locks gracefully.
+ *
+ * Stuck executions are claimed in batches through {@link BatchClaimRunner}; a claimed execution is marked
+ * as checked so it is looked at again only after the lock expiration threshold.
+ *
+ * Of the RUNNING, WAITING and PAUSED executions without progress for that long:
+ * - Those still locked have their lock released, and are failed after an hour without progress
+ * - WAITING executions whose in-memory wait (short delay) is overdue are resumed from their resume
+ *   snapshot, in case both the in-memory timer and its durable fallback were lost
+ * - Other WAITING and PAUSED executions are resumed by the timer service or by events, not here
+ * - RUNNING executions without a lock are only reported
  * 
  * See: @import(features/distributed-execution-management.md#pod-failure-handling)
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class ExecutionRecoveryService {
+public class ExecutionRecoveryService implements ClaimableWork<String> {
+
+    private static final List<ExecutionStatus> UNFINISHED_STATUSES =
+            List.of(ExecutionStatus.RUNNING, ExecutionStatus.WAITING, ExecutionStatus.PAUSED);
 
     private final ExecutionRepository executionRepository;
     private final DistributedLockService lockService;
-    private final ExecutionResumeService resumeService;
+    private final BatchClaimRunner batchClaimRunner;
+    private final InMemoryWaitTimerHandler inMemoryWaitTimerHandler;
     
     // Lock expiration threshold (5 minutes)
     private static final Duration LOCK_EXPIRATION_THRESHOLD = Duration.ofMinutes(5);
 
+    // Executions locked but without progress for this long are failed
+    private static final Duration STUCK_FAILURE_THRESHOLD = Duration.ofHours(1);
+
+    @Value("${app.execution-recovery.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.execution-recovery.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    public ExecutionRecoveryService(ExecutionRepository executionRepository,
+                                    DistributedLockService lockService,
+                                    BatchClaimRunner batchClaimRunner,
+                                    InMemoryWaitTimerHandler inMemoryWaitTimerHandler) {
+        this.executionRepository = executionRepository;
+        this.lockService = lockService;
+        this.batchClaimRunner = batchClaimRunner;
+        this.inMemoryWaitTimerHandler = inMemoryWaitTimerHandler;
+    }
+
     /**
      * Recover stuck executions.
      * Runs every 5 minutes to check for executions with expired locks.
      */
     @Scheduled(fixedRate = 300000) // Every 5 minutes
-    @Transactional
     public void recoverStuckExecutions() {
         log.debug("Checking for stuck executions");
-        
-        // Find executions that are RUNNING or WAITING but haven't been updated recently
-        LocalDateTime threshold = LocalDateTime.now().minus(LOCK_EXPIRATION_THRESHOLD);
-        // Find by each status separately since findByStatusInAndUpdatedAtBefore doesn't exist
-        List<Execution> stuckExecutions = new java.util.ArrayList<>();
-        stuckExecutions.addAll(executionRepository.findByStatus(ExecutionStatus.RUNNING));
-        stuckExecutions.addAll(executionRepository.findByStatus(ExecutionStatus.WAITING));
-        stuckExecutions.addAll(executionRepository.findByStatus(ExecutionStatus.PAUSED));
-        
-        // Filter by updatedAt
-        stuckExecutions = stuckExecutions.stream()
-                .filter(e -> e.getUpdatedAt() != null && e.getUpdatedAt().isBefore(threshold))
-                .collect(java.util.stream.Collectors.toList());
-        
-        for (Execution execution : stuckExecutions) {
-            try {
-                // Check if execution is actually locked
-                if (lockService.isLocked(execution.getId())) {
-                    // Lock exists but execution hasn't been updated - might be stuck
-                    log.warn("Potential stuck execution detected: executionId={}, status={}, updatedAt={}", 
-                             execution.getId(), execution.getStatus(), execution.getUpdatedAt());
-                    
-                    // Try to release lock if it's expired
-                    // Note: This is a safety mechanism - in production, you might want more sophisticated logic
-                    if (shouldReleaseLock(execution)) {
-                        log.info("Releasing expired lock for execution: executionId={}", execution.getId());
-                        lockService.releaseLock(execution.getId());
-                        
-                        // Mark execution as failed if it's been stuck for too long
-                        if (execution.getUpdatedAt().isBefore(LocalDateTime.now().minus(Duration.ofHours(1)))) {
-                            execution.setStatus(ExecutionStatus.FAILED);
-                            execution.setError("Execution stuck - recovered by system");
-                            execution.setUpdatedAt(LocalDateTime.now());
-                            executionRepository.save(execution);
-                            log.warn("Marked stuck execution as failed: executionId={}", execution.getId());
-                        }
-                    }
-                } else {
-                    // No lock but execution is in RUNNING/WAITING state - might need recovery
-                    log.warn("Execution without lock detected: executionId={}, status={}", 
-                             execution.getId(), execution.getStatus());
-                    
-                    // If execution is PAUSED, try to resume it
-                    if (execution.getStatus() == ExecutionStatus.PAUSED) {
-                        // Find wait state and try to resume
-                        // This would require access to waitStateRepository
-                        log.info("Attempting to recover paused execution: executionId={}", execution.getId());
-                    }
+        batchClaimRunner.drain(this, batchSize, maxBatchesPerRun);
+    }
+
+    @Override
+    public String getWorkName() {
+        return "execution-recovery";
+    }
+
+    /**
+     * Claim RUNNING, WAITING or PAUSED executions that haven't been updated recently.
+     */
+    @Override
+    public List<String> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime threshold = now.minus(LOCK_EXPIRATION_THRESHOLD);
+        List<String> ids = executionRepository.findStuckForUpdateSkipLocked(threshold, threshold, limit).stream()
+                .map(Execution::getId)
+                .toList();
+        if (!ids.isEmpty()) {
+            executionRepository.markRecoveryChecked(ids, now);
+        }
+        return ids;
+    }
+
+    @Override
+    public void process(String executionId) {
+        Execution execution = executionRepository.findById(executionId).orElse(null);
+        if (execution == null || !UNFINISHED_STATUSES.contains(execution.getStatus())) {
+            return;
+        }
+
+        if (inMemoryWaitTimerHandler.isOverdue(execution)) {
+            // The instance holding the wait stopped and the durable fallback timer did not fire either
+            log.warn("Resuming execution stuck in an in-memory wait: executionId={}, updatedAt={}",
+                     execution.getId(), execution.getUpdatedAt());
+            inMemoryWaitTimerHandler.resume(execution.getId(), (String) execution.getResumeSnapshot().get("waitStateId"));
+            return;
+        }
+
+        // Check if execution is actually locked
+        if (lockService.isLocked(execution.getId())) {
+            // Lock exists but execution hasn't been updated - might be stuck
+            log.warn("Potential stuck execution detected: executionId={}, status={}, updatedAt={}", 
+                     execution.getId(), execution.getStatus(), execution.getUpdatedAt());
+            
+            // Try to release lock if it's expired
+            // Note: This is a safety mechanism - in production, you might want more sophisticated logic
+            if (shouldReleaseLock(execution)) {
+                log.info("Releasing expired lock for execution: executionId={}", execution.getId());
+                lockService.releaseLock(execution.getId());
+                
+                // Mark execution as failed if it's been stuck for too long
+                if (execution.getUpdatedAt().isBefore(LocalDateTime.now().minus(STUCK_FAILURE_THRESHOLD))) {
+                    execution.setStatus(ExecutionStatus.FAILED);
+                    execution.setError("Execution stuck - recovered by system");
+                    execution.setUpdatedAt(LocalDateTime.now());
+                    executionRepository.save(execution);
+                    log.warn("Marked stuck execution as failed: executionId={}", execution.getId());
                 }
-            } catch (Exception e) {
-                log.error("Error recovering stuck execution: executionId={}", execution.getId(), e);
             }
+        } else if (execution.getStatus() == ExecutionStatus.RUNNING) {
+            // No lock but execution is RUNNING - its instance may have died
+            // Other waiting and paused executions are resumed by the timer service or by events
+            log.warn("Execution without lock detected: executionId={}, status={}", 
+                     execution.getId(), execution.getStatus());
         }
-        
-        if (!stuckExecutions.isEmpty()) {
-            log.info("Recovery check completed: checked {} executions", stuckExecutions.size());
-        }
+    }
+
+    @Override
+    public long countBacklog() {
+        LocalDateTime threshold = LocalDateTime.now().minus(LOCK_EXPIRATION_THRESHOLD);
+        return executionRepository.countStuck(UNFINISHED_STATUSES, threshold, threshold);
     }
 
     /**
@@ -111,4 +159,3 @@ public class ExecutionRecoveryService {
         return execution.getUpdatedAt().isBefore(threshold);
     }
 }
-
@@ -10,20 +10,20 @@ import com.notificationplatform.entity.enums.ExecutionStatus;
 import com.notificationplatform.repository.ExecutionWaitStateRepository;
 import com.notificationplatform.repository.ExecutionRepository;
 import com.notificationplatform.repository.WorkflowRepository;
+import com.notificationplatform.service.waitstate.ActiveCorrelationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 /**
  * Service for resuming paused executions.
- * Handles scheduled resume tasks and manual resume operations.
+ * Handles delay resumes fired by the timer service and manual resume operations.
  * 
  * See: @import(features/distributed-execution-management.md#resume-execution)
  */
@@ -39,33 +39,32 @@ public class ExecutionResumeService {
     private final ExecutionContextCache contextCache;
     private final ExecutionStateService executionStateService;
     private final WorkflowExecutor workflowExecutor;
+    private final ActiveCorrelationRegistry activeCorrelationRegistry;
 
     /**
-     * Check and resume executions that are ready to resume.
-     * Runs every minute to check for executions that should be resumed.
+     * Resume the execution waiting on a delay whose time has come.
+     * Fired by the timer service; does nothing if the delay was already resumed.
+     *
+     * @param waitStateId DELAY wait state ID
      */
-    @Scheduled(fixedRate = 60000) // Every minute
     @Transactional
-    public void checkAndResumeExecutions() {
-        log.debug("Checking for executions ready to resume");
-        
-        // Find wait states that are ready to resume (for delay nodes)
-        // Note: For wait-for-events, resume is triggered by event arrival
-        LocalDateTime now = LocalDateTime.now();
-        List<ExecutionWaitState> readyWaitStates = waitStateRepository
-                .findByExpiresAtLessThanEqualAndStatus(now, "waiting");
-        
-        for (ExecutionWaitState waitState : readyWaitStates) {
-            // Check if this is a delay node (waitType = DELAY)
-            if ("DELAY".equals(waitState.getWaitType())) {
-                try {
-                    resumeExecution(waitState.getExecution().getId(), waitState.getNodeId());
-                } catch (Exception e) {
-                    log.error("Error resuming execution: executionId={}, nodeId={}", 
-                             waitState.getExecution().getId(), waitState.getNodeId(), e);
-                }
-            }
+    public void resumeDelay(String waitStateId) {
+        Optional<ExecutionWaitState> waitStateOpt = waitStateRepository.findByIdWithLock(waitStateId);
+        if (waitStateOpt.isEmpty() || !"waiting".equals(waitStateOpt.get().getStatus())) {
+            log.debug("Delay already resumed: waitStateId={}", waitStateId);
+            return;
         }
+
+        ExecutionWaitState waitState = waitStateOpt.get();
+        waitState.setStatus("completed");
+        waitState.setResumedAt(LocalDateTime.now());
+        waitStateRepository.save(waitState);
+
+        String executionId = waitState.getExecution().getId();
+        Map<String, Object> output = new HashMap<>();
+        output.put("delayCompleted", true);
+        workflowExecutor.resumeExecution(executionId, waitState.getNodeId(), output);
+        log.info("Delay completed: waitStateId={}, executionId={}, nodeId={}", waitStateId, executionId, waitState.getNodeId());
     }
 
     /**
@@ -116,6 +115,7 @@ public class ExecutionResumeService {
                 waitState.setStatus("completed");
                 waitState.setResumedAt(LocalDateTime.now());
                 waitStateRepository.save(waitState);
+                activeCorrelationRegistry.unregister(waitState.getCorrelationId());
             } else {
                 // Try to recover from execution context
                 Map<String, Object> executionContext = execution.getContext();
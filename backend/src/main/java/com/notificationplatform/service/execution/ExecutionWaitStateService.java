@@ -6,9 +6,10 @@ import com.notificationplatform.entity.enums.ExecutionStatus;
 import com.notificationplatform.engine.ExecutionContext;
 import com.notificationplatform.repository.ExecutionWaitStateRepository;
 import com.notificationplatform.repository.ExecutionRepository;
+import com.notificationplatform.service.timer.TimerService;
+import com.notificationplatform.service.waitstate.WaitStateTimerHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +32,7 @@ public class ExecutionWaitStateService {
     private final ExecutionWaitStateRepository waitStateRepository;
     private final ExecutionRepository executionRepository;
     private final ExecutionResumeService resumeService;
+    private final TimerService timerService;
 
     /**
      * Create wait state for delay/wait-for-events node.
@@ -60,6 +62,9 @@ public class ExecutionWaitStateService {
         waitState.setUpdatedAt(LocalDateTime.now());
         
         waitState = waitStateRepository.save(waitState);
+        if (expiresAt != null) {
+            timerService.schedule(WaitStateTimerHandler.TIMER_TYPE, waitState.getId(), expiresAt);
+        }
         
         // Update execution status to PAUSED
         execution.setStatus(ExecutionStatus.PAUSED);
@@ -107,41 +112,6 @@ public class ExecutionWaitStateService {
         log.info("Wait state updated: waitStateId={}, receivedEvents={}", waitStateId, receivedEvents);
     }
 
-    /**
-     * Check for expired wait states and handle timeouts.
-     * Runs every minute.
-     */
-    @Scheduled(fixedRate = 60000) // Every minute
-    @Transactional
-    public void checkTimeouts() {
-        log.debug("Checking for expired wait states");
-        
-        LocalDateTime now = LocalDateTime.now();
-        List<ExecutionWaitState> expiredWaitStates = waitStateRepository
-                .findByExpiresAtLessThanEqualAndStatus(now, "waiting");
-        
-        for (ExecutionWaitState waitState : expiredWaitStates) {
-            log.warn("Wait state expired: waitStateId={}, executionId={}, nodeId={}", 
-                     waitState.getId(), waitState.getExecution().getId(), waitState.getNodeId());
-            
-            // Update wait state status to timeout
-            waitState.setStatus("timeout");
-            waitState.setUpdatedAt(now);
-            waitStateRepository.save(waitState);
-            
-            // Update execution status to FAILED
-            Execution execution = waitState.getExecution();
-            execution.setStatus(ExecutionStatus.FAILED);
-            execution.setError("Wait state timeout: " + waitState.getWaitType());
-            execution.setUpdatedAt(now);
-            executionRepository.save(execution);
-        }
-        
-        if (!expiredWaitStates.isEmpty()) {
-            log.info("Handled {} expired wait states", expiredWaitStates.size());
-        }
-    }
-
     /**
      * Mark wait state as completed.
      * 
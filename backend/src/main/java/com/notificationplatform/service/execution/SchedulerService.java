@@ -46,7 +46,7 @@ public class SchedulerService {
                 try {
                     // Get wait state and resume execution
                     // Note: This would need access to waitStateRepository
-                    // For now, we'll just log - actual resume is handled by ExecutionResumeService.checkAndResumeExecutions()
+                    // For now, we'll just log - delay resumes are fired by TimerService
                 } catch (Exception e) {
                     log.error("Error in scheduled resume: waitStateId={}", waitStateId, e);
                 }
@@ -5,6 +5,7 @@ import com.notificationplatform.dto.response.WorkflowExportResponse;
 import com.notificationplatform.entity.Workflow;
 import com.notificationplatform.exception.ResourceNotFoundException;
 import com.notificationplatform.repository.WorkflowRepository;
+import com.notificationplatform.service.trigger.WorkflowTriggerIndex;
 import com.notificationplatform.service.workflow.WorkflowService;
 
 
@@ -24,13 +25,16 @@ public class WorkflowExportServiceImpl implements WorkflowExportService {
     private final WorkflowRepository workflowRepository;
     private final WorkflowService workflowService;
     private final ObjectMapper objectMapper;
+    private final WorkflowTriggerIndex workflowTriggerIndex;
 
     public WorkflowExportServiceImpl(WorkflowRepository workflowRepository,
                                     WorkflowService workflowService,
-                                    ObjectMapper objectMapper) {
+                                    ObjectMapper objectMapper,
+                                    WorkflowTriggerIndex workflowTriggerIndex) {
         this.workflowRepository = workflowRepository;
         this.workflowService = workflowService;
         this.objectMapper = objectMapper;
+        this.workflowTriggerIndex = workflowTriggerIndex;
     }
 
     @Override
@@ -157,6 +161,7 @@ public class WorkflowExportServiceImpl implements WorkflowExportService {
                     workflow.setTags(export.getTags());
                     workflow.setVersion(workflow.getVersion() + 1);
                     workflow = workflowRepository.save(workflow);
+                    workflowTriggerIndex.onWorkflowChanged(workflow);
 
                     result.setSuccess(true);
                     result.setWorkflowId(workflow.getId());
@@ -0,0 +1,243 @@
+package com.notificationplatform.service.publish;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of Kafka producers for publish event actions.
+ * Producers are keyed by normalized broker list and producer settings, created lazily on first use,
+ * evicted after being idle and closed gracefully on shutdown.
+ *
+ * Sends to the application cluster without producer overrides use the application KafkaTemplate.
+ */
+@Slf4j
+@Component
+public class KafkaProducerPool {
+
+    private final KafkaTemplate<String, String> defaultTemplate;
+    private final ProducerFactory<String, String> defaultProducerFactory;
+    private final MeterRegistry meterRegistry;
+    private final Map<ProducerKey, PooledProducer> producers = new ConcurrentHashMap<>();
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String defaultBootstrapServers;
+
+    @Value("${app.publish.producer-pool.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    @Value("${app.publish.producer-pool.max-size:20}")
+    private int maxSize;
+
+    public KafkaProducerPool(KafkaTemplate<String, String> kafkaTemplate,
+                             ProducerFactory<String, String> producerFactory,
+                             MeterRegistry meterRegistry) {
+        this.defaultTemplate = kafkaTemplate;
+        this.defaultProducerFactory = producerFactory;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("workflow.publish.producer_pool.size", List.of(), producers);
+    }
+
+    /**
+     * Acquire a template for the given brokers and producer overrides.
+     * Callers must call {@link PooledProducer#release()} once the send has completed.
+     *
+     * @param brokers Broker addresses (null/empty means application cluster)
+     * @param producerOverrides Kafka producer config overrides (may be empty)
+     * @return Pooled producer, or null if the application template should be used
+     */
+    public PooledProducer acquire(Collection<String> brokers, Map<String, Object> producerOverrides) {
+        String normalizedBrokers = normalizeBrokers(brokers);
+        Map<String, Object> overrides = producerOverrides != null ? new TreeMap<>(producerOverrides) : new TreeMap<>();
+
+        if ((normalizedBrokers == null || normalizedBrokers.equals(normalizeBrokers(List.of(defaultBootstrapServers))))
+                && overrides.isEmpty()) {
+            return null;
+        }
+
+        ProducerKey key = new ProducerKey(normalizedBrokers, overrides);
+        // Acquire inside compute so eviction cannot close the producer between lookup and use
+        PooledProducer producer = producers.compute(key, (k, existing) -> {
+            PooledProducer pooled = existing != null ? existing : createProducer(k);
+            pooled.acquire();
+            return pooled;
+        });
+        if (producers.size() > maxSize) {
+            evictLeastRecentlyUsed();
+        }
+        return producer;
+    }
+
+    /**
+     * Application template, used when no pooled producer is required.
+     */
+    public KafkaTemplate<String, String> getDefaultTemplate() {
+        return defaultTemplate;
+    }
+
+    /**
+     * Number of pooled producers currently open.
+     */
+    public int size() {
+        return producers.size();
+    }
+
+    /**
+     * Close producers that have been idle for longer than the idle timeout.
+     * Runs every minute.
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictIdleProducers() {
+        long now = System.currentTimeMillis();
+        List<ProducerKey> idleKeys = new ArrayList<>();
+        producers.forEach((key, producer) -> {
+            if (producer.isIdle() && now - producer.getLastUsedAt() > idleTimeoutMs) {
+                idleKeys.add(key);
+            }
+        });
+        idleKeys.forEach(key -> evictIfIdle(key, "idle"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Closing {} pooled Kafka producers", producers.size());
+        new ArrayList<>(producers.keySet()).forEach(key -> {
+            PooledProducer producer = producers.remove(key);
+            if (producer != null) {
+                producer.close();
+            }
+        });
+    }
+
+    /**
+     * Normalize broker list: split comma-separated entries, trim, lowercase, dedupe and sort.
+     * Returns null when no brokers are given.
+     */
+    static String normalizeBrokers(Collection<String> brokers) {
+        if (brokers == null) {
+            return null;
+        }
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String broker : brokers) {
+            if (broker == null) {
+                continue;
+            }
+            for (String part : broker.split(",")) {
+                String trimmed = part.trim().toLowerCase();
+                if (!trimmed.isEmpty()) {
+                    normalized.add(trimmed);
+                }
+            }
+        }
+        return normalized.isEmpty() ? null : String.join(",", normalized);
+    }
+
+    private PooledProducer createProducer(ProducerKey key) {
+        Map<String, Object> props = new HashMap<>(defaultProducerFactory.getConfigurationProperties());
+        if (key.brokers() != null) {
+            props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, key.brokers());
+        }
+        props.putAll(key.overrides());
+
+        DefaultKafkaProducerFactory<String, String> factory = new DefaultKafkaProducerFactory<>(props);
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry,
+                List.of(Tag.of("pool.brokers", key.brokers() != null ? key.brokers() : defaultBootstrapServers))));
+
+        log.info("Creating pooled Kafka producer: brokers={}, overrides={}", key.brokers(), key.overrides());
+        return new PooledProducer(new KafkaTemplate<>(factory), factory);
+    }
+
+    private void evictLeastRecentlyUsed() {
+        producers.entrySet().stream()
+                .filter(entry -> entry.getValue().isIdle())
+                .min((a, b) -> Long.compare(a.getValue().getLastUsedAt(), b.getValue().getLastUsedAt()))
+                .ifPresent(entry -> evictIfIdle(entry.getKey(), "max-size"));
+    }
+
+    private void evictIfIdle(ProducerKey key, String reason) {
+        PooledProducer[] evicted = new PooledProducer[1];
+        producers.computeIfPresent(key, (k, producer) -> {
+            if (!producer.isIdle()) {
+                return producer;
+            }
+            evicted[0] = producer;
+            return null;
+        });
+        if (evicted[0] != null) {
+            log.info("Closing pooled Kafka producer: brokers={}, reason={}", key.brokers(), reason);
+            evicted[0].close();
+        }
+    }
+
+    private record ProducerKey(String brokers, Map<String, Object> overrides) {
+        ProducerKey {
+            overrides = Map.copyOf(overrides);
+        }
+    }
+
+    /**
+     * A pooled producer with usage tracking for idle eviction.
+     */
+    public static class PooledProducer {
+
+        private final KafkaTemplate<String, String> template;
+        private final DefaultKafkaProducerFactory<String, String> factory;
+        private final AtomicInteger inUse = new AtomicInteger();
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        PooledProducer(KafkaTemplate<String, String> template, DefaultKafkaProducerFactory<String, String> factory) {
+            this.template = template;
+            this.factory = factory;
+        }
+
+        public KafkaTemplate<String, String> getTemplate() {
+            return template;
+        }
+
+        void acquire() {
+            inUse.incrementAndGet();
+            lastUsedAt = System.currentTimeMillis();
+        }
+
+        public void release() {
+            inUse.decrementAndGet();
+            lastUsedAt = System.currentTimeMillis();
+        }
+
+        boolean isIdle() {
+            return inUse.get() <= 0;
+        }
+
+        long getLastUsedAt() {
+            return lastUsedAt;
+        }
+
+        void close() {
+            try {
+                template.flush();
+            } catch (Exception e) {
+                log.warn("Error flushing pooled Kafka producer: {}", e.getMessage());
+            }
+            factory.destroy();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.notificationplatform.service.publish;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for publishing messages to Kafka on behalf of publish event actions.
+ * Sends are always asynchronous; callers decide whether to block on, defer or ignore the returned future.
+ *
+ * Per-action brokers and producer settings (batching, linger, compression, acks) are served by
+ * {@link KafkaProducerPool}, so producers are created once per distinct cluster/settings set.
+ */
+@Slf4j
+@Service
+public class KafkaPublishService {
+
+    private final KafkaProducerPool producerPool;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer sendTimer;
+
+    public KafkaPublishService(KafkaProducerPool producerPool, MeterRegistry meterRegistry) {
+        this.producerPool = producerPool;
+        meterRegistry.gauge("workflow.publish.in_flight", inFlight);
+        this.sentCounter = Counter.builder("workflow.publish.sends")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("workflow.publish.sends")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("workflow.publish.latency")
+                .description("Time from send to broker acknowledgement")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Send a message to Kafka.
+     *
+     * @param brokers Broker addresses (optional, defaults to the application cluster)
+     * @param topic Topic name
+     * @param key Message key (optional)
+     * @param value Serialized message payload
+     * @param headers Message headers (optional)
+     * @param producerSettings Per-action producer settings (optional), see {@link #toProducerOverrides(Map)}
+     * @return Future completed when the broker acknowledges the send
+     */
+    public CompletableFuture<SendResult<String, String>> send(Collection<String> brokers,
+                                                              String topic, String key, String value,
+                                                              Map<String, Object> headers,
+                                                              Map<String, Object> producerSettings) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, value);
+        if (headers != null) {
+            headers.forEach((name, headerValue) -> {
+                if (headerValue != null) {
+                    record.headers().add(name, headerValue.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            });
+        }
+
+        KafkaProducerPool.PooledProducer pooled = producerPool.acquire(brokers, toProducerOverrides(producerSettings));
+        KafkaTemplate<String, String> template = pooled != null ? pooled.getTemplate() : producerPool.getDefaultTemplate();
+        long startNanos = System.nanoTime();
+        inFlight.incrementAndGet();
+
+        CompletableFuture<SendResult<String, String>> future;
+        try {
+            future = template.send(record);
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            failedCounter.increment();
+            if (pooled != null) {
+                pooled.release();
+            }
+            throw e;
+        }
+
+        future.whenComplete((result, ex) -> {
+            inFlight.decrementAndGet();
+            if (pooled != null) {
+                pooled.release();
+            }
+            sendTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            if (ex != null) {
+                failedCounter.increment();
+                log.warn("Kafka publish failed: topic={}, key={}, error={}", topic, key, ex.getMessage());
+            } else {
+                sentCounter.increment();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Number of sends that have not been acknowledged yet.
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * Convert action-level producer settings to Kafka producer config overrides.
+     * Supported keys: batchSize, lingerMs, compressionType, acks.
+     */
+    static Map<String, Object> toProducerOverrides(Map<String, Object> producerSettings) {
+        Map<String, Object> overrides = new TreeMap<>();
+        if (producerSettings == null) {
+            return overrides;
+        }
+        putIfPresent(overrides, ProducerConfig.BATCH_SIZE_CONFIG, producerSettings.get("batchSize"));
+        putIfPresent(overrides, ProducerConfig.LINGER_MS_CONFIG, producerSettings.get("lingerMs"));
+        putIfPresent(overrides, ProducerConfig.COMPRESSION_TYPE_CONFIG, producerSettings.get("compressionType"));
+        putIfPresent(overrides, ProducerConfig.ACKS_CONFIG, producerSettings.get("acks"));
+        return overrides;
+    }
+
+    private static void putIfPresent(Map<String, Object> overrides, String configKey, Object value) {
+        if (value != null && !value.toString().isBlank()) {
+            overrides.put(configKey, value.toString());
+        }
+    }
+}
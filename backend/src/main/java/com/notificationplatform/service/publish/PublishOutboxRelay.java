@@ -0,0 +1,244 @@
+package com.notificationplatform.service.publish;
+
+import com.notificationplatform.entity.PublishOutboxEntry;
+import com.notificationplatform.entity.enums.OutboxStatus;
+import com.notificationplatform.repository.PublishOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relay that drains the publish outbox to Kafka.
+ *
+ * Each round claims a batch of due entries with FOR UPDATE SKIP LOCKED (so instances never block on
+ * each other), marks them in-flight and commits. The batch is then published asynchronously and awaited
+ * once; acknowledged entries are deleted in bulk and failed entries are rescheduled with backoff.
+ * Entries claimed by an instance that died mid-batch are released after the claim timeout.
+ */
+@Slf4j
+@Component
+public class PublishOutboxRelay {
+
+    private final PublishOutboxRepository outboxRepository;
+    private final KafkaPublishService kafkaPublishService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+
+    @Value("${spring.application.instance-id:${HOSTNAME:unknown}}")
+    private String instanceId;
+
+    @Value("${app.publish.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.publish.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.publish.outbox.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${app.publish.outbox.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.publish.outbox.claim-timeout-ms:120000}")
+    private long claimTimeoutMs;
+
+    @Value("${app.publish.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    public PublishOutboxRelay(PublishOutboxRepository outboxRepository,
+                              KafkaPublishService kafkaPublishService,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaPublishService = kafkaPublishService;
+        this.transactionTemplate = transactionTemplate;
+        meterRegistry.gauge("workflow.publish.outbox.pending", pendingCount);
+        meterRegistry.gauge("workflow.publish.outbox.oldest_pending_age_ms", oldestPendingAgeMs);
+        this.publishedCounter = Counter.builder("workflow.publish.outbox.relayed")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("workflow.publish.outbox.relayed")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("workflow.publish.outbox.lag")
+                .description("Time from outbox write to broker acknowledgement")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drain due outbox entries.
+     * Keeps claiming batches while they come back full, up to max-batches-per-poll.
+     */
+    @Scheduled(fixedDelayString = "${app.publish.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            releaseStaleClaims();
+
+            int rounds = 0;
+            int claimed;
+            do {
+                claimed = relayBatch();
+                rounds++;
+            } while (claimed >= batchSize && rounds < maxBatchesPerPoll);
+
+            updateLagMetrics();
+        } catch (Exception e) {
+            log.error("Error relaying publish outbox", e);
+        }
+    }
+
+    /**
+     * Claim, publish and settle one batch.
+     *
+     * @return Number of entries claimed
+     */
+    int relayBatch() {
+        List<PublishOutboxEntry> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (PublishOutboxEntry entry : batch) {
+            CompletableFuture<?> future;
+            try {
+                future = kafkaPublishService.send(entry.getBrokers(), entry.getTopic(), entry.getMessageKey(),
+                        entry.getPayload(), entry.getHeaders(), entry.getProducerSettings());
+            } catch (Exception e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            sends.add(future);
+        }
+
+        // Await the whole batch once instead of one broker round trip per entry
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Individual failures are inspected below
+        }
+
+        List<String> publishedIds = new ArrayList<>();
+        Map<String, String> failures = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            PublishOutboxEntry entry = batch.get(i);
+            CompletableFuture<?> future = sends.get(i);
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                publishedIds.add(entry.getId());
+                lagTimer.record(Duration.between(entry.getCreatedAt(), now));
+            } else {
+                failures.put(entry.getId(), describeFailure(future));
+            }
+        }
+
+        settle(publishedIds, failures);
+        publishedCounter.increment(publishedIds.size());
+        failedCounter.increment(failures.size());
+
+        log.debug("Publish outbox batch relayed: claimed={}, published={}, failed={}, instance={}",
+                batch.size(), publishedIds.size(), failures.size(), instanceId);
+        return batch.size();
+    }
+
+    private List<PublishOutboxEntry> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<PublishOutboxEntry> due = outboxRepository.findDueForUpdateSkipLocked(now, batchSize);
+            if (!due.isEmpty()) {
+                List<String> ids = due.stream().map(PublishOutboxEntry::getId).toList();
+                outboxRepository.markClaimed(ids, OutboxStatus.IN_FLIGHT, instanceId, now);
+            }
+            return due;
+        });
+    }
+
+    private void settle(List<String> publishedIds, Map<String, String> failures) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!publishedIds.isEmpty()) {
+                outboxRepository.deleteByIdIn(publishedIds);
+            }
+            if (!failures.isEmpty()) {
+                List<PublishOutboxEntry> failed = outboxRepository.findAllById(failures.keySet());
+                LocalDateTime now = LocalDateTime.now();
+                for (PublishOutboxEntry entry : failed) {
+                    int attempts = entry.getAttempts() + 1;
+                    entry.setAttempts(attempts);
+                    entry.setLastError(failures.get(entry.getId()));
+                    entry.setClaimedBy(null);
+                    entry.setClaimedAt(null);
+                    if (attempts >= maxAttempts) {
+                        entry.setStatus(OutboxStatus.FAILED);
+                        log.error("Publish outbox entry failed permanently: id={}, executionId={}, topic={}, error={}",
+                                entry.getId(), entry.getExecutionId(), entry.getTopic(), entry.getLastError());
+                    } else {
+                        entry.setStatus(OutboxStatus.PENDING);
+                        entry.setNextAttemptAt(now.plusSeconds(backoffSeconds(attempts)));
+                    }
+                }
+                outboxRepository.saveAll(failed);
+            }
+        });
+    }
+
+    private void releaseStaleClaims() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(claimTimeoutMs));
+        Integer released = transactionTemplate.execute(status ->
+                outboxRepository.releaseStaleClaims(OutboxStatus.PENDING, OutboxStatus.IN_FLIGHT, cutoff));
+        if (released != null && released > 0) {
+            log.warn("Released {} stale publish outbox claims", released);
+        }
+    }
+
+    private void updateLagMetrics() {
+        pendingCount.set(outboxRepository.countByStatus(OutboxStatus.PENDING));
+        LocalDateTime oldest = outboxRepository.findOldestCreatedAtByStatus(OutboxStatus.PENDING);
+        oldestPendingAgeMs.set(oldest != null ? Duration.between(oldest, LocalDateTime.now()).toMillis() : 0);
+    }
+
+    /**
+     * Exponential backoff capped at 5 minutes: 2, 4, 8, ... seconds.
+     */
+    private static long backoffSeconds(int attempts) {
+        return Math.min(300L, 1L << Math.min(attempts, 9));
+    }
+
+    private static String describeFailure(CompletableFuture<?> future) {
+        if (!future.isDone()) {
+            return "Send timed out";
+        }
+        try {
+            future.join();
+            return "Unknown error";
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return cause.getMessage();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.notificationplatform.service.registry;
+
+import com.notificationplatform.entity.Action;
+import com.notificationplatform.repository.ActionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process cache of action definitions.
+ *
+ * Action nodes resolve their registry definition on every execution, so definitions are kept in memory
+ * and read through to the database on miss. Registry changes evict the entry locally and publish the
+ * action id on a Redis channel so every instance evicts it too. Entries also expire after a TTL as a
+ * safety net for missed invalidation messages.
+ */
+@Slf4j
+@Component
+public class ActionDefinitionCache implements MessageListener {
+
+    static final String INVALIDATION_CHANNEL = "action-registry:invalidate";
+    private static final String INVALIDATE_ALL = "*";
+
+    private final ActionRepository actionRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Map<String, CachedAction> cache = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Value("${app.action-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.action-cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    public ActionDefinitionCache(ActionRepository actionRepository,
+                                 RedisTemplate<String, String> redisTemplate,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 MeterRegistry meterRegistry) {
+        this.actionRepository = actionRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        meterRegistry.gaugeMapSize("workflow.action_cache.size", List.of(), cache);
+        this.hitCounter = Counter.builder("workflow.action_cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("workflow.action_cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Get a non-deleted action by id, loading it from the database on miss.
+     *
+     * @param id Action id
+     * @return Action, or empty if it does not exist or is deleted
+     */
+    public Optional<Action> get(String id) {
+        if (!enabled) {
+            return actionRepository.findByIdAndNotDeleted(id);
+        }
+
+        CachedAction cached = cache.get(id);
+        if (cached != null && !cached.isExpired(ttlMs)) {
+            hitCounter.increment();
+            return Optional.of(cached.action());
+        }
+
+        missCounter.increment();
+        Optional<Action> loaded = actionRepository.findByIdAndNotDeleted(id);
+        if (loaded.isPresent()) {
+            cache.put(id, new CachedAction(loaded.get(), System.currentTimeMillis()));
+        } else {
+            cache.remove(id);
+        }
+        return loaded;
+    }
+
+    /**
+     * Evict an action on this instance and broadcast the eviction to the cluster.
+     * When called inside a transaction the eviction happens after commit, so other instances
+     * cannot reload the old definition before the change is visible.
+     *
+     * @param id Action id
+     */
+    public void invalidate(String id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAndPublish(id);
+                }
+            });
+        } else {
+            evictAndPublish(id);
+        }
+    }
+
+    /**
+     * Evict all actions on every instance.
+     */
+    public void invalidateAll() {
+        evictAndPublish(INVALIDATE_ALL);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String id = new String(message.getBody(), StandardCharsets.UTF_8);
+        log.debug("Received action cache invalidation: {}", id);
+        evictLocal(id);
+    }
+
+    private void evictAndPublish(String id) {
+        evictLocal(id);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, id);
+        } catch (Exception e) {
+            // Other instances fall back to the TTL
+            log.warn("Failed to publish action cache invalidation: id={}, error={}", id, e.getMessage());
+        }
+    }
+
+    private void evictLocal(String id) {
+        if (INVALIDATE_ALL.equals(id)) {
+            cache.clear();
+        } else {
+            cache.remove(id);
+        }
+    }
+
+    private record CachedAction(Action action, long loadedAt) {
+        boolean isExpired(long ttlMs) {
+            return System.currentTimeMillis() - loadedAt > ttlMs;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.util.List;
 public class ActionRegistryServiceImpl implements ActionRegistryService {
 
     private final ActionRepository actionRepository;
+    private final ActionDefinitionCache actionDefinitionCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -35,7 +36,7 @@ public class ActionRegistryServiceImpl implements ActionRegistryService {
     @Transactional(readOnly = true)
     public Action getActionById(String id) {
         log.debug("Getting action by ID: {}", id);
-        return actionRepository.findByIdAndNotDeleted(id)
+        return actionDefinitionCache.get(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Action not found with id: " + id));
     }
 
@@ -69,6 +70,7 @@ public class ActionRegistryServiceImpl implements ActionRegistryService {
         action.setUpdatedAt(LocalDateTime.now());
         
         Action saved = actionRepository.save(action);
+        actionDefinitionCache.invalidate(saved.getId());
         log.info("Successfully registered action: {}", saved.getId());
         return saved;
     }
@@ -106,6 +108,7 @@ public class ActionRegistryServiceImpl implements ActionRegistryService {
         existing.setUpdatedAt(LocalDateTime.now());
 
         Action saved = actionRepository.save(existing);
+        actionDefinitionCache.invalidate(saved.getId());
         log.info("Successfully updated action: {}", saved.getId());
         return saved;
     }
@@ -122,6 +125,7 @@ public class ActionRegistryServiceImpl implements ActionRegistryService {
         action.setUpdatedAt(LocalDateTime.now());
 
         Action saved = actionRepository.save(action);
+        actionDefinitionCache.invalidate(saved.getId());
         log.info("Successfully enabled action: {}", saved.getId());
         return saved;
     }
@@ -138,6 +142,7 @@ public class ActionRegistryServiceImpl implements ActionRegistryService {
         action.setUpdatedAt(LocalDateTime.now());
 
         Action saved = actionRepository.save(action);
+        actionDefinitionCache.invalidate(saved.getId());
         log.info("Successfully disabled action: {}", saved.getId());
         return saved;
     }
@@ -156,6 +161,7 @@ public class ActionRegistryServiceImpl implements ActionRegistryService {
         action.setUpdatedAt(LocalDateTime.now());
         
         actionRepository.save(action);
+        actionDefinitionCache.invalidate(id);
         log.info("Successfully deleted action: {}", id);
     }
 }
@@ -2,20 +2,30 @@ package com.notificationplatform.service.retry;
 
 import com.notificationplatform.entity.RetrySchedule;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Exponential backoff retry strategy.
  * Calculates delay as: initialDelay * multiplier^attempt
  * Capped at maxDelaySeconds if specified.
+ *
+ * With jitter enabled the delay is decorrelated instead: a random value between initialDelay and
+ * multiplier times the previous delay, capped the same way. Retries of the same outage then spread out
+ * rather than firing together at identical offsets.
  */
 @Slf4j
 @Component
 public class ExponentialBackoffRetryStrategy implements RetryStrategyCalculator {
 
+    @Value("${app.retry.jitter.enabled:true}")
+    private boolean jitterEnabled;
+
     @Override
     public LocalDateTime calculateNextRetryTime(RetrySchedule retrySchedule) {
         int attempt = retrySchedule.getCurrentAttempt();
@@ -24,6 +34,10 @@ public class ExponentialBackoffRetryStrategy implements RetryStrategyCalculator
         BigDecimal multiplier = retrySchedule.getMultiplier() != null ? 
                                retrySchedule.getMultiplier() : BigDecimal.valueOf(2.0);
         
+        if (jitterEnabled) {
+            return LocalDateTime.now().plus(decorrelatedDelayMs(retrySchedule, initialDelay, multiplier), ChronoUnit.MILLIS);
+        }
+        
         // Calculate delay: initialDelay * multiplier^attempt
         BigDecimal delay = BigDecimal.valueOf(initialDelay)
                 .multiply(multiplier.pow(attempt));
@@ -36,5 +50,19 @@ public class ExponentialBackoffRetryStrategy implements RetryStrategyCalculator
         long delaySeconds = delay.longValue();
         return LocalDateTime.now().plusSeconds(delaySeconds);
     }
-}
 
+    /**
+     * Decorrelated jitter: random between the initial delay and multiplier times the previous delay
+     */
+    private long decorrelatedDelayMs(RetrySchedule retrySchedule, int initialDelay, BigDecimal multiplier) {
+        long baseMs = initialDelay * 1000L;
+        long previousMs = retrySchedule.getLastDelayMs() != null ? retrySchedule.getLastDelayMs() : baseMs;
+        long upperMs = Math.max(baseMs, (long) (previousMs * multiplier.doubleValue()));
+        
+        long delayMs = upperMs > baseMs ? ThreadLocalRandom.current().nextLong(baseMs, upperMs + 1) : baseMs;
+        if (retrySchedule.getMaxDelaySeconds() != null) {
+            delayMs = Math.min(delayMs, retrySchedule.getMaxDelaySeconds() * 1000L);
+        }
+        return delayMs;
+    }
+}
@@ -2,23 +2,39 @@ package com.notificationplatform.service.retry;
 
 import com.notificationplatform.entity.RetrySchedule;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Fixed delay retry strategy.
  * Retries with fixed delay between attempts.
+ * With jitter enabled the delay is spread uniformly by a ratio around the configured value.
  */
 @Slf4j
 @Component
 public class FixedDelayRetryStrategy implements RetryStrategyCalculator {
 
+    @Value("${app.retry.jitter.enabled:true}")
+    private boolean jitterEnabled;
+
+    @Value("${app.retry.jitter.fixed-delay-ratio:0.2}")
+    private double jitterRatio;
+
     @Override
     public LocalDateTime calculateNextRetryTime(RetrySchedule retrySchedule) {
         int delaySeconds = retrySchedule.getDelaySeconds() != null ? 
                           retrySchedule.getDelaySeconds() : 300;
-        return LocalDateTime.now().plusSeconds(delaySeconds);
+        if (!jitterEnabled || jitterRatio <= 0) {
+            return LocalDateTime.now().plusSeconds(delaySeconds);
+        }
+        
+        long delayMs = delaySeconds * 1000L;
+        long spreadMs = (long) (delayMs * Math.min(jitterRatio, 1.0));
+        long jitteredMs = delayMs - spreadMs + ThreadLocalRandom.current().nextLong(2 * spreadMs + 1);
+        return LocalDateTime.now().plus(jitteredMs, ChronoUnit.MILLIS);
     }
 }
-
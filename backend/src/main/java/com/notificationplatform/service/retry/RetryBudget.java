@@ -0,0 +1,110 @@
+package com.notificationplatform.service.retry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token bucket retry budget per destination, so retries stay a bounded fraction of normal traffic.
+ *
+ * Every normal request to a destination adds {@code ratio} tokens, and every destination also refills at
+ * {@code min-per-second} so rarely used destinations can still retry. A retry takes one token; without
+ * one it is deferred. Buckets are per instance, like the traffic that fills them.
+ *
+ * See: @import(features/retry-mechanism.md#retry-budgets-and-circuit-breakers)
+ */
+@Component
+public class RetryBudget {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Value("${app.retry.budget.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.retry.budget.ratio:0.1}")
+    private double ratio;
+
+    @Value("${app.retry.budget.min-per-second:1.0}")
+    private double minPerSecond;
+
+    @Value("${app.retry.budget.max-tokens:50}")
+    private double maxTokens;
+
+    public RetryBudget(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * A normal (non-retry) request was sent to the destination
+     */
+    public void recordRequest(String destination) {
+        if (enabled) {
+            bucket(destination).add(ratio);
+        }
+    }
+
+    /**
+     * Take a token for a retry to the destination
+     *
+     * @return false if the budget is spent and the retry must wait
+     */
+    public boolean tryAcquire(String destination) {
+        return !enabled || bucket(destination).take();
+    }
+
+    /**
+     * Give back a token taken for a retry that did not run
+     */
+    public void refund(String destination) {
+        if (enabled) {
+            bucket(destination).add(1);
+        }
+    }
+
+    private Bucket bucket(String destination) {
+        return buckets.computeIfAbsent(destination, key -> {
+            Bucket bucket = new Bucket();
+            Gauge.builder("workflow.retries.budget_tokens", bucket, Bucket::available)
+                    .tag("destination", key)
+                    .register(meterRegistry);
+            return bucket;
+        });
+    }
+
+    private final class Bucket {
+
+        // Starts full so retries after a restart are not held back
+        private double tokens = maxTokens;
+        private long refilledAt = System.nanoTime();
+
+        synchronized void add(double amount) {
+            refill();
+            tokens = Math.min(maxTokens, tokens + amount);
+        }
+
+        synchronized boolean take() {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized double available() {
+            refill();
+            return tokens;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(maxTokens, tokens + (now - refilledAt) / 1_000_000_000.0 * minPerSecond);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.notificationplatform.service.retry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker per destination that parks retries while the destination is failing.
+ *
+ * Consecutive failures of normal requests and retries open the circuit; while open, retries are deferred
+ * until it has been open for {@code open-ms}. Then a single retry is let through as a probe: success
+ * closes the circuit, failure opens it again. Normal traffic is never blocked, it only feeds the breaker.
+ *
+ * See: @import(features/retry-mechanism.md#retry-budgets-and-circuit-breakers)
+ */
+@Slf4j
+@Component
+public class RetryCircuitBreaker {
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    @Value("${app.retry.circuit-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.retry.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.retry.circuit-breaker.open-ms:30000}")
+    private long openMs;
+
+    public RetryCircuitBreaker(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Whether a retry to the destination may run now. In half-open state only one probe runs at a time.
+     */
+    public boolean allowRetry(String destination) {
+        return !enabled || circuit(destination).allow();
+    }
+
+    /**
+     * Time until an open circuit lets a probe through, 0 if it is not open
+     */
+    public long remainingOpenMs(String destination) {
+        return enabled ? circuit(destination).remainingOpenMs() : 0;
+    }
+
+    public void recordSuccess(String destination) {
+        if (enabled) {
+            circuit(destination).success(destination);
+        }
+    }
+
+    public void recordFailure(String destination) {
+        if (enabled) {
+            circuit(destination).failure(destination);
+        }
+    }
+
+    private Circuit circuit(String destination) {
+        return circuits.computeIfAbsent(destination, key -> {
+            Circuit circuit = new Circuit();
+            Gauge.builder("workflow.retries.circuit_state", circuit, c -> c.state().ordinal())
+                    .tag("destination", key)
+                    .description("0 closed, 1 half-open, 2 open")
+                    .register(meterRegistry);
+            return circuit;
+        });
+    }
+
+    private final class Circuit {
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private long probeStartedAt;
+
+        synchronized State state() {
+            return state;
+        }
+
+        synchronized boolean allow() {
+            long now = System.currentTimeMillis();
+            if (state == State.OPEN && now - openedAt >= openMs) {
+                state = State.HALF_OPEN;
+                probeStartedAt = 0;
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+            // A probe that never reported back no longer blocks the next one
+            if (state == State.HALF_OPEN && (probeStartedAt == 0 || now - probeStartedAt >= openMs)) {
+                probeStartedAt = now;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized long remainingOpenMs() {
+            if (state == State.CLOSED) {
+                return 0;
+            }
+            long remaining = state == State.OPEN ? openedAt + openMs : probeStartedAt + openMs;
+            return Math.max(remaining - System.currentTimeMillis(), 0);
+        }
+
+        synchronized void success(String destination) {
+            if (state != State.CLOSED) {
+                log.info("Retry circuit closed: destination={}", destination);
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+        }
+
+        synchronized void failure(String destination) {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                log.warn("Retry circuit opened: destination={}, consecutiveFailures={}", destination, consecutiveFailures);
+                state = State.OPEN;
+                openedAt = System.currentTimeMillis();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.notificationplatform.service.retry;
+
+import com.notificationplatform.entity.RetrySchedule;
+
+import java.util.Map;
+
+/**
+ * Destination keys for retry budgets and circuit breakers: the registry action a node calls, or the
+ * workflow for whole-execution retries.
+ */
+public final class RetryDestination {
+
+    static final String DEFAULT_ACTION = "action";
+
+    private RetryDestination() {
+    }
+
+    /**
+     * Destination of an action node
+     *
+     * @param nodeConfig Node data as passed to the node executor
+     */
+    public static String of(Map<String, Object> nodeConfig) {
+        Object registryId = nodeConfig != null ? nodeConfig.get("registryId") : null;
+        return registryId != null ? registryId.toString() : DEFAULT_ACTION;
+    }
+
+    /**
+     * Destination of a retry schedule
+     */
+    @SuppressWarnings("unchecked")
+    public static String of(RetrySchedule retrySchedule) {
+        if ("execution".equals(retrySchedule.getRetryType()) && retrySchedule.getExecution() != null
+                && retrySchedule.getExecution().getWorkflow() != null) {
+            return "workflow:" + retrySchedule.getExecution().getWorkflow().getId();
+        }
+        Map<String, Object> retryContext = retrySchedule.getRetryContext();
+        Object nodeConfig = retryContext != null ? retryContext.get("nodeConfig") : null;
+        return of(nodeConfig instanceof Map ? (Map<String, Object>) nodeConfig : null);
+    }
+}
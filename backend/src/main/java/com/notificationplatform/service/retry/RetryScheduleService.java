@@ -8,22 +8,30 @@ import com.notificationplatform.entity.enums.RetryStrategy;
 import com.notificationplatform.repository.ExecutionRepository;
 import com.notificationplatform.repository.NodeExecutionRepository;
 import com.notificationplatform.repository.RetryScheduleRepository;
+import com.notificationplatform.service.timer.TimerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Service for managing retry schedules.
  * Handles creation, processing, and execution of retry schedules.
+ * Due retries are fired by the timer service at their scheduled time, subject to the retry budget
+ * and circuit breaker of their destination.
  * 
  * See: @import(features/retry-mechanism.md)
  */
@@ -37,6 +45,13 @@ public class RetryScheduleService {
     private final NodeExecutionRepository nodeExecutionRepository;
     private final RetryExecutionService retryExecutionService;
     private final RetryStrategyFactory retryStrategyFactory;
+    private final TimerService timerService;
+    private final RetryBudget retryBudget;
+    private final RetryCircuitBreaker retryCircuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.retry.budget.deferral-ms:30000}")
+    private long budgetDeferralMs;
 
     /**
      * Create retry schedule for failed node execution.
@@ -47,8 +62,23 @@ public class RetryScheduleService {
      */
     @Transactional
     public RetrySchedule createRetryScheduleForNode(NodeExecution nodeExecution, Map<String, Object> retryConfig) {
-        log.info("Creating retry schedule for node execution: nodeExecutionId={}, nodeId={}", 
-                 nodeExecution.getId(), nodeExecution.getNodeId());
+        return createRetryScheduleForNode(nodeExecution, retryConfig, 0, null);
+    }
+
+    /**
+     * Create retry schedule for a failed node execution that was already retried in process.
+     * 
+     * @param nodeExecution Failed node execution
+     * @param retryConfig Retry configuration from node config
+     * @param attemptsMade Retries already made
+     * @param delayMs Delay before the retry, as planned by {@link #nextRetryDelayMs}; null to calculate it
+     * @return Created retry schedule
+     */
+    @Transactional
+    public RetrySchedule createRetryScheduleForNode(NodeExecution nodeExecution, Map<String, Object> retryConfig,
+                                                   int attemptsMade, Long delayMs) {
+        log.info("Creating retry schedule for node execution: nodeExecutionId={}, nodeId={}, attemptsMade={}", 
+                 nodeExecution.getId(), nodeExecution.getNodeId(), attemptsMade);
         
         RetrySchedule retrySchedule = new RetrySchedule();
         retrySchedule.setId(UUID.randomUUID().toString());
@@ -59,13 +89,19 @@ public class RetryScheduleService {
         
         // Parse retry configuration
         parseRetryConfig(retrySchedule, retryConfig);
+        retrySchedule.setCurrentAttempt(attemptsMade);
         
-        // Calculate scheduled time based on strategy
-        LocalDateTime scheduledAt = calculateScheduledTime(retrySchedule);
+        // Use the planned delay, so the schedule matches the decision to spill it; else calculate per strategy
+        LocalDateTime scheduledAt;
+        if (delayMs != null) {
+            retrySchedule.setLastDelayMs(delayMs);
+            scheduledAt = LocalDateTime.now().plus(delayMs, ChronoUnit.MILLIS);
+        } else {
+            scheduledAt = calculateScheduledTime(retrySchedule);
+        }
         retrySchedule.setScheduledAt(scheduledAt);
         
         retrySchedule.setStatus(RetryStatus.PENDING);
-        retrySchedule.setCurrentAttempt(0);
         
         // Store retry context (input data, node config, etc.)
         Map<String, Object> retryContext = new HashMap<>();
@@ -80,6 +116,7 @@ public class RetryScheduleService {
         retrySchedule.setErrorHistory(errorHistory);
         
         retrySchedule = retryScheduleRepository.save(retrySchedule);
+        timerService.schedule(RetryTimerHandler.TIMER_TYPE, retrySchedule.getId(), scheduledAt);
         log.info("Retry schedule created: retryScheduleId={}, scheduledAt={}", 
                  retrySchedule.getId(), scheduledAt);
         
@@ -125,6 +162,7 @@ public class RetryScheduleService {
         retrySchedule.setErrorHistory(errorHistory);
         
         retrySchedule = retryScheduleRepository.save(retrySchedule);
+        timerService.schedule(RetryTimerHandler.TIMER_TYPE, retrySchedule.getId(), scheduledAt);
         log.info("Retry schedule created: retryScheduleId={}, scheduledAt={}", 
                  retrySchedule.getId(), scheduledAt);
         
@@ -132,35 +170,67 @@ public class RetryScheduleService {
     }
 
     /**
-     * Process retry schedules that are ready to execute.
-     * Runs every minute.
+     * Delay before the next retry of a failed node, without creating a schedule.
+     * Used to decide whether the retry can run in process.
+     * 
+     * @param retryConfig Retry configuration from node config
+     * @param attemptsMade Retries already made
+     * @param lastDelayMs Delay before the last retry made, null if none
+     * @return Delay in milliseconds, or -1 if no attempt is left
+     */
+    public long nextRetryDelayMs(Map<String, Object> retryConfig, int attemptsMade, Long lastDelayMs) {
+        RetrySchedule retrySchedule = new RetrySchedule();
+        parseRetryConfig(retrySchedule, retryConfig);
+        if (attemptsMade >= retrySchedule.getMaxAttempts()) {
+            return -1;
+        }
+        retrySchedule.setCurrentAttempt(attemptsMade);
+        retrySchedule.setLastDelayMs(lastDelayMs);
+        calculateScheduledTime(retrySchedule);
+        return retrySchedule.getLastDelayMs();
+    }
+
+    /**
+     * Execute a retry schedule whose time has come.
+     * Fired by the timer service; does nothing if the schedule is no longer pending or was moved later.
+     *
+     * @param retryScheduleId Retry schedule ID
      */
-    @Scheduled(fixedRate = 60000) // Every minute
     @Transactional
-    public void processRetrySchedules() {
-        log.debug("Processing retry schedules");
-        
-        LocalDateTime now = LocalDateTime.now();
-        List<RetrySchedule> readySchedules = retryScheduleRepository
-                .findByScheduledAtLessThanEqualAndStatus(now, RetryStatus.PENDING);
-        
-        for (RetrySchedule schedule : readySchedules) {
-            try {
-                // Update status to scheduled
-                schedule.setStatus(RetryStatus.SCHEDULED);
-                retryScheduleRepository.save(schedule);
-                
-                // Execute retry
-                executeRetry(schedule);
-            } catch (Exception e) {
-                log.error("Error processing retry schedule: retryScheduleId={}", schedule.getId(), e);
-                schedule.setStatus(RetryStatus.FAILED);
-                retryScheduleRepository.save(schedule);
-            }
+    public void processRetrySchedule(String retryScheduleId) {
+        RetrySchedule schedule = retryScheduleRepository.findByIdWithLock(retryScheduleId).orElse(null);
+        if (schedule == null || schedule.getStatus() != RetryStatus.PENDING) {
+            log.debug("Retry schedule not pending, ignoring: retryScheduleId={}", retryScheduleId);
+            return;
         }
-        
-        if (!readySchedules.isEmpty()) {
-            log.info("Processed {} retry schedules", readySchedules.size());
+        if (schedule.getScheduledAt() != null && schedule.getScheduledAt().isAfter(LocalDateTime.now().plusSeconds(1))) {
+            // Rescheduled later, the timer for the new time will fire
+            return;
+        }
+
+        // Park retries of failing destinations and keep retries within the budget
+        String destination = RetryDestination.of(schedule);
+        if (!retryBudget.tryAcquire(destination)) {
+            deferRetry(schedule, destination, budgetDeferralMs, "deferred_budget");
+            return;
+        }
+        if (!retryCircuitBreaker.allowRetry(destination)) {
+            retryBudget.refund(destination);
+            deferRetry(schedule, destination, retryCircuitBreaker.remainingOpenMs(destination), "deferred_circuit");
+            return;
+        }
+
+        try {
+            // Update status to scheduled
+            schedule.setStatus(RetryStatus.SCHEDULED);
+            retryScheduleRepository.save(schedule);
+            
+            // Execute retry
+            executeRetry(schedule);
+        } catch (Exception e) {
+            log.error("Error processing retry schedule: retryScheduleId={}", schedule.getId(), e);
+            schedule.setStatus(RetryStatus.FAILED);
+            retryScheduleRepository.save(schedule);
         }
     }
 
@@ -181,6 +251,9 @@ public class RetryScheduleService {
         retrySchedule.setStatus(RetryStatus.RETRYING);
         retryScheduleRepository.save(retrySchedule);
         
+        String destination = RetryDestination.of(retrySchedule);
+        // Each attempt feeds the circuit breaker once, even if saving its result fails afterwards
+        boolean outcomeRecorded = false;
         try {
             boolean success = false;
             
@@ -192,6 +265,8 @@ public class RetryScheduleService {
                 success = retryExecutionService.retryExecution(retrySchedule);
             }
             
+            recordOutcome(destination, success);
+            outcomeRecorded = true;
             if (success) {
                 // Retry successful
                 retrySchedule.setStatus(RetryStatus.COMPLETED);
@@ -209,6 +284,7 @@ public class RetryScheduleService {
                     LocalDateTime nextScheduledAt = calculateScheduledTime(retrySchedule);
                     retrySchedule.setScheduledAt(nextScheduledAt);
                     retrySchedule.setStatus(RetryStatus.PENDING);
+                    timerService.schedule(RetryTimerHandler.TIMER_TYPE, retrySchedule.getId(), nextScheduledAt);
                     log.info("Retry failed - scheduling next attempt: retryScheduleId={}, nextScheduledAt={}", 
                              retrySchedule.getId(), nextScheduledAt);
                 }
@@ -217,6 +293,9 @@ public class RetryScheduleService {
             retryScheduleRepository.save(retrySchedule);
         } catch (Exception e) {
             log.error("Error executing retry: retryScheduleId={}", retrySchedule.getId(), e);
+            if (!outcomeRecorded) {
+                recordOutcome(destination, false);
+            }
             
             // Add error to history
             addErrorToHistory(retrySchedule, e);
@@ -228,6 +307,7 @@ public class RetryScheduleService {
                 LocalDateTime nextScheduledAt = calculateScheduledTime(retrySchedule);
                 retrySchedule.setScheduledAt(nextScheduledAt);
                 retrySchedule.setStatus(RetryStatus.PENDING);
+                timerService.schedule(RetryTimerHandler.TIMER_TYPE, retrySchedule.getId(), nextScheduledAt);
             }
             
             retryScheduleRepository.save(retrySchedule);
@@ -312,8 +392,50 @@ public class RetryScheduleService {
      * Calculate scheduled time for next retry based on strategy.
      */
     private LocalDateTime calculateScheduledTime(RetrySchedule retrySchedule) {
+        LocalDateTime now = LocalDateTime.now();
         RetryStrategyCalculator calculator = retryStrategyFactory.getCalculator(retrySchedule.getRetryStrategy());
-        return calculator.calculateNextRetryTime(retrySchedule);
+        LocalDateTime scheduledAt = calculator.calculateNextRetryTime(retrySchedule);
+        // Jittered strategies derive the next delay from this one
+        retrySchedule.setLastDelayMs(Math.max(Duration.between(now, scheduledAt).toMillis(), 0));
+        return scheduledAt;
+    }
+
+    /**
+     * Move a due retry later without using up an attempt. The delay is jittered by up to half
+     * so parked retries of one destination do not all come back at once.
+     */
+    private void deferRetry(RetrySchedule retrySchedule, String destination, long delayMs, String outcome) {
+        long jitteredMs = delayMs + ThreadLocalRandom.current().nextLong(delayMs / 2 + 1);
+        LocalDateTime nextScheduledAt = LocalDateTime.now().plus(Math.max(jitteredMs, 1000), ChronoUnit.MILLIS);
+        retrySchedule.setScheduledAt(nextScheduledAt);
+        retryScheduleRepository.save(retrySchedule);
+        timerService.schedule(RetryTimerHandler.TIMER_TYPE, retrySchedule.getId(), nextScheduledAt);
+        retryCounter(destination, outcome).increment();
+        log.debug("Retry deferred: retryScheduleId={}, destination={}, reason={}, nextScheduledAt={}", 
+                  retrySchedule.getId(), destination, outcome, nextScheduledAt);
+    }
+
+    private void recordOutcome(String destination, boolean success) {
+        if (success) {
+            retryCircuitBreaker.recordSuccess(destination);
+        } else {
+            retryCircuitBreaker.recordFailure(destination);
+        }
+        retryCounter(destination, success ? "success" : "failure").increment();
+    }
+
+    /**
+     * Count a retry of a destination handled outside the schedule, e.g. in process
+     */
+    public void recordRetryMetric(String destination, String outcome) {
+        retryCounter(destination, outcome).increment();
+    }
+
+    private Counter retryCounter(String destination, String outcome) {
+        return Counter.builder("workflow.retries")
+                .tag("destination", destination)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     /**
@@ -0,0 +1,44 @@
+package com.notificationplatform.service.retry;
+
+import com.notificationplatform.entity.RetrySchedule;
+import com.notificationplatform.entity.enums.RetryStatus;
+import com.notificationplatform.repository.RetryScheduleRepository;
+import com.notificationplatform.service.timer.TimerHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fires pending retry schedules at their scheduled time.
+ */
+@Component
+@RequiredArgsConstructor
+public class RetryTimerHandler implements TimerHandler {
+
+    public static final String TIMER_TYPE = "retry";
+
+    private final RetryScheduleRepository retryScheduleRepository;
+    private final RetryScheduleService retryScheduleService;
+
+    @Override
+    public String getTimerType() {
+        return TIMER_TYPE;
+    }
+
+    @Override
+    public void onTimer(String retryScheduleId) {
+        retryScheduleService.processRetrySchedule(retryScheduleId);
+    }
+
+    @Override
+    public Map<String, LocalDateTime> findPendingTimers(LocalDateTime dueBefore) {
+        Map<String, LocalDateTime> timers = new LinkedHashMap<>();
+        for (RetrySchedule schedule : retryScheduleRepository.findByScheduledAtLessThanEqualAndStatus(dueBefore, RetryStatus.PENDING)) {
+            timers.put(schedule.getId(), schedule.getScheduledAt());
+        }
+        return timers;
+    }
+}
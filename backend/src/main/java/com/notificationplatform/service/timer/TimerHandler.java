@@ -0,0 +1,36 @@
+package com.notificationplatform.service.timer;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Handles the timers of one type for {@link TimerService}.
+ * Implementations are registered automatically via Spring's List injection (Strategy Pattern).
+ *
+ * Timers are delivered at least once: a timer can fire again after a crash, and after the timer it
+ * belongs to was superseded. Handlers check the state of their target before acting on it.
+ */
+public interface TimerHandler {
+
+    /**
+     * Timer type, unique per handler
+     */
+    String getTimerType();
+
+    /**
+     * Handle a due timer.
+     * Throwing makes the timer fire again after a backoff, up to the configured attempts.
+     *
+     * @param targetId ID of the entity the timer belongs to
+     */
+    void onTimer(String targetId);
+
+    /**
+     * Pending timers according to the database of record, used to rebuild timers lost from Redis and to
+     * fire timers directly while Redis is unavailable.
+     *
+     * @param dueBefore Only timers due at or before this time
+     * @return Due time by target ID
+     */
+    Map<String, LocalDateTime> findPendingTimers(LocalDateTime dueBefore);
+}
@@ -0,0 +1,464 @@
+package com.notificationplatform.service.timer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable timers for delays, wait state expiries and retries, shared by all instances through Redis.
+ *
+ * A timer is a member {@code <type>:<targetId>} scored by its due time (epoch ms) in the sorted set of
+ * its time bucket; an index sorted set lists the non-empty buckets by start time, so claiming only
+ * touches buckets that are due and a drained bucket is removed whole. Every instance polls at
+ * sub-second intervals and claims due timers with a Lua script that moves them, atomically, into an
+ * in-flight set with a lease. A handled timer is removed; one whose instance died is put back when its
+ * lease expires, so timers fire at least once.
+ *
+ * Timers are scheduled after the transaction that created their target commits. The database stays the
+ * source of truth: a periodic reconcile re-adds pending timers (covering lost Redis data and failed
+ * schedules), and while Redis is unavailable due timers are fired straight from the database.
+ *
+ * See: @import(features/distributed-execution-management.md#durable-timers)
+ */
+@Slf4j
+@Service
+public class TimerService {
+
+    static final String BUCKET_INDEX_KEY = "timers:buckets";
+    static final String BUCKET_KEY_PREFIX = "timers:bucket:";
+    static final String IN_FLIGHT_KEY = "timers:in-flight";
+    static final String ATTEMPTS_KEY = "timers:attempts";
+
+    private static final char TYPE_SEPARATOR = ':';
+
+    // KEYS: bucket, index. ARGV: member, due ms, bucket start ms
+    private static final DefaultRedisScript<Long> SCHEDULE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) " +
+            "redis.call('ZADD', KEYS[2], ARGV[3], KEYS[1]) " +
+            "return 1",
+            Long.class);
+
+    // KEYS: due buckets..., in-flight, index. ARGV: now ms, limit, lease expiry ms
+    // Returns member, due ms pairs
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local limit = tonumber(ARGV[2]) " +
+            "local inFlight = KEYS[#KEYS - 1] " +
+            "local index = KEYS[#KEYS] " +
+            "local claimed = {} " +
+            "for i = 1, #KEYS - 2 do " +
+            "  if limit <= 0 then break end " +
+            "  local due = redis.call('ZRANGEBYSCORE', KEYS[i], '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', 0, limit) " +
+            "  for j = 1, #due, 2 do " +
+            "    redis.call('ZREM', KEYS[i], due[j]) " +
+            "    redis.call('ZADD', inFlight, ARGV[3], due[j]) " +
+            "    claimed[#claimed + 1] = due[j] " +
+            "    claimed[#claimed + 1] = due[j + 1] " +
+            "  end " +
+            "  limit = limit - #due / 2 " +
+            "  if redis.call('ZCARD', KEYS[i]) == 0 then redis.call('ZREM', index, KEYS[i]) end " +
+            "end " +
+            "return claimed",
+            List.class);
+
+    // KEYS: in-flight, bucket, index. ARGV: member, now ms, due ms, bucket start ms
+    // Puts an in-flight timer back only if its lease has expired
+    private static final DefaultRedisScript<Long> REQUEUE_SCRIPT = new DefaultRedisScript<>(
+            "local lease = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if not lease or tonumber(lease) > tonumber(ARGV[2]) then return 0 end " +
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "redis.call('ZADD', KEYS[2], ARGV[3], ARGV[1]) " +
+            "redis.call('ZADD', KEYS[3], ARGV[4], KEYS[2]) " +
+            "return 1",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectProvider<TimerHandler> handlerProvider;
+    private final ThreadPoolTaskExecutor executor;
+
+    private volatile Map<String, TimerHandler> handlers;
+    private volatile boolean redisAvailable = true;
+    private volatile long lastFallbackMs;
+
+    private final AtomicLong scheduledCount = new AtomicLong();
+    private final AtomicLong dueCount = new AtomicLong();
+    private final AtomicLong inFlightCount = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final Timer lagTimer;
+
+    @Value("${app.timers.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.timers.bucket-seconds:60}")
+    private long bucketSeconds;
+
+    @Value("${app.timers.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.timers.max-buckets-per-claim:8}")
+    private int maxBucketsPerClaim;
+
+    @Value("${app.timers.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.timers.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.timers.reconcile-horizon-ms:600000}")
+    private long reconcileHorizonMs;
+
+    @Value("${app.timers.fallback-interval-ms:10000}")
+    private long fallbackIntervalMs;
+
+    public TimerService(RedisTemplate<String, String> redisTemplate,
+                        ObjectProvider<TimerHandler> handlerProvider,
+                        @Qualifier("workflowResumeExecutor") ThreadPoolTaskExecutor executor,
+                        MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.handlerProvider = handlerProvider;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("workflow.timers.scheduled", scheduledCount);
+        meterRegistry.gauge("workflow.timers.due", dueCount);
+        meterRegistry.gauge("workflow.timers.in_flight", inFlightCount);
+        this.lagTimer = Timer.builder("workflow.timers.lag")
+                .description("Time from a timer's due time to it being claimed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedule a timer, replacing any earlier schedule of the same timer in the same bucket.
+     * Inside a transaction the timer is added after commit.
+     *
+     * @param timerType Handler timer type
+     * @param targetId ID of the entity the timer belongs to
+     * @param dueAt When the timer is due
+     */
+    public void schedule(String timerType, String targetId, LocalDateTime dueAt) {
+        long dueMs = toEpochMs(dueAt);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(timerType + TYPE_SEPARATOR + targetId, dueMs);
+                }
+            });
+        } else {
+            add(timerType + TYPE_SEPARATOR + targetId, dueMs);
+        }
+    }
+
+    /**
+     * Remove a scheduled timer that is no longer needed. Inside a transaction it is removed after commit.
+     * A timer already claimed still fires, which handlers tolerate since they check their target first.
+     *
+     * @param dueAt Due time the timer was scheduled with
+     */
+    public void cancel(String timerType, String targetId, LocalDateTime dueAt) {
+        String member = timerType + TYPE_SEPARATOR + targetId;
+        String bucket = BUCKET_KEY_PREFIX + bucketStart(toEpochMs(dueAt));
+        Runnable remove = () -> {
+            try {
+                redisTemplate.opsForZSet().remove(bucket, member);
+            } catch (Exception e) {
+                // The timer fires and its handler finds nothing to do
+                log.debug("Failed to cancel timer: timer={}, error={}", member, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove.run();
+                }
+            });
+        } else {
+            remove.run();
+        }
+    }
+
+    /**
+     * Claim and fire due timers.
+     * Claims only as many as the executor can queue, and keeps claiming while batches come back full.
+     */
+    @Scheduled(fixedDelayString = "${app.timers.poll-interval-ms:250}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            int capacity;
+            int claimed;
+            do {
+                capacity = Math.min(batchSize, executor.getThreadPoolExecutor().getQueue().remainingCapacity());
+                if (capacity <= 0) {
+                    break;
+                }
+                claimed = claimAndFire(capacity);
+                if (claimed < capacity) {
+                    dueCount.set(0);
+                }
+            } while (claimed == capacity);
+            redisAvailable = true;
+        } catch (Exception e) {
+            if (redisAvailable) {
+                log.warn("Timer claim failed, falling back to the database: {}", e.getMessage());
+            }
+            redisAvailable = false;
+            long now = System.currentTimeMillis();
+            if (now - lastFallbackMs >= fallbackIntervalMs) {
+                lastFallbackMs = now;
+                fireDueFromDatabase();
+            }
+        }
+    }
+
+    /**
+     * Re-add pending timers from the database that Redis lost or never received, and put back timers whose
+     * instance died while handling them. Also refreshes the backlog metrics.
+     */
+    @Scheduled(initialDelayString = "${app.timers.reconcile-initial-delay-ms:10000}",
+               fixedDelayString = "${app.timers.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!enabled || !redisAvailable) {
+            return;
+        }
+
+        try {
+            requeueExpiredLeases();
+
+            LocalDateTime horizon = LocalDateTime.now().plus(Duration.ofMillis(reconcileHorizonMs));
+            Set<String> inFlight = redisTemplate.opsForZSet().range(IN_FLIGHT_KEY, 0, -1);
+            int added = 0;
+            for (TimerHandler handler : getHandlers().values()) {
+                for (Map.Entry<String, LocalDateTime> timer : handler.findPendingTimers(horizon).entrySet()) {
+                    String member = handler.getTimerType() + TYPE_SEPARATOR + timer.getKey();
+                    if (inFlight == null || !inFlight.contains(member)) {
+                        add(member, toEpochMs(timer.getValue()));
+                        added++;
+                    }
+                }
+            }
+            updateBacklogMetrics();
+            log.debug("Timers reconciled with the database: scheduled={}, horizon={}", added, horizon);
+        } catch (Exception e) {
+            log.warn("Timer reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    private int claimAndFire(int limit) {
+        long now = System.currentTimeMillis();
+        Set<String> dueBuckets = redisTemplate.opsForZSet()
+                .rangeByScore(BUCKET_INDEX_KEY, Double.NEGATIVE_INFINITY, now, 0, maxBucketsPerClaim);
+        if (dueBuckets == null || dueBuckets.isEmpty()) {
+            return 0;
+        }
+
+        List<String> keys = new ArrayList<>(dueBuckets);
+        keys.add(IN_FLIGHT_KEY);
+        keys.add(BUCKET_INDEX_KEY);
+        @SuppressWarnings("unchecked")
+        List<String> claimed = redisTemplate.execute(CLAIM_SCRIPT, keys,
+                String.valueOf(now), String.valueOf(limit), String.valueOf(now + leaseMs));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        for (int i = 0; i + 1 < claimed.size(); i += 2) {
+            String member = claimed.get(i);
+            long dueMs = (long) Double.parseDouble(claimed.get(i + 1));
+            lagTimer.record(Math.max(0, now - dueMs), TimeUnit.MILLISECONDS);
+            try {
+                executor.execute(() -> fire(member, dueMs));
+            } catch (RejectedExecutionException e) {
+                // Left in flight, put back when the lease expires
+                log.warn("Timer executor full, timer deferred to lease expiry: timer={}", member);
+            }
+        }
+        return claimed.size() / 2;
+    }
+
+    private void fire(String member, long dueMs) {
+        int separator = member.indexOf(TYPE_SEPARATOR);
+        String timerType = separator > 0 ? member.substring(0, separator) : member;
+        String targetId = separator > 0 ? member.substring(separator + 1) : "";
+        TimerHandler handler = getHandlers().get(timerType);
+
+        try {
+            if (handler == null) {
+                log.warn("No handler for timer, dropping: timer={}", member);
+            } else {
+                handler.onTimer(targetId);
+            }
+            redisTemplate.opsForZSet().remove(IN_FLIGHT_KEY, member);
+            redisTemplate.opsForHash().delete(ATTEMPTS_KEY, member);
+            firedCounter(timerType, "success").increment();
+        } catch (Exception e) {
+            firedCounter(timerType, "failure").increment();
+            retryOrDrop(member, dueMs, e);
+        }
+    }
+
+    private void retryOrDrop(String member, long dueMs, Exception error) {
+        try {
+            Long attempts = redisTemplate.opsForHash().increment(ATTEMPTS_KEY, member, 1);
+            if (attempts != null && attempts >= maxAttempts) {
+                redisTemplate.opsForZSet().remove(IN_FLIGHT_KEY, member);
+                redisTemplate.opsForHash().delete(ATTEMPTS_KEY, member);
+                log.error("Timer failed permanently: timer={}, attempts={}", member, attempts, error);
+                return;
+            }
+            // Shorten the lease so the timer comes back after a backoff instead of the full lease
+            long backoffMs = Math.min(leaseMs, 1000L << Math.min(attempts != null ? attempts : 1, 6));
+            redisTemplate.opsForZSet().add(IN_FLIGHT_KEY, member, System.currentTimeMillis() + backoffMs);
+            log.warn("Timer failed, retrying: timer={}, attempt={}, retryInMs={}, error={}",
+                     member, attempts, backoffMs, error.getMessage());
+        } catch (Exception e) {
+            log.error("Timer failed and could not be rescheduled: timer={}, dueMs={}", member, dueMs, error);
+        }
+    }
+
+    /**
+     * Put timers back whose lease expired without being completed: their instance died, their handler is
+     * backing off after a failure, or the executor was full.
+     */
+    @Scheduled(fixedDelayString = "${app.timers.lease-check-interval-ms:5000}")
+    public void requeueExpiredLeases() {
+        if (!enabled || !redisAvailable) {
+            return;
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            Set<ZSetOperations.TypedTuple<String>> expired = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(IN_FLIGHT_KEY, Double.NEGATIVE_INFINITY, now, 0, batchSize);
+            if (expired == null) {
+                return;
+            }
+            for (ZSetOperations.TypedTuple<String> lease : expired) {
+                long bucketStart = bucketStart(now);
+                redisTemplate.execute(REQUEUE_SCRIPT,
+                        List.of(IN_FLIGHT_KEY, BUCKET_KEY_PREFIX + bucketStart, BUCKET_INDEX_KEY),
+                        lease.getValue(), String.valueOf(now), String.valueOf(now), String.valueOf(bucketStart));
+            }
+            if (!expired.isEmpty()) {
+                log.info("Requeued {} timers with expired leases", expired.size());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to requeue expired timer leases: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fire due timers straight from the database while Redis is unavailable.
+     * Handlers lock their targets, so instances doing this concurrently fire each timer once.
+     */
+    private void fireDueFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        for (TimerHandler handler : getHandlers().values()) {
+            try {
+                Map<String, LocalDateTime> due = handler.findPendingTimers(now);
+                for (String targetId : due.keySet()) {
+                    try {
+                        handler.onTimer(targetId);
+                        firedCounter(handler.getTimerType(), "fallback").increment();
+                    } catch (Exception e) {
+                        log.error("Timer failed in database fallback: type={}, targetId={}",
+                                  handler.getTimerType(), targetId, e);
+                    }
+                }
+                if (!due.isEmpty()) {
+                    log.info("Fired {} due {} timers from the database", due.size(), handler.getTimerType());
+                }
+            } catch (Exception e) {
+                log.error("Database timer fallback failed: type={}", handler.getTimerType(), e);
+            }
+        }
+    }
+
+    private void add(String member, long dueMs) {
+        long bucketStart = bucketStart(dueMs);
+        try {
+            redisTemplate.execute(SCHEDULE_SCRIPT, List.of(BUCKET_KEY_PREFIX + bucketStart, BUCKET_INDEX_KEY),
+                    member, String.valueOf(dueMs), String.valueOf(bucketStart));
+        } catch (Exception e) {
+            // Picked up by the next reconcile, or fired from the database while Redis is down
+            log.warn("Failed to schedule timer: timer={}, error={}", member, e.getMessage());
+        }
+    }
+
+    private void updateBacklogMetrics() {
+        long now = System.currentTimeMillis();
+        long scheduled = 0;
+        long due = 0;
+        Set<ZSetOperations.TypedTuple<String>> buckets = redisTemplate.opsForZSet()
+                .rangeWithScores(BUCKET_INDEX_KEY, 0, -1);
+        if (buckets != null) {
+            for (ZSetOperations.TypedTuple<String> bucket : buckets) {
+                Long size = redisTemplate.opsForZSet().zCard(bucket.getValue());
+                scheduled += size != null ? size : 0;
+                if (bucket.getScore() != null && bucket.getScore() <= now) {
+                    Long dueInBucket = redisTemplate.opsForZSet().count(bucket.getValue(), Double.NEGATIVE_INFINITY, now);
+                    due += dueInBucket != null ? dueInBucket : 0;
+                }
+            }
+        }
+        Long inFlight = redisTemplate.opsForZSet().zCard(IN_FLIGHT_KEY);
+        scheduledCount.set(scheduled);
+        dueCount.set(due);
+        inFlightCount.set(inFlight != null ? inFlight : 0);
+    }
+
+    private Counter firedCounter(String timerType, String result) {
+        return Counter.builder("workflow.timers.fired")
+                .tag("type", timerType)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Map<String, TimerHandler> getHandlers() {
+        Map<String, TimerHandler> resolved = handlers;
+        if (resolved == null) {
+            resolved = new HashMap<>();
+            for (TimerHandler handler : handlerProvider.orderedStream().toList()) {
+                resolved.put(handler.getTimerType(), handler);
+            }
+            handlers = resolved;
+        }
+        return resolved;
+    }
+
+    private long bucketStart(long epochMs) {
+        long bucketMs = bucketSeconds * 1000;
+        return epochMs - Math.floorMod(epochMs, bucketMs);
+    }
+
+    private static long toEpochMs(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
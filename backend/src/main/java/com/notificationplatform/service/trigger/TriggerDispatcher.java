@@ -0,0 +1,81 @@
+package com.notificationplatform.service.trigger;
+
+import com.notificationplatform.engine.WorkflowExecutor;
+import com.notificationplatform.entity.Execution;
+import com.notificationplatform.entity.Trigger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dispatches a trigger activation (event or API request) to every active workflow subscribed to the trigger.
+ * Subscribers are looked up in {@link WorkflowTriggerIndex} and executed in parallel.
+ */
+@Slf4j
+@Component
+public class TriggerDispatcher {
+
+    private final WorkflowTriggerIndex workflowTriggerIndex;
+    private final WorkflowExecutor workflowExecutor;
+    private final TaskExecutor dispatchExecutor;
+
+    public TriggerDispatcher(WorkflowTriggerIndex workflowTriggerIndex,
+                             WorkflowExecutor workflowExecutor,
+                             @Qualifier("triggerDispatchExecutor") TaskExecutor dispatchExecutor) {
+        this.workflowTriggerIndex = workflowTriggerIndex;
+        this.workflowExecutor = workflowExecutor;
+        this.dispatchExecutor = dispatchExecutor;
+    }
+
+    /**
+     * Start one execution per subscribed workflow.
+     * A failed execution does not affect the others; its future completes exceptionally.
+     *
+     * @param trigger Trigger config that fired
+     * @param triggerData Trigger data passed to each execution
+     * @return One future per subscribed workflow (empty if no active workflow uses the trigger)
+     */
+    public List<CompletableFuture<Execution>> dispatch(Trigger trigger, Map<String, Object> triggerData) {
+        List<WorkflowTriggerIndex.Subscription> subscriptions = workflowTriggerIndex.getSubscriptions(trigger.getId());
+        if (subscriptions.isEmpty()) {
+            log.debug("No active workflow subscribed to trigger: triggerId={}", trigger.getId());
+            return List.of();
+        }
+
+        List<CompletableFuture<Execution>> executions = new ArrayList<>(subscriptions.size());
+        for (WorkflowTriggerIndex.Subscription subscription : subscriptions) {
+            // Each execution gets its own copy, nodes may modify trigger data
+            Map<String, Object> data = triggerData != null ? new HashMap<>(triggerData) : new HashMap<>();
+            executions.add(CompletableFuture.supplyAsync(() -> workflowExecutor.execute(
+                    subscription.workflow(), data, trigger.getId(), subscription.triggerNodeId()), dispatchExecutor));
+        }
+        log.debug("Dispatched trigger to {} workflows: triggerId={}", executions.size(), trigger.getId());
+        return executions;
+    }
+
+    /**
+     * Dispatch and wait for all executions to finish (or pause at a wait node).
+     *
+     * @return Executions that started successfully
+     */
+    public List<Execution> dispatchAndWait(Trigger trigger, Map<String, Object> triggerData) {
+        List<CompletableFuture<Execution>> futures = dispatch(trigger, triggerData);
+        List<Execution> executions = new ArrayList<>(futures.size());
+        for (CompletableFuture<Execution> future : futures) {
+            try {
+                executions.add(future.join());
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.error("Workflow execution failed for trigger: triggerId={}", trigger.getId(), cause);
+            }
+        }
+        return executions;
+    }
+}
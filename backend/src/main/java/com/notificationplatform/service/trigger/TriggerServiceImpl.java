@@ -11,6 +11,7 @@ import com.notificationplatform.entity.enums.TriggerStatus;
 import com.notificationplatform.entity.enums.TriggerType;
 import com.notificationplatform.exception.ResourceNotFoundException;
 import com.notificationplatform.repository.TriggerRepository;
+import com.notificationplatform.service.trigger.api.TriggerEndpointRegistry;
 import com.notificationplatform.service.trigger.schedule.CronValidator;
 import com.notificationplatform.service.trigger.schedule.ScheduleTriggerService;
 
@@ -37,15 +38,18 @@ public class TriggerServiceImpl implements TriggerService {
     private final TriggerMapper triggerMapper;
     private final CronValidator cronValidator;
     private final ScheduleTriggerService scheduleTriggerService;
+    private final TriggerEndpointRegistry endpointRegistry;
 
     public TriggerServiceImpl(TriggerRepository triggerRepository,
                              TriggerMapper triggerMapper,
                              CronValidator cronValidator,
-                             ScheduleTriggerService scheduleTriggerService) {
+                             ScheduleTriggerService scheduleTriggerService,
+                             TriggerEndpointRegistry endpointRegistry) {
         this.triggerRepository = triggerRepository;
         this.triggerMapper = triggerMapper;
         this.cronValidator = cronValidator;
         this.scheduleTriggerService = scheduleTriggerService;
+        this.endpointRegistry = endpointRegistry;
     }
 
     @Override
@@ -166,6 +170,15 @@ public class TriggerServiceImpl implements TriggerService {
             }
         }
 
+        // Re-register endpoint if it's an API trigger (path, method or status may have changed)
+        if (trigger.getTriggerType() == TriggerType.API_CALL) {
+            if (trigger.getStatus() == TriggerStatus.ACTIVE) {
+                endpointRegistry.registerEndpoint(trigger);
+            } else {
+                endpointRegistry.unregisterEndpoint(trigger.getId());
+            }
+        }
+
         log.info("Updated trigger config: triggerId={}", trigger.getId());
 
         return triggerMapper.toResponse(trigger);
@@ -186,6 +199,11 @@ public class TriggerServiceImpl implements TriggerService {
             scheduleTriggerService.cancelSchedule(trigger.getId());
         }
 
+        // Unregister endpoint if it's an API trigger
+        if (trigger.getTriggerType() == TriggerType.API_CALL) {
+            endpointRegistry.unregisterEndpoint(trigger.getId());
+        }
+
         log.info("Deleted trigger config: triggerId={}", trigger.getId());
     }
 
@@ -0,0 +1,239 @@
+package com.notificationplatform.service.trigger;
+
+import com.notificationplatform.entity.Workflow;
+import com.notificationplatform.entity.enums.NodeType;
+import com.notificationplatform.entity.enums.WorkflowStatus;
+import com.notificationplatform.repository.WorkflowRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory reverse index from trigger config id to the active workflows (and trigger nodes)
+ * that reference it, so an incoming event or API request dispatches without scanning workflow definitions.
+ *
+ * The index is built from active workflows on startup and updated incrementally when a workflow changes.
+ * Changes are broadcast on a Redis channel so every instance reloads the workflow; a periodic full rebuild
+ * covers missed messages.
+ */
+@Slf4j
+@Component
+public class WorkflowTriggerIndex implements MessageListener {
+
+    static final String INVALIDATION_CHANNEL = "workflow-trigger-index:invalidate";
+
+    private final WorkflowRepository workflowRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /** triggerConfigId -> immutable list of subscriptions */
+    private final Map<String, List<Subscription>> subscriptionsByTrigger = new ConcurrentHashMap<>();
+    /** workflowId -> trigger config ids it is subscribed to */
+    private final Map<String, List<String>> triggersByWorkflow = new ConcurrentHashMap<>();
+
+    @Value("${app.trigger-index.enabled:true}")
+    private boolean enabled;
+
+    public WorkflowTriggerIndex(WorkflowRepository workflowRepository,
+                                RedisTemplate<String, String> redisTemplate,
+                                RedisMessageListenerContainer listenerContainer) {
+        this.workflowRepository = workflowRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+        rebuild();
+    }
+
+    /**
+     * Get the active workflows subscribed to a trigger config.
+     *
+     * @param triggerConfigId Trigger config id
+     * @return Subscriptions (empty if none)
+     */
+    public List<Subscription> getSubscriptions(String triggerConfigId) {
+        if (triggerConfigId == null) {
+            return Collections.emptyList();
+        }
+        return subscriptionsByTrigger.getOrDefault(triggerConfigId, Collections.emptyList());
+    }
+
+    /**
+     * Rebuild the whole index from active workflows.
+     * Runs on startup and periodically as a safety net for missed invalidation messages.
+     */
+    @Scheduled(fixedDelayString = "${app.trigger-index.rebuild-interval-ms:300000}",
+               initialDelayString = "${app.trigger-index.rebuild-interval-ms:300000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<Workflow> activeWorkflows = workflowRepository.findByStatusAndDeletedAtIsNull(WorkflowStatus.ACTIVE);
+            Map<String, List<Subscription>> subscriptions = new HashMap<>();
+            Map<String, List<String>> triggers = new HashMap<>();
+            for (Workflow workflow : activeWorkflows) {
+                for (Subscription subscription : extractSubscriptions(workflow)) {
+                    subscriptions.computeIfAbsent(subscription.triggerConfigId(), key -> new ArrayList<>()).add(subscription);
+                    triggers.computeIfAbsent(workflow.getId(), key -> new ArrayList<>()).add(subscription.triggerConfigId());
+                }
+            }
+
+            subscriptionsByTrigger.keySet().retainAll(subscriptions.keySet());
+            subscriptions.forEach((triggerConfigId, list) -> subscriptionsByTrigger.put(triggerConfigId, List.copyOf(list)));
+            triggersByWorkflow.keySet().retainAll(triggers.keySet());
+            triggers.forEach((workflowId, list) -> triggersByWorkflow.put(workflowId, List.copyOf(list)));
+
+            log.info("Workflow trigger index rebuilt: workflows={}, triggers={}",
+                     triggersByWorkflow.size(), subscriptionsByTrigger.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild workflow trigger index", e);
+        }
+    }
+
+    /**
+     * Re-index a workflow after it was created, updated, activated, deactivated or deleted,
+     * and broadcast the change to the cluster. Inside a transaction this happens after commit.
+     *
+     * @param workflow Workflow in its new state
+     */
+    public void onWorkflowChanged(Workflow workflow) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reindexAndPublish(workflow);
+                }
+            });
+        } else {
+            reindexAndPublish(workflow);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String workflowId = new String(message.getBody(), StandardCharsets.UTF_8);
+        log.debug("Received workflow trigger index invalidation: workflowId={}", workflowId);
+        try {
+            Workflow workflow = workflowRepository.findByIdAndNotDeleted(workflowId).orElse(null);
+            if (workflow != null) {
+                reindex(workflow);
+            } else {
+                removeWorkflow(workflowId);
+            }
+        } catch (Exception e) {
+            log.error("Failed to re-index workflow: workflowId={}", workflowId, e);
+        }
+    }
+
+    private void reindexAndPublish(Workflow workflow) {
+        reindex(workflow);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, workflow.getId());
+        } catch (Exception e) {
+            // Other instances catch up on the next rebuild
+            log.warn("Failed to publish workflow trigger index invalidation: workflowId={}, error={}",
+                     workflow.getId(), e.getMessage());
+        }
+    }
+
+    private synchronized void reindex(Workflow workflow) {
+        removeWorkflow(workflow.getId());
+        if (workflow.getDeletedAt() != null || workflow.getStatus() != WorkflowStatus.ACTIVE) {
+            return;
+        }
+
+        List<Subscription> subscriptions = extractSubscriptions(workflow);
+        List<String> triggerConfigIds = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            subscriptionsByTrigger.compute(subscription.triggerConfigId(), (key, existing) -> {
+                List<Subscription> updated = existing != null ? new ArrayList<>(existing) : new ArrayList<>();
+                updated.add(subscription);
+                return List.copyOf(updated);
+            });
+            triggerConfigIds.add(subscription.triggerConfigId());
+        }
+        if (!triggerConfigIds.isEmpty()) {
+            triggersByWorkflow.put(workflow.getId(), List.copyOf(triggerConfigIds));
+        }
+        log.debug("Indexed workflow triggers: workflowId={}, triggerConfigIds={}", workflow.getId(), triggerConfigIds);
+    }
+
+    private synchronized void removeWorkflow(String workflowId) {
+        List<String> triggerConfigIds = triggersByWorkflow.remove(workflowId);
+        if (triggerConfigIds == null) {
+            return;
+        }
+        for (String triggerConfigId : triggerConfigIds) {
+            subscriptionsByTrigger.computeIfPresent(triggerConfigId, (key, existing) -> {
+                List<Subscription> remaining = existing.stream()
+                        .filter(subscription -> !subscription.workflow().getId().equals(workflowId))
+                        .toList();
+                return remaining.isEmpty() ? null : remaining;
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Subscription> extractSubscriptions(Workflow workflow) {
+        List<Subscription> subscriptions = new ArrayList<>();
+        Map<String, Object> definition = workflow.getDefinition();
+        if (definition == null || !(definition.get("nodes") instanceof List)) {
+            return subscriptions;
+        }
+
+        for (Map<String, Object> node : (List<Map<String, Object>>) definition.get("nodes")) {
+            Object typeObj = node.get("nodeType") != null ? node.get("nodeType") : node.get("type");
+            if (!(typeObj instanceof String)
+                    || !NodeType.TRIGGER.name().equals(((String) typeObj).toUpperCase().replace("-", "_"))) {
+                continue;
+            }
+
+            Map<String, Object> nodeData = node.get("data") instanceof Map
+                    ? (Map<String, Object>) node.get("data") : new HashMap<>();
+            String triggerConfigId = getTriggerConfigId(nodeData);
+            if (triggerConfigId != null) {
+                subscriptions.add(new Subscription(triggerConfigId, workflow, (String) node.get("id")));
+            }
+        }
+        return subscriptions;
+    }
+
+    /**
+     * Get triggerConfigId from trigger node data (data.triggerConfigId or data.config.triggerConfigId).
+     */
+    @SuppressWarnings("unchecked")
+    public static String getTriggerConfigId(Map<String, Object> nodeData) {
+        Object triggerConfigId = nodeData.get("triggerConfigId");
+        if ((triggerConfigId == null || triggerConfigId.toString().isEmpty()) && nodeData.get("config") instanceof Map) {
+            triggerConfigId = ((Map<String, Object>) nodeData.get("config")).get("triggerConfigId");
+        }
+        return triggerConfigId != null && !triggerConfigId.toString().isEmpty() ? triggerConfigId.toString() : null;
+    }
+
+    /**
+     * An active workflow subscribed to a trigger config through one of its trigger nodes.
+     */
+    public record Subscription(String triggerConfigId, Workflow workflow, String triggerNodeId) {
+    }
+}
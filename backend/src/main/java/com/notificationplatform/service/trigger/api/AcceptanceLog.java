@@ -0,0 +1,305 @@
+package com.notificationplatform.service.trigger.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped write-ahead log for accepted API trigger requests.
+ *
+ * The log is a sequence of fixed-size segment files. Each record is
+ * [int payload length][int crc32c][long lsn][payload]; a zero length marks the end of written data
+ * (segments are zero-filled when mapped). A record is durable once {@link #append} returns: appenders
+ * share fsyncs through group commit, where one waiting appender forces everything written so far and
+ * releases every appender it covered.
+ *
+ * The checkpoint file holds the position up to which records have been processed; segments before it
+ * are deleted and records after it are replayed by {@link #open}. A torn record at the end of a segment
+ * fails its checksum and ends the replay of that segment.
+ */
+final class AcceptanceLog implements Closeable {
+
+    static final int HEADER_BYTES = 16;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /**
+     * A durable record and the position right after it (the checkpoint once it is processed)
+     */
+    record Entry(long lsn, long segment, int endOffset, byte[] payload) {
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+
+    // Writer state, guarded by this
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writeOffset;
+    private int forcedOffset;
+    private long nextLsn;
+
+    // Group commit state, guarded by flushMonitor
+    private final Object flushMonitor = new Object();
+    private long flushedLsn;
+    private boolean flushing;
+
+    private AcceptanceLog(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Open the log, replay records after the checkpoint and start a new segment for appends.
+     *
+     * @param replay Receives each unprocessed record in log order
+     */
+    static AcceptanceLog open(Path directory, int segmentBytes, Consumer<Entry> replay) throws IOException {
+        Files.createDirectories(directory);
+        AcceptanceLog log = new AcceptanceLog(directory, segmentBytes);
+
+        long[] checkpoint = log.readCheckpoint();
+        long lastLsn = 0;
+        long lastSegment = 0;
+        for (long segmentNumber : log.listSegments()) {
+            lastSegment = Math.max(lastSegment, segmentNumber);
+            if (segmentNumber < checkpoint[0]) {
+                Files.deleteIfExists(log.segmentPath(segmentNumber));
+                continue;
+            }
+            int startOffset = segmentNumber == checkpoint[0] ? (int) checkpoint[1] : 0;
+            long segmentLastLsn = log.replaySegment(segmentNumber, startOffset, replay);
+            if (segmentLastLsn == 0) {
+                // Fully processed (or empty), appends continue in a new segment
+                Files.deleteIfExists(log.segmentPath(segmentNumber));
+            }
+            lastLsn = Math.max(lastLsn, segmentLastLsn);
+        }
+
+        // Never append after a possibly torn tail
+        log.nextLsn = lastLsn + 1;
+        log.flushedLsn = lastLsn;
+        synchronized (log) {
+            log.openSegment(lastSegment + 1);
+        }
+        return log;
+    }
+
+    /**
+     * Append a record and wait until it is on disk.
+     *
+     * @param onAppended Called with the record before it is durable, in log order
+     */
+    Entry append(byte[] payload, Consumer<Entry> onAppended) {
+        Entry entry;
+        synchronized (this) {
+            int recordBytes = HEADER_BYTES + payload.length;
+            if (recordBytes > segmentBytes) {
+                throw new RuntimeException("Request too large for acceptance log: " + payload.length + " bytes");
+            }
+            if (writeOffset + recordBytes > segmentBytes) {
+                roll();
+            }
+
+            long lsn = nextLsn++;
+            int offset = writeOffset;
+            buffer.put(offset + HEADER_BYTES, payload);
+            buffer.putLong(offset + 8, lsn);
+            buffer.putInt(offset + 4, checksum(lsn, payload));
+            buffer.putInt(offset, payload.length);
+            writeOffset = offset + recordBytes;
+            entry = new Entry(lsn, segment, writeOffset, payload);
+            onAppended.accept(entry);
+        }
+        awaitDurable(entry.lsn());
+        return entry;
+    }
+
+    /**
+     * Record that every record up to the given position has been processed and drop older segments.
+     */
+    void checkpoint(long segmentNumber, int offset) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, segmentNumber + ":" + offset, StandardCharsets.UTF_8);
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (long existing : listSegments()) {
+            if (existing < segmentNumber) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Wait until lsn is forced. If no flush is running this appender becomes the leader and forces
+     * all records written so far (which includes its own); appenders arriving meanwhile are covered
+     * by the next flush.
+     */
+    void awaitDurable(long lsn) {
+        synchronized (flushMonitor) {
+            while (flushedLsn < lsn && flushing) {
+                try {
+                    flushMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for acceptance log flush", e);
+                }
+            }
+            if (flushedLsn >= lsn) {
+                return;
+            }
+            flushing = true;
+        }
+
+        long target;
+        MappedByteBuffer flushBuffer;
+        int from;
+        int to;
+        synchronized (this) {
+            target = nextLsn - 1;
+            flushBuffer = buffer;
+            from = forcedOffset;
+            to = writeOffset;
+            forcedOffset = writeOffset;
+        }
+
+        boolean forced = false;
+        try {
+            if (to > from) {
+                flushBuffer.force(from, to - from);
+            }
+            forced = true;
+        } finally {
+            synchronized (flushMonitor) {
+                flushing = false;
+                if (forced) {
+                    flushedLsn = Math.max(flushedLsn, target);
+                } else {
+                    synchronized (this) {
+                        // Let the next leader retry the range
+                        if (buffer == flushBuffer) {
+                            forcedOffset = Math.min(forcedOffset, from);
+                        }
+                    }
+                }
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    // Caller holds this
+    private void roll() {
+        // Records of the full segment become durable here, before appends move on
+        buffer.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        openSegment(segment + 1);
+    }
+
+    // Caller holds this
+    private void openSegment(long segmentNumber) {
+        try {
+            channel = FileChannel.open(segmentPath(segmentNumber),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open acceptance log segment " + segmentNumber, e);
+        }
+        segment = segmentNumber;
+        writeOffset = 0;
+        forcedOffset = 0;
+    }
+
+    /**
+     * @return Highest lsn replayed, 0 if none
+     */
+    private long replaySegment(long segmentNumber, int startOffset, Consumer<Entry> replay) throws IOException {
+        long lastLsn = 0;
+        try (FileChannel readChannel = FileChannel.open(segmentPath(segmentNumber), StandardOpenOption.READ)) {
+            long size = readChannel.size();
+            ByteBuffer data = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int offset = startOffset;
+            while (offset + HEADER_BYTES <= size) {
+                int length = data.getInt(offset);
+                if (length <= 0 || offset + HEADER_BYTES + (long) length > size) {
+                    break;
+                }
+                int crc = data.getInt(offset + 4);
+                long lsn = data.getLong(offset + 8);
+                byte[] payload = new byte[length];
+                data.get(offset + HEADER_BYTES, payload);
+                if (crc != checksum(lsn, payload)) {
+                    break;
+                }
+                offset += HEADER_BYTES + length;
+                lastLsn = lsn;
+                replay.accept(new Entry(lsn, segmentNumber, offset, payload));
+            }
+        }
+        return lastLsn;
+    }
+
+    /**
+     * @return {segment, offset} of the checkpoint, {0, 0} if there is none
+     */
+    private long[] readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return new long[] {0, 0};
+        }
+        String[] parts = Files.readString(path, StandardCharsets.UTF_8).trim().split(":");
+        return new long[] {Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> segments.add(Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private Path segmentPath(long segmentNumber) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+    }
+
+    private static int checksum(long lsn, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putLong(0, lsn));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
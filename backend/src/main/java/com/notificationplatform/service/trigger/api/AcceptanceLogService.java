@@ -0,0 +1,296 @@
+package com.notificationplatform.service.trigger.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationplatform.entity.Trigger;
+import com.notificationplatform.entity.enums.TriggerStatus;
+import com.notificationplatform.repository.TriggerRepository;
+import com.notificationplatform.service.trigger.TriggerDispatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Accepts asynchronous API trigger requests into the local {@link AcceptanceLog} and turns them into executions.
+ *
+ * {@link #accept} returns once the request is fsynced to the log (group-committed with concurrent requests),
+ * so the caller can be acknowledged without a database or broker round trip. A drainer thread dispatches
+ * logged requests in order and advances the log checkpoint after each batch's executions have started;
+ * requests after the checkpoint are replayed on restart, so delivery is at-least-once. Requests whose
+ * dispatch fails are moved to the trigger ingestion queue, which retries them with backoff.
+ *
+ * The checkpoint never passes a batch whose executions are still queued: the drainer keeps waiting past
+ * the dispatch timeout. While {@code max-pending} requests wait to be drained, {@link #accept} declines
+ * new ones so the caller stores them in the ingestion queue instead.
+ */
+@Slf4j
+@Service
+public class AcceptanceLogService {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final TriggerRepository triggerRepository;
+    private final TriggerDispatcher triggerDispatcher;
+    private final TriggerIngestionService ingestionService;
+    private final ObjectMapper objectMapper;
+
+    // Bounded by max-pending in accept; requests replayed on startup are always queued
+    private final BlockingQueue<PendingRequest> pending = new LinkedBlockingQueue<>();
+
+    private AcceptanceLog acceptanceLog;
+    private Thread drainer;
+    private volatile boolean running;
+
+    @Value("${app.api-trigger.acceptance-log.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.api-trigger.acceptance-log.directory:./data/acceptance-log}")
+    private String directory;
+
+    @Value("${app.api-trigger.acceptance-log.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${app.api-trigger.acceptance-log.drain-batch-size:200}")
+    private int drainBatchSize;
+
+    @Value("${app.api-trigger.acceptance-log.dispatch-timeout-ms:60000}")
+    private long dispatchTimeoutMs;
+
+    @Value("${app.api-trigger.acceptance-log.max-pending:10000}")
+    private int maxPending;
+
+    public AcceptanceLogService(TriggerRepository triggerRepository,
+                                TriggerDispatcher triggerDispatcher,
+                                TriggerIngestionService ingestionService,
+                                ObjectMapper objectMapper) {
+        this.triggerRepository = triggerRepository;
+        this.triggerDispatcher = triggerDispatcher;
+        this.ingestionService = ingestionService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        acceptanceLog = AcceptanceLog.open(Path.of(directory), segmentBytes, entry -> pending.add(decode(entry)));
+        if (!pending.isEmpty()) {
+            log.info("Replaying {} unprocessed API trigger requests from acceptance log: directory={}",
+                    pending.size(), directory);
+        }
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "acceptance-log-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Durably log a request for asynchronous execution.
+     *
+     * @return Acceptance id, or null if the drainer is too far behind and the request must be stored elsewhere
+     */
+    public String accept(String triggerId, Map<String, Object> triggerData) {
+        if (pending.size() >= maxPending) {
+            log.warn("Acceptance log backlog full, declining request: triggerId={}, pending={}", triggerId, pending.size());
+            return null;
+        }
+
+        String acceptanceId = UUID.randomUUID().toString();
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", acceptanceId);
+        record.put("triggerId", triggerId);
+        record.put("triggerData", triggerData);
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(record);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize trigger data: " + e.getMessage(), e);
+        }
+
+        // Queued in log order so a checkpoint never passes an unprocessed request
+        acceptanceLog.append(payload,
+                entry -> pending.add(new PendingRequest(entry, acceptanceId, triggerId, triggerData)));
+        return acceptanceId;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (drainer != null) {
+            drainer.interrupt();
+            try {
+                drainer.join(dispatchTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (acceptanceLog != null) {
+            try {
+                acceptanceLog.close();
+            } catch (IOException e) {
+                log.warn("Failed to close acceptance log: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingRequest> batch = new ArrayList<>(drainBatchSize);
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    PendingRequest first = pending.poll(500, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    pending.drainTo(batch, drainBatchSize - 1);
+                }
+                drainBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Stopping; unprocessed requests are replayed on restart
+                return;
+            } catch (Exception e) {
+                // Failed before dispatching anything (later failures are retried in drainBatch), so retry the
+                // same batch; later batches must not be checkpointed past it
+                log.error("Error draining acceptance log, retrying batch of {}", batch.size(), e);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatch a batch and checkpoint after its last request. Throws only before any request was dispatched,
+     * so the caller can retry the whole batch without running a request twice.
+     */
+    private void drainBatch(List<PendingRequest> batch) throws InterruptedException, IOException {
+        // Requests are queued before their fsync; never execute one that could still be lost
+        acceptanceLog.awaitDurable(batch.get(batch.size() - 1).entry().lsn());
+
+        List<String> triggerIds = batch.stream().map(PendingRequest::triggerId).distinct().toList();
+        Map<String, Trigger> triggers = triggerRepository.findAllById(triggerIds).stream()
+                .collect(Collectors.toMap(Trigger::getId, Function.identity()));
+
+        List<CompletableFuture<?>> executions = new ArrayList<>();
+        Map<String, List<Map<String, Object>>> deferred = new HashMap<>();
+        for (PendingRequest request : batch) {
+            Trigger trigger = triggers.get(request.triggerId());
+            if (trigger == null || trigger.getStatus() != TriggerStatus.ACTIVE) {
+                log.warn("Dropping accepted API trigger request, trigger not active: acceptanceId={}, triggerId={}",
+                        request.acceptanceId(), request.triggerId());
+                continue;
+            }
+            try {
+                executions.addAll(triggerDispatcher.dispatch(trigger, request.triggerData()));
+            } catch (Exception e) {
+                log.warn("Dispatch failed, moving request to ingestion queue: acceptanceId={}, error={}",
+                        request.acceptanceId(), e.getMessage());
+                deferred.computeIfAbsent(request.triggerId(), id -> new ArrayList<>()).add(request.triggerData());
+            }
+        }
+
+        for (Map.Entry<String, List<Map<String, Object>>> entry : deferred.entrySet()) {
+            enqueueUntilStored(entry.getKey(), entry.getValue());
+        }
+
+        // Requests still queued on the dispatch executor are stored nowhere else; never checkpoint past them
+        CompletableFuture<Void> started = CompletableFuture.allOf(executions.toArray(new CompletableFuture[0]));
+        while (true) {
+            try {
+                started.get(dispatchTimeoutMs, TimeUnit.MILLISECONDS);
+                break;
+            } catch (TimeoutException e) {
+                log.warn("Executions of acceptance log batch not started after {}ms, still waiting: batchSize={}, pending={}",
+                        dispatchTimeoutMs, batch.size(), pending.size());
+            } catch (ExecutionException e) {
+                // Execution failures are recorded by the workflow executor
+                break;
+            }
+        }
+
+        checkpointUntilStored(batch.get(batch.size() - 1).entry());
+    }
+
+    /**
+     * The batch was dispatched, so only the checkpoint may be retried; retrying the batch would run it again.
+     */
+    private void checkpointUntilStored(AcceptanceLog.Entry last) throws InterruptedException {
+        long delayMs = 1000;
+        while (true) {
+            try {
+                acceptanceLog.checkpoint(last.segment(), last.endOffset());
+                return;
+            } catch (IOException e) {
+                log.error("Failed to checkpoint acceptance log, retrying in {}ms: lsn={}, error={}",
+                        delayMs, last.lsn(), e.getMessage());
+                Thread.sleep(delayMs);
+                delayMs = Math.min(delayMs * 2, 30000);
+            }
+        }
+    }
+
+    /**
+     * The checkpoint must not pass a request that is stored nowhere else, so keep trying.
+     */
+    private void enqueueUntilStored(String triggerId, List<Map<String, Object>> events) throws InterruptedException {
+        long delayMs = 1000;
+        while (true) {
+            try {
+                ingestionService.enqueue(triggerId, events);
+                return;
+            } catch (Exception e) {
+                log.error("Failed to move requests to ingestion queue, retrying in {}ms: triggerId={}, error={}",
+                        delayMs, triggerId, e.getMessage());
+                Thread.sleep(delayMs);
+                delayMs = Math.min(delayMs * 2, 30000);
+            }
+        }
+    }
+
+    private PendingRequest decode(AcceptanceLog.Entry entry) {
+        try {
+            Map<String, Object> record = objectMapper.readValue(entry.payload(), MAP_TYPE);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> triggerData = (Map<String, Object>) record.get("triggerData");
+            return new PendingRequest(entry, (String) record.get("id"), (String) record.get("triggerId"),
+                    triggerData != null ? triggerData : new HashMap<>());
+        } catch (IOException e) {
+            throw new RuntimeException("Corrupt acceptance log record: lsn=" + entry.lsn(), e);
+        }
+    }
+
+    private record PendingRequest(AcceptanceLog.Entry entry, String acceptanceId, String triggerId,
+                                  Map<String, Object> triggerData) {
+    }
+}
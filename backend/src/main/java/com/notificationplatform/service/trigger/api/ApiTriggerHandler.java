@@ -1,14 +1,27 @@
 package com.notificationplatform.service.trigger.api;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationplatform.dto.response.BatchIngestionResponse;
 import com.notificationplatform.dto.response.TriggerActivationResponse;
+import com.notificationplatform.entity.Execution;
 import com.notificationplatform.entity.Trigger;
 import com.notificationplatform.entity.enums.TriggerStatus;
+import com.notificationplatform.service.trigger.TriggerDispatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,10 +36,13 @@ import java.util.Map;
 public class ApiTriggerHandler {
 
     private final TriggerEndpointRegistry endpointRegistry;
-    
-    // Note: Dependencies for finding workflows by trigger config need to be added
-    // private final WorkflowRepository workflowRepository;
-    // private final WorkflowExecutor workflowExecutor;
+    private final TriggerDispatcher triggerDispatcher;
+    private final TriggerIngestionService ingestionService;
+    private final AcceptanceLogService acceptanceLogService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.api-trigger.batch.max-items:1000}")
+    private int maxBatchItems;
 
     /**
      * Handle HTTP request for API trigger.
@@ -38,18 +54,145 @@ public class ApiTriggerHandler {
      * @param queryParams Query parameters
      * @return Trigger activation response
      */
-    @Transactional
     public TriggerActivationResponse handleRequest(String endpointPath, String httpMethod,
                                                    Map<String, Object> requestBody, String apiKey,
                                                    Map<String, String> queryParams) {
         log.info("Handling API trigger request: endpointPath={}, method={}", endpointPath, httpMethod);
         
+        EndpointRouter.Match match = resolveEndpoint(endpointPath, httpMethod, apiKey);
+        Trigger trigger = match.trigger();
+        
+        // Validate request against trigger config
+        validateMethod(trigger, httpMethod);
+        validateRequest(trigger, httpMethod, requestBody);
+        
+        // Extract trigger data from request
+        Map<String, Object> triggerData = extractTriggerData(requestBody, match.pathParams(), queryParams);
+        
+        if (isAsyncResponse(trigger)) {
+            return acceptAsync(trigger, triggerData);
+        }
+        
+        // Execute all active workflows using this trigger config (looked up in the trigger index)
+        List<Execution> executions = triggerDispatcher.dispatchAndWait(trigger, triggerData);
+        if (executions.isEmpty()) {
+            log.warn("No workflow executed for trigger: triggerId={}", trigger.getId());
+            throw new RuntimeException("No active workflow found for trigger: " + trigger.getId());
+        }
+        
+        // Respond with the first execution; other workflows are reported in the message
+        Execution execution = executions.get(0);
+        TriggerActivationResponse response = new TriggerActivationResponse();
+        response.setWorkflowId(execution.getWorkflow().getId());
+        response.setExecutionId(execution.getId());
+        response.setStatus(execution.getStatus() != null ? execution.getStatus().getValue() : null);
+        response.setMessage(executions.size() == 1
+                ? "Workflow execution started"
+                : "Workflow executions started for " + executions.size() + " workflows");
+        return response;
+    }
+
+    /**
+     * Whether the trigger acknowledges requests before executing them ("responseMode": "async").
+     */
+    private boolean isAsyncResponse(Trigger trigger) {
+        Map<String, Object> config = trigger.getConfig();
+        return config != null && "async".equalsIgnoreCase(String.valueOf(config.get("responseMode")));
+    }
+
+    /**
+     * Durably record the request for asynchronous execution and acknowledge it.
+     * Uses the local acceptance log, or the ingestion queue when the log is disabled or its backlog is full.
+     */
+    private TriggerActivationResponse acceptAsync(Trigger trigger, Map<String, Object> triggerData) {
+        String acceptanceId = acceptanceLogService.isEnabled()
+                ? acceptanceLogService.accept(trigger.getId(), triggerData)
+                : null;
+        if (acceptanceId == null) {
+            acceptanceId = ingestionService.enqueue(trigger.getId(), List.of(triggerData)).get(0);
+        }
+
+        TriggerActivationResponse response = new TriggerActivationResponse();
+        response.setAcceptanceId(acceptanceId);
+        response.setStatus("accepted");
+        response.setMessage("Request accepted for execution");
+        return response;
+    }
+
+    /**
+     * Handle a batch of events for an API trigger.
+     * Events are validated individually and the valid ones are enqueued in one transaction for
+     * asynchronous execution; invalid events are reported as rejected without failing the batch.
+     * 
+     * @param endpointPath Endpoint path of the trigger
+     * @param httpMethod HTTP method
+     * @param body Request body (already decompressed): a JSON array of events, or one event per line when ndjson
+     * @param ndjson Whether the body is newline-delimited JSON
+     * @param apiKey API key from header
+     * @param queryParams Query parameters, added to every event
+     * @return Acceptance id or rejection reason per event, in request order
+     */
+    public BatchIngestionResponse handleBatchRequest(String endpointPath, String httpMethod, InputStream body,
+                                                     boolean ndjson, String apiKey,
+                                                     Map<String, String> queryParams) throws IOException {
+        EndpointRouter.Match match = resolveEndpoint(endpointPath, httpMethod, apiKey);
+        Trigger trigger = match.trigger();
+        validateMethod(trigger, httpMethod);
+
+        List<Object> items = ndjson ? readNdjson(body) : readJsonArray(body);
+        log.info("Handling API trigger batch: endpointPath={}, triggerId={}, items={}",
+                endpointPath, trigger.getId(), items.size());
+
+        List<BatchIngestionResponse.ItemResult> results = new ArrayList<>(items.size());
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            Object item = items.get(i);
+            String error = null;
+            if (item instanceof ParseError parseError) {
+                error = parseError.message();
+            } else if (!(item instanceof Map)) {
+                error = "Event must be a JSON object";
+            } else {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> requestBody = (Map<String, Object>) item;
+                try {
+                    validateRequest(trigger, httpMethod, requestBody);
+                    events.add(extractTriggerData(requestBody, match.pathParams(), queryParams));
+                    acceptedIndexes.add(i);
+                } catch (RuntimeException e) {
+                    error = e.getMessage();
+                }
+            }
+            results.add(new BatchIngestionResponse.ItemResult(i, null, error == null ? "accepted" : "rejected", error));
+        }
+
+        List<String> acceptanceIds = ingestionService.enqueue(trigger.getId(), events);
+        for (int i = 0; i < acceptanceIds.size(); i++) {
+            results.get(acceptedIndexes.get(i)).setAcceptanceId(acceptanceIds.get(i));
+        }
+
+        int rejected = items.size() - acceptanceIds.size();
+        BatchIngestionResponse response = new BatchIngestionResponse();
+        response.setTriggerId(trigger.getId());
+        response.setStatus(rejected == 0 ? "accepted" : acceptanceIds.isEmpty() ? "rejected" : "partial");
+        response.setAccepted(acceptanceIds.size());
+        response.setRejected(rejected);
+        response.setItems(results);
+        return response;
+    }
+
+    /**
+     * Look up the active trigger of an endpoint and check authentication.
+     */
+    private EndpointRouter.Match resolveEndpoint(String endpointPath, String httpMethod, String apiKey) {
         // Get trigger by endpoint path
-        Trigger trigger = endpointRegistry.getTriggerByEndpoint(endpointPath);
-        if (trigger == null) {
+        EndpointRouter.Match match = endpointRegistry.match(httpMethod, endpointPath);
+        if (match == null) {
             log.warn("No trigger found for endpoint: endpointPath={}", endpointPath);
             throw new RuntimeException("No trigger found for endpoint: " + endpointPath);
         }
+        Trigger trigger = match.trigger();
         
         // Check if trigger is active
         if (trigger.getStatus() != TriggerStatus.ACTIVE) {
@@ -59,27 +202,60 @@ public class ApiTriggerHandler {
         
         // Validate authentication if configured
         validateAuthentication(trigger, apiKey);
-        
-        // Validate request against trigger config
-        validateRequest(trigger, httpMethod, requestBody, queryParams);
-        
-        // Extract trigger data from request
-        Map<String, Object> triggerData = extractTriggerData(requestBody, queryParams);
-        
-        // Find workflow(s) using this trigger config
-        // Need to search workflow definitions for nodes with triggerConfigId = trigger.getId()
-        // This requires searching workflow definitions for triggerConfigId
-        throw new UnsupportedOperationException(
-            "ApiTriggerHandler.handleRequest() needs to find workflow(s) using trigger config. " +
-            "This requires searching workflow definitions for triggerConfigId. " +
-            "Will be implemented in a later sprint."
-        );
-        
-        // Future implementation:
-        // 1. Find all workflows that have trigger nodes with triggerConfigId = trigger.getId()
-        // 2. Filter to only active workflows
-        // 3. Execute each workflow (or first one if single execution mode)
-        // 4. Return response with workflowId and executionId
+        return match;
+    }
+
+    /**
+     * Read a JSON array of events element by element.
+     * A malformed array fails the whole request since later elements cannot be located.
+     */
+    private List<Object> readJsonArray(InputStream body) throws IOException {
+        List<Object> items = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("Batch body must be a JSON array of events");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                checkBatchSize(items.size());
+                items.add(objectMapper.readValue(parser, Object.class));
+            }
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new RuntimeException("Malformed JSON batch: " + e.getOriginalMessage());
+        }
+        return items;
+    }
+
+    /**
+     * Read newline-delimited JSON events. A malformed line only rejects that event.
+     */
+    private List<Object> readNdjson(InputStream body) throws IOException {
+        List<Object> items = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            checkBatchSize(items.size());
+            try {
+                items.add(objectMapper.readValue(line, Object.class));
+            } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+                items.add(new ParseError("Malformed JSON: " + e.getOriginalMessage()));
+            }
+        }
+        return items;
+    }
+
+    private void checkBatchSize(int size) {
+        if (size >= maxBatchItems) {
+            throw new RuntimeException("Batch exceeds the maximum of " + maxBatchItems + " events");
+        }
+    }
+
+    /**
+     * Placeholder for an NDJSON line that could not be parsed
+     */
+    private record ParseError(String message) {
     }
 
     /**
@@ -120,21 +296,29 @@ public class ApiTriggerHandler {
     }
 
     /**
-     * Validate request against trigger configuration.
+     * Validate HTTP method against trigger configuration.
      */
-    @SuppressWarnings("unchecked")
-    private void validateRequest(Trigger trigger, String httpMethod, 
-                                Map<String, Object> requestBody, Map<String, String> queryParams) {
+    private void validateMethod(Trigger trigger, String httpMethod) {
         Map<String, Object> config = trigger.getConfig();
         if (config == null) {
             return;
         }
         
-        // Validate HTTP method
         String expectedMethod = (String) config.get("httpMethod");
         if (expectedMethod != null && !expectedMethod.equalsIgnoreCase(httpMethod)) {
             throw new RuntimeException("Invalid HTTP method. Expected: " + expectedMethod + ", got: " + httpMethod);
         }
+    }
+
+    /**
+     * Validate request body against trigger configuration.
+     */
+    @SuppressWarnings("unchecked")
+    private void validateRequest(Trigger trigger, String httpMethod, Map<String, Object> requestBody) {
+        Map<String, Object> config = trigger.getConfig();
+        if (config == null) {
+            return;
+        }
         
         // Validate request schema if configured
         Map<String, Object> requestSchema = (Map<String, Object>) config.get("requestSchema");
@@ -150,7 +334,8 @@ public class ApiTriggerHandler {
     /**
      * Extract trigger data from request.
      */
-    private Map<String, Object> extractTriggerData(Map<String, Object> requestBody, Map<String, String> queryParams) {
+    private Map<String, Object> extractTriggerData(Map<String, Object> requestBody, Map<String, String> pathParams,
+                                                   Map<String, String> queryParams) {
         Map<String, Object> triggerData = new HashMap<>();
         
         // Add request body data
@@ -165,6 +350,11 @@ public class ApiTriggerHandler {
             }
         }
         
+        // Add path parameters, e.g. {id} of /trigger/orders/{id}
+        if (pathParams != null && !pathParams.isEmpty()) {
+            triggerData.put("pathParams", pathParams);
+        }
+        
         // Add query parameters
         if (queryParams != null && !queryParams.isEmpty()) {
             triggerData.put("queryParams", queryParams);
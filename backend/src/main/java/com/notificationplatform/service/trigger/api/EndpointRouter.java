@@ -0,0 +1,164 @@
+package com.notificationplatform.service.trigger.api;
+
+import com.notificationplatform.entity.Trigger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable trie of API trigger endpoints keyed by path segment.
+ *
+ * Patterns may contain parameters ({@code /trigger/orders/{id}/shipped}). Static segments take precedence
+ * over parameters, backtracking when a static branch does not lead to a route. Each node holds its routes
+ * by HTTP method; a route without a method answers any method.
+ *
+ * The router is never modified after {@link #build}; the registry builds a new one on every change and
+ * swaps it in, so lookups need no locking.
+ */
+final class EndpointRouter {
+
+    static final String ANY_METHOD = "*";
+
+    private static final EndpointRouter EMPTY = new EndpointRouter(new Node());
+
+    /**
+     * A registered endpoint
+     *
+     * @param pattern Normalized pattern, e.g. /trigger/orders/{id}
+     * @param method Upper-case HTTP method, or {@link #ANY_METHOD}
+     * @param paramNames Parameter names in path order
+     */
+    record Route(Trigger trigger, String pattern, String method, List<String> paramNames) {
+    }
+
+    /**
+     * A matched route with its path parameter values
+     */
+    record Match(Route route, Map<String, String> pathParams) {
+
+        Trigger trigger() {
+            return route.trigger();
+        }
+    }
+
+    private final Node root;
+
+    private EndpointRouter(Node root) {
+        this.root = root;
+    }
+
+    static EndpointRouter empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a router.
+     *
+     * @throws RuntimeException if two routes have the same shape and method
+     */
+    static EndpointRouter build(Collection<Route> routes) {
+        Node root = new Node();
+        for (Route route : routes) {
+            Node node = root;
+            for (String segment : segments(route.pattern())) {
+                node = isParam(segment)
+                        ? (node.paramChild != null ? node.paramChild : (node.paramChild = new Node()))
+                        : node.staticChildren.computeIfAbsent(segment, key -> new Node());
+            }
+            Route existing = node.routes.putIfAbsent(route.method(), route);
+            if (existing != null) {
+                throw new RuntimeException("Endpoint already registered: " + route.pattern()
+                        + " (" + route.method() + ") by trigger " + existing.trigger().getId());
+            }
+        }
+        return new EndpointRouter(root);
+    }
+
+    /**
+     * Find the route for a request path.
+     * If the path matches but no route accepts the method, a route of another method is returned so the
+     * caller can report the method mismatch.
+     *
+     * @return Match, or null if no pattern matches the path
+     */
+    Match match(String method, String path) {
+        String[] segments = segments(path);
+        List<String> values = new ArrayList<>();
+        Route route = match(root, segments, 0, method != null ? method.toUpperCase() : ANY_METHOD, values);
+        if (route == null) {
+            return null;
+        }
+
+        Map<String, String> params = route.paramNames().isEmpty() ? Map.of() : new LinkedHashMap<>();
+        for (int i = 0; i < route.paramNames().size(); i++) {
+            params.put(route.paramNames().get(i), values.get(i));
+        }
+        return new Match(route, params);
+    }
+
+    private static Route match(Node node, String[] segments, int index, String method, List<String> values) {
+        if (index == segments.length) {
+            if (node.routes.isEmpty()) {
+                return null;
+            }
+            Route route = node.routes.get(method);
+            if (route == null) {
+                route = node.routes.get(ANY_METHOD);
+            }
+            return route != null ? route : node.routes.values().iterator().next();
+        }
+
+        Node staticChild = node.staticChildren.get(segments[index]);
+        if (staticChild != null) {
+            Route route = match(staticChild, segments, index + 1, method, values);
+            if (route != null) {
+                return route;
+            }
+        }
+        if (node.paramChild != null) {
+            values.add(segments[index]);
+            Route route = match(node.paramChild, segments, index + 1, method, values);
+            if (route != null) {
+                return route;
+            }
+            values.remove(values.size() - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Parameter names of a pattern in path order
+     */
+    static List<String> paramNames(String pattern) {
+        List<String> names = new ArrayList<>();
+        for (String segment : segments(pattern)) {
+            if (isParam(segment)) {
+                names.add(segment.substring(1, segment.length() - 1));
+            }
+        }
+        return names.isEmpty() ? Collections.emptyList() : names;
+    }
+
+    private static boolean isParam(String segment) {
+        return segment.length() > 2 && segment.startsWith("{") && segment.endsWith("}");
+    }
+
+    private static String[] segments(String path) {
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        if (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/");
+    }
+
+    private static final class Node {
+        private final Map<String, Node> staticChildren = new HashMap<>();
+        private final Map<String, Route> routes = new LinkedHashMap<>();
+        private Node paramChild;
+    }
+}
@@ -1,125 +1,310 @@
 package com.notificationplatform.service.trigger.api;
 
 import com.notificationplatform.entity.Trigger;
-import com.notificationplatform.engine.DistributedLockService;
-import lombok.RequiredArgsConstructor;
+import com.notificationplatform.entity.enums.TriggerStatus;
+import com.notificationplatform.entity.enums.TriggerType;
+import com.notificationplatform.repository.TriggerRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Registry for active trigger endpoints.
- * Stores mapping between endpoint paths and triggers.
- * Uses distributed lock for concurrent access in multi-instance deployments.
- * 
+ * Routes request paths (with path parameters) and methods to triggers through an {@link EndpointRouter}.
+ *
+ * Changes rebuild the router copy-on-write and swap it in, so lookups on the request path take no lock.
+ * Every change is announced to the other instances on a Redis channel together with a cluster-wide version
+ * counter; an instance that sees a gap in versions, or whose version differs from the counter on the
+ * periodic check, reloads all endpoints from the database.
+ *
  * See: @import(features/trigger-registry.md#trigger-instance-lifecycle)
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
-public class TriggerEndpointRegistry {
-
-    private final DistributedLockService lockService;
-    
-    // Map<endpointPath, Trigger>
-    private final Map<String, Trigger> endpointMap = new ConcurrentHashMap<>();
-    
-    // Map<triggerId, endpointPath> for reverse lookup
-    private final Map<String, String> triggerToEndpointMap = new ConcurrentHashMap<>();
-    
-    private static final String LOCK_KEY_PREFIX = "lock:trigger-endpoint:";
+public class TriggerEndpointRegistry implements MessageListener {
+
+    static final String CHANNEL = "trigger-endpoints:changes";
+    static final String VERSION_KEY = "trigger-endpoints:version";
+
+    private static final char REGISTER = '+';
+    private static final char UNREGISTER = '-';
+
+    private final TriggerRepository triggerRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // Map<triggerId, Route>, guarded by this; readers use the router below
+    private Map<String, EndpointRouter.Route> routes = new LinkedHashMap<>();
+
+    private volatile EndpointRouter router = EndpointRouter.empty();
+
+    // Last cluster version applied, guarded by this
+    private long version;
+    private boolean reloadRequired;
+
+    @Value("${spring.application.instance-id:${HOSTNAME:unknown}}")
+    private String instanceId;
+
+    public TriggerEndpointRegistry(TriggerRepository triggerRepository,
+                                   RedisTemplate<String, String> redisTemplate,
+                                   RedisMessageListenerContainer listenerContainer) {
+        this.triggerRepository = triggerRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        reload();
+    }
 
     /**
-     * Register endpoint for trigger.
-     * 
+     * Register endpoint for trigger, replacing its previous endpoint.
+     *
      * @param trigger Trigger to register
      * @return Endpoint path
      */
     public String registerEndpoint(Trigger trigger) {
-        String endpointPath = extractEndpointPath(trigger);
-        String lockKey = LOCK_KEY_PREFIX + endpointPath;
-        
-        // Acquire lock for registration
-        if (!lockService.acquireLock(lockKey)) {
-            log.warn("Failed to acquire lock for endpoint registration: endpointPath={}", endpointPath);
-            throw new RuntimeException("Failed to acquire lock for endpoint registration: " + endpointPath);
-        }
-        
-        try {
-            // Check if endpoint already registered
-            if (endpointMap.containsKey(endpointPath)) {
-                Trigger existingTrigger = endpointMap.get(endpointPath);
-                if (!existingTrigger.getId().equals(trigger.getId())) {
-                    log.warn("Endpoint already registered by different trigger: endpointPath={}, existingTriggerId={}, newTriggerId={}", 
-                             endpointPath, existingTrigger.getId(), trigger.getId());
-                    throw new RuntimeException("Endpoint already registered: " + endpointPath);
-                }
-                // Same trigger, already registered
-                return endpointPath;
-            }
-            
-            // Register endpoint
-            endpointMap.put(endpointPath, trigger);
-            triggerToEndpointMap.put(trigger.getId(), endpointPath);
-            
-            log.info("Registered trigger endpoint: endpointPath={}, triggerId={}", 
-                     endpointPath, trigger.getId());
-            
-            return endpointPath;
-        } finally {
-            lockService.releaseLock(lockKey);
-        }
+        EndpointRouter.Route route = registerLocally(trigger);
+        publishAfterCommit(REGISTER, trigger.getId());
+        log.info("Registered trigger endpoint: endpointPath={}, method={}, triggerId={}",
+                 route.pattern(), route.method(), trigger.getId());
+        return route.pattern();
     }
 
     /**
      * Unregister endpoint for trigger.
-     * 
+     *
      * @param triggerId Trigger ID
      */
     public void unregisterEndpoint(String triggerId) {
-        String endpointPath = triggerToEndpointMap.remove(triggerId);
-        if (endpointPath == null) {
+        if (!unregisterLocally(triggerId)) {
             log.debug("Endpoint not found for trigger: triggerId={}", triggerId);
             return;
         }
-        
-        String lockKey = LOCK_KEY_PREFIX + endpointPath;
-        
-        // Acquire lock for unregistration
-        if (!lockService.acquireLock(lockKey)) {
-            log.warn("Failed to acquire lock for endpoint unregistration: endpointPath={}", endpointPath);
-            return;
-        }
-        
-        try {
-            endpointMap.remove(endpointPath);
-            log.info("Unregistered trigger endpoint: endpointPath={}, triggerId={}", 
-                     endpointPath, triggerId);
-        } finally {
-            lockService.releaseLock(lockKey);
-        }
+        publishAfterCommit(UNREGISTER, triggerId);
+        log.info("Unregistered trigger endpoint: triggerId={}", triggerId);
+    }
+
+    /**
+     * Match a request to an endpoint.
+     * If the path matches but the method does not, the match is still returned so the caller can report it.
+     *
+     * @param httpMethod HTTP method
+     * @param requestPath Request path
+     * @return Match with path parameters, null if no endpoint matches the path
+     */
+    public EndpointRouter.Match match(String httpMethod, String requestPath) {
+        return router.match(httpMethod, requestPath);
     }
 
     /**
-     * Get trigger by endpoint path.
-     * 
+     * Get trigger by endpoint path (any method).
+     *
      * @param endpointPath Endpoint path
      * @return Trigger if found, null otherwise
      */
     public Trigger getTriggerByEndpoint(String endpointPath) {
-        return endpointMap.get(endpointPath);
+        EndpointRouter.Match match = router.match(null, endpointPath);
+        return match != null ? match.trigger() : null;
     }
 
     /**
      * Check if endpoint is registered.
-     * 
+     *
      * @param endpointPath Endpoint path
      * @return true if registered, false otherwise
      */
     public boolean isEndpointRegistered(String endpointPath) {
-        return endpointMap.containsKey(endpointPath);
+        return router.match(null, endpointPath) != null;
+    }
+
+    /**
+     * Cluster version of the endpoints this instance serves
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // Format: <version>:<+|-><triggerId>:<instanceId>
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":", 3);
+        if (parts.length < 3 || parts[1].length() < 2) {
+            return;
+        }
+        long messageVersion;
+        try {
+            messageVersion = Long.parseLong(parts[0]);
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        synchronized (this) {
+            if (messageVersion > version + 1) {
+                reloadRequired = true;
+            }
+            version = Math.max(version, messageVersion);
+        }
+
+        if (instanceId.equals(parts[2])) {
+            return;
+        }
+        String triggerId = parts[1].substring(1);
+        try {
+            if (parts[1].charAt(0) == REGISTER) {
+                Trigger trigger = triggerRepository.findById(triggerId).orElse(null);
+                if (isServable(trigger)) {
+                    registerLocally(trigger);
+                } else {
+                    unregisterLocally(triggerId);
+                }
+            } else if (parts[1].charAt(0) == UNREGISTER) {
+                unregisterLocally(triggerId);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to apply endpoint change: triggerId={}, error={}", triggerId, e.getMessage());
+            synchronized (this) {
+                reloadRequired = true;
+            }
+        }
+    }
+
+    /**
+     * Reload from the database when this instance missed a change.
+     */
+    @Scheduled(fixedDelayString = "${app.api-trigger.endpoints.version-check-interval-ms:30000}")
+    public void checkVersion() {
+        long clusterVersion = readClusterVersion();
+        boolean drifted;
+        synchronized (this) {
+            drifted = reloadRequired || (clusterVersion >= 0 && clusterVersion != version);
+        }
+        if (drifted) {
+            log.info("Endpoint registry drifted from cluster, reloading: localVersion={}, clusterVersion={}",
+                     getVersion(), clusterVersion);
+            reload();
+        }
+    }
+
+    /**
+     * Rebuild the endpoints from the active API triggers in the database.
+     */
+    public void reload() {
+        try {
+            // Read the version first, changes committed during the reload trigger another one
+            long clusterVersion = readClusterVersion();
+            List<Trigger> triggers = triggerRepository.findByTriggerTypeAndStatus(TriggerType.API_CALL, TriggerStatus.ACTIVE);
+
+            Map<String, EndpointRouter.Route> reloaded = new LinkedHashMap<>();
+            for (Trigger trigger : triggers) {
+                EndpointRouter.Route route = toRoute(trigger);
+                Map<String, EndpointRouter.Route> candidate = new LinkedHashMap<>(reloaded);
+                candidate.put(trigger.getId(), route);
+                try {
+                    EndpointRouter.build(candidate.values());
+                    reloaded = candidate;
+                } catch (RuntimeException e) {
+                    log.warn("Skipping conflicting trigger endpoint: triggerId={}, error={}", trigger.getId(), e.getMessage());
+                }
+            }
+
+            synchronized (this) {
+                routes = reloaded;
+                router = EndpointRouter.build(reloaded.values());
+                version = Math.max(clusterVersion, 0);
+                reloadRequired = false;
+            }
+            log.info("Loaded {} trigger endpoints, version={}", reloaded.size(), clusterVersion);
+        } catch (Exception e) {
+            log.error("Failed to load trigger endpoints", e);
+        }
+    }
+
+    private synchronized EndpointRouter.Route registerLocally(Trigger trigger) {
+        EndpointRouter.Route route = toRoute(trigger);
+        Map<String, EndpointRouter.Route> updated = new LinkedHashMap<>(routes);
+        updated.put(trigger.getId(), route);
+        // Throws on conflict, leaving the current router in place
+        router = EndpointRouter.build(updated.values());
+        routes = updated;
+        return route;
+    }
+
+    private synchronized boolean unregisterLocally(String triggerId) {
+        if (!routes.containsKey(triggerId)) {
+            return false;
+        }
+        Map<String, EndpointRouter.Route> updated = new LinkedHashMap<>(routes);
+        updated.remove(triggerId);
+        router = EndpointRouter.build(updated.values());
+        routes = updated;
+        return true;
+    }
+
+    private void publishAfterCommit(char operation, String triggerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(operation, triggerId);
+                }
+            });
+        } else {
+            publish(operation, triggerId);
+        }
+    }
+
+    private void publish(char operation, String triggerId) {
+        try {
+            Long next = redisTemplate.opsForValue().increment(VERSION_KEY);
+            redisTemplate.convertAndSend(CHANNEL, next + ":" + operation + triggerId + ":" + instanceId);
+        } catch (Exception e) {
+            // Other instances catch up on their next version check
+            log.warn("Failed to publish endpoint change: triggerId={}, error={}", triggerId, e.getMessage());
+        }
+    }
+
+    /**
+     * @return Cluster version, 0 if never changed, -1 if Redis is unavailable
+     */
+    private long readClusterVersion() {
+        try {
+            String value = redisTemplate.opsForValue().get(VERSION_KEY);
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (Exception e) {
+            log.warn("Failed to read endpoint registry version: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private static boolean isServable(Trigger trigger) {
+        return trigger != null && trigger.getDeletedAt() == null
+                && trigger.getTriggerType() == TriggerType.API_CALL
+                && trigger.getStatus() == TriggerStatus.ACTIVE;
+    }
+
+    private EndpointRouter.Route toRoute(Trigger trigger) {
+        String pattern = extractEndpointPath(trigger);
+        Object method = trigger.getConfig().get("httpMethod");
+        String routeMethod = method != null && !method.toString().isBlank()
+                ? method.toString().trim().toUpperCase() : EndpointRouter.ANY_METHOD;
+        return new EndpointRouter.Route(trigger, pattern, routeMethod, EndpointRouter.paramNames(pattern));
     }
 
     /**
@@ -130,13 +315,13 @@ public class TriggerEndpointRegistry {
         if (config == null) {
             throw new RuntimeException("Trigger config is null: triggerId=" + trigger.getId());
         }
-        
+
         String endpointPath = (String) config.get("endpointPath");
         if (endpointPath == null || endpointPath.isEmpty()) {
             // Default endpoint path: /trigger/{triggerId}
             endpointPath = "/trigger/" + trigger.getId();
         }
-        
+
         // Normalize path (remove trailing slash, ensure starts with /)
         if (!endpointPath.startsWith("/")) {
             endpointPath = "/" + endpointPath;
@@ -144,8 +329,7 @@ public class TriggerEndpointRegistry {
         if (endpointPath.endsWith("/") && endpointPath.length() > 1) {
             endpointPath = endpointPath.substring(0, endpointPath.length() - 1);
         }
-        
+
         return endpointPath;
     }
 }
-
@@ -0,0 +1,72 @@
+package com.notificationplatform.service.trigger.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Durable queue for API trigger events accepted in bulk.
+ * Events are written to trigger_ingestion_queue with one batched insert and executed
+ * asynchronously by {@link TriggerIngestionWorker}.
+ */
+@Slf4j
+@Service
+public class TriggerIngestionService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO trigger_ingestion_queue (id, trigger_id, trigger_data, status, attempts, " +
+            "next_attempt_at, created_at, updated_at) VALUES (?, ?, ?::jsonb, 'PENDING', 0, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public TriggerIngestionService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Enqueue events for a trigger in one transaction.
+     *
+     * @param triggerId Trigger config id
+     * @param events Trigger data of each event
+     * @return Acceptance id of each event, in order
+     */
+    @Transactional
+    public List<String> enqueue(String triggerId, List<Map<String, Object>> events) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<String> acceptanceIds = new ArrayList<>(events.size());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (Map<String, Object> event : events) {
+            String id = UUID.randomUUID().toString();
+            acceptanceIds.add(id);
+            rows.add(new Object[] {id, triggerId, toJson(event), now, now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        log.debug("Enqueued API trigger events: triggerId={}, count={}", triggerId, events.size());
+        return acceptanceIds;
+    }
+
+    private String toJson(Map<String, Object> event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize trigger data: " + e.getMessage(), e);
+        }
+    }
+}
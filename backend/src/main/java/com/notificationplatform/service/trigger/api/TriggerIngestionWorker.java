@@ -0,0 +1,224 @@
+package com.notificationplatform.service.trigger.api;
+
+import com.notificationplatform.entity.Trigger;
+import com.notificationplatform.entity.TriggerIngestionEntry;
+import com.notificationplatform.entity.enums.OutboxStatus;
+import com.notificationplatform.entity.enums.TriggerStatus;
+import com.notificationplatform.repository.TriggerIngestionRepository;
+import com.notificationplatform.repository.TriggerRepository;
+import com.notificationplatform.service.trigger.TriggerDispatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Worker that drains the trigger ingestion queue filled by the batch ingestion endpoint.
+ *
+ * Batches are claimed with FOR UPDATE SKIP LOCKED like the publish outbox relay. Each entry is dispatched
+ * to the trigger's workflows and deleted once its executions have been started; a failed execution is
+ * not retried (it is recorded on the execution like any other). Dispatch errors, and entries whose
+ * executions did not start within the dispatch timeout, are released and retried with backoff, so an
+ * entry may be dispatched twice but is never lost. Entries of deleted or inactive triggers fail immediately.
+ */
+@Slf4j
+@Component
+public class TriggerIngestionWorker {
+
+    private final TriggerIngestionRepository ingestionRepository;
+    private final TriggerRepository triggerRepository;
+    private final TriggerDispatcher triggerDispatcher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${spring.application.instance-id:${HOSTNAME:unknown}}")
+    private String instanceId;
+
+    @Value("${app.api-trigger.ingestion.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.api-trigger.ingestion.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.api-trigger.ingestion.max-batches-per-poll:10}")
+    private int maxBatchesPerPoll;
+
+    @Value("${app.api-trigger.ingestion.dispatch-timeout-ms:60000}")
+    private long dispatchTimeoutMs;
+
+    @Value("${app.api-trigger.ingestion.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+
+    @Value("${app.api-trigger.ingestion.max-attempts:5}")
+    private int maxAttempts;
+
+    public TriggerIngestionWorker(TriggerIngestionRepository ingestionRepository,
+                                  TriggerRepository triggerRepository,
+                                  TriggerDispatcher triggerDispatcher,
+                                  TransactionTemplate transactionTemplate) {
+        this.ingestionRepository = ingestionRepository;
+        this.triggerRepository = triggerRepository;
+        this.triggerDispatcher = triggerDispatcher;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Drain due entries.
+     * Keeps claiming batches while they come back full, up to max-batches-per-poll.
+     */
+    @Scheduled(fixedDelayString = "${app.api-trigger.ingestion.poll-interval-ms:200}")
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            releaseStaleClaims();
+
+            int rounds = 0;
+            int claimed;
+            do {
+                claimed = drainBatch();
+                rounds++;
+            } while (claimed >= batchSize && rounds < maxBatchesPerPoll);
+        } catch (Exception e) {
+            log.error("Error draining trigger ingestion queue", e);
+        }
+    }
+
+    /**
+     * Claim, dispatch and settle one batch.
+     *
+     * @return Number of entries claimed
+     */
+    int drainBatch() {
+        List<TriggerIngestionEntry> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Load each trigger once per batch
+        List<String> triggerIds = batch.stream().map(TriggerIngestionEntry::getTriggerId).distinct().toList();
+        Map<String, Trigger> triggers = triggerRepository.findAllById(triggerIds).stream()
+                .collect(Collectors.toMap(Trigger::getId, Function.identity()));
+
+        Map<String, CompletableFuture<Void>> dispatched = new HashMap<>();
+        Map<String, String> retries = new HashMap<>();
+        Map<String, String> failures = new HashMap<>();
+
+        for (TriggerIngestionEntry entry : batch) {
+            Trigger trigger = triggers.get(entry.getTriggerId());
+            if (trigger == null || trigger.getStatus() != TriggerStatus.ACTIVE) {
+                failures.put(entry.getId(), trigger == null
+                        ? "Trigger not found: " + entry.getTriggerId()
+                        : "Trigger is not active: " + entry.getTriggerId());
+                continue;
+            }
+            try {
+                dispatched.put(entry.getId(), CompletableFuture.allOf(
+                        triggerDispatcher.dispatch(trigger, entry.getTriggerData()).toArray(new CompletableFuture[0])));
+            } catch (Exception e) {
+                retries.put(entry.getId(), e.getMessage());
+            }
+        }
+
+        // Keep the claim until the batch's executions have started (or paused), so a crash re-dispatches them
+        try {
+            CompletableFuture.allOf(dispatched.values().toArray(new CompletableFuture[0]))
+                    .get(dispatchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Execution failures are recorded by the workflow executor; timeouts are handled per entry below
+        }
+
+        // Only entries whose executions all started are deleted; the others are released for another dispatch
+        List<String> dispatchedIds = new ArrayList<>();
+        dispatched.forEach((id, executions) -> {
+            if (executions.isDone()) {
+                dispatchedIds.add(id);
+            } else {
+                retries.put(id, "Executions not started within " + dispatchTimeoutMs + " ms");
+            }
+        });
+
+        settle(dispatchedIds, retries, failures);
+
+        log.debug("Trigger ingestion batch drained: claimed={}, dispatched={}, retried={}, failed={}, instance={}",
+                batch.size(), dispatchedIds.size(), retries.size(), failures.size(), instanceId);
+        return batch.size();
+    }
+
+    private List<TriggerIngestionEntry> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<TriggerIngestionEntry> due = ingestionRepository.findDueForUpdateSkipLocked(now, batchSize);
+            if (!due.isEmpty()) {
+                List<String> ids = due.stream().map(TriggerIngestionEntry::getId).toList();
+                ingestionRepository.markClaimed(ids, OutboxStatus.IN_FLIGHT, instanceId, now);
+            }
+            return due;
+        });
+    }
+
+    private void settle(List<String> dispatchedIds, Map<String, String> retries, Map<String, String> failures) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!dispatchedIds.isEmpty()) {
+                ingestionRepository.deleteByIdIn(dispatchedIds);
+            }
+            if (retries.isEmpty() && failures.isEmpty()) {
+                return;
+            }
+
+            List<String> unsettledIds = new ArrayList<>(retries.keySet());
+            unsettledIds.addAll(failures.keySet());
+            List<TriggerIngestionEntry> unsettled = ingestionRepository.findAllById(unsettledIds);
+            LocalDateTime now = LocalDateTime.now();
+            for (TriggerIngestionEntry entry : unsettled) {
+                int attempts = entry.getAttempts() + 1;
+                entry.setAttempts(attempts);
+                entry.setClaimedBy(null);
+                entry.setClaimedAt(null);
+                String failure = failures.get(entry.getId());
+                if (failure != null || attempts >= maxAttempts) {
+                    entry.setStatus(OutboxStatus.FAILED);
+                    entry.setLastError(failure != null ? failure : retries.get(entry.getId()));
+                    log.error("Trigger ingestion entry failed permanently: id={}, triggerId={}, error={}",
+                            entry.getId(), entry.getTriggerId(), entry.getLastError());
+                } else {
+                    entry.setStatus(OutboxStatus.PENDING);
+                    entry.setLastError(retries.get(entry.getId()));
+                    entry.setNextAttemptAt(now.plusSeconds(backoffSeconds(attempts)));
+                }
+            }
+            ingestionRepository.saveAll(unsettled);
+        });
+    }
+
+    private void releaseStaleClaims() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(claimTimeoutMs));
+        Integer released = transactionTemplate.execute(status ->
+                ingestionRepository.releaseStaleClaims(OutboxStatus.PENDING, OutboxStatus.IN_FLIGHT, cutoff));
+        if (released != null && released > 0) {
+            log.warn("Released {} stale trigger ingestion claims", released);
+        }
+    }
+
+    /**
+     * Exponential backoff capped at 5 minutes: 2, 4, 8, ... seconds.
+     */
+    private static long backoffSeconds(int attempts) {
+        return Math.min(300L, 1L << Math.min(attempts, 9));
+    }
+}
@@ -0,0 +1,113 @@
+package com.notificationplatform.service.trigger.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event filter with its paths split and expected values converted once, so matching an event
+ * does no parsing. Created by {@link EventFilterService#compile(Map)}.
+ *
+ * Every part of a filter is an equality condition: {@code event_type} is a condition on the top-level
+ * field, each entry of {@code conditions} a condition on a dotted path.
+ */
+public class CompiledEventFilter {
+
+    private static final CompiledEventFilter MATCH_ALL = new CompiledEventFilter(List.of());
+
+    private final List<Condition> conditions;
+
+    private CompiledEventFilter(List<Condition> conditions) {
+        this.conditions = conditions;
+    }
+
+    @SuppressWarnings("unchecked")
+    static CompiledEventFilter compile(Map<String, Object> filter) {
+        if (filter == null || filter.isEmpty()) {
+            return MATCH_ALL;
+        }
+
+        List<Condition> conditions = new ArrayList<>();
+        if (filter.containsKey("event_type")) {
+            Object eventType = filter.get("event_type");
+            // event_type always requires a value on the event
+            conditions.add(new Condition("event_type", new String[] {"event_type"},
+                    eventType != null ? eventType.toString() : null, true));
+        }
+        if (filter.get("conditions") instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) filter.get("conditions")).entrySet()) {
+                Object expected = entry.getValue();
+                conditions.add(new Condition(entry.getKey(), entry.getKey().split("\\."),
+                        expected != null ? expected.toString() : null, false));
+            }
+        }
+        return conditions.isEmpty() ? MATCH_ALL : new CompiledEventFilter(List.copyOf(conditions));
+    }
+
+    /**
+     * Check if event data matches this filter
+     */
+    public boolean matches(Map<String, Object> eventData) {
+        for (Condition condition : conditions) {
+            if (!condition.matches(eventData)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Conditions of this filter (empty if it matches every event)
+     */
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Equality condition on one event field.
+     *
+     * @param path Field path as written in the filter, e.g. "data.user.tier"
+     * @param segments Path split on '.'
+     * @param expected Expected value as a string; null means the field must be absent (or, for event_type, never matches)
+     * @param valueRequired Whether an absent field can never match
+     */
+    public record Condition(String path, String[] segments, String expected, boolean valueRequired) {
+
+        public boolean matches(Map<String, Object> eventData) {
+            return matchesValue(resolve(eventData, segments));
+        }
+
+        /**
+         * Whether the condition holds for an already resolved field value
+         */
+        public boolean matchesValue(Object actual) {
+            if (actual == null) {
+                return expected == null && !valueRequired;
+            }
+            return expected != null && expected.equals(actual.toString());
+        }
+
+        /**
+         * Whether this condition can serve as an index key (it only matches one concrete value)
+         */
+        public boolean isIndexable() {
+            return expected != null;
+        }
+    }
+
+    /**
+     * Resolve a split dotted path against event data
+     */
+    @SuppressWarnings("unchecked")
+    static Object resolve(Map<String, Object> data, String[] segments) {
+        Object current = data;
+        for (String segment : segments) {
+            if (current instanceof Map) {
+                current = ((Map<String, Object>) current).get(segment);
+            } else {
+                return null;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,143 @@
+package com.notificationplatform.service.trigger.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable discrimination index over the compiled filters of many subscribers (e.g. triggers on one topic).
+ *
+ * Each filter is filed under one equality condition (event_type when present, otherwise its first
+ * condition with a concrete value): path -> value -> entries. Matching resolves each indexed path once,
+ * looks up the bucket for the event's value and only evaluates the remaining conditions of the entries
+ * found there. Filters without an indexable condition are checked on every event.
+ *
+ * @param <T> Subscriber type
+ */
+public class EventFilterIndex<T> {
+
+    private static final EventFilterIndex<?> EMPTY = new EventFilterIndex<>(Map.of(), List.of());
+
+    /** path -> expected value -> entries filed under that condition */
+    private final Map<String, IndexedPath<T>> indexedPaths;
+    private final List<Entry<T>> unindexed;
+
+    private EventFilterIndex(Map<String, IndexedPath<T>> indexedPaths, List<Entry<T>> unindexed) {
+        this.indexedPaths = indexedPaths;
+        this.unindexed = unindexed;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> EventFilterIndex<T> empty() {
+        return (EventFilterIndex<T>) EMPTY;
+    }
+
+    /**
+     * Build an index.
+     *
+     * @param filters Subscriber -> compiled filter; iteration order is kept within each bucket
+     */
+    public static <T> EventFilterIndex<T> build(Map<T, CompiledEventFilter> filters) {
+        Map<String, String[]> segmentsByPath = new LinkedHashMap<>();
+        Map<String, Map<String, List<Entry<T>>>> buckets = new LinkedHashMap<>();
+        List<Entry<T>> unindexed = new ArrayList<>();
+
+        for (Map.Entry<T, CompiledEventFilter> filter : filters.entrySet()) {
+            List<CompiledEventFilter.Condition> conditions = filter.getValue().getConditions();
+            CompiledEventFilter.Condition key = selectKey(conditions);
+            if (key == null) {
+                unindexed.add(new Entry<>(filter.getKey(), conditions));
+                continue;
+            }
+            List<CompiledEventFilter.Condition> residual = new ArrayList<>(conditions);
+            residual.remove(key);
+            segmentsByPath.putIfAbsent(key.path(), key.segments());
+            buckets.computeIfAbsent(key.path(), path -> new HashMap<>())
+                    .computeIfAbsent(key.expected(), value -> new ArrayList<>())
+                    .add(new Entry<>(filter.getKey(), List.copyOf(residual)));
+        }
+
+        if (buckets.isEmpty() && unindexed.isEmpty()) {
+            return empty();
+        }
+        Map<String, IndexedPath<T>> indexedPaths = new LinkedHashMap<>();
+        buckets.forEach((path, values) -> {
+            Map<String, List<Entry<T>>> immutableValues = new HashMap<>();
+            values.forEach((value, entries) -> immutableValues.put(value, List.copyOf(entries)));
+            indexedPaths.put(path, new IndexedPath<>(segmentsByPath.get(path), immutableValues));
+        });
+        return new EventFilterIndex<>(indexedPaths, List.copyOf(unindexed));
+    }
+
+    /**
+     * Get the subscribers whose filter matches the event
+     */
+    public List<T> match(Map<String, Object> eventData) {
+        List<T> matches = null;
+        for (IndexedPath<T> indexedPath : indexedPaths.values()) {
+            Object actual = CompiledEventFilter.resolve(eventData, indexedPath.segments());
+            if (actual == null) {
+                continue;
+            }
+            List<Entry<T>> entries = indexedPath.entriesByValue().get(actual.toString());
+            if (entries != null) {
+                matches = collect(entries, eventData, matches);
+            }
+        }
+        matches = collect(unindexed, eventData, matches);
+        return matches != null ? matches : Collections.emptyList();
+    }
+
+    public boolean isEmpty() {
+        return indexedPaths.isEmpty() && unindexed.isEmpty();
+    }
+
+    private static <T> List<T> collect(List<Entry<T>> entries, Map<String, Object> eventData, List<T> matches) {
+        for (Entry<T> entry : entries) {
+            if (entry.matches(eventData)) {
+                if (matches == null) {
+                    matches = new ArrayList<>();
+                }
+                matches.add(entry.subscriber());
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Prefer event_type, the most selective and most common filter field
+     */
+    private static CompiledEventFilter.Condition selectKey(List<CompiledEventFilter.Condition> conditions) {
+        CompiledEventFilter.Condition key = null;
+        for (CompiledEventFilter.Condition condition : conditions) {
+            if (!condition.isIndexable()) {
+                continue;
+            }
+            if ("event_type".equals(condition.path())) {
+                return condition;
+            }
+            if (key == null) {
+                key = condition;
+            }
+        }
+        return key;
+    }
+
+    private record IndexedPath<T>(String[] segments, Map<String, List<Entry<T>>> entriesByValue) {
+    }
+
+    private record Entry<T>(T subscriber, List<CompiledEventFilter.Condition> residual) {
+
+        boolean matches(Map<String, Object> eventData) {
+            for (CompiledEventFilter.Condition condition : residual) {
+                if (!condition.matches(eventData)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -17,58 +17,14 @@ public class EventFilterService {
         if (filter == null || filter.isEmpty()) {
             return true; // No filter, accept all
         }
-
-        // Check event type filter
-        if (filter.containsKey("event_type")) {
-            String filterEventType = (String) filter.get("event_type");
-            Object eventType = eventData.get("event_type");
-            
-            if (eventType == null || !filterEventType.equals(eventType.toString())) {
-                return false;
-            }
-        }
-
-        // Check field conditions
-        Map<String, Object> conditions = (Map<String, Object>) filter.get("conditions");
-        
-        if (conditions != null) {
-            for (Map.Entry<String, Object> entry : conditions.entrySet()) {
-                String field = entry.getKey();
-                Object expectedValue = entry.getValue();
-                
-                Object actualValue = getNestedValue(eventData, field);
-                
-                if (!matchesValue(actualValue, expectedValue)) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
-    }
-
-    private Object getNestedValue(Map<String, Object> data, String path) {
-        String[] parts = path.split("\\.");
-        Object current = data;
-        
-        for (String part : parts) {
-            if (current instanceof Map) {
-                Map<String, Object> map = (Map<String, Object>) current;
-                current = map.get(part);
-            } else {
-                return null;
-            }
-        }
-        
-        return current;
+        return compile(filter).matches(eventData);
     }
 
-    private boolean matchesValue(Object actual, Object expected) {
-        if (actual == null) {
-            return expected == null;
-        }
-        
-        return actual.toString().equals(expected.toString());
+    /**
+     * Compile filter configuration once for repeated matching, e.g. into an {@link EventFilterIndex}.
+     * Filter format: {"event_type": "...", "conditions": {"dotted.path": value, ...}}
+     */
+    public CompiledEventFilter compile(Map<String, Object> filter) {
+        return CompiledEventFilter.compile(filter);
     }
 }
-
@@ -0,0 +1,104 @@
+package com.notificationplatform.service.trigger.event;
+
+import com.notificationplatform.entity.Trigger;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Per-trigger Kafka consumer settings, read from the trigger config "consumer" section:
+ * <pre>
+ * "consumer": {
+ *   "mode": "batch",            // record (default), batch or keyed
+ *   "maxPollRecords": 500,      // records per poll (batch size)
+ *   "maxPollIntervalMs": 300000,
+ *   "parallelism": 8,           // events of a batch dispatched concurrently / number of keyed lanes
+ *   "orderingKey": "userId",    // keyed mode: event field to order by (default: record key)
+ *   "shared": true              // record mode: share one consumer per topic with other triggers
+ * }
+ * </pre>
+ */
+@Getter
+public class KafkaConsumerSettings {
+
+    public static final String MODE_RECORD = "record";
+    public static final String MODE_BATCH = "batch";
+    public static final String MODE_KEYED = "keyed";
+
+    private static final int DEFAULT_PARALLELISM = 8;
+
+    private final String mode;
+    private final Integer maxPollRecords;
+    private final Integer maxPollIntervalMs;
+    private final int parallelism;
+    private final String orderingKey;
+    private final boolean shared;
+
+    private KafkaConsumerSettings(String mode, Integer maxPollRecords, Integer maxPollIntervalMs, int parallelism,
+                                  String orderingKey, boolean shared) {
+        this.mode = mode;
+        this.maxPollRecords = maxPollRecords;
+        this.maxPollIntervalMs = maxPollIntervalMs;
+        this.parallelism = parallelism;
+        this.orderingKey = orderingKey;
+        this.shared = shared;
+    }
+
+    /**
+     * Default settings, used for consumers shared by several triggers.
+     */
+    public static KafkaConsumerSettings defaults() {
+        return new KafkaConsumerSettings(MODE_RECORD, null, null, DEFAULT_PARALLELISM, null, true);
+    }
+
+    /**
+     * Read settings from a trigger config; missing values fall back to defaults.
+     */
+    @SuppressWarnings("unchecked")
+    public static KafkaConsumerSettings fromTrigger(Trigger trigger) {
+        Map<String, Object> config = trigger.getConfig() != null ? trigger.getConfig() : Map.of();
+        Map<String, Object> consumer = config.get("consumer") instanceof Map
+                ? (Map<String, Object>) config.get("consumer") : Map.of();
+
+        Object modeObj = consumer.get("mode");
+        String mode = MODE_RECORD;
+        if (modeObj != null && MODE_BATCH.equalsIgnoreCase(modeObj.toString())) {
+            mode = MODE_BATCH;
+        } else if (modeObj != null && MODE_KEYED.equalsIgnoreCase(modeObj.toString())) {
+            mode = MODE_KEYED;
+        }
+        Integer parallelism = parseInteger(consumer.get("parallelism"));
+        Object orderingKey = consumer.get("orderingKey");
+        Object shared = consumer.get("shared");
+
+        return new KafkaConsumerSettings(
+                mode,
+                parseInteger(consumer.get("maxPollRecords")),
+                parseInteger(consumer.get("maxPollIntervalMs")),
+                parallelism != null && parallelism > 0 ? parallelism : DEFAULT_PARALLELISM,
+                orderingKey != null && !orderingKey.toString().isBlank() ? orderingKey.toString() : null,
+                shared == null || !"false".equalsIgnoreCase(shared.toString()));
+    }
+
+    public boolean isBatchMode() {
+        return MODE_BATCH.equals(mode);
+    }
+
+    public boolean isKeyedMode() {
+        return MODE_KEYED.equals(mode);
+    }
+
+    private static Integer parseInteger(Object value) {
+        if (value == null || value.toString().isBlank()) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
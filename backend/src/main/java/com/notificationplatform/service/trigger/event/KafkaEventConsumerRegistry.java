@@ -3,12 +3,15 @@ package com.notificationplatform.service.trigger.event;
 import com.notificationplatform.entity.Trigger;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 
 
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.Acknowledgment;
@@ -19,23 +22,44 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 /**
- * Manages dynamic Kafka consumer registration per trigger
+ * Manages dynamic Kafka consumer registration per trigger.
+ * Record-mode triggers reading a topic from the latest offset share one consumer per (brokers, topic);
+ * batch, keyed, replaying (offset=earliest) and opted-out triggers get a dedicated consumer group.
  */
 @Slf4j
 @Component
 public class KafkaEventConsumerRegistry implements EventConsumerRegistry {
 
     private final KafkaEventProcessor eventProcessor;
+    private final EventFilterService eventFilterService;
     
     // Track active containers by trigger ID
     private final Map<String, ConcurrentMessageListenerContainer<String, String>> containers = 
         new ConcurrentHashMap<>();
 
-    public KafkaEventConsumerRegistry(KafkaEventProcessor eventProcessor) {
+    // Worker lanes of triggers in keyed mode
+    private final Map<String, KeyOrderedLaneExecutor> laneExecutors = new ConcurrentHashMap<>();
+
+    // Shared consumers by (brokers, topic) key, and the key each shared trigger is attached to
+    private final Map<String, SharedTopicConsumer> sharedConsumers = new ConcurrentHashMap<>();
+    private final Map<String, String> sharedTriggerKeys = new ConcurrentHashMap<>();
+
+    @Value("${app.kafka.lane-shutdown-timeout-ms:10000}")
+    private long laneShutdownTimeoutMs;
+
+    @Value("${app.kafka.shared-consumers.enabled:true}")
+    private boolean sharedConsumersEnabled;
+
+    @Value("${app.kafka.shared-consumers.group-prefix:notification-platform-shared}")
+    private String sharedGroupPrefix;
+
+    public KafkaEventConsumerRegistry(KafkaEventProcessor eventProcessor, EventFilterService eventFilterService) {
         this.eventProcessor = eventProcessor;
+        this.eventFilterService = eventFilterService;
     }
 
     @Override
@@ -50,7 +74,7 @@ public class KafkaEventConsumerRegistry implements EventConsumerRegistry {
         String triggerId = trigger.getId();
         
         // Check if already registered
-        if (containers.containsKey(triggerId)) {
+        if (containers.containsKey(triggerId) || sharedTriggerKeys.containsKey(triggerId)) {
             log.debug("Kafka consumer already registered for trigger: triggerId={}", triggerId);
             return;
         }
@@ -84,6 +108,13 @@ public class KafkaEventConsumerRegistry implements EventConsumerRegistry {
             // Use brokers from config, fallback to localhost:9093 (host machine listener)
             // Note: Docker network clients should use kafka:9092, host clients should use localhost:9093
             List<String> finalBrokers = (brokers != null && !brokers.isEmpty()) ? brokers : List.of("localhost:9093");
+
+            KafkaConsumerSettings settings = KafkaConsumerSettings.fromTrigger(trigger);
+
+            if (isSharedEligible(settings, offset)) {
+                registerSharedConsumer(trigger, topic, finalBrokers);
+                return;
+            }
             
             log.info("Registering Kafka consumer: triggerId={}, topic={}, brokers={}, consumerGroup={}", 
                        triggerId, topic, finalBrokers, consumerGroup + "-" + triggerId);
@@ -92,39 +123,67 @@ public class KafkaEventConsumerRegistry implements EventConsumerRegistry {
             ConsumerFactory<String, String> consumerFactory = createConsumerFactory(
                 finalBrokers,
                 consumerGroup + "-" + triggerId,
-                offset
+                offset,
+                settings
             );
 
             // Create container factory
             ConcurrentKafkaListenerContainerFactory<String, String> factory = 
                 new ConcurrentKafkaListenerContainerFactory<>();
             factory.setConsumerFactory(consumerFactory);
-            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
 
-            // Create message listener container
-            ConcurrentMessageListenerContainer<String, String> container = 
-                factory.createContainer(topic);
-            
-            // Set message listener with acknowledgment support
-            container.setupMessageListener(
-                new org.springframework.kafka.listener.AcknowledgingMessageListener<String, String>() {
-                    @Override
-                    public void onMessage(@org.springframework.lang.NonNull ConsumerRecord<String, String> record, 
-                                         @org.springframework.lang.Nullable Acknowledgment acknowledgment) {
-                        eventProcessor.processEvent(trigger, record, acknowledgment);
+            ConcurrentMessageListenerContainer<String, String> container;
+            if (settings.isBatchMode()) {
+                // Batch mode: one listener call and one offset commit per poll
+                factory.setBatchListener(true);
+                factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+                container = factory.createContainer(topic);
+                container.setupMessageListener(
+                    (BatchAcknowledgingMessageListener<String, String>) (records, acknowledgment) ->
+                        eventProcessor.processBatch(trigger, records, acknowledgment, settings)
+                );
+            } else if (settings.isKeyedMode()) {
+                // Keyed mode: records fanned out to lanes by key, acked out of order;
+                // the container commits each partition up to its lowest fully processed offset
+                factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+                factory.getContainerProperties().setAsyncAcks(true);
+                container = factory.createContainer(topic);
+                KeyOrderedLaneExecutor laneExecutor = new KeyOrderedLaneExecutor(trigger, eventProcessor, settings);
+                laneExecutors.put(triggerId, laneExecutor);
+                container.setupMessageListener(
+                    (AcknowledgingMessageListener<String, String>) laneExecutor::submit
+                );
+            } else {
+                factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+
+                // Create message listener container
+                container = factory.createContainer(topic);
+                
+                // Set message listener with acknowledgment support
+                container.setupMessageListener(
+                    new AcknowledgingMessageListener<String, String>() {
+                        @Override
+                        public void onMessage(@org.springframework.lang.NonNull ConsumerRecord<String, String> record, 
+                                             @org.springframework.lang.Nullable Acknowledgment acknowledgment) {
+                            eventProcessor.processEvent(trigger, record, acknowledgment);
+                        }
                     }
-                }
-            );
+                );
+            }
 
             // Start container
             container.start();
             
             containers.put(triggerId, container);
             
-            log.info("Registered and started Kafka consumer: triggerId={}, topic={}, consumerGroup={}", 
-                       triggerId, topic, consumerGroup + "-" + triggerId);
+            log.info("Registered and started Kafka consumer: triggerId={}, topic={}, consumerGroup={}, mode={}", 
+                       triggerId, topic, consumerGroup + "-" + triggerId, settings.getMode());
                        
         } catch (Exception e) {
+            KeyOrderedLaneExecutor laneExecutor = laneExecutors.remove(triggerId);
+            if (laneExecutor != null) {
+                laneExecutor.shutdown(0);
+            }
             log.error("Failed to register Kafka consumer for trigger: triggerId={}", triggerId, e);
             throw new RuntimeException("Failed to register Kafka consumer", e);
         }
@@ -134,6 +193,11 @@ public class KafkaEventConsumerRegistry implements EventConsumerRegistry {
      * Unregister and stop a Kafka consumer for a trigger
      */
     public void unregisterConsumer(String triggerId) {
+        if (sharedTriggerKeys.containsKey(triggerId)) {
+            unregisterSharedConsumer(triggerId);
+            return;
+        }
+
         ConcurrentMessageListenerContainer<String, String> container = containers.remove(triggerId);
         
         if (container == null) {
@@ -147,6 +211,86 @@ public class KafkaEventConsumerRegistry implements EventConsumerRegistry {
         } catch (Exception e) {
             log.error("Error stopping Kafka consumer for trigger: triggerId={}", triggerId, e);
         }
+        stopLanes(triggerId);
+    }
+
+    /**
+     * Whether a trigger can use a shared consumer. Joining a shared group starts from its current position,
+     * so triggers that replay from the earliest offset keep their own group.
+     */
+    private boolean isSharedEligible(KafkaConsumerSettings settings, String offset) {
+        return sharedConsumersEnabled
+                && settings.isShared()
+                && !settings.isBatchMode()
+                && !settings.isKeyedMode()
+                && !"earliest".equalsIgnoreCase(offset);
+    }
+
+    /**
+     * Attach a trigger to the shared consumer of its (brokers, topic), starting the consumer if needed
+     */
+    private synchronized void registerSharedConsumer(Trigger trigger, String topic, List<String> brokers) {
+        String key = brokers.stream().sorted().collect(Collectors.joining(",")) + "/" + topic;
+        SharedTopicConsumer shared = sharedConsumers.get(key);
+        if (shared == null) {
+            shared = new SharedTopicConsumer(key, topic, eventFilterService);
+            String groupId = sharedGroupPrefix + "-" + topic;
+
+            ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+            factory.setConsumerFactory(createConsumerFactory(brokers, groupId, "latest", KafkaConsumerSettings.defaults()));
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+
+            ConcurrentMessageListenerContainer<String, String> container = factory.createContainer(topic);
+            SharedTopicConsumer listenerTarget = shared;
+            container.setupMessageListener(
+                (AcknowledgingMessageListener<String, String>) (record, acknowledgment) ->
+                    eventProcessor.processSharedEvent(listenerTarget, record, acknowledgment)
+            );
+            shared.setContainer(container);
+            // Add the trigger before starting so the first records are not missed
+            shared.addTrigger(trigger);
+            container.start();
+            sharedConsumers.put(key, shared);
+            log.info("Started shared Kafka consumer: topic={}, brokers={}, consumerGroup={}", topic, brokers, groupId);
+        } else {
+            shared.addTrigger(trigger);
+        }
+        sharedTriggerKeys.put(trigger.getId(), key);
+
+        log.info("Registered trigger on shared Kafka consumer: triggerId={}, topic={}, triggers={}",
+                   trigger.getId(), topic, shared.getTriggerCount());
+    }
+
+    /**
+     * Detach a trigger from its shared consumer, stopping the consumer when no trigger is left
+     */
+    private synchronized void unregisterSharedConsumer(String triggerId) {
+        String key = sharedTriggerKeys.remove(triggerId);
+        SharedTopicConsumer shared = key != null ? sharedConsumers.get(key) : null;
+        if (shared == null) {
+            return;
+        }
+        if (shared.removeTrigger(triggerId)) {
+            sharedConsumers.remove(key);
+            try {
+                shared.getContainer().stop();
+                log.info("Stopped shared Kafka consumer: topic={}", shared.getTopic());
+            } catch (Exception e) {
+                log.error("Error stopping shared Kafka consumer: topic={}", shared.getTopic(), e);
+            }
+        }
+        log.info("Unregistered trigger from shared Kafka consumer: triggerId={}, topic={}", triggerId, shared.getTopic());
+    }
+
+    /**
+     * Stop the worker lanes of a keyed-mode trigger (after its container has stopped)
+     */
+    private void stopLanes(String triggerId) {
+        KeyOrderedLaneExecutor laneExecutor = laneExecutors.remove(triggerId);
+        if (laneExecutor != null) {
+            laneExecutor.shutdown(laneShutdownTimeoutMs);
+        }
     }
 
     /**
@@ -154,7 +298,8 @@ public class KafkaEventConsumerRegistry implements EventConsumerRegistry {
      */
     private ConsumerFactory<String, String> createConsumerFactory(List<String> brokers, 
                                                                    String consumerGroup, 
-                                                                   String offset) {
+                                                                   String offset,
+                                                                   KafkaConsumerSettings settings) {
         Map<String, Object> props = new HashMap<>();
         String bootstrapServers = String.join(",", brokers);
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
@@ -163,6 +308,12 @@ public class KafkaEventConsumerRegistry implements EventConsumerRegistry {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, offset);
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        if (settings.getMaxPollRecords() != null) {
+            props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, settings.getMaxPollRecords());
+        }
+        if (settings.getMaxPollIntervalMs() != null) {
+            props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, settings.getMaxPollIntervalMs());
+        }
         
         log.debug("Creating Kafka consumer factory: bootstrapServers={}, consumerGroup={}", 
                     bootstrapServers, consumerGroup);
@@ -175,7 +326,7 @@ public class KafkaEventConsumerRegistry implements EventConsumerRegistry {
      */
     @PreDestroy
     public void cleanup() {
-        log.info("Shutting down all Kafka consumers: count={}", containers.size());
+        log.info("Shutting down all Kafka consumers: count={}, shared={}", containers.size(), sharedConsumers.size());
         for (Map.Entry<String, ConcurrentMessageListenerContainer<String, String>> entry : containers.entrySet()) {
             try {
                 entry.getValue().stop();
@@ -183,8 +334,20 @@ public class KafkaEventConsumerRegistry implements EventConsumerRegistry {
             } catch (Exception e) {
                 log.error("Error stopping Kafka consumer: triggerId={}", entry.getKey(), e);
             }
+            stopLanes(entry.getKey());
         }
         containers.clear();
+
+        for (SharedTopicConsumer shared : sharedConsumers.values()) {
+            try {
+                shared.getContainer().stop();
+                log.debug("Stopped shared Kafka consumer: topic={}", shared.getTopic());
+            } catch (Exception e) {
+                log.error("Error stopping shared Kafka consumer: topic={}", shared.getTopic(), e);
+            }
+        }
+        sharedConsumers.clear();
+        sharedTriggerKeys.clear();
         log.info("All Kafka consumers stopped");
     }
 }
@@ -1,22 +1,30 @@
 package com.notificationplatform.service.trigger.event;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationplatform.entity.Execution;
 import com.notificationplatform.entity.ExecutionWaitState;
 import com.notificationplatform.entity.Trigger;
 import com.notificationplatform.engine.WorkflowExecutor;
 import com.notificationplatform.repository.ExecutionWaitStateRepository;
 import com.notificationplatform.repository.TriggerRepository;
 import com.notificationplatform.service.eventaggregation.EventAggregationService;
+import com.notificationplatform.service.trigger.TriggerDispatcher;
+import com.notificationplatform.service.waitstate.ActiveCorrelationRegistry;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 
 
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,6 +40,8 @@ public class KafkaEventProcessor {
     private final EventAggregationService eventAggregationService;
     private final ExecutionWaitStateRepository waitStateRepository;
     private final TriggerRepository triggerRepository;
+    private final TriggerDispatcher triggerDispatcher;
+    private final ActiveCorrelationRegistry activeCorrelationRegistry;
     private final ObjectMapper objectMapper;
 
     public KafkaEventProcessor(WorkflowExecutor workflowExecutor,
@@ -39,12 +49,16 @@ public class KafkaEventProcessor {
                               EventAggregationService eventAggregationService,
                               ExecutionWaitStateRepository waitStateRepository,
                               TriggerRepository triggerRepository,
+                              TriggerDispatcher triggerDispatcher,
+                              ActiveCorrelationRegistry activeCorrelationRegistry,
                               ObjectMapper objectMapper) {
         this.workflowExecutor = workflowExecutor;
         this.eventFilterService = eventFilterService;
         this.eventAggregationService = eventAggregationService;
         this.waitStateRepository = waitStateRepository;
         this.triggerRepository = triggerRepository;
+        this.triggerDispatcher = triggerDispatcher;
+        this.activeCorrelationRegistry = activeCorrelationRegistry;
         this.objectMapper = objectMapper;
     }
 
@@ -52,12 +66,20 @@ public class KafkaEventProcessor {
      * Process a Kafka event for a specific trigger
      */
     public void processEvent(Trigger trigger, ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        processEvent(trigger, record, null, acknowledgment);
+    }
+
+    /**
+     * Process a Kafka event whose value may already have been parsed (e.g. to compute its ordering key)
+     */
+    public void processEvent(Trigger trigger, ConsumerRecord<String, String> record, Map<String, Object> parsedData,
+                             Acknowledgment acknowledgment) {
         try {
             log.debug("Processing Kafka event for trigger: triggerId={}, topic={}, partition={}, offset={}", 
                        trigger.getId(), record.topic(), record.partition(), record.offset());
 
             // Parse event data
-            Map<String, Object> eventData = parseEventData(record.value());
+            Map<String, Object> eventData = parsedData != null ? parsedData : parseEventData(record.value());
 
             // Check if this is a callback event for a wait state
             String executionId = extractField(eventData, "execution_id");
@@ -86,10 +108,11 @@ public class KafkaEventProcessor {
     }
 
     /**
-     * Process trigger event in a new transaction.
-     * Must be public for @Transactional to work in async contexts.
+     * Dispatch the event to all active workflows subscribed to the trigger.
+     * Workflows run in parallel; the call returns once all of them have finished (or paused),
+     * so the offset is only acknowledged after the event has been handled.
+     * Not transactional: each execution manages its own transactions.
      */
-    @Transactional
     public void processTriggerEvent(Trigger trigger, ConsumerRecord<String, String> record, Map<String, Object> eventData) {
         try {
             // Load trigger config
@@ -101,15 +124,16 @@ public class KafkaEventProcessor {
                 return;
             }
             
-            // Find workflows that use this trigger config by parsing workflow definitions
-            // In the new design, triggers are independent configs referenced via triggerConfigId in workflow nodes
-            // Need to:
-            // 1. Query all active workflows
-            // 2. Parse workflow definitions to find nodes with triggerConfigId matching this trigger
-            // 3. Execute those workflows
-            // This functionality needs to be implemented - for now, log warning and return
-            log.warn("KafkaEventProcessor - need to find workflows using trigger config: triggerId={}", trigger.getId());
-            return;
+            // Apply filter if configured
+            if (!matchesTriggerFilter(reloadedTrigger, eventData)) {
+                log.debug("Event does not match filter for trigger: triggerId={}", reloadedTrigger.getId());
+                return;
+            }
+            
+            // Execute workflows that use this trigger config (looked up in the trigger index)
+            List<Execution> executions = triggerDispatcher.dispatchAndWait(reloadedTrigger, eventData);
+            log.debug("Kafka event dispatched: triggerId={}, topic={}, offset={}, executions={}",
+                      reloadedTrigger.getId(), record.topic(), record.offset(), executions.size());
 
         } catch (IllegalStateException e) {
             // ApplicationContext may be closed during shutdown
@@ -123,7 +147,210 @@ public class KafkaEventProcessor {
         }
     }
 
+    /**
+     * Process a record of a shared topic consumer: the event is parsed and checked against wait states once,
+     * then dispatched to every trigger on the topic whose filter matches. The record is acknowledged after
+     * all matching triggers have been handled.
+     *
+     * Trigger configs come from the consumer's in-memory index (re-registered whenever a trigger changes),
+     * so no per-event trigger lookup is needed.
+     */
+    public void processSharedEvent(SharedTopicConsumer consumer, ConsumerRecord<String, String> record,
+                                   Acknowledgment acknowledgment) {
+        try {
+            Map<String, Object> eventData = parseEventData(record.value());
+
+            String executionId = extractField(eventData, "execution_id");
+            String correlationId = extractField(eventData, "correlation_id");
+            if (executionId != null && correlationId != null) {
+                handleWaitStateEvent(executionId, correlationId, record.topic(), eventData);
+            }
+
+            List<CompletableFuture<Execution>> dispatched = new ArrayList<>();
+            int matched = 0;
+            for (Trigger trigger : consumer.getMatchingTriggers(eventData)) {
+                matched++;
+                try {
+                    dispatched.addAll(triggerDispatcher.dispatch(trigger, eventData));
+                } catch (RuntimeException e) {
+                    log.error("Error dispatching Kafka event: triggerId={}", trigger.getId(), e);
+                }
+            }
+
+            for (CompletableFuture<Execution> execution : dispatched) {
+                try {
+                    execution.join();
+                } catch (Exception e) {
+                    log.error("Workflow execution failed for shared topic: topic={}, offset={}", record.topic(),
+                                record.offset(), e.getCause() != null ? e.getCause() : e);
+                }
+            }
+            log.debug("Shared Kafka event dispatched: topic={}, offset={}, matchedTriggers={}, executions={}",
+                        record.topic(), record.offset(), matched, dispatched.size());
+
+        } catch (Exception e) {
+            log.error("Error processing shared Kafka event: topic={}, offset={}", record.topic(), record.offset(), e);
+        } finally {
+            // Acknowledge to avoid blocking consumer, as for dedicated consumers
+            if (acknowledgment != null) {
+                acknowledgment.acknowledge();
+            }
+        }
+    }
+
+    /**
+     * Process all records of one poll for a trigger in batch mode.
+     * Records are parsed together, wait states for all correlation ids are loaded with one query,
+     * matching events are dispatched concurrently (bounded by the trigger's parallelism) and the
+     * batch is acknowledged once, committing a single offset per partition.
+     */
+    public void processBatch(Trigger trigger, List<ConsumerRecord<String, String>> records,
+                             Acknowledgment acknowledgment, KafkaConsumerSettings settings) {
+        try {
+            log.debug("Processing Kafka batch for trigger: triggerId={}, records={}", trigger.getId(), records.size());
+
+            // Parse all records once
+            List<Map<String, Object>> events = new ArrayList<>(records.size());
+            for (ConsumerRecord<String, String> record : records) {
+                events.add(parseEventData(record.value()));
+            }
+
+            handleWaitStateEvents(records, events);
+            dispatchBatch(trigger, events, settings.getParallelism());
+
+        } catch (Exception e) {
+            log.error("Error processing Kafka batch for trigger: triggerId={}, records={}",
+                        trigger.getId(), records.size(), e);
+        } finally {
+            // Acknowledge to avoid blocking consumer, as in record mode
+            if (acknowledgment != null) {
+                acknowledgment.acknowledge();
+            }
+        }
+    }
+
+    /**
+     * Apply callback events of a batch to their wait states, using one IN (...) query for all correlation ids.
+     * Events are applied in offset order, as in record mode; a wait state that receives another event later
+     * in the batch is reloaded after each one so that event sees its current state.
+     */
+    private void handleWaitStateEvents(List<ConsumerRecord<String, String>> records, List<Map<String, Object>> events) {
+        Set<String> correlationIds = new HashSet<>();
+        Map<String, Integer> remainingEvents = new HashMap<>();
+        for (Map<String, Object> eventData : events) {
+            String executionId = extractField(eventData, "execution_id");
+            String correlationId = extractField(eventData, "correlation_id");
+            // Only look up correlation ids that may have a waiting execution
+            if (executionId != null && correlationId != null && activeCorrelationRegistry.mightBeWaiting(correlationId)) {
+                correlationIds.add(correlationId);
+                remainingEvents.merge(waitStateKey(executionId, correlationId), 1, Integer::sum);
+            }
+        }
+        if (correlationIds.isEmpty()) {
+            return;
+        }
+
+        Map<String, ExecutionWaitState> waitStates = new HashMap<>();
+        for (ExecutionWaitState waitState : waitStateRepository.findByCorrelationIdInAndStatus(correlationIds, "waiting")) {
+            if (isKafkaWaitType(waitState)) {
+                waitStates.put(waitStateKey(waitState.getExecution().getId(), waitState.getCorrelationId()), waitState);
+            }
+        }
+
+        for (int i = 0; i < events.size(); i++) {
+            Map<String, Object> eventData = events.get(i);
+            String executionId = extractField(eventData, "execution_id");
+            String correlationId = extractField(eventData, "correlation_id");
+            String key = waitStateKey(executionId, correlationId);
+            if (!remainingEvents.containsKey(key)) {
+                continue;
+            }
+            boolean moreEvents = remainingEvents.merge(key, -1, Integer::sum) > 0;
+            ExecutionWaitState waitState = waitStates.get(key);
+            if (waitState == null || !applyKafkaEventFilter(waitState, eventData)) {
+                continue;
+            }
+            try {
+                log.info("Forwarding Kafka event to EventAggregationService: executionId={}, correlationId={}, topic={}",
+                           executionId, correlationId, records.get(i).topic());
+                eventAggregationService.handleKafkaEvent(records.get(i).topic(), waitState, eventData);
+            } catch (Exception e) {
+                log.error("Error handling wait state event: executionId={}, correlationId={}",
+                            executionId, correlationId, e);
+            }
+            if (moreEvents) {
+                // The event may have completed the wait state or changed its received events
+                Optional<ExecutionWaitState> refreshed = findWaitingExecution(executionId, correlationId);
+                if (refreshed.isPresent()) {
+                    waitStates.put(key, refreshed.get());
+                } else {
+                    waitStates.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatch the matching events of a batch, keeping at most {@code parallelism} events in flight.
+     */
+    private void dispatchBatch(Trigger trigger, List<Map<String, Object>> events, int parallelism) throws InterruptedException {
+        Trigger reloadedTrigger = triggerRepository.findByIdAndNotDeleted(trigger.getId()).orElse(null);
+        if (reloadedTrigger == null) {
+            log.warn("Trigger config not found: triggerId={}", trigger.getId());
+            return;
+        }
+
+        Semaphore inFlight = new Semaphore(parallelism);
+        List<CompletableFuture<Void>> dispatched = new ArrayList<>();
+        int matched = 0;
+        for (Map<String, Object> eventData : events) {
+            if (!matchesTriggerFilter(reloadedTrigger, eventData)) {
+                continue;
+            }
+            matched++;
+            inFlight.acquire();
+            CompletableFuture<Void> executions;
+            try {
+                executions = CompletableFuture.allOf(
+                        triggerDispatcher.dispatch(reloadedTrigger, eventData).toArray(new CompletableFuture[0]));
+            } catch (RuntimeException e) {
+                inFlight.release();
+                log.error("Error dispatching Kafka event: triggerId={}", reloadedTrigger.getId(), e);
+                continue;
+            }
+            executions.whenComplete((result, ex) -> inFlight.release());
+            dispatched.add(executions);
+        }
+
+        // Wait for the whole batch before the offsets are committed
+        for (CompletableFuture<Void> executions : dispatched) {
+            try {
+                executions.join();
+            } catch (Exception e) {
+                log.error("Workflow execution failed for trigger: triggerId={}", reloadedTrigger.getId(),
+                            e.getCause() != null ? e.getCause() : e);
+            }
+        }
+        log.debug("Kafka batch dispatched: triggerId={}, events={}, matched={}",
+                    reloadedTrigger.getId(), events.size(), matched);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean matchesTriggerFilter(Trigger trigger, Map<String, Object> eventData) {
+        Map<String, Object> config = trigger.getConfig() != null ? trigger.getConfig() : new HashMap<>();
+        Map<String, Object> filter = (Map<String, Object>) config.get("filter");
+        return filter == null || filter.isEmpty() || eventFilterService.matchesFilter(eventData, filter);
+    }
+
+    private static String waitStateKey(String executionId, String correlationId) {
+        return executionId + "|" + correlationId;
+    }
+
     private void handleWaitStateEvent(String executionId, String correlationId, String topic, Map<String, Object> eventData) {
+        // Most events carrying ids are not ours; skip the lookup unless the correlation id may be waiting
+        if (!activeCorrelationRegistry.mightBeWaiting(correlationId)) {
+            return;
+        }
         try {
             Optional<ExecutionWaitState> waitStateOpt = findWaitingExecution(executionId, correlationId);
             
@@ -133,7 +360,8 @@ public class KafkaEventProcessor {
                 if (applyKafkaEventFilter(waitState, eventData)) {
                     log.info("Forwarding Kafka event to EventAggregationService: executionId={}, correlationId={}, topic={}", 
                                executionId, correlationId, topic);
-                    eventAggregationService.handleKafkaEvent(topic, eventData);
+                    // Pass the loaded wait state so it is not looked up again
+                    eventAggregationService.handleKafkaEvent(topic, waitState, eventData);
                 }
             }
         } catch (Exception e) {
@@ -142,7 +370,7 @@ public class KafkaEventProcessor {
         }
     }
 
-    private Map<String, Object> parseEventData(String value) {
+    Map<String, Object> parseEventData(String value) {
         Map<String, Object> data = new HashMap<>();
         
         if (value == null || value.isEmpty()) {
@@ -164,7 +392,7 @@ public class KafkaEventProcessor {
         return data;
     }
 
-    private String extractField(Map<String, Object> eventData, String fieldName) {
+    String extractField(Map<String, Object> eventData, String fieldName) {
         if (eventData == null || fieldName == null || fieldName.isEmpty()) {
             return null;
         }
@@ -239,10 +467,7 @@ public class KafkaEventProcessor {
                 ExecutionWaitState waitState = waitStateOpt.get();
                 
                 // Check if Kafka event is enabled for this wait state
-                // waitType can be: 'api_response', 'kafka_event', 'both'
-                String waitType = waitState.getWaitType();
-                if (waitType == null || 
-                    (!waitType.equals("kafka_event") && !waitType.equals("both"))) {
+                if (!isKafkaWaitType(waitState)) {
                     return Optional.empty();
                 }
                 
@@ -258,6 +483,14 @@ public class KafkaEventProcessor {
         }
     }
 
+    /**
+     * waitType can be: 'api_response', 'kafka_event', 'both'
+     */
+    private boolean isKafkaWaitType(ExecutionWaitState waitState) {
+        String waitType = waitState.getWaitType();
+        return "kafka_event".equals(waitType) || "both".equals(waitType);
+    }
+
     private boolean applyKafkaEventFilter(ExecutionWaitState waitState, Map<String, Object> eventData) {
         // TODO: Implement filter from workflow definition
         return true;
@@ -0,0 +1,88 @@
+package com.notificationplatform.service.trigger.event;
+
+import com.notificationplatform.entity.Trigger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans the records of a Kafka trigger out to worker lanes hashed by ordering key.
+ *
+ * Each lane is a single thread, so records with the same key are processed in order while different
+ * keys run in parallel, independent of the partition count. Records are acknowledged out of order;
+ * the container (async acks) commits each partition only up to its lowest fully processed offset.
+ */
+@Slf4j
+public class KeyOrderedLaneExecutor {
+
+    private final Trigger trigger;
+    private final KafkaEventProcessor eventProcessor;
+    private final String orderingKey;
+    private final ExecutorService[] lanes;
+
+    public KeyOrderedLaneExecutor(Trigger trigger, KafkaEventProcessor eventProcessor, KafkaConsumerSettings settings) {
+        this.trigger = trigger;
+        this.eventProcessor = eventProcessor;
+        this.orderingKey = settings.getOrderingKey();
+        this.lanes = new ExecutorService[settings.getParallelism()];
+        for (int i = 0; i < lanes.length; i++) {
+            String threadName = "kafka-lane-" + trigger.getId() + "-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Queue a record on the lane of its ordering key. Called from the consumer thread.
+     */
+    public void submit(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        Map<String, Object> eventData = orderingKey != null ? eventProcessor.parseEventData(record.value()) : null;
+        String key = eventData != null ? eventProcessor.extractField(eventData, orderingKey) : null;
+        if (key == null) {
+            key = record.key();
+        }
+        // Without a key, per-partition order is the best we can keep
+        int hash = key != null ? key.hashCode() : record.partition();
+        ExecutorService lane = lanes[Math.floorMod(hash, lanes.length)];
+
+        try {
+            lane.execute(() -> eventProcessor.processEvent(trigger, record, eventData, acknowledgment));
+        } catch (RejectedExecutionException e) {
+            // Lane shut down while stopping; the record is not acknowledged and will be redelivered
+            log.warn("Kafka lane stopped, record not processed: triggerId={}, partition={}, offset={}",
+                       trigger.getId(), record.partition(), record.offset());
+        }
+    }
+
+    /**
+     * Stop all lanes, letting queued records finish within the timeout.
+     */
+    public void shutdown(long timeoutMs) {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        try {
+            for (ExecutorService lane : lanes) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !lane.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+                    lane.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (ExecutorService lane : lanes) {
+                lane.shutdownNow();
+            }
+        }
+    }
+}
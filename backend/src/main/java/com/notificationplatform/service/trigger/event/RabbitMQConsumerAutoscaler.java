@@ -0,0 +1,180 @@
+package com.notificationplatform.service.trigger.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tunes RabbitMQ trigger consumers from observed processing latency and queue depth.
+ *
+ * Consumers: when the backlog would take longer than the target drain time to process with the current
+ * consumers, the consumer floor is raised (up to maxConcurrentConsumers); after several idle intervals it
+ * is lowered again (down to the configured concurrentConsumers).
+ *
+ * Prefetch: sized so each consumer buffers about prefetch-window-ms of work. Prefetch only applies to new
+ * channels, so the container is restarted when the target differs from the current value by 2x or more;
+ * unacked messages are requeued by the broker.
+ */
+@Slf4j
+@Component
+public class RabbitMQConsumerAutoscaler {
+
+    private final RabbitAdmin rabbitAdmin;
+
+    private final Map<String, ScaledConsumer> consumers = new ConcurrentHashMap<>();
+
+    @Value("${app.rabbitmq.autoscale.target-drain-ms:5000}")
+    private long targetDrainMs;
+
+    @Value("${app.rabbitmq.autoscale.prefetch-window-ms:1000}")
+    private long prefetchWindowMs;
+
+    @Value("${app.rabbitmq.autoscale.max-prefetch:1000}")
+    private int maxPrefetch;
+
+    @Value("${app.rabbitmq.autoscale.idle-intervals-before-scale-down:3}")
+    private int idleIntervalsBeforeScaleDown;
+
+    public RabbitMQConsumerAutoscaler(RabbitAdmin rabbitAdmin) {
+        this.rabbitAdmin = rabbitAdmin;
+    }
+
+    /**
+     * Start tuning a trigger's container.
+     *
+     * @return Stats the listener records processing time into
+     */
+    public ConsumerStats register(String triggerId, String queueName, SimpleMessageListenerContainer container,
+                                  RabbitMQConsumerSettings settings) {
+        ScaledConsumer consumer = new ScaledConsumer(queueName, container, settings);
+        consumers.put(triggerId, consumer);
+        return consumer.stats;
+    }
+
+    /**
+     * Stop tuning a trigger's container. Waits for a running adjustment so the container is not restarted afterwards.
+     */
+    public void unregister(String triggerId) {
+        ScaledConsumer consumer = consumers.remove(triggerId);
+        if (consumer != null) {
+            synchronized (consumer) {
+                consumer.removed = true;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rabbitmq.autoscale.interval-ms:10000}")
+    public void adjust() {
+        for (Map.Entry<String, ScaledConsumer> entry : consumers.entrySet()) {
+            try {
+                synchronized (entry.getValue()) {
+                    if (!entry.getValue().removed) {
+                        adjust(entry.getKey(), entry.getValue());
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Failed to adjust RabbitMQ consumer: triggerId={}, error={}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void adjust(String triggerId, ScaledConsumer consumer) {
+        SimpleMessageListenerContainer container = consumer.container;
+        if (!container.isRunning()) {
+            return;
+        }
+
+        long messages = consumer.stats.messages.sumThenReset();
+        long nanos = consumer.stats.nanos.sumThenReset();
+        if (messages > 0) {
+            consumer.latencyMs = Math.max(nanos / 1_000_000.0 / messages, 0.1);
+        }
+        if (consumer.latencyMs <= 0) {
+            // Nothing processed yet, no basis for a decision
+            return;
+        }
+
+        QueueInformation queueInfo = rabbitAdmin.getQueueInfo(consumer.queueName);
+        long depth = queueInfo != null ? queueInfo.getMessageCount() : 0;
+        RabbitMQConsumerSettings settings = consumer.settings;
+
+        // Consumers
+        int current = consumer.concurrentConsumers;
+        double drainMs = depth * consumer.latencyMs / current;
+        int target = current;
+        if (drainMs > targetDrainMs) {
+            consumer.idleIntervals = 0;
+            target = (int) Math.min(Math.ceil(current * drainMs / targetDrainMs), current * 2L);
+            target = Math.min(target, settings.getMaxConcurrentConsumers());
+        } else if (depth == 0 && ++consumer.idleIntervals >= idleIntervalsBeforeScaleDown) {
+            consumer.idleIntervals = 0;
+            target = Math.max(current - 1, settings.getConcurrentConsumers());
+        }
+        if (target != current) {
+            container.setConcurrentConsumers(target);
+            consumer.concurrentConsumers = target;
+            log.info("Scaled RabbitMQ consumers: triggerId={}, queue={}, consumers={} -> {}, depth={}, latencyMs={}",
+                       triggerId, consumer.queueName, current, target, depth, String.format("%.1f", consumer.latencyMs));
+        }
+
+        // Prefetch: keep about prefetchWindowMs of work buffered per consumer
+        int minPrefetch = settings.isConsumerBatchEnabled() ? settings.getBatchSize() : 1;
+        int desiredPrefetch = (int) Math.max(minPrefetch,
+                Math.min(maxPrefetch, Math.round(prefetchWindowMs / consumer.latencyMs)));
+        if (desiredPrefetch >= consumer.prefetch * 2 || desiredPrefetch * 2 <= consumer.prefetch) {
+            log.info("Adjusting RabbitMQ prefetch: triggerId={}, queue={}, prefetch={} -> {}, latencyMs={}",
+                       triggerId, consumer.queueName, consumer.prefetch, desiredPrefetch,
+                       String.format("%.1f", consumer.latencyMs));
+            consumer.prefetch = desiredPrefetch;
+            container.setPrefetchCount(desiredPrefetch);
+            // Prefetch (basic.qos) is set when a channel is opened
+            container.stop();
+            container.start();
+        }
+    }
+
+    /**
+     * Processing time recorded by a listener
+     */
+    public static class ConsumerStats {
+
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        public void record(int messageCount, long elapsedNanos) {
+            messages.add(messageCount);
+            nanos.add(elapsedNanos);
+        }
+    }
+
+    private static class ScaledConsumer {
+
+        private final String queueName;
+        private final SimpleMessageListenerContainer container;
+        private final RabbitMQConsumerSettings settings;
+        private final ConsumerStats stats = new ConsumerStats();
+
+        // Guarded by this
+        private boolean removed;
+        private int concurrentConsumers;
+        private int prefetch;
+        private double latencyMs;
+        private int idleIntervals;
+
+        ScaledConsumer(String queueName, SimpleMessageListenerContainer container, RabbitMQConsumerSettings settings) {
+            this.queueName = queueName;
+            this.container = container;
+            this.settings = settings;
+            this.concurrentConsumers = settings.getConcurrentConsumers();
+            this.prefetch = settings.getPrefetch();
+        }
+    }
+}
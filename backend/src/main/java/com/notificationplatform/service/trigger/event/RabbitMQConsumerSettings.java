@@ -0,0 +1,82 @@
+package com.notificationplatform.service.trigger.event;
+
+import com.notificationplatform.entity.Trigger;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Per-trigger RabbitMQ consumer settings, read from the trigger config "consumer" section:
+ * <pre>
+ * "consumer": {
+ *   "prefetch": 250,                // unacked messages per consumer
+ *   "concurrentConsumers": 2,
+ *   "maxConcurrentConsumers": 20,
+ *   "consumerBatchEnabled": true,   // receive messages in batches, acknowledged with one multi-ack
+ *   "batchSize": 100,               // default: prefetch
+ *   "adaptive": true                // let the autoscaler tune consumers and prefetch
+ * }
+ * </pre>
+ */
+@Getter
+public class RabbitMQConsumerSettings {
+
+    private final int prefetch;
+    private final int concurrentConsumers;
+    private final int maxConcurrentConsumers;
+    private final boolean consumerBatchEnabled;
+    private final int batchSize;
+    private final boolean adaptive;
+
+    private RabbitMQConsumerSettings(int prefetch, int concurrentConsumers, int maxConcurrentConsumers,
+                                     boolean consumerBatchEnabled, int batchSize, boolean adaptive) {
+        this.prefetch = prefetch;
+        this.concurrentConsumers = concurrentConsumers;
+        this.maxConcurrentConsumers = maxConcurrentConsumers;
+        this.consumerBatchEnabled = consumerBatchEnabled;
+        this.batchSize = batchSize;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Read settings from a trigger config; missing values fall back to the given defaults.
+     */
+    @SuppressWarnings("unchecked")
+    public static RabbitMQConsumerSettings fromTrigger(Trigger trigger, int defaultPrefetch,
+                                                       int defaultConcurrentConsumers, int defaultMaxConcurrentConsumers,
+                                                       boolean defaultAdaptive) {
+        Map<String, Object> config = trigger.getConfig() != null ? trigger.getConfig() : Map.of();
+        Map<String, Object> consumer = config.get("consumer") instanceof Map
+                ? (Map<String, Object>) config.get("consumer") : Map.of();
+
+        int prefetch = positiveOrDefault(consumer.get("prefetch"), defaultPrefetch);
+        int concurrentConsumers = positiveOrDefault(consumer.get("concurrentConsumers"), defaultConcurrentConsumers);
+        int maxConcurrentConsumers = Math.max(concurrentConsumers,
+                positiveOrDefault(consumer.get("maxConcurrentConsumers"), defaultMaxConcurrentConsumers));
+        boolean batchEnabled = parseBoolean(consumer.get("consumerBatchEnabled"), false);
+        // A batch can never exceed what the broker delivers unacked
+        int batchSize = Math.min(positiveOrDefault(consumer.get("batchSize"), prefetch), prefetch);
+
+        return new RabbitMQConsumerSettings(prefetch, concurrentConsumers, maxConcurrentConsumers,
+                batchEnabled, batchSize, parseBoolean(consumer.get("adaptive"), defaultAdaptive));
+    }
+
+    private static int positiveOrDefault(Object value, int defaultValue) {
+        if (value instanceof Number number && number.intValue() > 0) {
+            return number.intValue();
+        }
+        if (value != null) {
+            try {
+                int parsed = Integer.parseInt(value.toString().trim());
+                return parsed > 0 ? parsed : defaultValue;
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    private static boolean parseBoolean(Object value, boolean defaultValue) {
+        return value != null ? Boolean.parseBoolean(value.toString().trim()) : defaultValue;
+    }
+}
@@ -3,11 +3,14 @@ package com.notificationplatform.service.trigger.event;
 import com.notificationplatform.entity.Trigger;
 
 
-import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
 import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
@@ -23,15 +26,30 @@ public class RabbitMQEventConsumerRegistry implements EventConsumerRegistry {
 
     private final ConnectionFactory connectionFactory;
     private final RabbitMQEventProcessor eventProcessor;
+    private final RabbitMQConsumerAutoscaler autoscaler;
     
     // Track active containers by trigger ID
     private final Map<String, SimpleMessageListenerContainer> containers = 
         new ConcurrentHashMap<>();
 
+    @Value("${app.rabbitmq.consumer.default-prefetch:10}")
+    private int defaultPrefetch;
+
+    @Value("${app.rabbitmq.consumer.default-concurrent-consumers:1}")
+    private int defaultConcurrentConsumers;
+
+    @Value("${app.rabbitmq.consumer.default-max-concurrent-consumers:10}")
+    private int defaultMaxConcurrentConsumers;
+
+    @Value("${app.rabbitmq.autoscale.enabled-by-default:false}")
+    private boolean adaptiveByDefault;
+
     public RabbitMQEventConsumerRegistry(ConnectionFactory connectionFactory,
-                                        RabbitMQEventProcessor eventProcessor) {
+                                        RabbitMQEventProcessor eventProcessor,
+                                        RabbitMQConsumerAutoscaler autoscaler) {
         this.connectionFactory = connectionFactory;
         this.eventProcessor = eventProcessor;
+        this.autoscaler = autoscaler;
     }
 
     @Override
@@ -62,49 +80,64 @@ public class RabbitMQEventConsumerRegistry implements EventConsumerRegistry {
                 return;
             }
 
+            RabbitMQConsumerSettings settings = RabbitMQConsumerSettings.fromTrigger(trigger,
+                defaultPrefetch, defaultConcurrentConsumers, defaultMaxConcurrentConsumers, adaptiveByDefault);
+
             // Create container factory
             SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
             factory.setConnectionFactory(connectionFactory);
-            factory.setAcknowledgeMode(org.springframework.amqp.core.AcknowledgeMode.MANUAL);
-            factory.setPrefetchCount(10);
-            factory.setConcurrentConsumers(1);
-            factory.setMaxConcurrentConsumers(10);
+            factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+            factory.setPrefetchCount(settings.getPrefetch());
+            factory.setConcurrentConsumers(settings.getConcurrentConsumers());
+            factory.setMaxConcurrentConsumers(settings.getMaxConcurrentConsumers());
+            if (settings.isConsumerBatchEnabled()) {
+                factory.setBatchListener(true);
+                factory.setConsumerBatchEnabled(true);
+                factory.setBatchSize(settings.getBatchSize());
+            }
 
             // Create message listener container
             SimpleMessageListenerContainer container = factory.createListenerContainer();
             container.setQueueNames(queueName);
+
+            RabbitMQConsumerAutoscaler.ConsumerStats stats = settings.isAdaptive()
+                ? autoscaler.register(triggerId, queueName, container, settings) : null;
             
-            // Set message listener
-            container.setMessageListener(
-                new org.springframework.amqp.core.MessageListener() {
-                    @Override
-                    public void onMessage(Message message) {
-                        String routingKey = (String) message.getMessageProperties().getHeaders().get(AmqpHeaders.RECEIVED_ROUTING_KEY);
-                        String exchange = (String) message.getMessageProperties().getHeaders().get(AmqpHeaders.RECEIVED_EXCHANGE);
-                        // Get channel from message properties if available
-                        com.rabbitmq.client.Channel channel = null;
-                        try {
-                            Object channelObj = message.getMessageProperties().getHeaders().get("amqp_channel");
-                            if (channelObj instanceof com.rabbitmq.client.Channel) {
-                                channel = (com.rabbitmq.client.Channel) channelObj;
-                            }
-                        } catch (Exception e) {
-                            // Channel not available, will use null
-                        }
-                        eventProcessor.processEvent(trigger, message, routingKey, exchange, channel);
+            // Set channel-aware message listener, acks are sent on the delivering channel
+            if (settings.isConsumerBatchEnabled()) {
+                container.setMessageListener((ChannelAwareBatchMessageListener) (messages, channel) -> {
+                    long start = System.nanoTime();
+                    eventProcessor.processBatch(trigger, messages, channel);
+                    recordStats(stats, messages.size(), start);
+                });
+            } else {
+                container.setMessageListener((ChannelAwareMessageListener) (message, channel) -> {
+                    long start = System.nanoTime();
+                    String routingKey = (String) message.getMessageProperties().getHeaders().get(AmqpHeaders.RECEIVED_ROUTING_KEY);
+                    String exchange = (String) message.getMessageProperties().getHeaders().get(AmqpHeaders.RECEIVED_EXCHANGE);
+                    if (routingKey == null) {
+                        routingKey = message.getMessageProperties().getReceivedRoutingKey();
                     }
-                }
-            );
+                    if (exchange == null) {
+                        exchange = message.getMessageProperties().getReceivedExchange();
+                    }
+                    eventProcessor.processEvent(trigger, message, routingKey, exchange, channel);
+                    recordStats(stats, 1, start);
+                });
+            }
 
             // Start container
             container.start();
             
             containers.put(triggerId, container);
             
-            log.info("Registered and started RabbitMQ consumer: triggerId={}, queue={}", 
-                       triggerId, queueName);
+            log.info("Registered and started RabbitMQ consumer: triggerId={}, queue={}, prefetch={}, consumers={}-{}, batch={}, adaptive={}", 
+                       triggerId, queueName, settings.getPrefetch(), settings.getConcurrentConsumers(),
+                       settings.getMaxConcurrentConsumers(),
+                       settings.isConsumerBatchEnabled() ? settings.getBatchSize() : "off", settings.isAdaptive());
                        
         } catch (Exception e) {
+            autoscaler.unregister(triggerId);
             log.error("Failed to register RabbitMQ consumer for trigger: triggerId={}", triggerId, e);
             throw new RuntimeException("Failed to register RabbitMQ consumer", e);
         }
@@ -114,6 +147,7 @@ public class RabbitMQEventConsumerRegistry implements EventConsumerRegistry {
      * Unregister and stop a RabbitMQ consumer for a trigger
      */
     public void unregisterConsumer(String triggerId) {
+        autoscaler.unregister(triggerId);
         SimpleMessageListenerContainer container = containers.remove(triggerId);
         
         if (container == null) {
@@ -128,5 +162,10 @@ public class RabbitMQEventConsumerRegistry implements EventConsumerRegistry {
             log.error("Error stopping RabbitMQ consumer for trigger: triggerId={}", triggerId, e);
         }
     }
-}
 
+    private void recordStats(RabbitMQConsumerAutoscaler.ConsumerStats stats, int messageCount, long startNanos) {
+        if (stats != null) {
+            stats.record(messageCount, System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -7,16 +7,19 @@ import com.notificationplatform.entity.Workflow;
 import com.notificationplatform.entity.enums.WorkflowStatus;
 import com.notificationplatform.engine.WorkflowExecutor;
 import com.notificationplatform.repository.TriggerRepository;
+import com.notificationplatform.service.trigger.TriggerDispatcher;
 import com.rabbitmq.client.Channel;
 
 
 import org.springframework.amqp.core.Message;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import lombok.extern.slf4j.Slf4j;
 /**
@@ -29,15 +32,18 @@ public class RabbitMQEventProcessor {
     private final WorkflowExecutor workflowExecutor;
     private final EventFilterService eventFilterService;
     private final TriggerRepository triggerRepository;
+    private final TriggerDispatcher triggerDispatcher;
     private final ObjectMapper objectMapper;
 
     public RabbitMQEventProcessor(WorkflowExecutor workflowExecutor,
                                   EventFilterService eventFilterService,
                                   TriggerRepository triggerRepository,
+                                  TriggerDispatcher triggerDispatcher,
                                   ObjectMapper objectMapper) {
         this.workflowExecutor = workflowExecutor;
         this.eventFilterService = eventFilterService;
         this.triggerRepository = triggerRepository;
+        this.triggerDispatcher = triggerDispatcher;
         this.objectMapper = objectMapper;
     }
 
@@ -90,10 +96,96 @@ public class RabbitMQEventProcessor {
     }
 
     /**
-     * Process trigger in a new transaction.
-     * Must be public for @Transactional to work in async contexts.
+     * Process a batch of RabbitMQ messages for a trigger (consumerBatchEnabled).
+     * The trigger is loaded once, matching messages are dispatched concurrently and the batch is
+     * acknowledged with a single multi-ack; if some messages fail, they are nacked for redelivery
+     * individually and the others acked individually.
+     */
+    @SuppressWarnings("unchecked")
+    public void processBatch(Trigger trigger, List<Message> messages, Channel channel) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        boolean[] handled = new boolean[messages.size()];
+        try {
+            Trigger reloadedTrigger = triggerRepository.findByIdAndNotDeleted(trigger.getId()).orElse(null);
+            if (reloadedTrigger == null) {
+                log.warn("Trigger config not found: triggerId={}", trigger.getId());
+            } else {
+                Map<String, Object> config = reloadedTrigger.getConfig() != null ?
+                    reloadedTrigger.getConfig() : new HashMap<>();
+                CompiledEventFilter filter = eventFilterService.compile((Map<String, Object>) config.get("filter"));
+
+                List<List<CompletableFuture<Execution>>> dispatched = new ArrayList<>(messages.size());
+                for (int i = 0; i < messages.size(); i++) {
+                    List<CompletableFuture<Execution>> executions = List.of();
+                    try {
+                        Map<String, Object> eventData = parseMessage(
+                            new String(messages.get(i).getBody(), StandardCharsets.UTF_8));
+                        // Filtered out is handled, requeueing would redeliver it forever
+                        if (filter.matches(eventData)) {
+                            executions = triggerDispatcher.dispatch(reloadedTrigger, eventData);
+                        }
+                        handled[i] = true;
+                    } catch (Exception e) {
+                        log.error("Error processing RabbitMQ message in batch: triggerId={}", trigger.getId(), e);
+                    }
+                    dispatched.add(executions);
+                }
+
+                // Wait for the batch before acknowledging it
+                for (List<CompletableFuture<Execution>> executions : dispatched) {
+                    for (CompletableFuture<Execution> execution : executions) {
+                        try {
+                            execution.join();
+                        } catch (Exception e) {
+                            log.error("Workflow execution failed for trigger: triggerId={}", trigger.getId(),
+                                        e.getCause() != null ? e.getCause() : e);
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error processing RabbitMQ batch for trigger: triggerId={}", trigger.getId(), e);
+        }
+        acknowledgeBatch(trigger, messages, handled, channel);
+    }
+
+    private void acknowledgeBatch(Trigger trigger, List<Message> messages, boolean[] handled, Channel channel) {
+        if (channel == null) {
+            return;
+        }
+        boolean allHandled = true;
+        for (boolean messageHandled : handled) {
+            allHandled &= messageHandled;
+        }
+        try {
+            if (allHandled) {
+                // One multi-ack covers every delivery up to the last one of the batch
+                long lastDeliveryTag = messages.get(messages.size() - 1).getMessageProperties().getDeliveryTag();
+                channel.basicAck(lastDeliveryTag, true);
+                return;
+            }
+            for (int i = 0; i < messages.size(); i++) {
+                long deliveryTag = messages.get(i).getMessageProperties().getDeliveryTag();
+                if (handled[i]) {
+                    channel.basicAck(deliveryTag, false);
+                } else {
+                    channel.basicNack(deliveryTag, false, true);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error acknowledging batch for trigger: triggerId={}, messages={}",
+                        trigger.getId(), messages.size(), e);
+        }
+    }
+
+    /**
+     * Dispatch the event to all active workflows subscribed to the trigger.
+     * Not transactional: each execution manages its own transactions.
+     *
+     * @return true if the message was handled and can be acknowledged
      */
-    @Transactional
     public boolean processTrigger(Trigger trigger, Map<String, Object> eventData, 
                                   String routingKey, String exchange) {
         try {
@@ -114,18 +206,16 @@ public class RabbitMQEventProcessor {
             if (filter != null && !filter.isEmpty()) {
                 if (!eventFilterService.matchesFilter(eventData, filter)) {
                     log.debug("Event does not match filter for trigger: triggerId={}", reloadedTrigger.getId());
-                    return false;
+                    // Filtered out is handled, requeueing would redeliver it forever
+                    return true;
                 }
             }
             
-            // Find workflows that use this trigger config by parsing workflow definitions
-            // In the new design, triggers are independent configs referenced via triggerConfigId in workflow nodes
-            // Need to:
-            // 1. Query all active workflows
-            // 2. Parse workflow definitions to find nodes with triggerConfigId matching this trigger
-            // 3. Execute those workflows
-            log.warn("RabbitMQEventProcessor - need to find workflows using trigger config: triggerId={}", trigger.getId());
-            return false;
+            // Execute workflows that use this trigger config (looked up in the trigger index)
+            List<Execution> executions = triggerDispatcher.dispatchAndWait(reloadedTrigger, eventData);
+            log.debug("RabbitMQ event dispatched: triggerId={}, routingKey={}, executions={}",
+                      reloadedTrigger.getId(), routingKey, executions.size());
+            return true;
 
         } catch (Exception e) {
             log.error("Error processing trigger: triggerId={}", trigger.getId(), e);
@@ -0,0 +1,87 @@
+package com.notificationplatform.service.trigger.event;
+
+import com.notificationplatform.entity.Trigger;
+import lombok.Getter;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One Kafka consumer for a (brokers, topic) pair, shared by every record-mode trigger on that topic.
+ *
+ * Each record is read and parsed once and dispatched to the triggers whose filter matches.
+ * Trigger filters are compiled into an {@link EventFilterIndex}, so matching cost depends on the
+ * triggers that can match a record rather than on all triggers of the topic.
+ */
+public class SharedTopicConsumer {
+
+    @Getter
+    private final String key;
+    @Getter
+    private final String topic;
+
+    private final EventFilterService eventFilterService;
+
+    @Getter
+    private volatile ConcurrentMessageListenerContainer<String, String> container;
+
+    // Guarded by this; readers use the immutable index below
+    private final Map<String, Trigger> triggers = new LinkedHashMap<>();
+
+    private volatile EventFilterIndex<Trigger> filterIndex = EventFilterIndex.empty();
+
+    public SharedTopicConsumer(String key, String topic, EventFilterService eventFilterService) {
+        this.key = key;
+        this.topic = topic;
+        this.eventFilterService = eventFilterService;
+    }
+
+    void setContainer(ConcurrentMessageListenerContainer<String, String> container) {
+        this.container = container;
+    }
+
+    /**
+     * Add or replace a trigger.
+     */
+    public synchronized void addTrigger(Trigger trigger) {
+        triggers.put(trigger.getId(), trigger);
+        rebuildIndex();
+    }
+
+    /**
+     * Remove a trigger.
+     *
+     * @return true if no trigger is left on this consumer
+     */
+    public synchronized boolean removeTrigger(String triggerId) {
+        if (triggers.remove(triggerId) != null) {
+            rebuildIndex();
+        }
+        return triggers.isEmpty();
+    }
+
+    public synchronized int getTriggerCount() {
+        return triggers.size();
+    }
+
+    /**
+     * Triggers whose filter matches the event
+     */
+    public List<Trigger> getMatchingTriggers(Map<String, Object> eventData) {
+        return filterIndex.match(eventData);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuildIndex() {
+        Map<Trigger, CompiledEventFilter> filters = new LinkedHashMap<>();
+        for (Trigger trigger : triggers.values()) {
+            Map<String, Object> config = trigger.getConfig() != null ? trigger.getConfig() : Map.of();
+            Map<String, Object> filter = config.get("filter") instanceof Map
+                    ? (Map<String, Object>) config.get("filter") : null;
+            filters.put(trigger, eventFilterService.compile(filter));
+        }
+        this.filterIndex = EventFilterIndex.build(filters);
+    }
+}
@@ -1,83 +1,215 @@
 package com.notificationplatform.service.trigger.schedule;
 
 import com.notificationplatform.entity.Trigger;
+import com.notificationplatform.entity.enums.TriggerStatus;
 import com.notificationplatform.entity.enums.TriggerType;
-import com.notificationplatform.engine.WorkflowExecutor;
 import com.notificationplatform.repository.TriggerRepository;
-import com.notificationplatform.repository.WorkflowRepository;
+import com.notificationplatform.service.cluster.ClusterMembershipService;
+import com.notificationplatform.service.cluster.ConsistentHashRing;
+import com.notificationplatform.service.trigger.TriggerDispatcher;
 
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 
 import lombok.extern.slf4j.Slf4j;
 /**
- * Service for managing scheduled triggers
+ * Service for managing scheduled triggers.
+ *
+ * Schedules are partitioned across live instances: each trigger is scheduled only on the instance that owns
+ * it on a consistent hash ring of the cluster members, and ownership is rebalanced when members join or leave.
+ * Schedule changes are announced on a Redis channel so the owning instance picks them up; a periodic resync
+ * against the database covers missed announcements.
+ *
+ * Each fire is claimed in Redis by (trigger, scheduled time) before it runs, so a tick fires once even while
+ * two instances briefly both own a trigger during rebalancing. A successful claim returns a fencing token
+ * (increasing per trigger) that is passed to the workflow with the scheduled time.
  */
 @Slf4j
 @Service
 @Transactional
-public class ScheduleTriggerService {
+public class ScheduleTriggerService implements MessageListener {
+
+    static final String CHANNEL = "schedule-triggers:changes";
+
+    private static final String FIRE_KEY_PREFIX = "schedule:fire:";
+    private static final String FENCE_KEY_PREFIX = "schedule:fence:";
+
+    // Claim the fire once; the fencing token increases with every claimed fire of the trigger
+    private static final DefaultRedisScript<Long> CLAIM_FIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then " +
+            "  return redis.call('INCR', KEYS[2]) " +
+            "end " +
+            "return 0", Long.class);
 
     private final TriggerRepository triggerRepository;
-    private final WorkflowRepository workflowRepository;
-    private final WorkflowExecutor workflowExecutor;
+    private final TriggerDispatcher triggerDispatcher;
     private final TaskScheduler taskScheduler;
     private final CronValidator cronValidator;
-    private final Map<String, ScheduledFuture<?>> scheduledTasks = new HashMap<>();
+    private final ClusterMembershipService membershipService;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // Schedules running on this instance
+    private final Map<String, LocalSchedule> scheduledTasks = new ConcurrentHashMap<>();
+
+    private volatile ConsistentHashRing ring;
+
+    @Value("${app.schedule.sharding.virtual-nodes:100}")
+    private int virtualNodes;
+
+    @Value("${app.schedule.sharding.fire-claim-ttl-ms:3600000}")
+    private long fireClaimTtlMs;
 
     public ScheduleTriggerService(TriggerRepository triggerRepository,
-                                 WorkflowRepository workflowRepository,
-                                 @Lazy WorkflowExecutor workflowExecutor,
+                                 @Lazy TriggerDispatcher triggerDispatcher,
                                  TaskScheduler taskScheduler,
-                                 CronValidator cronValidator) {
+                                 CronValidator cronValidator,
+                                 ClusterMembershipService membershipService,
+                                 RedisTemplate<String, String> redisTemplate,
+                                 RedisMessageListenerContainer listenerContainer) {
         this.triggerRepository = triggerRepository;
-        this.workflowRepository = workflowRepository;
-        this.workflowExecutor = workflowExecutor;
+        this.triggerDispatcher = triggerDispatcher;
         this.taskScheduler = taskScheduler;
         this.cronValidator = cronValidator;
+        this.membershipService = membershipService;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        ring = new ConsistentHashRing(membershipService.getMembers(), virtualNodes);
+        membershipService.addMembershipListener(members -> {
+            ring = new ConsistentHashRing(members, virtualNodes);
+            loadActiveSchedules();
+        });
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
     }
 
     /**
-     * Register a schedule trigger
+     * Register a schedule trigger.
+     * Runs it here if this instance owns it and tells the owner otherwise.
      */
     public void registerSchedule(Trigger trigger) {
         if (trigger.getTriggerType() != TriggerType.SCHEDULER) {
             return;
         }
+        applySchedule(trigger);
+        publishAfterCommit(trigger.getId());
+    }
 
-        if (trigger.getStatus() != com.notificationplatform.entity.enums.TriggerStatus.ACTIVE) {
+    /**
+     * Cancel a scheduled trigger on every instance
+     */
+    public void cancelSchedule(String triggerId) {
+        cancelLocally(triggerId);
+        publishAfterCommit(triggerId);
+    }
+
+    /**
+     * Whether this instance owns the trigger's schedule
+     */
+    public boolean isOwner(String triggerId) {
+        return membershipService.getInstanceId().equals(ring.owner(triggerId));
+    }
+
+    /**
+     * Load all active schedule triggers and keep the ones this instance owns.
+     * Also run periodically to pick up changes made on other instances.
+     */
+    @Scheduled(fixedDelayString = "${app.schedule.sharding.resync-interval-ms:60000}",
+               initialDelayString = "${app.schedule.sharding.resync-interval-ms:60000}")
+    public void loadActiveSchedules() {
+        List<Trigger> scheduleTriggers;
+        try {
+            scheduleTriggers = triggerRepository.findByTriggerTypeAndStatus(TriggerType.SCHEDULER, TriggerStatus.ACTIVE);
+        } catch (Exception e) {
+            log.error("Failed to load schedule triggers", e);
             return;
         }
 
+        Set<String> activeIds = new HashSet<>();
+        for (Trigger trigger : scheduleTriggers) {
+            activeIds.add(trigger.getId());
+            applySchedule(trigger);
+        }
+        for (String triggerId : Set.copyOf(scheduledTasks.keySet())) {
+            if (!activeIds.contains(triggerId)) {
+                cancelLocally(triggerId);
+            }
+        }
+        log.info("Schedule triggers synced: active={}, owned={}, members={}",
+                 scheduleTriggers.size(), scheduledTasks.size(), ring.getMembers().size());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String triggerId = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            Trigger trigger = triggerRepository.findById(triggerId).orElse(null);
+            if (trigger != null && trigger.getDeletedAt() == null) {
+                applySchedule(trigger);
+            } else {
+                cancelLocally(triggerId);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to apply schedule change: triggerId={}, error={}", triggerId, e.getMessage());
+        }
+    }
+
+    /**
+     * Make the local schedule match the trigger: run it if active and owned here, cancel it otherwise.
+     */
+    private void applySchedule(Trigger trigger) {
         String triggerId = trigger.getId();
-        
-        // Cancel existing task if any
-        cancelSchedule(triggerId);
+        if (trigger.getStatus() != TriggerStatus.ACTIVE || !isOwner(triggerId)) {
+            cancelLocally(triggerId);
+            return;
+        }
 
         // Get cron expression from config
         Map<String, Object> config = trigger.getConfig() != null ? trigger.getConfig() : new HashMap<>();
         String cronExpression = (String) config.get("cronExpression");
-        
+
         if (cronExpression == null || cronExpression.isEmpty()) {
             log.warn("No cron expression found for trigger: {}", triggerId);
+            cancelLocally(triggerId);
             return;
         }
 
         // Validate cron expression
         if (!cronValidator.isValid(cronExpression)) {
             log.error("Invalid cron expression for trigger: {}, expression: {}", triggerId, cronExpression);
+            cancelLocally(triggerId);
             return;
         }
 
@@ -92,89 +224,105 @@ public class ScheduleTriggerService {
         ZoneId zoneId = ZoneId.of(timezone);
 
         // Get start/end dates
-        LocalDateTime startDate = config.containsKey("startDate") ? 
+        LocalDateTime startDate = config.containsKey("startDate") ?
             LocalDateTime.parse((String) config.get("startDate")) : null;
-        LocalDateTime endDate = config.containsKey("endDate") ? 
+        LocalDateTime endDate = config.containsKey("endDate") ?
             LocalDateTime.parse((String) config.get("endDate")) : null;
 
-        // Check if schedule is active
+        // Check if schedule is active (a future start is picked up by a later resync)
         LocalDateTime now = LocalDateTime.now();
         if (startDate != null && now.isBefore(startDate)) {
             log.info("Schedule not yet active: triggerId={}, startDate={}", triggerId, startDate);
+            cancelLocally(triggerId);
             return;
         }
 
         if (endDate != null && now.isAfter(endDate)) {
             log.info("Schedule has expired: triggerId={}, endDate={}", triggerId, endDate);
+            cancelLocally(triggerId);
             return;
         }
 
-        // Create cron trigger with timezone
-        CronTrigger cronTrigger = new CronTrigger(cronExpression, TimeZone.getTimeZone(zoneId));
+        // Keep a running schedule unless its definition changed
+        String signature = cronExpression + "|" + timezone + "|" + endDate;
+        LocalSchedule existing = scheduledTasks.get(triggerId);
+        if (existing != null && existing.signature().equals(signature)) {
+            return;
+        }
+        cancelLocally(triggerId);
+
+        // Create cron trigger with timezone; the wrapper remembers the fire time of each run
+        FireTimeTrackingTrigger cronTrigger = new FireTimeTrackingTrigger(
+            new CronTrigger(cronExpression, TimeZone.getTimeZone(zoneId)));
 
         // Schedule the task - only capture triggerId to avoid ApplicationContext issues
         String triggerIdToExecute = triggerId;
         ScheduledFuture<?> scheduledTask = taskScheduler.schedule(
-            () -> executeScheduledWorkflow(triggerIdToExecute),
+            () -> executeScheduledWorkflow(triggerIdToExecute, cronTrigger.getScheduledTime()),
             cronTrigger
         );
 
-        scheduledTasks.put(triggerId, scheduledTask);
-        log.info("Registered schedule trigger: triggerId={}, cron={}, timezone={}", 
+        scheduledTasks.put(triggerId, new LocalSchedule(scheduledTask, signature));
+        log.info("Registered schedule trigger: triggerId={}, cron={}, timezone={}",
                    triggerId, cronExpression, timezone);
     }
 
-    /**
-     * Cancel a scheduled trigger
-     */
-    public void cancelSchedule(String triggerId) {
-        ScheduledFuture<?> task = scheduledTasks.remove(triggerId);
-        if (task != null) {
-            task.cancel(false);
+    private void cancelLocally(String triggerId) {
+        LocalSchedule schedule = scheduledTasks.remove(triggerId);
+        if (schedule != null) {
+            schedule.future().cancel(false);
             log.info("Cancelled schedule trigger: triggerId={}", triggerId);
         }
     }
 
     /**
-     * Execute workflow for scheduled trigger
-     * Must be transactional to avoid LazyInitializationException
+     * Execute workflows for a scheduled trigger fire, once per scheduled time across the cluster.
      * Takes triggerId instead of Trigger entity to avoid ApplicationContext issues in async threads
      */
-    @Transactional
-    private void executeScheduledWorkflow(String triggerId) {
+    private void executeScheduledWorkflow(String triggerId, Instant scheduledTime) {
         try {
-            log.info("Executing scheduled workflow: triggerId={}", triggerId);
-
             // Check if trigger is still active
             Trigger currentTrigger = triggerRepository.findById(triggerId).orElse(null);
-            if (currentTrigger == null || 
-                currentTrigger.getStatus() != com.notificationplatform.entity.enums.TriggerStatus.ACTIVE) {
+            if (currentTrigger == null || currentTrigger.getStatus() != TriggerStatus.ACTIVE) {
                 log.warn("Trigger is no longer active, cancelling: triggerId={}", triggerId);
-                cancelSchedule(triggerId);
+                cancelLocally(triggerId);
                 return;
             }
 
             // Check end date
-            Map<String, Object> config = currentTrigger.getConfig() != null ? 
+            Map<String, Object> config = currentTrigger.getConfig() != null ?
                 (Map<String, Object>) currentTrigger.getConfig() : new HashMap<>();
-            
+
             if (config.containsKey("endDate")) {
                 LocalDateTime endDate = LocalDateTime.parse((String) config.get("endDate"));
                 if (LocalDateTime.now().isAfter(endDate)) {
                     log.info("Schedule has expired, cancelling: triggerId={}", triggerId);
-                    cancelSchedule(triggerId);
+                    cancelLocally(triggerId);
                     return;
                 }
             }
 
-            // Find workflows that use this trigger config by parsing workflow definitions
-            // In the new design, triggers are independent configs referenced via triggerConfigId in workflow nodes
-            // Need to:
-            // 1. Query all active workflows
-            // 2. Parse workflow definitions to find nodes with triggerConfigId matching this trigger
-            // 3. Execute those workflows
-            log.warn("ScheduleTriggerService.executeScheduledWorkflow - need to find workflows using trigger config: triggerId={}", currentTrigger.getId());
-            return;
+            Long fenceToken = claimFire(triggerId, scheduledTime);
+            if (fenceToken == null) {
+                log.debug("Schedule fire already claimed: triggerId={}, scheduledTime={}", triggerId, scheduledTime);
+                return;
+            }
+
+            log.info("Executing scheduled workflow: triggerId={}, scheduledTime={}, fenceToken={}",
+                     triggerId, scheduledTime, fenceToken);
+
+            // Static data from the config plus the fire context
+            Map<String, Object> triggerData = new HashMap<>();
+            if (config.get("data") instanceof Map<?, ?> staticData) {
+                staticData.forEach((key, value) -> triggerData.put(String.valueOf(key), value));
+            }
+            Map<String, Object> schedule = new HashMap<>();
+            schedule.put("scheduledTime", scheduledTime != null ? scheduledTime.toString() : null);
+            schedule.put("firedAt", Instant.now().toString());
+            schedule.put("fenceToken", fenceToken);
+            triggerData.put("schedule", schedule);
+
+            triggerDispatcher.dispatch(currentTrigger, triggerData);
 
         } catch (Exception e) {
             log.error("Error executing scheduled workflow: triggerId={}", triggerId, e);
@@ -182,18 +330,65 @@ public class ScheduleTriggerService {
     }
 
     /**
-     * Load and register all active schedule triggers
+     * Claim a fire in Redis.
+     *
+     * @return Fencing token, null if another instance already claimed this fire
      */
-    public void loadActiveSchedules() {
-        List<Trigger> scheduleTriggers = triggerRepository.findByTriggerTypeAndStatus(
-            TriggerType.SCHEDULER, 
-            com.notificationplatform.entity.enums.TriggerStatus.ACTIVE
-        );
-        log.info("Loading {} active schedule triggers", scheduleTriggers.size());
-        
-        for (Trigger trigger : scheduleTriggers) {
-            registerSchedule(trigger);
+    private Long claimFire(String triggerId, Instant scheduledTime) {
+        long fireTime = scheduledTime != null ? scheduledTime.toEpochMilli() : System.currentTimeMillis() / 1000 * 1000;
+        Long token = redisTemplate.execute(CLAIM_FIRE_SCRIPT,
+                List.of(FIRE_KEY_PREFIX + triggerId + ":" + fireTime, FENCE_KEY_PREFIX + triggerId),
+                membershipService.getInstanceId(), String.valueOf(fireClaimTtlMs));
+        return token != null && token > 0 ? token : null;
+    }
+
+    private void publishAfterCommit(String triggerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(triggerId);
+                }
+            });
+        } else {
+            publish(triggerId);
         }
     }
-}
 
+    private void publish(String triggerId) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, triggerId);
+        } catch (Exception e) {
+            // The owner catches up on its next resync
+            log.warn("Failed to publish schedule change: triggerId={}, error={}", triggerId, e.getMessage());
+        }
+    }
+
+    private record LocalSchedule(ScheduledFuture<?> future, String signature) {
+    }
+
+    /**
+     * Cron trigger that remembers the last computed execution time, which is the scheduled time of the
+     * run in progress (the scheduler computes the next time only after a run completes).
+     */
+    private static final class FireTimeTrackingTrigger implements org.springframework.scheduling.Trigger {
+
+        private final CronTrigger delegate;
+        private volatile Instant scheduledTime;
+
+        FireTimeTrackingTrigger(CronTrigger delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Instant nextExecution(TriggerContext triggerContext) {
+            Instant next = delegate.nextExecution(triggerContext);
+            scheduledTime = next;
+            return next;
+        }
+
+        Instant getScheduledTime() {
+            return scheduledTime;
+        }
+    }
+}
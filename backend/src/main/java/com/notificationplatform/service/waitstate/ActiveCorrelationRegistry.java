@@ -0,0 +1,197 @@
+package com.notificationplatform.service.waitstate;
+
+import com.notificationplatform.repository.ExecutionWaitStateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory set of correlation ids that currently have a waiting wait state, so callback events
+ * (Kafka events, API responses) for unknown correlation ids are dropped without a database lookup.
+ *
+ * Registrations are added locally and broadcast on a Redis channel as soon as the correlation id is
+ * generated (before it leaves the process); completions are removed after commit. A false positive
+ * only costs the usual lookup. A periodic reconcile against the database repairs missed messages;
+ * until the first reconcile finishes, or while the Redis subscription is down, every id is reported
+ * as possibly waiting. Messages published while the subscription connection was dropped are lost, so
+ * every (re)subscription also reports every id as possibly waiting until a reconcile started after it
+ * completes.
+ */
+@Slf4j
+@Component
+public class ActiveCorrelationRegistry implements MessageListener, SubscriptionListener {
+
+    static final String CHANNEL = "wait-state:correlations";
+
+    private static final char ADD = '+';
+    private static final char REMOVE = '-';
+
+    private final ExecutionWaitStateRepository waitStateRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /** correlationId -> time it was added locally (ms) */
+    private final Map<String, Long> activeCorrelationIds = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    private volatile boolean subscribed;
+
+    /** Incremented on every (re)subscription; a reconcile only marks the set ready if none happened meanwhile */
+    private final AtomicLong subscriptions = new AtomicLong();
+
+    @Value("${app.wait-state.correlation-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.wait-state.correlation-filter.grace-ms:60000}")
+    private long graceMs;
+
+    public ActiveCorrelationRegistry(ExecutionWaitStateRepository waitStateRepository,
+                                     RedisTemplate<String, String> redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer) {
+        this.waitStateRepository = waitStateRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        reconcile();
+    }
+
+    /**
+     * Whether a wait state may be waiting for this correlation id.
+     * False means there is certainly none and the event can be skipped.
+     */
+    public boolean mightBeWaiting(String correlationId) {
+        if (!enabled || !ready || !listenerContainer.isRunning()) {
+            return true;
+        }
+        return correlationId != null && activeCorrelationIds.containsKey(correlationId);
+    }
+
+    /**
+     * Record a new waiting correlation id. Call before the id is sent anywhere.
+     */
+    public void register(String correlationId) {
+        if (!enabled || correlationId == null) {
+            return;
+        }
+        activeCorrelationIds.put(correlationId, System.currentTimeMillis());
+        publish(ADD, correlationId);
+    }
+
+    /**
+     * Forget a correlation id whose wait state is no longer waiting. Inside a transaction this happens after commit.
+     */
+    public void unregister(String correlationId) {
+        if (!enabled || correlationId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(correlationId);
+                }
+            });
+        } else {
+            remove(correlationId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.length() < 2) {
+            return;
+        }
+        String correlationId = body.substring(1);
+        if (body.charAt(0) == ADD) {
+            activeCorrelationIds.put(correlationId, System.currentTimeMillis());
+        } else if (body.charAt(0) == REMOVE) {
+            activeCorrelationIds.remove(correlationId);
+        }
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        // Also called after the container reconnects; adds published while disconnected were missed
+        subscriptions.incrementAndGet();
+        subscribed = true;
+        ready = false;
+        log.info("Correlation id channel subscribed, reconciling before filtering events");
+        reconcile();
+    }
+
+    @Override
+    public void onChannelUnsubscribed(byte[] channel, long count) {
+        subscriptions.incrementAndGet();
+        subscribed = false;
+        ready = false;
+    }
+
+    /**
+     * Align the set with the database. Ids added within the grace period are kept even if the database
+     * does not show them yet, since their wait state transaction may not have committed.
+     */
+    @Scheduled(fixedDelayString = "${app.wait-state.correlation-filter.reconcile-interval-ms:30000}",
+               initialDelayString = "${app.wait-state.correlation-filter.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long subscription = subscriptions.get();
+            long cutoff = System.currentTimeMillis() - graceMs;
+            Set<String> waiting = new HashSet<>(waitStateRepository.findCorrelationIdsByStatus("waiting"));
+
+            long now = System.currentTimeMillis();
+            for (String correlationId : waiting) {
+                activeCorrelationIds.putIfAbsent(correlationId, now);
+            }
+            activeCorrelationIds.entrySet().removeIf(entry ->
+                    !waiting.contains(entry.getKey()) && entry.getValue() < cutoff);
+
+            ready = subscribed && subscriptions.get() == subscription;
+            log.debug("Active correlation ids reconciled: count={}", activeCorrelationIds.size());
+        } catch (Exception e) {
+            log.error("Failed to reconcile active correlation ids", e);
+        }
+    }
+
+    private void remove(String correlationId) {
+        activeCorrelationIds.remove(correlationId);
+        publish(REMOVE, correlationId);
+    }
+
+    private void publish(char operation, String correlationId) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, operation + correlationId);
+        } catch (Exception e) {
+            // Other instances catch up on the next reconcile
+            log.warn("Failed to publish correlation id change: correlationId={}, error={}", correlationId, e.getMessage());
+        }
+    }
+}
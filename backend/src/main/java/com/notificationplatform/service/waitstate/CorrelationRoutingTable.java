@@ -0,0 +1,230 @@
+package com.notificationplatform.service.waitstate;
+
+import com.notificationplatform.entity.ExecutionWaitState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routing entries of waiting WaitForEvents wait states, one Redis hash per correlation id
+ * ({@code wait-state:route:<correlationId>}), so callbacks are validated with a single Redis read and the
+ * database is only touched for events that change aggregation state.
+ *
+ * An entry is written when the wait state is registered, before the correlation id leaves the process,
+ * and removed again if that transaction rolls back. It is marked per received event after commit, and
+ * removed after the wait state completes or times out. It expires a grace period after the wait state does.
+ * A missing entry, or Redis being unavailable, only means the callback is validated against the database
+ * as before.
+ */
+@Slf4j
+@Component
+public class CorrelationRoutingTable {
+
+    static final String ROUTE_KEY_PREFIX = "wait-state:route:";
+
+    private static final String RECEIVED_FIELD_PREFIX = "received:";
+
+    // KEYS: route. ARGV: field. Never recreates a removed or expired entry
+    private static final DefaultRedisScript<Long> MARK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "return redis.call('HSET', KEYS[1], ARGV[1], '1')",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${app.wait-state.routing-table.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.wait-state.routing-table.expiry-grace-ms:300000}")
+    private long expiryGraceMs;
+
+    public CorrelationRoutingTable(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Add the entry of a new wait state. Call before its correlation id is sent anywhere. Inside a transaction
+     * the entry is written at once and removed again if the transaction rolls back.
+     */
+    public void register(ExecutionWaitState waitState) {
+        if (!enabled || waitState.getCorrelationId() == null) {
+            return;
+        }
+        Route route = Route.of(waitState);
+        Map<String, String> fields = new HashMap<>();
+        fields.put("executionId", route.executionId());
+        fields.put("nodeId", route.nodeId());
+        fields.put("waitStateId", route.waitStateId());
+        fields.put("enabledEvents", String.join(",", route.enabledEvents()));
+        fields.put("aggregationStrategy", route.aggregationStrategy());
+        fields.put("requiredEvents", String.join(",", route.requiredEvents()));
+        long expiresAtMs = route.expiresAtMs();
+        fields.put("expiresAt", String.valueOf(expiresAtMs));
+
+        String key = ROUTE_KEY_PREFIX + waitState.getCorrelationId();
+        try {
+            redisTemplate.opsForHash().putAll(key, fields);
+            long ttlMs = waitState.getExpiresAt() != null
+                    ? Math.max(expiresAtMs - System.currentTimeMillis(), 0) + expiryGraceMs
+                    : TimeUnit.DAYS.toMillis(1);
+            redisTemplate.expire(key, ttlMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Failed to write correlation route: correlationId={}, error={}",
+                     waitState.getCorrelationId(), e.getMessage());
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            String correlationId = waitState.getCorrelationId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        // The wait state does not exist; do not route or buffer events for it
+                        try {
+                            redisTemplate.delete(key);
+                        } catch (Exception e) {
+                            log.warn("Failed to remove correlation route of rolled back wait state: correlationId={}, error={}",
+                                     correlationId, e.getMessage());
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Route of a correlation id.
+     *
+     * @return null if unknown here or Redis is unavailable; the caller then checks the database
+     */
+    public Route lookup(String correlationId) {
+        if (!enabled || correlationId == null) {
+            return null;
+        }
+        Map<Object, Object> fields;
+        try {
+            fields = redisTemplate.opsForHash().entries(ROUTE_KEY_PREFIX + correlationId);
+        } catch (Exception e) {
+            log.warn("Failed to read correlation route: correlationId={}, error={}", correlationId, e.getMessage());
+            return null;
+        }
+        if (fields == null || !fields.containsKey("waitStateId")) {
+            return null;
+        }
+
+        Set<String> receivedEvents = new HashSet<>();
+        for (Map.Entry<Object, Object> field : fields.entrySet()) {
+            String name = field.getKey().toString();
+            if (name.startsWith(RECEIVED_FIELD_PREFIX)) {
+                receivedEvents.add(name.substring(RECEIVED_FIELD_PREFIX.length()));
+            }
+        }
+        String expiresAt = (String) fields.get("expiresAt");
+        String aggregationStrategy = (String) fields.get("aggregationStrategy");
+
+        return new Route((String) fields.get("executionId"), (String) fields.get("nodeId"),
+                (String) fields.get("waitStateId"), splitList(fields.get("enabledEvents")),
+                aggregationStrategy != null ? aggregationStrategy : "all",
+                splitList(fields.get("requiredEvents")), receivedEvents,
+                expiresAt != null ? Long.parseLong(expiresAt) : 0);
+    }
+
+    /**
+     * Record that an event was stored on the wait state. Inside a transaction this happens after commit.
+     */
+    public void markReceived(String correlationId, String eventType) {
+        afterCommit(() -> redisTemplate.execute(MARK_SCRIPT, List.of(ROUTE_KEY_PREFIX + correlationId),
+                RECEIVED_FIELD_PREFIX + eventType), correlationId);
+    }
+
+    /**
+     * Remove the entry of a wait state that is no longer waiting. Inside a transaction this happens after commit.
+     */
+    public void remove(String correlationId) {
+        afterCommit(() -> redisTemplate.delete(ROUTE_KEY_PREFIX + correlationId), correlationId);
+    }
+
+    private void afterCommit(Runnable update, String correlationId) {
+        if (!enabled || correlationId == null) {
+            return;
+        }
+        Runnable guarded = () -> {
+            try {
+                update.run();
+            } catch (Exception e) {
+                // The entry expires on its own; until then the database check catches stale entries
+                log.warn("Failed to update correlation route: correlationId={}, error={}", correlationId, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+
+    private static Set<String> splitList(Object value) {
+        Set<String> items = new HashSet<>();
+        if (value != null && !value.toString().isEmpty()) {
+            items.addAll(List.of(value.toString().split(",")));
+        }
+        return items;
+    }
+
+    private static long toEpochMs(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Routing entry of a waiting wait state
+     *
+     * @param expiresAtMs Epoch ms after which the wait state times out
+     */
+    public record Route(String executionId,
+                        String nodeId,
+                        String waitStateId,
+                        Set<String> enabledEvents,
+                        String aggregationStrategy,
+                        Set<String> requiredEvents,
+                        Set<String> receivedEvents,
+                        long expiresAtMs) {
+
+        /**
+         * Route of a wait state as stored in the database
+         */
+        public static Route of(ExecutionWaitState waitState) {
+            return new Route(waitState.getExecution().getId(), waitState.getNodeId(), waitState.getId(),
+                    toSet(waitState.getEnabledEvents()),
+                    waitState.getAggregationStrategy() != null ? waitState.getAggregationStrategy() : "all",
+                    toSet(waitState.getRequiredEvents()), toSet(waitState.getReceivedEvents()),
+                    toEpochMs(waitState.getExpiresAt()));
+        }
+
+        private static Set<String> toSet(List<String> items) {
+            return items != null ? new HashSet<>(items) : new HashSet<>();
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() > expiresAtMs;
+        }
+    }
+}
@@ -29,10 +29,5 @@ public interface ExecutionWaitStateService {
      * Get wait state by execution ID and correlation ID
      */
     ExecutionWaitState getWaitStateByExecutionIdAndCorrelationId(String executionId, String correlationId);
-
-    /**
-     * Check for expired wait states and handle timeouts
-     */
-    void checkTimeouts();
 }
 
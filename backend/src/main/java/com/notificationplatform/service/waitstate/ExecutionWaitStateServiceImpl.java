@@ -6,8 +6,8 @@ import com.notificationplatform.exception.ResourceNotFoundException;
 import com.notificationplatform.repository.ExecutionRepository;
 import com.notificationplatform.repository.ExecutionWaitStateRepository;
 import com.notificationplatform.service.eventaggregation.EventAggregationService;
+import com.notificationplatform.service.timer.TimerService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,13 +25,19 @@ public class ExecutionWaitStateServiceImpl implements ExecutionWaitStateService
     private final ExecutionWaitStateRepository waitStateRepository;
     private final ExecutionRepository executionRepository;
     private final EventAggregationService eventAggregationService;
+    private final ActiveCorrelationRegistry activeCorrelationRegistry;
+    private final TimerService timerService;
 
     public ExecutionWaitStateServiceImpl(ExecutionWaitStateRepository waitStateRepository,
                                         ExecutionRepository executionRepository,
-                                        EventAggregationService eventAggregationService) {
+                                        EventAggregationService eventAggregationService,
+                                        ActiveCorrelationRegistry activeCorrelationRegistry,
+                                        TimerService timerService) {
         this.waitStateRepository = waitStateRepository;
         this.executionRepository = executionRepository;
         this.eventAggregationService = eventAggregationService;
+        this.activeCorrelationRegistry = activeCorrelationRegistry;
+        this.timerService = timerService;
     }
 
     @Override
@@ -63,7 +69,11 @@ public class ExecutionWaitStateServiceImpl implements ExecutionWaitStateService
         waitState.setExpiresAt(expiresAt);
         waitState.setReceivedEvents(new ArrayList<>());
 
+        activeCorrelationRegistry.register(correlationId);
         waitState = waitStateRepository.save(waitState);
+        if (expiresAt != null) {
+            timerService.schedule(WaitStateTimerHandler.TIMER_TYPE, waitState.getId(), expiresAt);
+        }
 
         log.info("Created wait state: id={}, executionId={}, nodeId={}, correlationId={}", 
                  waitState.getId(), executionId, nodeId, correlationId);
@@ -117,34 +127,4 @@ public class ExecutionWaitStateServiceImpl implements ExecutionWaitStateService
                 executionId, correlationId, "waiting")
                 .orElse(null);
     }
-
-    @Override
-    @Scheduled(fixedRate = 60000) // Check every minute
-    public void checkTimeouts() {
-        log.debug("Checking for expired wait states");
-
-        LocalDateTime now = LocalDateTime.now();
-        List<ExecutionWaitState> expiredStates = waitStateRepository
-                .findByStatusAndExpiresAtBefore("waiting", now);
-
-        if (expiredStates.isEmpty()) {
-            return;
-        }
-
-        log.info("Found {} expired wait states", expiredStates.size());
-
-        for (ExecutionWaitState waitState : expiredStates) {
-            try {
-                log.info("Handling timeout for wait state: id={}, executionId={}, nodeId={}", 
-                         waitState.getId(), waitState.getExecution().getId(), waitState.getNodeId());
-                
-                eventAggregationService.handleTimeout(
-                        waitState.getExecution().getId(), 
-                        waitState.getNodeId());
-            } catch (Exception e) {
-                log.error("Error handling timeout for wait state: id={}", waitState.getId(), e);
-            }
-        }
-    }
 }
-
@@ -0,0 +1,64 @@
+package com.notificationplatform.service.waitstate;
+
+import com.notificationplatform.entity.ExecutionWaitState;
+import com.notificationplatform.repository.ExecutionWaitStateRepository;
+import com.notificationplatform.service.eventaggregation.EventAggregationService;
+import com.notificationplatform.service.execution.ExecutionResumeService;
+import com.notificationplatform.service.timer.TimerHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fires wait states when their expiresAt is reached.
+ * A DELAY wait state resumes its execution; any other wait state times out according to its node's
+ * onTimeout behavior.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WaitStateTimerHandler implements TimerHandler {
+
+    public static final String TIMER_TYPE = "wait-state";
+
+    private final ExecutionWaitStateRepository waitStateRepository;
+    private final EventAggregationService eventAggregationService;
+    private final ExecutionResumeService executionResumeService;
+
+    @Override
+    public String getTimerType() {
+        return TIMER_TYPE;
+    }
+
+    @Override
+    public void onTimer(String waitStateId) {
+        ExecutionWaitState waitState = waitStateRepository.findById(waitStateId).orElse(null);
+        if (waitState == null || !"waiting".equals(waitState.getStatus())) {
+            log.debug("Wait state no longer waiting, ignoring timer: waitStateId={}", waitStateId);
+            return;
+        }
+        if (waitState.getExpiresAt() != null && waitState.getExpiresAt().isAfter(LocalDateTime.now().plusSeconds(1))) {
+            // Expiry was moved later, the timer for the new time will fire
+            return;
+        }
+
+        if ("DELAY".equals(waitState.getWaitType())) {
+            executionResumeService.resumeDelay(waitStateId);
+        } else {
+            eventAggregationService.handleTimeout(waitState.getExecution().getId(), waitState.getNodeId());
+        }
+    }
+
+    @Override
+    public Map<String, LocalDateTime> findPendingTimers(LocalDateTime dueBefore) {
+        Map<String, LocalDateTime> timers = new LinkedHashMap<>();
+        for (ExecutionWaitState waitState : waitStateRepository.findByExpiresAtLessThanEqualAndStatus(dueBefore, "waiting")) {
+            timers.put(waitState.getId(), waitState.getExpiresAt());
+        }
+        return timers;
+    }
+}
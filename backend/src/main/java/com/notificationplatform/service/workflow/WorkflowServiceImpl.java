@@ -17,6 +17,7 @@ import com.notificationplatform.entity.Execution;
 import com.notificationplatform.entity.Workflow;
 import com.notificationplatform.exception.ResourceNotFoundException;
 import com.notificationplatform.repository.WorkflowRepository;
+import com.notificationplatform.service.trigger.WorkflowTriggerIndex;
 import com.notificationplatform.service.trigger.handler.TriggerHandlerRegistry;
 
 
@@ -42,19 +43,22 @@ public class WorkflowServiceImpl implements WorkflowService {
     private final WorkflowExecutor workflowExecutor;
     private final TriggerRepository triggerRepository;
     private final TriggerHandlerRegistry triggerHandlerRegistry;
+    private final WorkflowTriggerIndex workflowTriggerIndex;
 
     public WorkflowServiceImpl(WorkflowRepository workflowRepository,
                               WorkflowMapper workflowMapper,
                               WorkflowValidator workflowValidator,
                               WorkflowExecutor workflowExecutor,
                               TriggerRepository triggerRepository,
-                              TriggerHandlerRegistry triggerHandlerRegistry) {
+                              TriggerHandlerRegistry triggerHandlerRegistry,
+                              WorkflowTriggerIndex workflowTriggerIndex) {
         this.workflowRepository = workflowRepository;
         this.workflowMapper = workflowMapper;
         this.workflowValidator = workflowValidator;
         this.workflowExecutor = workflowExecutor;
         this.triggerRepository = triggerRepository;
         this.triggerHandlerRegistry = triggerHandlerRegistry;
+        this.workflowTriggerIndex = workflowTriggerIndex;
     }
 
     @Override
@@ -70,6 +74,7 @@ public class WorkflowServiceImpl implements WorkflowService {
 
         // Save
         Workflow saved = workflowRepository.save(workflow);
+        workflowTriggerIndex.onWorkflowChanged(saved);
         return workflowMapper.toResponse(saved);
     }
 
@@ -140,6 +145,7 @@ public class WorkflowServiceImpl implements WorkflowService {
 
         // Save
         Workflow saved = workflowRepository.save(workflow);
+        workflowTriggerIndex.onWorkflowChanged(saved);
         return workflowMapper.toResponse(saved);
     }
 
@@ -152,6 +158,7 @@ public class WorkflowServiceImpl implements WorkflowService {
         // Soft delete
         workflow.setDeletedAt(LocalDateTime.now());
         workflowRepository.save(workflow);
+        workflowTriggerIndex.onWorkflowChanged(workflow);
     }
 
     @Override
@@ -235,6 +242,7 @@ public class WorkflowServiceImpl implements WorkflowService {
         activateWorkflowTriggers(workflow);
         
         Workflow saved = workflowRepository.save(workflow);
+        workflowTriggerIndex.onWorkflowChanged(saved);
         return workflowMapper.toResponse(saved);
     }
 
@@ -254,6 +262,7 @@ public class WorkflowServiceImpl implements WorkflowService {
         deactivateWorkflowTriggers(workflow);
         
         Workflow saved = workflowRepository.save(workflow);
+        workflowTriggerIndex.onWorkflowChanged(saved);
         return workflowMapper.toResponse(saved);
     }
 
@@ -275,6 +284,7 @@ public class WorkflowServiceImpl implements WorkflowService {
         updateTriggerInstancesRuntimeState(workflow, "PAUSED", null);
         
         Workflow saved = workflowRepository.save(workflow);
+        workflowTriggerIndex.onWorkflowChanged(saved);
         return workflowMapper.toResponse(saved);
     }
 
@@ -296,6 +306,7 @@ public class WorkflowServiceImpl implements WorkflowService {
         updateTriggerInstancesRuntimeState(workflow, "ACTIVE", null);
         
         Workflow saved = workflowRepository.save(workflow);
+        workflowTriggerIndex.onWorkflowChanged(saved);
         return workflowMapper.toResponse(saved);
     }
 
@@ -2,12 +2,13 @@ package com.notificationplatform.service.workflowreport;
 
 import com.notificationplatform.entity.WorkflowReport;
 import com.notificationplatform.repository.WorkflowReportRepository;
-
-
+import com.notificationplatform.service.claim.BatchClaimRunner;
+import com.notificationplatform.service.claim.ClaimableWork;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -15,18 +16,40 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Scheduled job for automatic workflow report generation
  * Runs every minute to check for due reports
+ *
+ * Due reports are claimed in batches through {@link BatchClaimRunner}. Claiming moves a report's next
+ * generation time forward by the claim lease, so a report whose generation fails or whose instance dies
+ * is tried again after the lease rather than on every run.
  */
 @Slf4j
 @Component
-public class WorkflowReportScheduler {
+public class WorkflowReportScheduler implements ClaimableWork<WorkflowReportScheduler.DueReport> {
 
     private final WorkflowReportRepository workflowReportRepository;
     private final WorkflowReportService workflowReportService;
+    private final BatchClaimRunner batchClaimRunner;
+
+    @Value("${app.workflow-report.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.workflow-report.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.workflow-report.claim-lease-ms:900000}")
+    private long claimLeaseMs;
+
+    /**
+     * A claimed report
+     */
+    record DueReport(String reportId, String workflowId, String name) {
+    }
 
     public WorkflowReportScheduler(WorkflowReportRepository workflowReportRepository,
-                                   WorkflowReportService workflowReportService) {
+                                   WorkflowReportService workflowReportService,
+                                   BatchClaimRunner batchClaimRunner) {
         this.workflowReportRepository = workflowReportRepository;
         this.workflowReportService = workflowReportService;
+        this.batchClaimRunner = batchClaimRunner;
     }
 
     /**
@@ -34,43 +57,56 @@ public class WorkflowReportScheduler {
      * Runs every minute to check for reports that need to be generated
      */
     @Scheduled(fixedRate = 60000) // Check every minute
-    @Transactional
     public void processDueReports() {
-        LocalDateTime now = LocalDateTime.now();
-        List<WorkflowReport> dueReports = workflowReportRepository.findDueReports(now);
-
-        if (dueReports.isEmpty()) {
-            return;
-        }
+        batchClaimRunner.drain(this, batchSize, maxBatchesPerRun);
+    }
 
-        log.info("Found {} due workflow reports to process", dueReports.size());
+    @Override
+    public String getWorkName() {
+        return "workflow-report";
+    }
 
-        for (WorkflowReport report : dueReports) {
-            if (!"active".equals(report.getStatus())) {
-                log.debug("Skipping inactive report: workflowId={}, status={}", 
-                           report.getWorkflow().getId(), report.getStatus());
-                continue;
-            }
+    @Override
+    public List<DueReport> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<DueReport> due = workflowReportRepository.findDueForUpdateSkipLocked(now, limit).stream()
+                .map(report -> new DueReport(report.getId(), report.getWorkflow().getId(), report.getName()))
+                .toList();
+        if (!due.isEmpty()) {
+            workflowReportRepository.deferGeneration(due.stream().map(DueReport::reportId).toList(),
+                    now.plus(Duration.ofMillis(claimLeaseMs)));
+        }
+        return due;
+    }
 
-            try {
-                log.info("Generating workflow report: workflowId={}, name={}", 
-                           report.getWorkflow().getId(), report.getName());
-                
-                workflowReportService.generateReport(report.getWorkflow().getId());
-                
-                log.info("Successfully generated workflow report: workflowId={}", 
-                           report.getWorkflow().getId());
-            } catch (Exception e) {
-                log.error("Error generating workflow report: workflowId={}, name={}", 
-                           report.getWorkflow().getId(), report.getName(), e);
-                
-                // Update report with error status
-                report.setLastGeneratedAt(LocalDateTime.now());
-                report.setLastGenerationStatus("failed");
-                report.setLastGenerationError(e.getMessage());
-                workflowReportRepository.save(report);
+    @Override
+    public void process(DueReport report) {
+        try {
+            log.info("Generating workflow report: workflowId={}, name={}", 
+                       report.workflowId(), report.name());
+            
+            // Sets the next generation time on success
+            workflowReportService.generateReport(report.workflowId());
+            
+            log.info("Successfully generated workflow report: workflowId={}", 
+                       report.workflowId());
+        } catch (Exception e) {
+            log.error("Error generating workflow report: workflowId={}, name={}", 
+                       report.workflowId(), report.name(), e);
+            
+            // Update report with error status
+            WorkflowReport failed = workflowReportRepository.findById(report.reportId()).orElse(null);
+            if (failed != null) {
+                failed.setLastGeneratedAt(LocalDateTime.now());
+                failed.setLastGenerationStatus("failed");
+                failed.setLastGenerationError(e.getMessage());
+                workflowReportRepository.save(failed);
             }
         }
     }
-}
 
+    @Override
+    public long countBacklog() {
+        return workflowReportRepository.countDueReports(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,195 @@
+package com.notificationplatform.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Utility for extracting only the referenced parts of a JSON document.
+ *
+ * Paths are collected from MVEL expressions (e.g. {@code _response.body.data.items[0].id}) into a
+ * {@link PathTree}; the document is then read with a streaming parser and every subtree that is not
+ * referenced is skipped without being materialized.
+ */
+public class JsonPathExtractor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private static final String SEGMENT = "(?:\\.[A-Za-z_$][\\w$]*|\\[\\s*(?:\\d+|'[^']*'|\"[^\"]*\")\\s*\\])";
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile(
+            "\\.([A-Za-z_$][\\w$]*)|\\[\\s*(?:(\\d+)|'([^']*)'|\"([^\"]*)\")\\s*\\]");
+
+    /**
+     * Collect the paths below a root variable referenced by the given expressions.
+     * A reference that ends in a method call or a dynamic index captures its parent entirely.
+     *
+     * @param expressions MVEL expressions (with or without @{...} wrappers)
+     * @param rootVariable Root variable name, e.g. "_response"
+     * @return Path tree rooted at the variable (empty if the variable is never referenced)
+     */
+    public static PathTree collectPaths(Collection<String> expressions, String rootVariable) {
+        PathTree root = new PathTree();
+        Pattern reference = Pattern.compile("(?<![\\w$.])" + Pattern.quote(rootVariable) + "(" + SEGMENT + "*)");
+        for (String expression : expressions) {
+            if (expression == null) {
+                continue;
+            }
+            Matcher matcher = reference.matcher(expression);
+            while (matcher.find()) {
+                List<String> segments = parseSegments(matcher.group(1));
+                int end = matcher.end();
+                if (end < expression.length() && expression.charAt(end) == '(' && !segments.isEmpty()) {
+                    // Method call on the last segment, e.g. items.size()
+                    segments.remove(segments.size() - 1);
+                }
+                root.addPath(segments);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Stream a JSON document and keep only the values selected by the path tree.
+     * Arrays keep their elements positionally up to the highest referenced index.
+     *
+     * The extracted root is handed to the sink as soon as it is created and containers are filled
+     * in place, so a caller that catches an exception (e.g. a truncated stream) keeps everything
+     * extracted up to that point.
+     *
+     * @param input JSON input
+     * @param paths Selected paths
+     * @param sink Receives the extracted root (Map, List or scalar); not called for an empty document
+     * @throws IOException On read or parse errors
+     */
+    public static void extract(InputStream input, PathTree paths, Consumer<Object> sink) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(input)) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+            extractValue(parser, paths, sink);
+        }
+    }
+
+    private static void extractValue(JsonParser parser, PathTree node, Consumer<Object> sink) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (node.isCaptureAll() || token.isScalarValue()) {
+            sink.accept(MAPPER.readValue(parser, Object.class));
+            return;
+        }
+
+        if (token == JsonToken.START_OBJECT) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            sink.accept(map);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                PathTree child = node.getChild(name);
+                if (child == null) {
+                    parser.skipChildren();
+                } else {
+                    extractValue(parser, child, value -> map.put(name, value));
+                }
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            List<Object> list = new ArrayList<>();
+            sink.accept(list);
+            int maxIndex = node.getMaxIndex();
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY && parser.currentToken() != null) {
+                PathTree child = index <= maxIndex ? node.getChild(String.valueOf(index)) : null;
+                if (child == null) {
+                    parser.skipChildren();
+                    if (index <= maxIndex) {
+                        list.add(null);
+                    }
+                } else {
+                    extractValue(parser, child, list::add);
+                }
+                index++;
+            }
+        }
+    }
+
+    private static List<String> parseSegments(String chain) {
+        List<String> segments = new ArrayList<>();
+        Matcher matcher = SEGMENT_PATTERN.matcher(chain);
+        while (matcher.find()) {
+            for (int group = 1; group <= 4; group++) {
+                if (matcher.group(group) != null) {
+                    segments.add(matcher.group(group));
+                    break;
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Tree of referenced paths. A node marked capture-all selects its whole subtree.
+     */
+    public static class PathTree {
+
+        private final Map<String, PathTree> children = new HashMap<>();
+        private boolean captureAll;
+        private int maxIndex = -1;
+
+        /**
+         * Whether anything below this node is referenced.
+         */
+        public boolean isReferenced() {
+            return captureAll || !children.isEmpty();
+        }
+
+        public boolean isCaptureAll() {
+            return captureAll;
+        }
+
+        public PathTree getChild(String name) {
+            return captureAll ? this : children.get(name);
+        }
+
+        /**
+         * Names of referenced children (empty when the whole subtree is captured).
+         */
+        public Collection<String> getChildNames() {
+            return children.keySet();
+        }
+
+        int getMaxIndex() {
+            return captureAll ? Integer.MAX_VALUE : maxIndex;
+        }
+
+        /**
+         * Add a path; its last segment captures the whole subtree.
+         * An empty path captures everything.
+         */
+        public void addPath(List<String> segments) {
+            PathTree node = this;
+            for (String segment : segments) {
+                if (node.captureAll) {
+                    return;
+                }
+                if (segment.length() < 10 && segment.chars().allMatch(Character::isDigit)) {
+                    node.maxIndex = Math.max(node.maxIndex, Integer.parseInt(segment));
+                }
+                node = node.children.computeIfAbsent(segment, key -> new PathTree());
+            }
+            node.captureAll = true;
+            node.children.clear();
+        }
+    }
+}